@@ -0,0 +1,145 @@
+package com.beneficencia.almacen.benchmarks;
+
+import com.beneficencia.almacen.model.OrdenAbastecimiento;
+import com.beneficencia.almacen.model.OrdenAbastecimientoItem;
+import com.beneficencia.almacen.model.Producto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Grafos de Producto y órdenes de abastecimiento generados con semilla fija, para que
+ * todas las corridas midan exactamente los mismos datos.
+ */
+public final class DatosSinteticos {
+
+    public static final String[] CATEGORIAS = {
+            "Medicamentos", "Insumos Médicos", "Limpieza", "Alimentos", "Material Oficina", "Otros"
+    };
+
+    private static final String[] NOMBRES = {
+            "Juan", "José", "Luis", "Carlos", "Jorge", "Miguel", "Pedro", "Víctor", "César", "Javier",
+            "María", "Rosa", "Ana", "Carmen", "Luz", "Julia", "Gladys", "Elena", "Yolanda", "Isabel"
+    };
+
+    private static final String[] APELLIDOS = {
+            "Quispe", "Flores", "Sánchez", "Rodríguez", "García", "Huamán", "Mamani", "Chávez", "Vásquez", "Ramírez",
+            "Torres", "Rojas", "Castillo", "Mendoza", "Gutiérrez", "Ccahuana", "Villanueva", "Zegarra", "Jiménez", "Llanos"
+    };
+
+    private DatosSinteticos() {
+    }
+
+    /**
+     * Beneficiarios en arreglos paralelos, como los lee DuplicadoService. Una fracción
+     * de ellos es copia de un registro anterior con un error típico de digitación:
+     * un dígito del DNI cambiado o dos vecinos intercambiados, una letra del nombre
+     * con otra grafía (v/b, s/z, y/ll) o el segundo nombre pasado a los apellidos.
+     */
+    public static final class Beneficiarios {
+        public final long[] ids;
+        public final String[] dnis;
+        public final String[] nombres;
+        public final String[] apellidos;
+        /** Pares plantados como [idOriginal, idCopia]. */
+        public final List<long[]> duplicados = new ArrayList<>();
+
+        private Beneficiarios(int cantidad) {
+            ids = new long[cantidad];
+            dnis = new String[cantidad];
+            nombres = new String[cantidad];
+            apellidos = new String[cantidad];
+        }
+    }
+
+    public static Beneficiarios beneficiarios(int cantidad, double fraccionDuplicados, long semilla) {
+        Random random = new Random(semilla);
+        Beneficiarios datos = new Beneficiarios(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            datos.ids[i] = i + 1;
+            if (i > 0 && random.nextDouble() < fraccionDuplicados) {
+                int original = random.nextInt(i);
+                copiarConError(datos, original, i, random);
+                datos.duplicados.add(new long[]{datos.ids[original], datos.ids[i]});
+                continue;
+            }
+            datos.dnis[i] = String.format("%08d", 10_000_000 + random.nextInt(80_000_000));
+            String nombre = NOMBRES[random.nextInt(NOMBRES.length)];
+            datos.nombres[i] = random.nextBoolean() ? nombre : nombre + " " + NOMBRES[random.nextInt(NOMBRES.length)];
+            datos.apellidos[i] = APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+        }
+        return datos;
+    }
+
+    private static void copiarConError(Beneficiarios datos, int original, int copia, Random random) {
+        char[] dni = datos.dnis[original].toCharArray();
+        String nombres = datos.nombres[original];
+        String apellidos = datos.apellidos[original];
+        switch (random.nextInt(4)) {
+            case 0 -> dni[random.nextInt(dni.length)] = (char) ('0' + random.nextInt(10));
+            case 1 -> {
+                int d = random.nextInt(dni.length - 1);
+                char digito = dni[d];
+                dni[d] = dni[d + 1];
+                dni[d + 1] = digito;
+            }
+            case 2 -> {
+                apellidos = apellidos.replaceFirst("v", "b").replaceFirst("z", "s").replaceFirst("ll", "y");
+                nombres = nombres.replaceFirst("V", "B").replaceFirst("é", "e");
+            }
+            default -> {
+                int espacio = nombres.indexOf(' ');
+                if (espacio > 0) {
+                    apellidos = nombres.substring(espacio + 1) + " " + apellidos;
+                    nombres = nombres.substring(0, espacio);
+                }
+            }
+        }
+        datos.dnis[copia] = new String(dni);
+        datos.nombres[copia] = nombres;
+        datos.apellidos[copia] = apellidos;
+    }
+
+    public static List<Producto> productos(int cantidad, long semilla) {
+        Random random = new Random(semilla);
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Producto producto = new Producto();
+            producto.setId((long) i);
+            producto.setCodigo(String.format("PRD-%05d", i));
+            producto.setNombre("Producto sintético " + i);
+            // Categorías sesgadas: las primeras concentran más productos
+            producto.setCategoria(CATEGORIAS[Math.min(CATEGORIAS.length - 1, (int) (-Math.log(1 - random.nextDouble()) * 1.5))]);
+            producto.setUnidadMedida("Unidad");
+            producto.setStockMinimo(5 + random.nextInt(20));
+            // Un 15 % sin stock o con stock bajo, como en un almacén real
+            producto.setCantidad(random.nextInt(100) < 15 ? random.nextInt(10) : 20 + random.nextInt(2000));
+            producto.setPrecioUnitario(BigDecimal.valueOf(50 + random.nextInt(50_000), 2));
+            if (random.nextBoolean()) {
+                producto.setFechaVencimiento(LocalDate.now().plusDays(random.nextInt(720)));
+            }
+            productos.add(producto);
+        }
+        return productos;
+    }
+
+    public static OrdenAbastecimiento ordenAbastecimiento(List<Producto> productos, int items, long semilla) {
+        Random random = new Random(semilla);
+        OrdenAbastecimiento orden = new OrdenAbastecimiento();
+        orden.setTipoOrden(OrdenAbastecimiento.TipoOrden.ALIMENTOS);
+        orden.setFechaOA(LocalDate.now());
+        for (int i = 0; i < items; i++) {
+            Producto producto = productos.get(random.nextInt(productos.size()));
+            OrdenAbastecimientoItem item = new OrdenAbastecimientoItem();
+            item.setProducto(producto);
+            item.setCantidad(1 + random.nextInt(500));
+            item.setPrecioUnitario(producto.getPrecioUnitario());
+            item.setSubtotal(producto.getPrecioUnitario().multiply(BigDecimal.valueOf(item.getCantidad())));
+            item.conectarAOrden(orden);
+        }
+        return orden;
+    }
+}
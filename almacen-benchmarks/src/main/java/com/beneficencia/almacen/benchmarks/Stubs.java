@@ -0,0 +1,63 @@
+package com.beneficencia.almacen.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Arma los servicios sin levantar Spring: repositorios e interfaces se reemplazan
+ * por proxies que responden solo los métodos que el código medido usa, y los campos
+ * @Autowired se asignan por reflexión.
+ */
+public final class Stubs {
+
+    private Stubs() {
+    }
+
+    /**
+     * Implementación de la interfaz que atiende los métodos indicados por nombre.
+     * Cualquier otro método lanza UnsupportedOperationException para que un cambio en
+     * el código medido no pase desapercibido.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T de(Class<T> interfaz, Map<String, Function<Object[], Object>> respuestas) {
+        return (T) Proxy.newProxyInstance(interfaz.getClassLoader(), new Class<?>[]{interfaz}, (proxy, metodo, args) -> {
+            Function<Object[], Object> respuesta = respuestas.get(metodo.getName());
+            if (respuesta != null) return respuesta.apply(args);
+            return switch (metodo.getName()) {
+                case "toString" -> "Stub " + interfaz.getSimpleName();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(interfaz.getSimpleName() + "." + metodo.getName());
+            };
+        });
+    }
+
+    public static void inyectar(Object destino, String campo, Object valor) {
+        Class<?> tipo = destino.getClass();
+        while (tipo != null) {
+            try {
+                Field field = tipo.getDeclaredField(campo);
+                field.setAccessible(true);
+                field.set(destino, valor);
+                return;
+            } catch (NoSuchFieldException e) {
+                tipo = tipo.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("Campo no encontrado: " + campo);
+    }
+
+    /**
+     * El código de la aplicación escribe trazas con System.out en cada item. Se
+     * descartan para medir el armado de esos textos pero no la escritura en consola.
+     */
+    public static void silenciarConsola() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.benchmarks.DatosSinteticos;
+import com.beneficencia.almacen.benchmarks.Stubs;
+import com.beneficencia.almacen.model.OrdenAbastecimientoItem;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * El bucle por línea de OrdenAbastecimientoController.procesarItemsParaController:
+ * validación, búsqueda del producto (en memoria) y armado del item, con un 5 % de
+ * líneas duplicadas como las que deja el formulario al repetir un producto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProcesarItemsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int lineas;
+
+    private OrdenAbastecimientoController controlador;
+    private List<Long> productoIds;
+    private List<Integer> cantidades;
+    private List<BigDecimal> precios;
+    private List<LocalDate> vencimientos;
+
+    @Setup
+    public void preparar() {
+        Stubs.silenciarConsola();
+        List<Producto> catalogo = DatosSinteticos.productos(Math.max(lineas, 100), 42);
+        Map<Long, Producto> porId = catalogo.stream().collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        controlador = new OrdenAbastecimientoController();
+        Stubs.inyectar(controlador, "productoService", Stubs.de(ProductoService.class, Map.of(
+                "obtenerProductoPorId", args -> Optional.ofNullable(porId.get((Long) args[0])))));
+
+        Random random = new Random(7);
+        productoIds = new ArrayList<>(lineas);
+        cantidades = new ArrayList<>(lineas);
+        precios = new ArrayList<>(lineas);
+        vencimientos = new ArrayList<>(lineas);
+        for (int i = 0; i < lineas; i++) {
+            long id = random.nextInt(100) < 5 && i > 0 ? productoIds.get(random.nextInt(i)) : i + 1;
+            productoIds.add(id);
+            cantidades.add(1 + random.nextInt(500));
+            precios.add(BigDecimal.valueOf(50 + random.nextInt(50_000), 2));
+            vencimientos.add(random.nextBoolean() ? LocalDate.now().plusDays(random.nextInt(720)) : null);
+        }
+    }
+
+    @Benchmark
+    public List<OrdenAbastecimientoItem> procesarItems() {
+        return controlador.procesarItemsParaController(productoIds, cantidades, precios, vencimientos);
+    }
+}
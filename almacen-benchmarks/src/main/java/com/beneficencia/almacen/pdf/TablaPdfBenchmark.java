@@ -0,0 +1,125 @@
+package com.beneficencia.almacen.pdf;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.FontFactory;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reporte de inventario (5 columnas, estado con color) armado como antes, con
+ * fuentes, colores y celdas nuevas por cada celda y la tabla entera en memoria,
+ * frente a TablaPdf. El PDF se descarta. Con -prof gc, gc.alloc.rate.norm dividido
+ * por filas da los bytes asignados por fila.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class TablaPdfBenchmark {
+
+    private static final String[] ESTADOS = {"NORMAL", "STOCK BAJO", "SIN DATOS"};
+
+    private static final ColumnaPdf[] COLUMNAS = {
+            ColumnaPdf.texto("Nombre Producto", 35f),
+            ColumnaPdf.centrada("Código", 15f),
+            ColumnaPdf.centrada("Cantidad", 15f),
+            ColumnaPdf.centrada("Grupo", 15f),
+            ColumnaPdf.centrada("Estado", 20f)
+    };
+
+    private static final EstiloCelda ESTADO = EstiloCelda.CENTRADO.conFuente(EstilosPdf.NEGRITA_PEQUENA);
+    private static final EstiloCelda[] ESTILOS_ESTADO = {
+            ESTADO.conFondo(EstilosPdf.VERDE_SUAVE),
+            ESTADO.conFondo(EstilosPdf.ROJO_SUAVE),
+            ESTADO.conFondo(EstilosPdf.GRIS_SUAVE)
+    };
+
+    @Param({"1000", "10000", "50000"})
+    private int filas;
+
+    /** Como ReporteService antes de TablaPdf. */
+    @Benchmark
+    public int celdasSueltas() throws DocumentException {
+        Document documento = abrir();
+        PdfPTable table = new PdfPTable(5);
+        table.setWidthPercentage(100);
+        table.setWidths(new float[]{35f, 15f, 15f, 15f, 20f});
+        for (ColumnaPdf columna : COLUMNAS) {
+            PdfPCell header = new PdfPCell();
+            header.setBackgroundColor(BaseColor.LIGHT_GRAY);
+            header.setBorderWidth(1);
+            header.setPhrase(new Phrase(columna.titulo()));
+            header.setHorizontalAlignment(Element.ALIGN_CENTER);
+            header.setPadding(5);
+            table.addCell(header);
+        }
+        for (int i = 0; i < filas; i++) {
+            PdfPCell nombre = new PdfPCell(new Phrase("Producto " + i));
+            nombre.setPadding(5);
+            table.addCell(nombre);
+            for (String valor : new String[]{"P" + i, String.valueOf(i % 500), "Grupo " + i % 20}) {
+                PdfPCell celda = new PdfPCell(new Phrase(valor));
+                celda.setPadding(5);
+                celda.setHorizontalAlignment(Element.ALIGN_CENTER);
+                table.addCell(celda);
+            }
+            String estado = ESTADOS[i % 3];
+            PdfPCell celdaEstado = new PdfPCell(new Phrase(estado));
+            celdaEstado.setPadding(5);
+            celdaEstado.setHorizontalAlignment(Element.ALIGN_CENTER);
+            celdaEstado.setBackgroundColor(new BaseColor(200, 255, 200));
+            celdaEstado.setPhrase(new Phrase(estado, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, BaseColor.BLACK)));
+            table.addCell(celdaEstado);
+        }
+        documento.add(table);
+        return cerrar(documento);
+    }
+
+    @Benchmark
+    public int tablaPdf() throws DocumentException {
+        Document documento = abrir();
+        TablaPdf tabla = new TablaPdf(documento, COLUMNAS);
+        for (int i = 0; i < filas; i++) {
+            tabla.celda("Producto " + i)
+                    .celda("P" + i)
+                    .celda(String.valueOf(i % 500))
+                    .celda("Grupo " + i % 20)
+                    .celda(ESTADOS[i % 3], ESTILOS_ESTADO[i % 3]);
+        }
+        tabla.terminar();
+        return cerrar(documento);
+    }
+
+    private static Document abrir() throws DocumentException {
+        Document documento = new Document();
+        PdfWriter.getInstance(documento, OutputStream.nullOutputStream());
+        documento.open();
+        return documento;
+    }
+
+    private static int cerrar(Document documento) {
+        int paginas = documento.getPageNumber();
+        documento.close();
+        return paginas;
+    }
+}
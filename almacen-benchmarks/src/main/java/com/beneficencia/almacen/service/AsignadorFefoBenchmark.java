@@ -0,0 +1,64 @@
+package com.beneficencia.almacen.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asignación FEFO sobre un producto con miles de lotes abiertos. Cada operación
+ * asigna una cantidad que cruza varios lotes y la devuelve, así la cola vuelve al
+ * mismo estado y el tamaño medido se mantiene.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsignadorFefoBenchmark {
+
+    private static final long PRODUCTO = 1L;
+
+    @Param({"100", "1000", "10000"})
+    private int lotes;
+
+    @Param({"1", "25"})
+    private int cantidad;
+
+    private AsignadorFefo asignador;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        List<AsignadorFefo.LoteDisponible> disponibles = new ArrayList<>(lotes);
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < lotes; i++) {
+            disponibles.add(new AsignadorFefo.LoteDisponible(i + 1, hoy.plusDays(random.nextInt(720)), 1 + random.nextInt(20)));
+        }
+        asignador = new AsignadorFefo();
+        asignador.cargar(PRODUCTO, disponibles);
+    }
+
+    @Benchmark
+    public int asignarYDevolver() {
+        List<AsignadorFefo.Asignacion> asignaciones = asignador.asignar(PRODUCTO, cantidad);
+        for (AsignadorFefo.Asignacion asignacion : asignaciones) {
+            asignador.devolver(PRODUCTO, asignacion.getLoteId(), asignacion.getFechaVencimiento(), asignacion.getCantidad());
+        }
+        return asignaciones.size();
+    }
+}
@@ -0,0 +1,85 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.benchmarks.DatosSinteticos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pasada completa del detector de duplicados (preparar + todas las particiones) sobre
+ * beneficiarios sintéticos con un 2 % de duplicados plantados; con 1.000.000 de
+ * registros reproduce los tiempos del trabajo semanal. Cada corrida es larga, así
+ * que se mide por disparo. Al terminar se imprime qué parte de los pares plantados
+ * se encontró.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class DetectorDuplicadosBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int registros;
+
+    @Param({"8"})
+    private int particiones;
+
+    @Param({"0"})
+    private int hilos;
+
+    private DatosSinteticos.Beneficiarios datos;
+    private ForkJoinPool pool;
+    private DetectorDuplicados detector;
+    private final Set<Long> encontrados = new HashSet<>();
+
+    @Setup
+    public void preparar() {
+        datos = DatosSinteticos.beneficiarios(registros, 0.02, 42);
+        pool = new ForkJoinPool(hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors());
+        // Los mismos valores que application.properties
+        detector = new DetectorDuplicados(pool, 0.8, 64);
+    }
+
+    @TearDown
+    public void cerrar() {
+        int plantados = 0;
+        for (long[] par : datos.duplicados) {
+            if (encontrados.contains(par[0] << 32 | par[1])) plantados++;
+        }
+        System.out.printf("%nDuplicados plantados encontrados: %d de %d (%d pares en total)%n",
+                plantados, datos.duplicados.size(), encontrados.size());
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int pasadaCompleta() {
+        DetectorDuplicados.Registros preparados = detector.preparar(datos.ids, datos.dnis, datos.nombres, datos.apellidos);
+        int pares = 0;
+        encontrados.clear();
+        for (int particion = 0; particion < particiones; particion++) {
+            List<DetectorDuplicados.Par> encontradosParticion = detector.detectar(preparados, particion, particiones);
+            for (DetectorDuplicados.Par par : encontradosParticion) {
+                encontrados.add(par.getBeneficiarioAId() << 32 | par.getBeneficiarioBId());
+            }
+            pares += encontradosParticion.size();
+        }
+        return pares;
+    }
+}
@@ -0,0 +1,60 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.benchmarks.DatosSinteticos;
+import com.beneficencia.almacen.benchmarks.Stubs;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductoServiceImpl.obtenerEstadisticasInventario: las agregaciones con streams
+ * sobre todo el catálogo. El repositorio devuelve la lista ya en memoria, así que se
+ * mide solo el trabajo de CPU (incluida la segunda pasada de obtenerTodasLasCategorias).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EstadisticasInventarioBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int productos;
+
+    private ProductoServiceImpl servicio;
+
+    @Setup
+    public void preparar() {
+        List<Producto> catalogo = DatosSinteticos.productos(productos, 42);
+        List<Producto> stockBajo = catalogo.stream()
+                .filter(p -> AlertaStockIndex.esStockBajo(p.getCantidad(), p.getStockMinimo()))
+                .toList();
+
+        servicio = new ProductoServiceImpl();
+        Stubs.inyectar(servicio, "productoRepository", Stubs.de(ProductoRepository.class, Map.of(
+                "findAll", args -> catalogo,
+                "findProductosConStockBajo", args -> stockBajo)));
+        // Índice sin cargar: el servicio usa la consulta del repositorio
+        Stubs.inyectar(servicio, "alertaStockIndex", new AlertaStockIndex());
+    }
+
+    @Benchmark
+    public Map<String, Object> obtenerEstadisticasInventario() {
+        return servicio.obtenerEstadisticasInventario();
+    }
+}
@@ -0,0 +1,59 @@
+package com.beneficencia.almacen.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de la actualización incremental del pronóstico por item de salida y de
+ * consultar el pronóstico de un producto. La reconstrucción completa con 10k
+ * productos x 5 años se mide con ReconstruccionPronosticosBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModeloPronosticoBenchmark {
+
+    private ModeloPronostico modelo;
+    private LocalDate fecha;
+    private int contador;
+
+    @Setup
+    public void preparar() {
+        modelo = new ModeloPronostico(0.3, 0.2);
+        fecha = LocalDate.now().minusYears(5);
+        for (int i = 0; i < 5 * 365; i++) {
+            modelo.registrar(fecha.plusDays(i), 10);
+        }
+        fecha = fecha.plusDays(5 * 365);
+    }
+
+    @Benchmark
+    public void registrarItem() {
+        // Avanza un día cada 100 items: la mayoría solo acumula y algunos cierran mes
+        if (++contador % 100 == 0) {
+            fecha = fecha.plusDays(1);
+        }
+        modelo.registrar(fecha, 3);
+    }
+
+    @Benchmark
+    public List<Double> pronosticarTresMeses() {
+        return modelo.pronosticar(YearMonth.from(fecha), 3);
+    }
+}
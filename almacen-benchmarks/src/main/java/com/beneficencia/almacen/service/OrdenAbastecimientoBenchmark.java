@@ -0,0 +1,61 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.benchmarks.DatosSinteticos;
+import com.beneficencia.almacen.benchmarks.Stubs;
+import com.beneficencia.almacen.model.OrdenAbastecimiento;
+import com.beneficencia.almacen.model.Producto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrdenAbastecimientoService.calcularTotal y validarItemsOrden, que corren en cada
+ * guardado de orden, con órdenes de distinto tamaño.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrdenAbastecimientoBenchmark {
+
+    @Param({"5", "50", "500"})
+    private int items;
+
+    private OrdenAbastecimientoService servicio;
+    private OrdenAbastecimiento orden;
+
+    @Setup
+    public void preparar() {
+        Stubs.silenciarConsola();
+        List<Producto> productos = DatosSinteticos.productos(1000, 42);
+        orden = DatosSinteticos.ordenAbastecimiento(productos, items, 7);
+        servicio = new OrdenAbastecimientoService();
+    }
+
+    @Benchmark
+    public BigDecimal calcularTotal() {
+        servicio.calcularTotal(orden);
+        return orden.getTotal();
+    }
+
+    @Benchmark
+    public int validarItemsOrden() {
+        // Todos los items son válidos, así que la lista filtrada queda igual en cada llamada
+        servicio.validarItemsOrden(orden);
+        return orden.getItems().size();
+    }
+}
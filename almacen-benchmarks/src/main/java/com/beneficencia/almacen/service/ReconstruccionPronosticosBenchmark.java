@@ -0,0 +1,78 @@
+package com.beneficencia.almacen.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconstrucción completa de los pronósticos desde el historial: por defecto 10.000
+ * productos con 5 años de consumo diario (unas 18 millones de observaciones), con un
+ * hilo y con todos los núcleos (hilos=0).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReconstruccionPronosticosBenchmark {
+
+    @Param({"10000"})
+    private int productos;
+
+    @Param({"5"})
+    private int anios;
+
+    @Param({"1", "0"})
+    private int hilos;
+
+    private List<ReconstructorPronosticos.Serie<Long>> series;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void preparar() {
+        LocalDate inicio = LocalDate.now().minusYears(anios);
+        int dias = (int) (LocalDate.now().toEpochDay() - inicio.toEpochDay());
+        Random random = new Random(42);
+        series = new ArrayList<>(productos);
+        for (long p = 0; p < productos; p++) {
+            // Demanda base sesgada: pocos productos concentran la mayor parte de las salidas
+            double base = 50.0 / (1 + p % 500);
+            ReconstructorPronosticos.Serie<Long> serie = new ReconstructorPronosticos.Serie<>(p, dias);
+            for (int d = 0; d < dias; d++) {
+                LocalDate fecha = inicio.plusDays(d);
+                double estacion = 1 + 0.3 * Math.sin(2 * Math.PI * (fecha.getMonthValue() - 1) / 12.0);
+                serie.agregar(fecha, Math.max(0, Math.round(base * estacion * (0.5 + random.nextDouble()))));
+            }
+            series.add(serie);
+        }
+        pool = new ForkJoinPool(hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void cerrar() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<Long, ModeloPronostico> reconstruir() {
+        return new ReconstructorPronosticos(pool, 0.3, 0.2).reconstruir(series);
+    }
+}
@@ -0,0 +1,54 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.benchmarks.DatosSinteticos;
+import com.beneficencia.almacen.benchmarks.Stubs;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReporteService.generarReporteInventario: cinco PdfPCell por producto más fuentes
+ * y colores por fila. Con -prof gc se ve la asignación por producto exportado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ReporteInventarioBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    private int productos;
+
+    private ReporteService servicio;
+
+    @Setup
+    public void preparar() {
+        List<Producto> catalogo = DatosSinteticos.productos(productos, 42);
+        servicio = new ReporteService();
+        Stubs.inyectar(servicio, "productoRepository", Stubs.de(ProductoRepository.class, Map.of(
+                "findAll", args -> catalogo)));
+    }
+
+    @Benchmark
+    public int generarReporteInventario() {
+        ByteArrayInputStream pdf = servicio.generarReporteInventario();
+        return pdf.available();
+    }
+}
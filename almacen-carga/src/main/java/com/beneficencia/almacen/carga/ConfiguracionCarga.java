@@ -0,0 +1,113 @@
+package com.beneficencia.almacen.carga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parámetros de una corrida, leídos de argumentos --clave=valor.
+ *
+ * Sin --url la aplicación se levanta en este proceso contra --db-url y se cargan
+ * datos semilla; con --url se usa una instancia ya levantada (más fiel para
+ * comparar versiones, porque el generador de carga no comparte la JVM).
+ */
+public class ConfiguracionCarga {
+
+    static final String MEZCLA_POR_DEFECTO = "buscar=40,salida=20,dashboard=20,estadisticas=10,pdf=10";
+
+    private final Map<String, String> valores = new HashMap<>();
+
+    public ConfiguracionCarga(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento no válido: " + arg + " (se espera --clave=valor)");
+            }
+            int igual = arg.indexOf('=');
+            valores.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+    }
+
+    public String getUrl() { return texto("url", ""); }
+
+    public boolean levantarAplicacion() { return getUrl().isBlank(); }
+
+    public String getDbUrl() {
+        return texto("db-url", "jdbc:mysql://localhost:3306/almacen_carga?createDatabaseIfNotExist=true" +
+                "&useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true");
+    }
+
+    public String getDbUsuario() { return texto("db-usuario", "root"); }
+
+    public String getDbClave() { return texto("db-clave", ""); }
+
+    public String getUsuario() { return texto("usuario", "carga"); }
+
+    public String getClave() { return texto("clave", "carga123"); }
+
+    /** Usuarios virtuales concurrentes. */
+    public int getUsuarios() { return entero("usuarios", 20); }
+
+    public int getDuracionSegundos() { return entero("duracion", 60); }
+
+    /** Segundos iniciales que se ejecutan pero no se miden. */
+    public int getCalentamientoSegundos() { return entero("calentamiento", 10); }
+
+    /** Pausa entre operaciones de un mismo usuario (tiempo de "lectura"). */
+    public int getPausaMs() { return entero("pausa-ms", 0); }
+
+    /** Items por orden de salida. */
+    public int getLineasPorOrden() { return entero("lineas", 3); }
+
+    public int getProductosSemilla() { return entero("productos", 200); }
+
+    public int getBeneficiariosSemilla() { return entero("beneficiarios", 500); }
+
+    public long getSemilla() { return Long.parseLong(texto("semilla", "42")); }
+
+    /** Archivo CSV donde guardar el reporte; vacío para solo imprimirlo. */
+    public String getReporte() { return texto("reporte", ""); }
+
+    /** DNIs de beneficiarios existentes, para --url (separados por coma). */
+    public List<String> getDnis() {
+        String dnis = texto("dnis", "");
+        return dnis.isBlank() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(dnis.split(",")));
+    }
+
+    /** Peso de cada escenario, p. ej. buscar=40,salida=20. */
+    public Map<Escenario, Integer> getMezcla() {
+        Map<Escenario, Integer> mezcla = new LinkedHashMap<>();
+        for (String parte : texto("mezcla", MEZCLA_POR_DEFECTO).split(",")) {
+            String[] claveValor = parte.trim().split("=");
+            if (claveValor.length != 2) {
+                throw new IllegalArgumentException("Mezcla no válida: " + parte);
+            }
+            int peso = Integer.parseInt(claveValor[1].trim());
+            if (peso > 0) {
+                mezcla.put(Escenario.desdeNombre(claveValor[0].trim()), peso);
+            }
+        }
+        if (mezcla.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla de escenarios está vacía");
+        }
+        return mezcla;
+    }
+
+    private String texto(String clave, String porDefecto) {
+        return valores.getOrDefault(clave, porDefecto);
+    }
+
+    private int entero(String clave, int porDefecto) {
+        String valor = valores.get(clave);
+        return valor != null ? Integer.parseInt(valor) : porDefecto;
+    }
+
+    @Override
+    public String toString() {
+        return "usuarios=" + getUsuarios() + ", duracion=" + getDuracionSegundos() + "s, calentamiento=" +
+                getCalentamientoSegundos() + "s, pausa=" + getPausaMs() + "ms, mezcla=" + getMezcla() +
+                (levantarAplicacion() ? ", db=" + getDbUrl() : ", url=" + getUrl());
+    }
+}
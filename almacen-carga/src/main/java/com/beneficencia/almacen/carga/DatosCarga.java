@@ -0,0 +1,119 @@
+package com.beneficencia.almacen.carga;
+
+import com.beneficencia.almacen.model.Beneficiario;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.model.Rol;
+import com.beneficencia.almacen.model.Usuario;
+import com.beneficencia.almacen.repository.BeneficiarioRepository;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import com.beneficencia.almacen.repository.RolRepository;
+import com.beneficencia.almacen.repository.UsuarioRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Datos mínimos para que los escenarios funcionen cuando la aplicación se levanta
+ * en este proceso: un usuario ADMIN, productos con stock suficiente para toda la
+ * corrida y beneficiarios con DNI válido. Es idempotente; en cada corrida el stock
+ * de los productos de carga se vuelve a llenar.
+ */
+public class DatosCarga {
+
+    static final String PREFIJO_CODIGO = "CARGA-";
+    static final int STOCK_INICIAL = 1_000_000;
+    private static final int PRIMER_DNI = 90_000_000;
+
+    private static final String[] CATEGORIAS = {
+            "Medicamentos", "Insumos Médicos", "Limpieza", "Alimentos", "Material Oficina", "Otros"
+    };
+
+    private final ApplicationContext contexto;
+    private final ConfiguracionCarga configuracion;
+
+    public DatosCarga(ApplicationContext contexto, ConfiguracionCarga configuracion) {
+        this.contexto = contexto;
+        this.configuracion = configuracion;
+    }
+
+    /** Crea lo que falte y devuelve los ids de productos y los DNIs a usar. */
+    public Map.Entry<List<Long>, List<String>> preparar() {
+        prepararUsuario();
+        List<Long> productos = prepararProductos();
+        List<String> dnis = prepararBeneficiarios();
+        System.out.println("Datos de carga listos: " + productos.size() + " productos, " + dnis.size() + " beneficiarios");
+        return Map.entry(productos, dnis);
+    }
+
+    private void prepararUsuario() {
+        UsuarioRepository usuarios = contexto.getBean(UsuarioRepository.class);
+        if (usuarios.existsByUsername(configuracion.getUsuario())) return;
+
+        RolRepository roles = contexto.getBean(RolRepository.class);
+        Rol admin = roles.findByNombre("ADMIN").orElseGet(() -> roles.save(new Rol("ADMIN")));
+
+        Usuario usuario = new Usuario(configuracion.getUsuario(),
+                contexto.getBean(PasswordEncoder.class).encode(configuracion.getClave()),
+                "Prueba", "Carga");
+        usuario.setRoles(Set.of(admin));
+        usuarios.save(usuario);
+    }
+
+    private List<Long> prepararProductos() {
+        ProductoRepository repositorio = contexto.getBean(ProductoRepository.class);
+        Random random = new Random(configuracion.getSemilla());
+        List<Producto> guardar = new ArrayList<>();
+
+        for (int i = 1; i <= configuracion.getProductosSemilla(); i++) {
+            String codigo = PREFIJO_CODIGO + String.format("%05d", i);
+            Producto producto = repositorio.findByCodigo(codigo).orElse(null);
+            if (producto == null) {
+                producto = new Producto();
+                producto.setCodigo(codigo);
+                producto.setNombre("Producto de carga " + i);
+                producto.setCategoria(CATEGORIAS[i % CATEGORIAS.length]);
+                producto.setUnidadMedida("Unidad");
+                producto.setStockMinimo(5);
+                producto.setPrecioUnitario(BigDecimal.valueOf(1 + random.nextInt(5000), 2));
+            }
+            if (producto.getCantidad() == null || producto.getCantidad() < STOCK_INICIAL) {
+                producto.setCantidad(STOCK_INICIAL);
+                guardar.add(producto);
+            }
+        }
+        repositorio.saveAll(guardar);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= configuracion.getProductosSemilla(); i++) {
+            repositorio.findByCodigo(PREFIJO_CODIGO + String.format("%05d", i)).ifPresent(p -> ids.add(p.getId()));
+        }
+        return ids;
+    }
+
+    private List<String> prepararBeneficiarios() {
+        BeneficiarioRepository repositorio = contexto.getBean(BeneficiarioRepository.class);
+        List<Beneficiario> nuevos = new ArrayList<>();
+        List<String> dnis = new ArrayList<>();
+
+        for (int i = 0; i < configuracion.getBeneficiariosSemilla(); i++) {
+            String dni = String.valueOf(PRIMER_DNI + i);
+            dnis.add(dni);
+            if (repositorio.existsByDni(dni)) continue;
+
+            Beneficiario beneficiario = new Beneficiario();
+            beneficiario.setDni(dni);
+            beneficiario.setNombres("Beneficiario");
+            beneficiario.setApellidos("Carga " + i);
+            beneficiario.setDireccion("Dirección de prueba " + i);
+            nuevos.add(beneficiario);
+        }
+        repositorio.saveAll(nuevos);
+        return dnis;
+    }
+}
@@ -0,0 +1,31 @@
+package com.beneficencia.almacen.carga;
+
+/**
+ * Operaciones que repite cada usuario virtual. El nombre corto es el que se usa en
+ * --mezcla.
+ */
+public enum Escenario {
+    BUSCAR("buscar"),
+    SALIDA("salida"),
+    DASHBOARD("dashboard"),
+    ESTADISTICAS("estadisticas"),
+    PDF("pdf");
+
+    private final String nombre;
+
+    Escenario(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getNombre() { return nombre; }
+
+    public static Escenario desdeNombre(String nombre) {
+        for (Escenario escenario : values()) {
+            if (escenario.nombre.equalsIgnoreCase(nombre)) return escenario;
+        }
+        throw new IllegalArgumentException("Escenario desconocido: " + nombre);
+    }
+
+    @Override
+    public String toString() { return nombre; }
+}
@@ -0,0 +1,236 @@
+package com.beneficencia.almacen.carga;
+
+import com.beneficencia.almacen.AlmacenApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga con escenarios del almacén: inicio de sesión por formulario,
+ * búsqueda de productos, órdenes de salida con varios items, dashboard,
+ * estadísticas y exportación de PDF.
+ *
+ * Uso:
+ *   java -jar almacen-carga.jar --usuarios=50 --duracion=120 --reporte=carga.csv
+ *   java -jar almacen-carga.jar --url=http://servidor:8080 --usuario=... --clave=... --dnis=12345678,...
+ *
+ * Imprime, por endpoint, peticiones, errores, peticiones por segundo y latencias
+ * p50/p95/p99; con --reporte también las guarda en CSV para comparar versiones.
+ */
+public class PruebaCarga {
+
+    private static final String[] TERMINOS = {"carga", "med", "ali", "lim", "1", "2", "3", "producto", "ofi", "x"};
+
+    private final ConfiguracionCarga configuracion;
+    private final RegistroLatencias registro = new RegistroLatencias();
+    private final AtomicLong contadorTramites = new AtomicLong();
+
+    private String base;
+    private List<Long> productos = new ArrayList<>();
+    private List<String> dnis = new ArrayList<>();
+
+    public PruebaCarga(ConfiguracionCarga configuracion) {
+        this.configuracion = configuracion;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = new ConfiguracionCarga(args);
+        System.out.println("=== PRUEBA DE CARGA === " + configuracion);
+
+        ConfigurableApplicationContext contexto = null;
+        try {
+            PruebaCarga prueba = new PruebaCarga(configuracion);
+            if (configuracion.levantarAplicacion()) {
+                contexto = prueba.levantarAplicacion();
+            } else {
+                prueba.base = configuracion.getUrl();
+                prueba.dnis = configuracion.getDnis();
+            }
+            prueba.ejecutar();
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext levantarAplicacion() {
+        ConfigurableApplicationContext contexto = SpringApplication.run(AlmacenApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=" + configuracion.getDbUrl(),
+                "--spring.datasource.username=" + configuracion.getDbUsuario(),
+                "--spring.datasource.password=" + configuracion.getDbClave(),
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.hikari.maximum-pool-size=" + Math.max(10, configuracion.getUsuarios() / 2));
+
+        int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        base = "http://localhost:" + puerto;
+
+        Map.Entry<List<Long>, List<String>> datos = new DatosCarga(contexto, configuracion).preparar();
+        productos = datos.getKey();
+        dnis = datos.getValue();
+        return contexto;
+    }
+
+    public void ejecutar() throws Exception {
+        if (productos.isEmpty()) {
+            productos = descubrirProductos();
+        }
+        Map<Escenario, Integer> mezcla = configuracion.getMezcla();
+        if (mezcla.containsKey(Escenario.SALIDA) && (productos.isEmpty() || dnis.isEmpty())) {
+            System.out.println("Sin productos o DNIs para órdenes de salida: se omite ese escenario");
+            mezcla.remove(Escenario.SALIDA);
+        }
+        int pesoTotal = mezcla.values().stream().mapToInt(Integer::intValue).sum();
+
+        long inicioMedicion = System.nanoTime() + TimeUnit.SECONDS.toNanos(configuracion.getCalentamientoSegundos());
+        long fin = inicioMedicion + TimeUnit.SECONDS.toNanos(configuracion.getDuracionSegundos());
+
+        ExecutorService usuarios = Executors.newFixedThreadPool(configuracion.getUsuarios());
+        for (int i = 0; i < configuracion.getUsuarios(); i++) {
+            Random random = new Random(configuracion.getSemilla() + i);
+            usuarios.execute(() -> usuarioVirtual(random, mezcla, pesoTotal, fin));
+        }
+
+        System.out.println("Calentamiento de " + configuracion.getCalentamientoSegundos() + " s...");
+        dormirHasta(inicioMedicion);
+        registro.iniciarMedicion();
+        long inicio = System.nanoTime();
+        System.out.println("Midiendo durante " + configuracion.getDuracionSegundos() + " s...");
+
+        dormirHasta(fin);
+        registro.detenerMedicion();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        usuarios.shutdown();
+        if (!usuarios.awaitTermination(2, TimeUnit.MINUTES)) {
+            usuarios.shutdownNow();
+        }
+
+        List<RegistroLatencias.Fila> filas = registro.resumir(segundos);
+        System.out.println();
+        RegistroLatencias.imprimir(filas);
+        if (!configuracion.getReporte().isBlank()) {
+            RegistroLatencias.guardarCsv(filas, Path.of(configuracion.getReporte()));
+            System.out.println("Reporte guardado en " + configuracion.getReporte());
+        }
+    }
+
+    private void usuarioVirtual(Random random, Map<Escenario, Integer> mezcla, int pesoTotal, long fin) {
+        SesionUsuario sesion = new SesionUsuario(base, registro);
+        if (!sesion.iniciarSesion(configuracion.getUsuario(), configuracion.getClave())) {
+            System.err.println("No se pudo iniciar sesión como " + configuracion.getUsuario());
+            return;
+        }
+
+        while (System.nanoTime() < fin && !Thread.currentThread().isInterrupted()) {
+            switch (elegir(random, mezcla, pesoTotal)) {
+                case BUSCAR -> buscar(sesion, random);
+                case SALIDA -> crearOrdenSalida(sesion, random);
+                case DASHBOARD -> {
+                    sesion.get("GET /dashboard", "/dashboard");
+                    sesion.get("GET /api/dashboard/stats", "/api/dashboard/stats");
+                }
+                case ESTADISTICAS -> sesion.get("GET /estadisticas", "/estadisticas");
+                case PDF -> {
+                    if (random.nextBoolean()) {
+                        sesion.get("GET /descargar-inventario", "/descargar-inventario");
+                    } else {
+                        sesion.get("GET /descargar-inventario-completo", "/descargar-inventario-completo");
+                    }
+                }
+            }
+            if (configuracion.getPausaMs() > 0) {
+                try {
+                    Thread.sleep(configuracion.getPausaMs());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private Escenario elegir(Random random, Map<Escenario, Integer> mezcla, int pesoTotal) {
+        int valor = random.nextInt(pesoTotal);
+        for (Map.Entry<Escenario, Integer> entrada : mezcla.entrySet()) {
+            valor -= entrada.getValue();
+            if (valor < 0) return entrada.getKey();
+        }
+        return mezcla.keySet().iterator().next();
+    }
+
+    private void buscar(SesionUsuario sesion, Random random) {
+        String termino = TERMINOS[random.nextInt(TERMINOS.length)];
+        sesion.get("GET /api/inventario/buscar", "/api/inventario/buscar?q=" + termino);
+        if (random.nextInt(4) == 0) {
+            sesion.get("GET /productos", "/productos");
+        }
+    }
+
+    private void crearOrdenSalida(SesionUsuario sesion, Random random) {
+        String dni = dnis.get(random.nextInt(dnis.size()));
+        List<Map.Entry<String, String>> campos = new ArrayList<>();
+        campos.add(Map.entry("numeroTramite", "CARGA-" + contadorTramites.incrementAndGet()));
+        campos.add(Map.entry("fechaSalida", LocalDate.now().toString()));
+        campos.add(Map.entry("nombreUsuario", "Beneficiario " + dni));
+        campos.add(Map.entry("dniUsuario", dni));
+        campos.add(Map.entry("descripcion", "Orden generada por la prueba de carga"));
+
+        int lineas = Math.min(configuracion.getLineasPorOrden(), productos.size());
+        List<Long> elegidos = new ArrayList<>();
+        while (elegidos.size() < lineas) {
+            Long productoId = productos.get(random.nextInt(productos.size()));
+            if (!elegidos.contains(productoId)) elegidos.add(productoId);
+        }
+        for (Long productoId : elegidos) {
+            campos.add(Map.entry("productoIds", productoId.toString()));
+        }
+        for (int i = 0; i < elegidos.size(); i++) {
+            campos.add(Map.entry("cantidades", String.valueOf(1 + random.nextInt(3))));
+        }
+
+        // El controlador siempre redirige; solo ?success indica que la orden se guardó
+        sesion.postFormulario("POST /ordenes-salida/guardar-multiples", "/ordenes-salida/guardar-multiples", campos,
+                r -> r.statusCode() == 302 && SesionUsuario.ubicacion(r).contains("success"));
+    }
+
+    /** Con --url, los productos con stock se toman del API de inventario. */
+    private List<Long> descubrirProductos() throws Exception {
+        SesionUsuario sesion = new SesionUsuario(base, registro);
+        if (!sesion.iniciarSesion(configuracion.getUsuario(), configuracion.getClave())) {
+            throw new IllegalStateException("No se pudo iniciar sesión como " + configuracion.getUsuario());
+        }
+        HttpResponse<byte[]> respuesta = sesion.get("GET /api/inventario", "/api/inventario");
+        List<Long> ids = new ArrayList<>();
+        if (respuesta == null || respuesta.statusCode() != 200) return ids;
+
+        JsonNode productosJson = new ObjectMapper().readTree(respuesta.body()).path("productos");
+        for (JsonNode producto : productosJson) {
+            if (producto.path("cantidad").asInt() > 100) {
+                ids.add(producto.path("id").asLong());
+            }
+        }
+        return ids;
+    }
+
+    private static void dormirHasta(long nanos) throws InterruptedException {
+        long restante = nanos - System.nanoTime();
+        if (restante > 0) {
+            TimeUnit.NANOSECONDS.sleep(restante);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.beneficencia.almacen.carga;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latencias por endpoint. Se guardan todas las muestras (nanosegundos) y los
+ * percentiles se calculan al final ordenándolas, así p99 es exacto y no una
+ * aproximación por cubetas.
+ */
+public class RegistroLatencias {
+
+    private final Map<String, Muestras> porEndpoint = new ConcurrentHashMap<>();
+    private volatile boolean midiendo;
+
+    public void iniciarMedicion() {
+        porEndpoint.clear();
+        midiendo = true;
+    }
+
+    public void detenerMedicion() {
+        midiendo = false;
+    }
+
+    public void registrar(String endpoint, long nanos, boolean exito) {
+        if (!midiendo) return;
+        porEndpoint.computeIfAbsent(endpoint, e -> new Muestras()).agregar(nanos, exito);
+    }
+
+    public List<Fila> resumir(double segundos) {
+        List<Fila> filas = new ArrayList<>();
+        long[] todas = new long[0];
+        int erroresTotales = 0;
+
+        for (Map.Entry<String, Muestras> entrada : new TreeMap<>(porEndpoint).entrySet()) {
+            long[] valores;
+            int errores;
+            synchronized (entrada.getValue()) {
+                valores = Arrays.copyOf(entrada.getValue().valores, entrada.getValue().tamano);
+                errores = entrada.getValue().errores;
+            }
+            filas.add(new Fila(entrada.getKey(), valores, errores, segundos));
+
+            long[] unidas = Arrays.copyOf(todas, todas.length + valores.length);
+            System.arraycopy(valores, 0, unidas, todas.length, valores.length);
+            todas = unidas;
+            erroresTotales += errores;
+        }
+        filas.add(new Fila("TOTAL", todas, erroresTotales, segundos));
+        return filas;
+    }
+
+    public static void imprimir(List<Fila> filas) {
+        System.out.printf("%-42s %9s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Pet.", "Errores", "Pet./s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Fila fila : filas) {
+            System.out.printf(Locale.ROOT, "%-42s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    fila.endpoint, fila.peticiones, fila.errores, fila.porSegundo,
+                    fila.p50, fila.p95, fila.p99, fila.maximo);
+        }
+    }
+
+    public static void guardarCsv(List<Fila> filas, Path archivo) throws IOException {
+        try (PrintWriter salida = new PrintWriter(Files.newBufferedWriter(archivo, StandardCharsets.UTF_8))) {
+            salida.println("endpoint,peticiones,errores,peticiones_s,p50_ms,p95_ms,p99_ms,max_ms");
+            for (Fila fila : filas) {
+                salida.printf(Locale.ROOT, "\"%s\",%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+                        fila.endpoint, fila.peticiones, fila.errores, fila.porSegundo,
+                        fila.p50, fila.p95, fila.p99, fila.maximo);
+            }
+        }
+    }
+
+    private static final class Muestras {
+        private long[] valores = new long[1024];
+        private int tamano;
+        private int errores;
+
+        private synchronized void agregar(long nanos, boolean exito) {
+            if (tamano == valores.length) {
+                valores = Arrays.copyOf(valores, tamano * 2);
+            }
+            valores[tamano++] = nanos;
+            if (!exito) errores++;
+        }
+    }
+
+    public static final class Fila {
+        private final String endpoint;
+        private final int peticiones;
+        private final int errores;
+        private final double porSegundo;
+        private final double p50;
+        private final double p95;
+        private final double p99;
+        private final double maximo;
+
+        private Fila(String endpoint, long[] valores, int errores, double segundos) {
+            Arrays.sort(valores);
+            this.endpoint = endpoint;
+            this.peticiones = valores.length;
+            this.errores = errores;
+            this.porSegundo = segundos > 0 ? valores.length / segundos : 0;
+            this.p50 = percentil(valores, 0.50);
+            this.p95 = percentil(valores, 0.95);
+            this.p99 = percentil(valores, 0.99);
+            this.maximo = valores.length > 0 ? valores[valores.length - 1] / 1_000_000.0 : 0;
+        }
+
+        // Método del rango más cercano
+        private static double percentil(long[] ordenados, double p) {
+            if (ordenados.length == 0) return 0;
+            int indice = (int) Math.ceil(p * ordenados.length) - 1;
+            return ordenados[Math.max(0, indice)] / 1_000_000.0;
+        }
+
+        public String getEndpoint() { return endpoint; }
+
+        public int getPeticiones() { return peticiones; }
+
+        public int getErrores() { return errores; }
+    }
+}
@@ -0,0 +1,89 @@
+package com.beneficencia.almacen.carga;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+
+/**
+ * Un usuario virtual: su propio cliente HTTP con cookies (JSESSIONID) y sin seguir
+ * redirecciones, para poder distinguir el éxito del error en los formularios que
+ * responden con redirect. Cada petición se mide de punta a punta, incluido leer
+ * el cuerpo completo.
+ */
+public class SesionUsuario {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final String base;
+    private final RegistroLatencias registro;
+    private final HttpClient cliente;
+
+    public SesionUsuario(String base, RegistroLatencias registro) {
+        this.base = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.registro = registro;
+        this.cliente = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /** Inicia sesión con el formulario de /login; el éxito es el redirect al dashboard. */
+    public boolean iniciarSesion(String usuario, String clave) {
+        get("GET /login", "/login");
+        HttpResponse<byte[]> respuesta = postFormulario("POST /login", "/login",
+                List.of(Map.entry("username", usuario), Map.entry("password", clave)),
+                r -> r.statusCode() == 302 && ubicacion(r).contains("/dashboard"));
+        return respuesta != null && respuesta.statusCode() == 302 && ubicacion(respuesta).contains("/dashboard");
+    }
+
+    public HttpResponse<byte[]> get(String endpoint, String ruta) {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(base + ruta)).timeout(TIMEOUT).GET().build();
+        return enviar(endpoint, peticion, r -> r.statusCode() == 200);
+    }
+
+    public HttpResponse<byte[]> postFormulario(String endpoint, String ruta, List<Map.Entry<String, String>> campos,
+                                               Predicate<HttpResponse<byte[]>> exito) {
+        StringJoiner cuerpo = new StringJoiner("&");
+        for (Map.Entry<String, String> campo : campos) {
+            cuerpo.add(URLEncoder.encode(campo.getKey(), StandardCharsets.UTF_8) + "=" +
+                    URLEncoder.encode(campo.getValue(), StandardCharsets.UTF_8));
+        }
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(base + ruta))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo.toString()))
+                .build();
+        return enviar(endpoint, peticion, exito);
+    }
+
+    private HttpResponse<byte[]> enviar(String endpoint, HttpRequest peticion,
+                                        Predicate<HttpResponse<byte[]>> exito) {
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<byte[]> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofByteArray());
+            registro.registrar(endpoint, System.nanoTime() - inicio, exito.test(respuesta));
+            return respuesta;
+        } catch (IOException e) {
+            registro.registrar(endpoint, System.nanoTime() - inicio, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    public static String ubicacion(HttpResponse<?> respuesta) {
+        return respuesta.headers().firstValue("Location").orElse("");
+    }
+}
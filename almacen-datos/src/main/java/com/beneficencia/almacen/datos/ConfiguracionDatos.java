@@ -0,0 +1,90 @@
+package com.beneficencia.almacen.datos;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parámetros del generador, leídos de argumentos --clave=valor.
+ *
+ * Con la misma semilla, los mismos volúmenes y la misma fecha --hasta se generan
+ * exactamente las mismas filas, así que dos corridas de benchmark parten de la
+ * misma base de datos.
+ */
+public class ConfiguracionDatos {
+
+    private final Map<String, String> valores = new HashMap<>();
+
+    public ConfiguracionDatos(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento no válido: " + arg + " (se espera --clave=valor)");
+            }
+            int igual = arg.indexOf('=');
+            valores.put(arg.substring(2, igual), arg.substring(igual + 1));
+        }
+    }
+
+    public String getDbUrl() {
+        return texto("db-url", "jdbc:mysql://localhost:3306/almacen_datos?createDatabaseIfNotExist=true" +
+                "&useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true");
+    }
+
+    public String getDbUsuario() { return texto("db-usuario", "root"); }
+
+    public String getDbClave() { return texto("db-clave", ""); }
+
+    /** Levanta la aplicación sin servidor web para que Hibernate cree las tablas. */
+    public boolean isCrearEsquema() { return Boolean.parseBoolean(texto("crear-esquema", "true")); }
+
+    /** Genera todo en memoria y solo cuenta filas, sin base de datos. */
+    public boolean isSimular() { return Boolean.parseBoolean(texto("simular", "false")); }
+
+    public long getSemilla() { return Long.parseLong(texto("semilla", "42")); }
+
+    /** Último día con movimientos; fijarlo hace reproducibles las fechas. */
+    public LocalDate getHasta() {
+        String hasta = texto("hasta", "");
+        return hasta.isBlank() ? LocalDate.now().minusDays(1) : LocalDate.parse(hasta);
+    }
+
+    public int getAnios() { return entero("anios", 3); }
+
+    public int getProductos() { return entero("productos", 5_000); }
+
+    public int getProveedores() { return entero("proveedores", 150); }
+
+    public int getBeneficiarios() { return entero("beneficiarios", 100_000); }
+
+    /** Órdenes de salida en un día hábil promedio. */
+    public int getSalidasPorDia() { return entero("salidas-dia", 300); }
+
+    /** Items promedio por orden de salida. */
+    public int getItemsPorSalida() { return entero("items-salida", 4); }
+
+    /** Máximo de items por orden de abastecimiento; los pedidos más grandes se dividen. */
+    public int getItemsPorAbastecimiento() { return entero("items-abastecimiento", 25); }
+
+    public int getCuadresPorMes() { return entero("cuadres-mes", 40); }
+
+    /** Filas por sentencia INSERT ... VALUES (...), (...). */
+    public int getFilasPorInsert() { return entero("filas-insert", 1_000); }
+
+    private String texto(String clave, String porDefecto) {
+        return valores.getOrDefault(clave, porDefecto);
+    }
+
+    private int entero(String clave, int porDefecto) {
+        String valor = valores.get(clave);
+        return valor != null ? Integer.parseInt(valor) : porDefecto;
+    }
+
+    @Override
+    public String toString() {
+        return "semilla=" + getSemilla() + ", años=" + getAnios() + " hasta " + getHasta() +
+                ", productos=" + getProductos() + ", proveedores=" + getProveedores() +
+                ", beneficiarios=" + getBeneficiarios() + ", salidas/día=" + getSalidasPorDia() +
+                ", items/salida=" + getItemsPorSalida() + ", cuadres/mes=" + getCuadresPorMes() +
+                (isSimular() ? ", simulación" : ", db=" + getDbUrl());
+    }
+}
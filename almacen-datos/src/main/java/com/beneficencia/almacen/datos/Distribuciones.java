@@ -0,0 +1,81 @@
+package com.beneficencia.almacen.datos;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Distribuciones sesgadas para que los datos se parezcan a los reales: pocos
+ * productos y beneficiarios concentran la mayoría de las salidas.
+ */
+public final class Distribuciones {
+
+    private Distribuciones() {
+    }
+
+    /** Muestreo de Zipf sobre [0, n) por búsqueda binaria en la acumulada. */
+    public static final class Zipf {
+        private final double[] acumulado;
+
+        public Zipf(int n, double exponente) {
+            acumulado = new double[n];
+            double suma = 0;
+            for (int i = 0; i < n; i++) {
+                suma += 1.0 / Math.pow(i + 1, exponente);
+                acumulado[i] = suma;
+            }
+            for (int i = 0; i < n; i++) {
+                acumulado[i] /= suma;
+            }
+        }
+
+        public int muestra(Random random) {
+            int posicion = Arrays.binarySearch(acumulado, random.nextDouble());
+            return Math.min(posicion >= 0 ? posicion : -posicion - 1, acumulado.length - 1);
+        }
+
+        /** Probabilidad del rango i. */
+        public double probabilidad(int i) {
+            return i == 0 ? acumulado[0] : acumulado[i] - acumulado[i - 1];
+        }
+    }
+
+    /** Elige un índice según pesos relativos. */
+    public static int ponderado(Random random, int[] pesos) {
+        int total = 0;
+        for (int peso : pesos) total += peso;
+        int valor = random.nextInt(total);
+        for (int i = 0; i < pesos.length; i++) {
+            valor -= pesos[i];
+            if (valor < 0) return i;
+        }
+        return pesos.length - 1;
+    }
+
+    /** Poisson exacta para medias chicas y aproximación normal para las grandes. */
+    public static int poisson(Random random, double media) {
+        if (media <= 0) return 0;
+        if (media > 30) {
+            return (int) Math.max(0, Math.round(media + Math.sqrt(media) * random.nextGaussian()));
+        }
+        double limite = Math.exp(-media);
+        double producto = random.nextDouble();
+        int k = 0;
+        while (producto > limite) {
+            producto *= random.nextDouble();
+            k++;
+        }
+        return k;
+    }
+
+    /** Geométrica con valor mínimo 1 y la media indicada. */
+    public static int geometrica(Random random, double media) {
+        if (media <= 1) return 1;
+        double p = 1.0 / media;
+        return 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    /** Log-normal alrededor de una mediana, para precios y cantidades de compra. */
+    public static double logNormal(Random random, double mediana, double dispersion) {
+        return mediana * Math.exp(dispersion * random.nextGaussian());
+    }
+}
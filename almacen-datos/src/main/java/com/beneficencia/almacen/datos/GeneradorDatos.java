@@ -0,0 +1,650 @@
+package com.beneficencia.almacen.datos;
+
+import com.beneficencia.almacen.AlmacenApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Llena una base de datos vacía con un almacén sintético de varios años: proveedores,
+ * productos de las categorías de la aplicación, beneficiarios con DNI de 8 dígitos,
+ * órdenes de abastecimiento con sus lotes, órdenes de salida con items, movimientos
+ * y asignaciones FEFO, y cuadres de inventario.
+ *
+ * Los días se simulan en orden: las salidas siguen una distribución de Zipf sobre
+ * productos y beneficiarios, con estacionalidad semanal y mensual y crecimiento en
+ * el tiempo; cuando un producto baja de su punto de pedido entra en la siguiente
+ * orden de abastecimiento de su proveedor. Así el stock de cada producto coincide
+ * con la suma de sus lotes, como lo deja la aplicación.
+ *
+ * Uso:
+ *   java -jar almacen-datos.jar --db-url=jdbc:mysql://localhost:3306/almacen_datos?... --anios=5 --salidas-dia=2000
+ *   java -jar almacen-datos.jar --simular=true     (solo cuenta filas, sin base de datos)
+ *
+ * Escribe con INSERT de varias filas y claves explícitas. En MySQL desactiva por
+ * sesión las verificaciones de claves foráneas y unicidad mientras carga.
+ */
+public class GeneradorDatos {
+
+    private static final String[] CATEGORIAS = {
+            "Alimentos", "Medicamentos", "Insumos Médicos", "Limpieza", "Material Oficina", "Otros"
+    };
+    // Mismos prefijos que ProductoServiceImpl.PREFIJOS_CATEGORIA
+    private static final String[] PREFIJOS = {"ALI", "MED", "INS", "LIM", "OFI", "OTR"};
+    private static final int[] PESOS_CATEGORIA = {35, 25, 15, 12, 8, 5};
+    private static final double[] PRECIO_MEDIANO = {8, 15, 6, 12, 5, 20};
+    private static final String[] UNIDADES = {"Kg", "Caja", "Unidad", "Litro", "Paquete", "Unidad"};
+    // Días de vida útil mínimos y máximos; 0 si la categoría no vence
+    private static final int[][] VIDA_UTIL = {{60, 540}, {180, 900}, {365, 1460}, {0, 0}, {0, 0}, {0, 0}};
+    // TipoOrden y prefijo de numeroOA según la categoría
+    private static final String[] TIPO_ORDEN = {"ALIMENTOS", "OTROS", "OTROS", "R_UTILES", "U_OFICINA", "OTROS"};
+    private static final Map<String, String> PREFIJO_OA = Map.of(
+            "ALIMENTOS", "ALM", "U_OFICINA", "UOF", "R_UTILES", "RUT", "OTROS", "OTS");
+
+    private static final String[][] NOMBRES_PRODUCTO = {
+            {"Arroz", "Azúcar", "Aceite vegetal", "Lentejas", "Leche evaporada", "Avena", "Fideos", "Atún en conserva", "Harina", "Frejol"},
+            {"Paracetamol", "Ibuprofeno", "Amoxicilina", "Omeprazol", "Loratadina", "Metformina", "Salbutamol", "Diclofenaco"},
+            {"Gasas estériles", "Jeringas", "Guantes de látex", "Alcohol 70%", "Vendas elásticas", "Mascarillas", "Algodón"},
+            {"Detergente", "Lejía", "Jabón líquido", "Desinfectante", "Escobas", "Bolsas de basura", "Papel higiénico"},
+            {"Papel bond", "Lapiceros", "Folders", "Cuadernos", "Grapas", "Tóner", "Archivadores"},
+            {"Frazadas", "Pañales", "Kit de aseo", "Linternas", "Pilas", "Cubiertos descartables"}
+    };
+    private static final String[] PRESENTACIONES = {"x 1", "x 6", "x 12", "x 24", "x 50", "x 100"};
+
+    private static final String[] NOMBRES = {
+            "María", "José", "Rosa", "Juan", "Carmen", "Luis", "Ana", "Carlos", "Julia", "Jorge",
+            "Elena", "Pedro", "Lucía", "Miguel", "Teresa", "Víctor", "Gloria", "César", "Silvia", "Raúl",
+            "Patricia", "Manuel", "Isabel", "Javier", "Norma", "Alberto", "Sonia", "Ricardo", "Marta", "Óscar"
+    };
+    private static final String[] APELLIDOS = {
+            "Quispe", "Flores", "Sánchez", "Rodríguez", "García", "Rojas", "Huamán", "Mamani", "Chávez", "Vásquez",
+            "Ramírez", "Torres", "Mendoza", "Díaz", "Castillo", "Gutiérrez", "Ramos", "Espinoza", "Vargas", "Romero",
+            "Cruz", "Pérez", "Gonzales", "Morales", "Reyes", "Salazar", "Ríos", "Castro", "Córdova", "Medina",
+            "Herrera", "Aguilar", "Paredes", "Ruiz", "Cáceres", "Silva", "Vega", "Navarro", "Soto", "Campos"
+    };
+    private static final String[] MOTIVOS_CUADRE = {
+            "Diferencia de conteo", "Producto dañado", "Producto vencido", "Devolución de beneficiario", "Error de registro"
+    };
+
+    // Peso relativo de cada día de la semana y de cada mes (diciembre con campaña navideña)
+    private static final double[] FACTOR_DIA = {1.15, 1.15, 1.15, 1.15, 1.15, 0.5, 0.1};
+    private static final double[] FACTOR_MES = {1.0, 0.9, 1.0, 1.0, 1.05, 1.1, 1.15, 1.0, 0.95, 1.0, 1.1, 1.4};
+    private static final double CANTIDAD_MEDIA_SALIDA = 2.5;
+
+    private final ConfiguracionDatos configuracion;
+    private final Random random;
+    private final LocalDate desde;
+    private final LocalDate hasta;
+
+    private Connection conexion;
+    private long usuarioId = 1;
+
+    // Catálogo simulado; el índice p corresponde al producto con id p + 1
+    private int[] categoria;
+    private String[] codigo;
+    private String[] nombre;
+    private BigDecimal[] precio;
+    private int[] proveedor;
+    private int[] stock;
+    private int[] stockMinimo;
+    private int[] puntoPedido;
+    private int[] cantidadPedido;
+    private LocalDateTime[] fechaRegistro;
+    private ArrayDeque<LoteGenerado>[] lotesAbiertos;
+    private final List<LoteGenerado> lotes = new ArrayList<>();
+
+    private int[] productoDeRango;
+    private Distribuciones.Zipf popularidad;
+    private Distribuciones.Zipf frecuenciaBeneficiario;
+
+    private long siguienteOrdenSalida = 1;
+    private long siguienteItemSalida = 1;
+    private long siguienteMovimiento = 1;
+    private long siguienteAsignacion = 1;
+    private long siguienteAbastecimiento = 1;
+    private long siguienteItemAbastecimiento = 1;
+    private long siguienteCuadre = 1;
+    private final Map<String, Integer> secuenciasOA = new HashMap<>();
+    private final Map<String, Integer> secuenciasMes = new HashMap<>();
+
+    private InsercionMultiple ordenesSalida;
+    private InsercionMultiple itemsSalida;
+    private InsercionMultiple movimientos;
+    private InsercionMultiple asignaciones;
+    private InsercionMultiple ordenesAbastecimiento;
+    private InsercionMultiple itemsAbastecimiento;
+    private InsercionMultiple cuadres;
+
+    public GeneradorDatos(ConfiguracionDatos configuracion) {
+        this.configuracion = configuracion;
+        this.random = new Random(configuracion.getSemilla());
+        this.hasta = configuracion.getHasta();
+        this.desde = hasta.minusYears(configuracion.getAnios()).plusDays(1);
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionDatos configuracion = new ConfiguracionDatos(args);
+        System.out.println("=== GENERADOR DE DATOS === " + configuracion);
+
+        if (configuracion.isCrearEsquema() && !configuracion.isSimular()) {
+            crearEsquema(configuracion);
+        }
+        new GeneradorDatos(configuracion).generar();
+    }
+
+    /** Levanta la aplicación sin web para que Hibernate cree o actualice las tablas. */
+    private static void crearEsquema(ConfiguracionDatos configuracion) {
+        System.out.println("Creando esquema con Hibernate...");
+        try (ConfigurableApplicationContext contexto = SpringApplication.run(AlmacenApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=" + configuracion.getDbUrl(),
+                "--spring.datasource.username=" + configuracion.getDbUsuario(),
+                "--spring.datasource.password=" + configuracion.getDbClave(),
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--spring.jpa.show-sql=false")) {
+            System.out.println("Esquema listo");
+        }
+    }
+
+    public void generar() throws SQLException {
+        long inicio = System.nanoTime();
+        if (!configuracion.isSimular()) {
+            conexion = DriverManager.getConnection(configuracion.getDbUrl(),
+                    configuracion.getDbUsuario(), configuracion.getDbClave());
+        }
+
+        try {
+            if (conexion != null) {
+                verificarTablasVacias();
+                conexion.setAutoCommit(false);
+                configurarSesion(false);
+                usuarioId = prepararUsuario();
+            }
+
+            List<InsercionMultiple> tablas = new ArrayList<>();
+            tablas.add(generarProveedores());
+            tablas.add(generarBeneficiarios());
+            prepararCatalogo();
+            confirmar();
+
+            int filas = configuracion.getFilasPorInsert();
+            ordenesAbastecimiento = new InsercionMultiple(conexion, filas, "ordenes_abastecimiento",
+                    "id", "numero_oa", "fecha_oa", "proveedor_id", "usuario_id", "tipo_orden", "estado", "total",
+                    "observaciones", "fecha_creacion", "fecha_actualizacion");
+            itemsAbastecimiento = new InsercionMultiple(conexion, filas, "orden_abastecimiento_items",
+                    "id", "orden_abastecimiento_id", "producto_id", "cantidad", "precio_unitario", "subtotal",
+                    "fecha_vencimiento");
+            ordenesSalida = new InsercionMultiple(conexion, filas, "ordenes_salida",
+                    "id", "numero_orden", "numero_orden_salida", "fecha_salida", "dni_usuario", "nombre_usuario",
+                    "beneficiario_id", "numero_tramite", "cantidad_productos", "descripcion", "usuario_id", "estado",
+                    "fecha_registro", "fecha_actualizacion");
+            itemsSalida = new InsercionMultiple(conexion, filas, "orden_salida_items",
+                    "id", "orden_salida_id", "producto_id", "cantidad", "precio_unitario", "subtotal", "fecha_registro");
+            movimientos = new InsercionMultiple(conexion, filas, "movimientos_inventario",
+                    "id", "producto_id", "tipo_movimiento", "cantidad", "motivo", "usuario_id", "orden_salida_id",
+                    "fecha_movimiento");
+            asignaciones = new InsercionMultiple(conexion, filas, "asignaciones_lote",
+                    "id", "lote_id", "orden_salida_id", "orden_salida_item_id", "cantidad", "fecha_asignacion");
+            cuadres = new InsercionMultiple(conexion, filas, "cuadre_inventario",
+                    "id", "producto_id", "cantidad", "fecha_vencimiento", "observaciones", "accion", "estado",
+                    "fecha_registro", "fecha_confirmacion");
+            tablas.addAll(List.of(ordenesAbastecimiento, itemsAbastecimiento, ordenesSalida, itemsSalida,
+                    movimientos, asignaciones, cuadres));
+
+            simularDias(inicio);
+
+            for (InsercionMultiple tabla : tablas) {
+                tabla.close();
+            }
+            tablas.add(escribirLotes());
+            tablas.add(escribirProductos());
+            confirmar();
+
+            if (conexion != null) {
+                configurarSesion(true);
+            }
+            imprimirResumen(tablas, inicio);
+        } finally {
+            if (conexion != null) {
+                conexion.close();
+            }
+        }
+    }
+
+    private void verificarTablasVacias() throws SQLException {
+        String[] tablas = {"productos", "proveedores", "beneficiarios", "ordenes_salida", "ordenes_abastecimiento", "lotes"};
+        try (Statement sentencia = conexion.createStatement()) {
+            for (String tabla : tablas) {
+                try (ResultSet resultado = sentencia.executeQuery("SELECT COUNT(*) FROM " + tabla)) {
+                    resultado.next();
+                    if (resultado.getLong(1) > 0) {
+                        throw new IllegalStateException("La tabla " + tabla + " ya tiene datos; " +
+                                "el generador usa claves explícitas y necesita una base de datos vacía");
+                    }
+                }
+            }
+        }
+    }
+
+    private void configurarSesion(boolean verificaciones) throws SQLException {
+        if (!configuracion.getDbUrl().startsWith("jdbc:mysql:")) return;
+        int valor = verificaciones ? 1 : 0;
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("SET SESSION foreign_key_checks = " + valor);
+            sentencia.execute("SET SESSION unique_checks = " + valor);
+        }
+    }
+
+    /** Usuario que registra las órdenes generadas; se crea con rol ADMIN si no existe. */
+    private long prepararUsuario() throws SQLException {
+        Long existente = consultarId("SELECT id FROM usuarios WHERE username = ?", "datos");
+        if (existente != null) return existente;
+
+        Long rolId = consultarId("SELECT id FROM roles WHERE nombre = ?", "ADMIN");
+        if (rolId == null) {
+            rolId = insertarConClave("INSERT INTO roles (nombre) VALUES (?)", "ADMIN");
+        }
+        long id = insertarConClave("INSERT INTO usuarios (username, password, nombre, apellido, enabled, fecha_registro) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                "datos", new BCryptPasswordEncoder().encode("datos123"), "Datos", "Sintéticos", true, LocalDateTime.now());
+        try (PreparedStatement sentencia = conexion.prepareStatement(
+                "INSERT INTO usuarios_roles (usuario_id, rol_id) VALUES (?, ?)")) {
+            sentencia.setLong(1, id);
+            sentencia.setLong(2, rolId);
+            sentencia.executeUpdate();
+        }
+        System.out.println("Usuario 'datos' creado (clave: datos123)");
+        return id;
+    }
+
+    private Long consultarId(String sql, String parametro) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            sentencia.setString(1, parametro);
+            try (ResultSet resultado = sentencia.executeQuery()) {
+                return resultado.next() ? resultado.getLong(1) : null;
+            }
+        }
+    }
+
+    private long insertarConClave(String sql, Object... parametros) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < parametros.length; i++) {
+                sentencia.setObject(i + 1, parametros[i]);
+            }
+            sentencia.executeUpdate();
+            try (ResultSet claves = sentencia.getGeneratedKeys()) {
+                claves.next();
+                return claves.getLong(1);
+            }
+        }
+    }
+
+    private InsercionMultiple generarProveedores() throws SQLException {
+        InsercionMultiple proveedores = new InsercionMultiple(conexion, configuracion.getFilasPorInsert(),
+                "proveedores", "id", "ruc", "nombre", "direccion", "telefono", "email", "fecha_registro");
+        String[] rubros = {"Distribuidora", "Comercial", "Droguería", "Importadora", "Corporación", "Inversiones"};
+        for (int i = 0; i < configuracion.getProveedores(); i++) {
+            String razon = rubros[i % rubros.length] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)] +
+                    " " + (i + 1) + " S.A.C.";
+            proveedores.agregar(i + 1L, "20" + (100_000_000 + i), razon,
+                    "Av. Industrial " + (100 + random.nextInt(900)) + ", Lima",
+                    "01" + (4_000_000 + random.nextInt(5_000_000)),
+                    "ventas" + (i + 1) + "@proveedor.pe",
+                    desde.minusDays(random.nextInt(365)).atTime(9, 0));
+        }
+        proveedores.close();
+        return proveedores;
+    }
+
+    private InsercionMultiple generarBeneficiarios() throws SQLException {
+        InsercionMultiple beneficiarios = new InsercionMultiple(conexion, configuracion.getFilasPorInsert(),
+                "beneficiarios", "id", "dni", "nombres", "apellidos", "telefono", "direccion",
+                "fecha_registro", "fecha_actualizacion");
+        for (int b = 0; b < configuracion.getBeneficiarios(); b++) {
+            long h = mezclar(b);
+            LocalDateTime registro = desde.minusDays(h % 730).atTime(10, 0);
+            beneficiarios.agregar(b + 1L, dni(b), nombres(b), apellidos(b),
+                    "9" + String.format("%08d", h % 100_000_000),
+                    "Jr. " + APELLIDOS[(int) (h % APELLIDOS.length)] + " " + (1 + h % 2000),
+                    registro, registro);
+        }
+        beneficiarios.close();
+        return beneficiarios;
+    }
+
+    /** DNI único de 8 dígitos: 48271 es coprimo con 90.000.000, así que la asignación es biyectiva. */
+    private static String dni(int beneficiario) {
+        return String.valueOf(10_000_000L + (beneficiario * 48_271L) % 90_000_000L);
+    }
+
+    private static long mezclar(int valor) {
+        return (valor * 2_654_435_761L) & 0x7fffffffL;
+    }
+
+    private static String nombres(int beneficiario) {
+        return NOMBRES[(int) (mezclar(beneficiario) % NOMBRES.length)];
+    }
+
+    private static String apellidos(int beneficiario) {
+        long h = mezclar(beneficiario) / NOMBRES.length;
+        return APELLIDOS[(int) (h % APELLIDOS.length)] + " " + APELLIDOS[(int) (h / APELLIDOS.length % APELLIDOS.length)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private void prepararCatalogo() {
+        int n = configuracion.getProductos();
+        categoria = new int[n];
+        codigo = new String[n];
+        nombre = new String[n];
+        precio = new BigDecimal[n];
+        proveedor = new int[n];
+        stock = new int[n];
+        stockMinimo = new int[n];
+        puntoPedido = new int[n];
+        cantidadPedido = new int[n];
+        fechaRegistro = new LocalDateTime[n];
+        lotesAbiertos = new ArrayDeque[n];
+
+        int[] consecutivos = new int[CATEGORIAS.length];
+        Distribuciones.Zipf proveedores = new Distribuciones.Zipf(configuracion.getProveedores(), 1.2);
+        for (int p = 0; p < n; p++) {
+            int c = Distribuciones.ponderado(random, PESOS_CATEGORIA);
+            categoria[p] = c;
+            codigo[p] = String.format("%s-%03d", PREFIJOS[c], ++consecutivos[c]);
+            String[] nombres = NOMBRES_PRODUCTO[c];
+            nombre[p] = nombres[random.nextInt(nombres.length)] + " " +
+                    PRESENTACIONES[random.nextInt(PRESENTACIONES.length)] + " - " + codigo[p];
+            precio[p] = BigDecimal.valueOf(Math.max(0.5, Distribuciones.logNormal(random, PRECIO_MEDIANO[c], 0.8)))
+                    .setScale(2, RoundingMode.HALF_UP);
+            proveedor[p] = proveedores.muestra(random);
+            fechaRegistro[p] = desde.minusDays(random.nextInt(30)).atTime(8, 30);
+            lotesAbiertos[p] = new ArrayDeque<>();
+        }
+
+        // Los rangos de popularidad se reparten al azar para que no dependan de la categoría
+        productoDeRango = new int[n];
+        for (int i = 0; i < n; i++) productoDeRango[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = productoDeRango[i];
+            productoDeRango[i] = productoDeRango[j];
+            productoDeRango[j] = tmp;
+        }
+        popularidad = new Distribuciones.Zipf(n, 1.1);
+        frecuenciaBeneficiario = new Distribuciones.Zipf(configuracion.getBeneficiarios(), 0.8);
+
+        double unidadesPorDia = configuracion.getSalidasPorDia() * configuracion.getItemsPorSalida() * CANTIDAD_MEDIA_SALIDA;
+        for (int rango = 0; rango < n; rango++) {
+            int p = productoDeRango[rango];
+            double demanda = unidadesPorDia * popularidad.probabilidad(rango);
+            stockMinimo[p] = (int) Math.max(5, Math.round(demanda * 7));
+            puntoPedido[p] = (int) Math.max(stockMinimo[p], Math.round(demanda * 21));
+            cantidadPedido[p] = (int) Math.max(20, Math.round(demanda * 60 / 10) * 10);
+        }
+    }
+
+    private void simularDias(long inicio) throws SQLException {
+        long totalDias = ChronoUnit.DAYS.between(desde, hasta) + 1;
+        long dia = 0;
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1), dia++) {
+            // Las compras se agrupan una vez por semana; el punto de pedido cubre esa espera
+            if (dia == 0 || fecha.getDayOfWeek() == DayOfWeek.MONDAY) {
+                abastecer(fecha);
+            }
+
+            double crecimiento = 0.85 + 0.3 * dia / totalDias;
+            double media = configuracion.getSalidasPorDia() * crecimiento *
+                    FACTOR_DIA[fecha.getDayOfWeek().getValue() - 1] * FACTOR_MES[fecha.getMonthValue() - 1];
+            int salidas = Distribuciones.poisson(random, media);
+            for (int i = 0; i < salidas; i++) {
+                registrarSalida(fecha);
+            }
+
+            int cuadresDelDia = Distribuciones.poisson(random, configuracion.getCuadresPorMes() / 30.0);
+            for (int i = 0; i < cuadresDelDia; i++) {
+                registrarCuadre(fecha);
+            }
+
+            confirmar();
+            if (fecha.getDayOfMonth() == 1 && fecha.getMonthValue() == 1 || fecha.equals(hasta)) {
+                double segundos = (System.nanoTime() - inicio) / 1e9;
+                System.out.printf("  %s  órdenes de salida: %,d  items: %,d  (%.0f s)%n",
+                        fecha, ordenesSalida.getTotal(), itemsSalida.getTotal(), segundos);
+            }
+        }
+    }
+
+    /** Una orden por proveedor y tipo con los productos que bajaron de su punto de pedido. */
+    private void abastecer(LocalDate fecha) throws SQLException {
+        Map<String, List<Integer>> pedidos = new TreeMap<>();
+        for (int p = 0; p < stock.length; p++) {
+            if (stock[p] < puntoPedido[p]) {
+                pedidos.computeIfAbsent(proveedor[p] + "|" + TIPO_ORDEN[categoria[p]], k -> new ArrayList<>()).add(p);
+            }
+        }
+
+        int maximo = configuracion.getItemsPorAbastecimiento();
+        for (Map.Entry<String, List<Integer>> pedido : pedidos.entrySet()) {
+            List<Integer> productos = pedido.getValue();
+            for (int desdeItem = 0; desdeItem < productos.size(); desdeItem += maximo) {
+                registrarAbastecimiento(fecha, productos.subList(desdeItem, Math.min(productos.size(), desdeItem + maximo)));
+            }
+        }
+    }
+
+    private void registrarAbastecimiento(LocalDate fecha, List<Integer> productos) throws SQLException {
+        long ordenId = siguienteAbastecimiento++;
+        int primero = productos.get(0);
+        String tipo = TIPO_ORDEN[categoria[primero]];
+        String prefijo = PREFIJO_OA.get(tipo) + "-" + fecha.getYear();
+        String numeroOA = String.format("%s-%03d", prefijo, secuenciasOA.merge(prefijo, 1, Integer::sum));
+        LocalDateTime creacion = fecha.atTime(8 + random.nextInt(3), random.nextInt(60));
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int p : productos) {
+            long itemId = siguienteItemAbastecimiento++;
+            int cantidad = cantidadPedido[p];
+            BigDecimal precioCompra = precio[p].multiply(BigDecimal.valueOf(0.9 + random.nextDouble() * 0.2))
+                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal subtotal = precioCompra.multiply(BigDecimal.valueOf(cantidad));
+            total = total.add(subtotal);
+
+            int[] vida = VIDA_UTIL[categoria[p]];
+            LocalDate vencimiento = vida[1] > 0 ? fecha.plusDays(vida[0] + random.nextInt(vida[1] - vida[0])) : null;
+            itemsAbastecimiento.agregar(itemId, ordenId, p + 1L, cantidad, precioCompra, subtotal, vencimiento);
+
+            LoteGenerado lote = new LoteGenerado(lotes.size() + 1L, p, itemId, ordenId, numeroOA, vencimiento,
+                    cantidad, creacion);
+            lotes.add(lote);
+            lotesAbiertos[p].addLast(lote);
+            stock[p] += cantidad;
+        }
+
+        ordenesAbastecimiento.agregar(ordenId, numeroOA, fecha, proveedor[primero] + 1L, usuarioId, tipo,
+                "COMPLETADA", total, null, creacion, creacion);
+    }
+
+    private void registrarSalida(LocalDate fecha) throws SQLException {
+        int items = Math.min(15, Distribuciones.geometrica(random, configuracion.getItemsPorSalida()));
+        int[] productos = new int[items];
+        int[] cantidades = new int[items];
+        int elegidos = 0;
+        for (int intento = 0; intento < items * 3 && elegidos < items; intento++) {
+            int p = productoDeRango[popularidad.muestra(random)];
+            boolean repetido = false;
+            for (int i = 0; i < elegidos; i++) {
+                if (productos[i] == p) repetido = true;
+            }
+            int cantidad = Math.min(stock[p], Distribuciones.geometrica(random, CANTIDAD_MEDIA_SALIDA));
+            if (repetido || cantidad <= 0) continue;
+            productos[elegidos] = p;
+            cantidades[elegidos++] = cantidad;
+        }
+        if (elegidos == 0) return;
+
+        long ordenId = siguienteOrdenSalida++;
+        int beneficiario = frecuenciaBeneficiario.muestra(random);
+        String mes = fecha.toString().substring(0, 7);
+        String numeroOrden = String.format("OS-%04d-%d", ordenId, fecha.getYear());
+        String numeroOrdenSalida = String.format("OS-%s-%04d", mes, secuenciasMes.merge(mes, 1, Integer::sum));
+        LocalDateTime registro = fecha.atTime(8 + random.nextInt(9), random.nextInt(60), random.nextInt(60));
+
+        int unidades = 0;
+        for (int i = 0; i < elegidos; i++) {
+            int p = productos[i];
+            long itemId = siguienteItemSalida++;
+            unidades += cantidades[i];
+            itemsSalida.agregar(itemId, ordenId, p + 1L, cantidades[i], precio[p],
+                    precio[p].multiply(BigDecimal.valueOf(cantidades[i])), registro);
+            movimientos.agregar(siguienteMovimiento++, p + 1L, "SALIDA", cantidades[i],
+                    "Orden de salida: " + numeroOrden, usuarioId, ordenId, registro);
+
+            stock[p] -= cantidades[i];
+            int pendiente = cantidades[i];
+            while (pendiente > 0) {
+                LoteGenerado lote = lotesAbiertos[p].peekFirst();
+                int tomado = Math.min(pendiente, lote.disponible);
+                lote.disponible -= tomado;
+                pendiente -= tomado;
+                asignaciones.agregar(siguienteAsignacion++, lote.id, ordenId, itemId, tomado, registro);
+                if (lote.disponible == 0) lotesAbiertos[p].pollFirst();
+            }
+        }
+
+        ordenesSalida.agregar(ordenId, numeroOrden, numeroOrdenSalida, fecha, dni(beneficiario),
+                nombres(beneficiario) + " " + apellidos(beneficiario), beneficiario + 1L,
+                String.format("TR-%d-%07d", fecha.getYear(), ordenId), unidades,
+                "Entrega a beneficiario", usuarioId, "COMPLETADA", registro, registro);
+    }
+
+    /**
+     * Cuadre sobre un producto con stock. Los aprobados se aplican a stock y lotes
+     * (descartar desde el lote más antiguo, reingresar al más reciente) para que la
+     * suma de lotes siga igual al stock.
+     */
+    private void registrarCuadre(LocalDate fecha) throws SQLException {
+        int p = productoDeRango[popularidad.muestra(random)];
+        if (stock[p] == 0) return;
+
+        boolean descartar = random.nextInt(10) < 7;
+        int cantidad = 1 + random.nextInt(Math.min(stock[p], 10));
+        boolean reciente = ChronoUnit.DAYS.between(fecha, hasta) < 30;
+        String estado = reciente && random.nextBoolean() ? "PENDIENTE" : random.nextInt(5) < 4 ? "APROBADO" : "RECHAZADO";
+        LocalDateTime registro = fecha.atTime(15, random.nextInt(60));
+        LoteGenerado ultimo = lotesAbiertos[p].peekLast();
+
+        cuadres.agregar(siguienteCuadre++, p + 1L, cantidad, ultimo != null ? ultimo.vencimiento : null,
+                MOTIVOS_CUADRE[random.nextInt(MOTIVOS_CUADRE.length)], descartar ? "descartar" : "reingresar",
+                estado, registro, "PENDIENTE".equals(estado) ? null : registro.plusHours(2));
+
+        if (!"APROBADO".equals(estado)) return;
+        if (descartar) {
+            stock[p] -= cantidad;
+            int pendiente = cantidad;
+            while (pendiente > 0) {
+                LoteGenerado lote = lotesAbiertos[p].peekFirst();
+                int tomado = Math.min(pendiente, lote.disponible);
+                lote.disponible -= tomado;
+                pendiente -= tomado;
+                if (lote.disponible == 0) lotesAbiertos[p].pollFirst();
+            }
+        } else if (ultimo != null) {
+            stock[p] += cantidad;
+            ultimo.disponible += cantidad;
+        }
+    }
+
+    private InsercionMultiple escribirLotes() throws SQLException {
+        InsercionMultiple insercion = new InsercionMultiple(conexion, configuracion.getFilasPorInsert(), "lotes",
+                "id", "producto_id", "orden_abastecimiento_item_id", "orden_abastecimiento_id", "numero_oa",
+                "fecha_vencimiento", "cantidad_inicial", "cantidad_disponible", "fecha_ingreso", "version");
+        for (LoteGenerado lote : lotes) {
+            insercion.agregar(lote.id, lote.producto + 1L, lote.itemId, lote.ordenId, lote.numeroOA,
+                    lote.vencimiento, lote.inicial, lote.disponible, lote.ingreso, 0L);
+        }
+        insercion.close();
+        return insercion;
+    }
+
+    /** Los productos se escriben al final, con el stock que dejó la simulación. */
+    private InsercionMultiple escribirProductos() throws SQLException {
+        InsercionMultiple insercion = new InsercionMultiple(conexion, configuracion.getFilasPorInsert(), "productos",
+                "id", "codigo", "nombre", "descripcion", "cantidad", "unidad_medida", "stock_minimo", "categoria",
+                "precio_unitario", "fecha_registro", "fecha_vencimiento");
+        for (int p = 0; p < stock.length; p++) {
+            LocalDate proximoVencimiento = null;
+            for (LoteGenerado lote : lotesAbiertos[p]) {
+                if (lote.vencimiento != null && (proximoVencimiento == null || lote.vencimiento.isBefore(proximoVencimiento))) {
+                    proximoVencimiento = lote.vencimiento;
+                }
+            }
+            insercion.agregar(p + 1L, codigo[p], nombre[p], "Generado para pruebas de rendimiento", stock[p],
+                    UNIDADES[categoria[p]], stockMinimo[p], CATEGORIAS[categoria[p]], precio[p],
+                    fechaRegistro[p], proximoVencimiento);
+        }
+        insercion.close();
+        return insercion;
+    }
+
+    private void confirmar() throws SQLException {
+        if (conexion != null) {
+            conexion.commit();
+        }
+    }
+
+    private void imprimirResumen(List<InsercionMultiple> tablas, long inicio) {
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long total = 0;
+        System.out.println();
+        for (InsercionMultiple tabla : tablas) {
+            System.out.printf("%-28s %,14d filas%n", tabla.getTabla(), tabla.getTotal());
+            total += tabla.getTotal();
+        }
+        System.out.printf("%-28s %,14d filas en %.1f s (%,.0f filas/s)%n", "TOTAL", total, segundos, total / segundos);
+    }
+
+    private static final class LoteGenerado {
+        private final long id;
+        private final int producto;
+        private final long itemId;
+        private final long ordenId;
+        private final String numeroOA;
+        private final LocalDate vencimiento;
+        private final int inicial;
+        private final LocalDateTime ingreso;
+        private int disponible;
+
+        private LoteGenerado(long id, int producto, long itemId, long ordenId, String numeroOA,
+                             LocalDate vencimiento, int inicial, LocalDateTime ingreso) {
+            this.id = id;
+            this.producto = producto;
+            this.itemId = itemId;
+            this.ordenId = ordenId;
+            this.numeroOA = numeroOA;
+            this.vencimiento = vencimiento;
+            this.inicial = inicial;
+            this.ingreso = ingreso;
+            this.disponible = inicial;
+        }
+    }
+}
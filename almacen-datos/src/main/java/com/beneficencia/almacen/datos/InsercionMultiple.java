@@ -0,0 +1,107 @@
+package com.beneficencia.almacen.datos;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Acumula filas de una tabla y las escribe con sentencias INSERT de varias filas.
+ *
+ * La sentencia de tamaño completo se prepara una sola vez y se reutiliza; solo el
+ * último tramo, más corto, usa una sentencia propia. Sin conexión (modo simulación)
+ * solo cuenta las filas.
+ */
+public class InsercionMultiple implements AutoCloseable {
+
+    // Límite de parámetros por sentencia preparada en MySQL
+    private static final int MAX_PARAMETROS = 65_535;
+
+    private final Connection conexion;
+    private final String tabla;
+    private final String[] columnas;
+    private final int filasPorSentencia;
+    private final Object[] buffer;
+
+    private PreparedStatement completa;
+    private int enBuffer;
+    private long total;
+
+    public InsercionMultiple(Connection conexion, int filasPorSentencia, String tabla, String... columnas) {
+        this.conexion = conexion;
+        this.tabla = tabla;
+        this.columnas = columnas;
+        this.filasPorSentencia = Math.max(1, Math.min(filasPorSentencia, MAX_PARAMETROS / columnas.length));
+        this.buffer = new Object[this.filasPorSentencia * columnas.length];
+    }
+
+    public void agregar(Object... valores) throws SQLException {
+        if (valores.length != columnas.length) {
+            throw new IllegalArgumentException(tabla + ": se esperaban " + columnas.length +
+                    " valores y llegaron " + valores.length);
+        }
+        System.arraycopy(valores, 0, buffer, enBuffer * columnas.length, valores.length);
+        if (++enBuffer == filasPorSentencia) {
+            vaciar();
+        }
+    }
+
+    public void vaciar() throws SQLException {
+        if (enBuffer == 0) return;
+        if (conexion == null) {
+            total += enBuffer;
+            enBuffer = 0;
+            return;
+        }
+
+        boolean esCompleta = enBuffer == filasPorSentencia;
+        if (esCompleta && completa == null) {
+            completa = conexion.prepareStatement(sql(filasPorSentencia));
+        }
+        PreparedStatement sentencia = esCompleta ? completa : conexion.prepareStatement(sql(enBuffer));
+        try {
+            int parametros = enBuffer * columnas.length;
+            for (int i = 0; i < parametros; i++) {
+                sentencia.setObject(i + 1, buffer[i]);
+                buffer[i] = null;
+            }
+            sentencia.executeUpdate();
+        } finally {
+            if (!esCompleta) {
+                sentencia.close();
+            }
+        }
+        total += enBuffer;
+        enBuffer = 0;
+    }
+
+    private String sql(int filas) {
+        StringBuilder fila = new StringBuilder("(");
+        for (int i = 0; i < columnas.length; i++) {
+            fila.append(i == 0 ? "?" : ",?");
+        }
+        fila.append(')');
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tabla)
+                .append(" (").append(String.join(",", columnas)).append(") VALUES ");
+        for (int i = 0; i < filas; i++) {
+            if (i > 0) sql.append(',');
+            sql.append(fila);
+        }
+        return sql.toString();
+    }
+
+    public String getTabla() { return tabla; }
+
+    public long getTotal() { return total + enBuffer; }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            vaciar();
+        } finally {
+            if (completa != null) {
+                completa.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.beneficencia.almacen.config;
+
+import com.beneficencia.almacen.evento.BusInvalidacion;
+import com.beneficencia.almacen.evento.BusInvalidacionJdbc;
+import com.beneficencia.almacen.evento.BusInvalidacionLocal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.util.UUID;
+
+@Configuration
+public class ClusterConfig {
+
+    @Value("${almacen.cluster.nodo:}")
+    private String nodo;
+
+    /**
+     * Con el perfil cluster los nodos se avisan los cambios por la tabla
+     * cambios_cluster de la base compartida.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "almacen.cluster.activo", havingValue = "true")
+    public BusInvalidacion busInvalidacionJdbc(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        String nombre = nombreNodo();
+        System.out.println("Modo cluster activo - nodo: " + nombre);
+        return new BusInvalidacionJdbc(dataSource, transactionManager, nombre);
+    }
+
+    /** Un solo nodo: no hay a quién avisar. */
+    @Bean(destroyMethod = "cerrar")
+    @ConditionalOnProperty(name = "almacen.cluster.activo", havingValue = "false", matchIfMissing = true)
+    public BusInvalidacionLocal busInvalidacionLocal() {
+        return new BusInvalidacionLocal(nombreNodo());
+    }
+
+    private String nombreNodo() {
+        if (!nodo.isBlank()) return nodo;
+        String equipo;
+        try {
+            equipo = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            equipo = "nodo";
+        }
+        // El sufijo distingue dos instancias en el mismo equipo
+        return equipo + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
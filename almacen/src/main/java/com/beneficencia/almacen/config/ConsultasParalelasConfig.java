@@ -0,0 +1,38 @@
+package com.beneficencia.almacen.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ConsultasParalelasConfig {
+
+    @Value("${almacen.consultas.hilos:6}")
+    private int hilos;
+
+    @Value("${almacen.consultas.cola:50}")
+    private int capacidadCola;
+
+    /**
+     * Pool acotado exclusivo para las consultas de solo lectura de las páginas
+     * de estadísticas y dashboard. Cada hilo abre su propia transacción, por lo que
+     * el tamaño debe quedar por debajo del pool de conexiones de Hikari.
+     */
+    @Bean(name = "consultasExecutor")
+    public ThreadPoolTaskExecutor consultasExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(capacidadCola);
+        executor.setThreadNamePrefix("consulta-");
+        // Con la cola llena la consulta se rechaza y la página sale sin ella; correrla
+        // en el hilo de la petición la dejaría sin tiempo límite
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
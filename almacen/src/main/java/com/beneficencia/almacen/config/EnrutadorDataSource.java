@@ -0,0 +1,54 @@
+package com.beneficencia.almacen.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Envía a la réplica las transacciones readOnly de los servicios que toleran su
+ * retraso (dashboard, estadísticas, reportes) y todo lo demás a la base principal.
+ *
+ * Las listas que el usuario ve después de guardar (inventario, órdenes) se quedan en
+ * la principal: en la réplica podría faltar la fila recién escrita, que puede llevar
+ * hasta almacen.replica.retraso-maximo-ms de atraso. Qué transacciones van a la
+ * réplica se decide por su nombre, que para @Transactional es "clase.método".
+ *
+ * Se usa detrás de un LazyConnectionDataSourceProxy: la conexión real se pide con
+ * la primera sentencia, cuando la transacción ya quedó registrada como readOnly.
+ * Si la réplica está atrasada o caída, las lecturas también van a la principal.
+ */
+public class EnrutadorDataSource extends AbstractRoutingDataSource {
+
+    public enum Destino { PRINCIPAL, REPLICA }
+
+    private final MonitorReplica monitor;
+    private final List<String> transaccionesEnReplica;
+
+    /**
+     * @param transaccionesEnReplica prefijos de nombre de transacción que pueden leer
+     *                               de la réplica (clases completas o nombres de TransactionTemplate)
+     */
+    public EnrutadorDataSource(MonitorReplica monitor, List<String> transaccionesEnReplica) {
+        this.monitor = monitor;
+        this.transaccionesEnReplica = List.copyOf(transaccionesEnReplica);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && admiteRetraso(TransactionSynchronizationManager.getCurrentTransactionName())
+                && monitor.isDisponible()) {
+            return Destino.REPLICA;
+        }
+        return Destino.PRINCIPAL;
+    }
+
+    private boolean admiteRetraso(String transaccion) {
+        if (transaccion == null) return false;
+        for (String prefijo : transaccionesEnReplica) {
+            if (transaccion.startsWith(prefijo)) return true;
+        }
+        return false;
+    }
+}
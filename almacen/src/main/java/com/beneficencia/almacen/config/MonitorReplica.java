@@ -0,0 +1,80 @@
+package com.beneficencia.almacen.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mide el retraso de la réplica con un latido: escribe la hora actual en
+ * estado_procesos de la base principal y lee la última hora que llegó a la réplica.
+ * Funciona con cualquier forma de replicación y no necesita permisos para
+ * SHOW REPLICA STATUS.
+ *
+ * Si el retraso supera almacen.replica.retraso-maximo-ms, o la réplica no responde,
+ * las lecturas pasan a la principal hasta que se ponga al día. Con un máximo
+ * negativo no se mide el retraso (dos instancias locales sin replicación).
+ */
+public class MonitorReplica {
+
+    private static final String PROCESO = "latido-replica";
+
+    private final JdbcTemplate principal;
+    private final JdbcTemplate replica;
+    private final long retrasoMaximoMs;
+
+    private volatile boolean disponible;
+    private volatile long retrasoMs = -1;
+
+    public MonitorReplica(DataSource principal, DataSource replica, long retrasoMaximoMs) {
+        this.principal = new JdbcTemplate(principal);
+        this.replica = new JdbcTemplate(replica);
+        this.retrasoMaximoMs = retrasoMaximoMs;
+    }
+
+    @Scheduled(fixedDelayString = "${almacen.replica.latido-ms:1000}")
+    public void verificar() {
+        boolean estaba = disponible;
+        try {
+            LocalDateTime ahora = LocalDateTime.now();
+            if (retrasoMaximoMs >= 0) {
+                principal.update("INSERT INTO estado_procesos (nombre, ultimo_id, fecha_ejecucion) VALUES (?, 0, ?) " +
+                        "ON DUPLICATE KEY UPDATE fecha_ejecucion = VALUES(fecha_ejecucion)", PROCESO, Timestamp.valueOf(ahora));
+            }
+
+            List<Timestamp> latido = replica.queryForList(
+                    "SELECT fecha_ejecucion FROM estado_procesos WHERE nombre = ?", Timestamp.class, PROCESO);
+            if (retrasoMaximoMs < 0) {
+                retrasoMs = 0;
+                disponible = true;
+            } else if (latido.isEmpty() || latido.get(0) == null) {
+                retrasoMs = -1;
+                disponible = false;
+            } else {
+                retrasoMs = Math.max(0, Duration.between(latido.get(0).toLocalDateTime(), ahora).toMillis());
+                disponible = retrasoMs <= retrasoMaximoMs;
+            }
+        } catch (Exception e) {
+            disponible = false;
+            retrasoMs = -1;
+            if (estaba) {
+                System.err.println("Réplica de lectura sin respuesta: " + e.getMessage());
+            }
+        }
+
+        if (estaba != disponible) {
+            System.out.println(disponible
+                    ? "Réplica de lectura disponible (retraso " + retrasoMs + " ms): lecturas readOnly a la réplica"
+                    : "Réplica de lectura atrasada o caída (retraso " + retrasoMs + " ms): lecturas a la base principal");
+        }
+    }
+
+    public boolean isDisponible() { return disponible; }
+
+    /** Último retraso medido en milisegundos, o -1 si no se pudo medir. */
+    public long getRetrasoMs() { return retrasoMs; }
+}
@@ -0,0 +1,82 @@
+package com.beneficencia.almacen.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Separación de lecturas y escrituras. Solo se activa si se configura
+ * almacen.replica.datasource.jdbc-url; sin ella la aplicación usa el único
+ * datasource de spring.datasource como siempre.
+ *
+ * Las transacciones @Transactional(readOnly = true) de los servicios listados en
+ * almacen.replica.transacciones van a la réplica (ver EnrutadorDataSource); Spring ya
+ * abre esas sesiones de Hibernate en modo solo lectura (sin snapshots ni dirty
+ * checking) y con FlushMode.MANUAL.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "almacen.replica.datasource", name = "jdbc-url")
+public class ReplicaLecturaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource datasourcePrincipal(DataSourceProperties propiedades) {
+        HikariDataSource dataSource = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("principal");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("almacen.replica.datasource")
+    public HikariDataSource datasourceReplica() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public MonitorReplica monitorReplica(@Qualifier("datasourcePrincipal") DataSource principal,
+                                         @Qualifier("datasourceReplica") DataSource replica,
+                                         @Value("${almacen.replica.retraso-maximo-ms:5000}") long retrasoMaximoMs) {
+        return new MonitorReplica(principal, replica, retrasoMaximoMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("datasourcePrincipal") DataSource principal,
+                                 @Qualifier("datasourceReplica") DataSource replica,
+                                 MonitorReplica monitor,
+                                 @Value("${almacen.replica.transacciones}") List<String> transaccionesEnReplica) {
+        EnrutadorDataSource enrutador = new EnrutadorDataSource(monitor, transaccionesEnReplica);
+        enrutador.setTargetDataSources(Map.of(
+                EnrutadorDataSource.Destino.PRINCIPAL, principal,
+                EnrutadorDataSource.Destino.REPLICA, replica));
+        enrutador.setDefaultTargetDataSource(principal);
+        enrutador.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(enrutador);
+    }
+
+    /**
+     * Con open-in-view la sesión de Hibernate dura toda la petición y por defecto
+     * conserva la conexión entre transacciones; liberándola al terminar cada una,
+     * la siguiente vuelve a pasar por el enrutador.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer liberarConexionPorTransaccion() {
+        return propiedades -> propiedades.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
@@ -3,6 +3,7 @@ package com.beneficencia.almacen.config;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -42,7 +43,10 @@ public class SecurityConfig {
                         // Recursos estáticos accesibles sin autenticación
                         .requestMatchers("/css/**", "/js/**", "/img/**", "/webjars/**").permitAll()
                         .requestMatchers("/login", "/registro", "/error/**", "/access-denied").permitAll()
-                        .requestMatchers("/usuarios/**").hasRole("ADMIN")
+                        .requestMatchers("/usuarios/**", "/admin/**", "/api/duplicados/**").hasRole("ADMIN")
+                        .requestMatchers("/api/campanas/**", "/checkin", "/api/checkin/**").hasAnyRole("ADMIN", "ALMACENERO")
+                        .requestMatchers(HttpMethod.POST, "/api/kits/**").hasAnyRole("ADMIN", "ALMACENERO")
+                        .requestMatchers(HttpMethod.DELETE, "/api/kits/**").hasAnyRole("ADMIN", "ALMACENERO")
                         .requestMatchers("/ordenes-salida/**", "/ordenes-abastecimiento/**", "/productos/**", "/dashboard").hasAnyRole("ADMIN", "ALMACENERO", "USUARIO")
                         .requestMatchers("/", "/inicio").authenticated()
                         .anyRequest().authenticated()
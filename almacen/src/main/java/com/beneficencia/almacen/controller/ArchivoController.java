@@ -0,0 +1,60 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.service.ArchivoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estado del archivo de años cerrados (filas en caliente y archivadas por tabla) y
+ * consultas históricas de movimientos que leen los dos niveles.
+ */
+@RestController
+@RequestMapping("/admin/archivo")
+public class ArchivoController {
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> obtenerResumen() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("archivo", archivoService.resumen());
+        return ResponseEntity.ok(response);
+    }
+
+    /** Vuelve a crear o completar las tablas de archivo, por ejemplo si la base no estaba al arrancar. */
+    @PostMapping("/preparar")
+    public ResponseEntity<Map<String, Object>> preparar() {
+        archivoService.preparar();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("archivo", archivoService.resumen());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/movimientos")
+    public ResponseEntity<Map<String, Object>> movimientos(
+            @RequestParam Long productoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "100") int limite) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("movimientos", archivoService.movimientosDeProducto(productoId, desde, hasta, limite));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Error al consultar los movimientos: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.service.AuditoriaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@Controller
+@RequestMapping("/admin/auditoria")
+public class AuditoriaController {
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Value("${almacen.auditoria.tamano-pagina:50}")
+    private int tamanoPagina;
+
+    @GetMapping
+    public String mostrarAuditoria(
+            @RequestParam(value = "entidad", required = false) String entidad,
+            @RequestParam(value = "entidadId", required = false) Long entidadId,
+            @RequestParam(value = "usuario", required = false) String usuario,
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            Model model) {
+        AuditoriaService.Pagina pagina = auditoriaService.buscar(entidad, entidadId, usuario, desde, hasta, cursor, tamanoPagina);
+
+        model.addAttribute("registros", pagina.getRegistros());
+        model.addAttribute("siguienteCursor", pagina.getSiguienteCursor());
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("entidades", auditoriaService.getEntidades());
+        model.addAttribute("entidad", entidad);
+        model.addAttribute("entidadId", entidadId);
+        model.addAttribute("usuario", usuario);
+        model.addAttribute("desde", desde);
+        model.addAttribute("hasta", hasta);
+        model.addAttribute("resumen", auditoriaService.resumen());
+        return "admin/auditoria";
+    }
+
+    /** Misma consulta en JSON; siguienteCursor es null en la última página. */
+    @GetMapping("/buscar")
+    @ResponseBody
+    public Map<String, Object> buscar(
+            @RequestParam(value = "entidad", required = false) String entidad,
+            @RequestParam(value = "entidadId", required = false) Long entidadId,
+            @RequestParam(value = "usuario", required = false) String usuario,
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", defaultValue = "50") int limite) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            AuditoriaService.Pagina pagina = auditoriaService.buscar(entidad, entidadId, usuario, desde, hasta, cursor, limite);
+            response.put("success", true);
+            response.put("registros", pagina.getRegistros());
+            response.put("siguienteCursor", pagina.getSiguienteCursor());
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", "Error en la consulta de auditoría: " + e.getMessage());
+        }
+        return response;
+    }
+}
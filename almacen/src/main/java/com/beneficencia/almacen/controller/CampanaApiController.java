@@ -0,0 +1,161 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.model.Campana;
+import com.beneficencia.almacen.service.CampanaService;
+import com.beneficencia.almacen.trabajo.PlanificadorTrabajos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Campañas de distribución masiva. La generación de órdenes corre en segundo plano
+ * con el trabajo "campanas"; GET /{id} muestra el avance.
+ */
+@RestController
+@RequestMapping("/api/campanas")
+public class CampanaApiController {
+
+    private static final String TRABAJO = "campanas";
+
+    @Autowired
+    private CampanaService campanaService;
+
+    @Autowired
+    private PlanificadorTrabajos planificadorTrabajos;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listarCampanas() {
+        try {
+            List<Map<String, Object>> campanas = campanaService.listar();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("campanas", campanas);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse("Error al listar campañas: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Cuerpo: nombre, descripcion, fechaSalida (yyyy-MM-dd), items [{productoId, cantidad}]
+     * y beneficiarios [{dni, nombre}] o lista, texto con una línea "dni;nombre" por
+     * beneficiario.
+     */
+    @PostMapping
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<Map<String, Object>> crearCampana(@RequestBody Map<String, Object> request,
+                                                            Authentication authentication) {
+        try {
+            Map<Long, Integer> canasta = new LinkedHashMap<>();
+            for (Map<String, Object> item : (List<Map<String, Object>>) request.getOrDefault("items", List.of())) {
+                canasta.merge(Long.valueOf(item.get("productoId").toString()),
+                        Integer.valueOf(item.get("cantidad").toString()), Integer::sum);
+            }
+
+            Map<String, String> beneficiarios = new LinkedHashMap<>();
+            for (Map<String, Object> beneficiario : (List<Map<String, Object>>) request.getOrDefault("beneficiarios", List.of())) {
+                Object nombre = beneficiario.get("nombre");
+                beneficiarios.put(beneficiario.get("dni").toString().trim(), nombre != null ? nombre.toString().trim() : null);
+            }
+            Object lista = request.get("lista");
+            if (lista != null) {
+                for (String linea : lista.toString().split("\\R")) {
+                    if (linea.isBlank()) continue;
+                    String[] partes = linea.split("[;,\\t]", 2);
+                    beneficiarios.put(partes[0].trim(), partes.length > 1 ? partes[1].trim() : null);
+                }
+            }
+
+            Object fechaSalida = request.get("fechaSalida");
+            Campana campana = campanaService.crear(
+                    (String) request.get("nombre"),
+                    (String) request.get("descripcion"),
+                    fechaSalida != null && !fechaSalida.toString().isBlank() ? LocalDate.parse(fechaSalida.toString()) : null,
+                    canasta, beneficiarios, authentication.getName());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Campaña registrada con " + campana.getTotalBeneficiarios() + " beneficiarios");
+            response.put("id", campana.getId());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse("Error al crear la campaña: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> obtenerProgreso(@PathVariable Long id) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("campana", campanaService.obtenerProgreso(id));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/iniciar")
+    public ResponseEntity<Map<String, Object>> iniciarCampana(@PathVariable Long id) {
+        try {
+            campanaService.iniciar(id);
+            planificadorTrabajos.ejecutarAhora(TRABAJO);
+            return ResponseEntity.ok(crearRespuesta("Stock reservado; la generación de órdenes comenzó"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/pausar")
+    public ResponseEntity<Map<String, Object>> pausarCampana(@PathVariable Long id) {
+        try {
+            campanaService.pausar(id);
+            return ResponseEntity.ok(crearRespuesta("Campaña pausada"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/reanudar")
+    public ResponseEntity<Map<String, Object>> reanudarCampana(@PathVariable Long id) {
+        try {
+            campanaService.reanudar(id);
+            planificadorTrabajos.ejecutarAhora(TRABAJO);
+            return ResponseEntity.ok(crearRespuesta("Campaña reanudada"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/cancelar")
+    public ResponseEntity<Map<String, Object>> cancelarCampana(@PathVariable Long id) {
+        try {
+            Campana campana = campanaService.cancelar(id);
+            return ResponseEntity.ok(crearRespuesta(campana.getMensaje()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> crearRespuesta(String mensaje) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", mensaje);
+        return response;
+    }
+
+    private Map<String, Object> crearErrorResponse(String mensaje) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", mensaje);
+        return errorResponse;
+    }
+}
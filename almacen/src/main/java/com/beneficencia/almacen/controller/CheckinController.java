@@ -0,0 +1,114 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.model.Campana;
+import com.beneficencia.almacen.repository.CampanaRepository;
+import com.beneficencia.almacen.service.CheckinService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro de entregas del día de distribución de una campaña: pantalla en
+ * /checkin y API en /api/checkin.
+ */
+@Controller
+public class CheckinController {
+
+    @Autowired
+    private CheckinService checkinService;
+
+    @Autowired
+    private CampanaRepository campanaRepository;
+
+    @GetMapping("/checkin")
+    public String mostrarCheckin(Model model) {
+        List<Campana> campanas = campanaRepository.findAllByOrderByFechaRegistroDesc().stream()
+                .filter(c -> c.getEstado() == Campana.EstadoCampana.EN_PROCESO
+                        || c.getEstado() == Campana.EstadoCampana.COMPLETADA)
+                .toList();
+        model.addAttribute("campanas", campanas);
+        model.addAttribute("abiertos", checkinService.getAbiertos());
+        return "checkin";
+    }
+
+    @PostMapping("/api/checkin/{campanaId}/abrir")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> abrirPadron(@PathVariable Long campanaId) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("padron", checkinService.abrir(campanaId));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/api/checkin/{campanaId}/cerrar")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> cerrarPadron(@PathVariable Long campanaId) {
+        try {
+            checkinService.cerrar(campanaId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Padrón cerrado; entregas guardadas");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/api/checkin/{campanaId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> obtenerResumen(@PathVariable Long campanaId) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("padron", checkinService.resumen(campanaId));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/api/checkin/{campanaId}/{dni}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> consultarDni(@PathVariable Long campanaId, @PathVariable String dni) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("beneficiario", checkinService.consultar(campanaId, dni));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/api/checkin/{campanaId}/{dni}/entregar")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> registrarEntrega(@PathVariable Long campanaId, @PathVariable String dni,
+                                                                Authentication authentication) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("beneficiario", checkinService.entregar(campanaId, dni, authentication.getName()));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> crearErrorResponse(String mensaje) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", mensaje);
+        return errorResponse;
+    }
+}
@@ -1,11 +1,15 @@
 package com.beneficencia.almacen.controller;
 
+import com.beneficencia.almacen.service.ConsultaParalelaService;
 import com.beneficencia.almacen.service.DashboardService;
+import com.beneficencia.almacen.service.NotificacionService;
+import com.beneficencia.almacen.service.RadarVencimientoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -17,15 +21,31 @@ public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
 
+    @Autowired
+    private ConsultaParalelaService consultaParalelaService;
+
+    @Autowired
+    private NotificacionService notificacionService;
+
+    @Autowired
+    private RadarVencimientoService radarVencimientoService;
+
     @GetMapping("/dashboard")
     public String mostrarDashboard(Model model) {
+        // Se toma antes de consultar para que el flujo SSE reenvíe lo ocurrido durante la carga
+        String ultimoEventoId = notificacionService.getUltimoEventoId();
         try {
 
-            Map<String, Object> dashboardData = dashboardService.getDashboardData();
+            ConsultaParalelaService.ResultadoConsultas dashboardData = consultaParalelaService.nuevas()
+                    .agregar("movimientosRecientes", dashboardService::obtenerMovimientosRecientes, List.of())
+                    .agregar("productosSinMovimientos", dashboardService::obtenerProductosSinMovimientos, List.of())
+                    .agregar("productosStockBajo", dashboardService::obtenerProductosStockBajo, List.of())
+                    .ejecutar();
 
             model.addAttribute("movimientosRecientes", dashboardData.get("movimientosRecientes"));
             model.addAttribute("productosSinMovimientos", dashboardData.get("productosSinMovimientos"));
             model.addAttribute("productosStockBajo", dashboardData.get("productosStockBajo"));
+            model.addAttribute("consultasIncompletas", dashboardData.getIncompletas());
 
             List<?> productosSinMovimientosList = (List<?>) dashboardData.get("productosSinMovimientos");
             List<?> productosStockBajoList = (List<?>) dashboardData.get("productosStockBajo");
@@ -35,6 +55,11 @@ public class DashboardController {
 
             model.addAttribute("cantidadSinMovimientos", cantidadSinMovimientos);
             model.addAttribute("cantidadStockBajo", cantidadStockBajo);
+            model.addAttribute("ultimoEventoId", ultimoEventoId);
+
+            // Índice en memoria: no necesita pasar por las consultas paralelas
+            model.addAttribute("lotesPorVencer", radarVencimientoService.obtenerProximosAVencer(90, true));
+            model.addAttribute("resumenVencimientos", radarVencimientoService.obtenerResumen());
 
             return "dashboard";
 
@@ -47,11 +72,23 @@ public class DashboardController {
             model.addAttribute("productosStockBajo", new ArrayList<>());
             model.addAttribute("cantidadSinMovimientos", 0);
             model.addAttribute("cantidadStockBajo", 0);
+            model.addAttribute("ultimoEventoId", ultimoEventoId);
+            model.addAttribute("lotesPorVencer", new ArrayList<>());
+            model.addAttribute("resumenVencimientos", null);
 
             return "dashboard";
         }
     }
 
+    @GetMapping("/api/dashboard/stats")
+    @ResponseBody
+    public Map<String, Object> obtenerEstadisticasDashboard() {
+        String ultimoEventoId = notificacionService.getUltimoEventoId();
+        Map<String, Object> stats = dashboardService.obtenerResumen();
+        stats.put("ultimoEventoId", ultimoEventoId);
+        return stats;
+    }
+
     @GetMapping("/error/access-denied")
     public String accesoDenegado(@RequestParam(value = "reason", required = false) String reason,
                                  Model model) {
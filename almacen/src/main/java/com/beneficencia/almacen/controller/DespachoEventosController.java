@@ -0,0 +1,47 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.evento.DespachadorEventos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Métricas del despacho de eventos: atraso de cada consumidor respecto del último
+ * evento publicado, tamaño de los lotes, eventos perdidos o rechazados y filas
+ * pendientes en la bandeja de salida.
+ */
+@RestController
+@RequestMapping("/admin/eventos")
+public class DespachoEventosController {
+
+    @Autowired
+    private DespachadorEventos despachadorEventos;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> obtenerMetricas() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("despacho", despachadorEventos.resumen());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/reenviar")
+    public ResponseEntity<Map<String, Object>> reenviar() {
+        try {
+            despachadorEventos.reenviarPendientes();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Bandeja de salida revisada");
+            response.put("despacho", despachadorEventos.resumen());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Error al reenviar los eventos pendientes: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+}
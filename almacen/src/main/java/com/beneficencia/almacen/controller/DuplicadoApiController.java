@@ -0,0 +1,92 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.service.DuplicadoService;
+import com.beneficencia.almacen.trabajo.PlanificadorTrabajos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cola de revisión de beneficiarios duplicados. La detección corre en segundo plano
+ * con el trabajo "duplicados"; aquí se listan los pares pendientes y se fusionan o
+ * descartan.
+ */
+@RestController
+@RequestMapping("/api/duplicados")
+public class DuplicadoApiController {
+
+    private static final String TRABAJO = "duplicados";
+
+    @Autowired
+    private DuplicadoService duplicadoService;
+
+    @Autowired
+    private PlanificadorTrabajos planificadorTrabajos;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listarPendientes(@RequestParam(defaultValue = "50") int limite) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("pares", duplicadoService.listarPendientes(Math.min(limite, 500)));
+            response.put("resumen", duplicadoService.resumen());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse("Error al listar duplicados: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/analizar")
+    public ResponseEntity<Map<String, Object>> analizar() {
+        try {
+            planificadorTrabajos.ejecutarAhora(TRABAJO);
+            return ResponseEntity.ok(crearRespuesta("La búsqueda de duplicados comenzará en la próxima revisión de trabajos"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    /** Cuerpo: conservarId, el beneficiario del par que queda. */
+    @PostMapping("/{id}/fusionar")
+    public ResponseEntity<Map<String, Object>> fusionar(@PathVariable Long id, @RequestBody Map<String, Object> request,
+                                                        Authentication authentication) {
+        try {
+            Object conservarId = request.get("conservarId");
+            if (conservarId == null) {
+                return ResponseEntity.badRequest().body(crearErrorResponse("Indique el beneficiario a conservar"));
+            }
+            duplicadoService.fusionar(id, Long.valueOf(conservarId.toString()), authentication.getName());
+            return ResponseEntity.ok(crearRespuesta("Beneficiarios fusionados"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/descartar")
+    public ResponseEntity<Map<String, Object>> descartar(@PathVariable Long id, Authentication authentication) {
+        try {
+            duplicadoService.descartar(id, authentication.getName());
+            return ResponseEntity.ok(crearRespuesta("Par descartado"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> crearRespuesta(String mensaje) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", mensaje);
+        return response;
+    }
+
+    private Map<String, Object> crearErrorResponse(String mensaje) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", mensaje);
+        return errorResponse;
+    }
+}
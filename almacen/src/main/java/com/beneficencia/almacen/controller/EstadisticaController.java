@@ -1,11 +1,16 @@
 package com.beneficencia.almacen.controller;
 
+import com.beneficencia.almacen.service.ConsultaParalelaService;
 import com.beneficencia.almacen.service.EstadisticaService;
+import com.beneficencia.almacen.service.PronosticoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import java.util.HashMap;
 import java.util.List;
@@ -18,22 +23,31 @@ public class EstadisticaController {
     @Autowired
     private EstadisticaService estadisticaService;
 
+    @Autowired
+    private ConsultaParalelaService consultaParalelaService;
+
+    @Autowired
+    private PronosticoService pronosticoService;
 
     @GetMapping("")
     public String mostrarEstadisticas(Model model) {
         try {
             System.out.println("=== CARGANDO PÁGINA DE ESTADÍSTICAS ===");
 
-            List<Map<String, Object>> productosMasSolicitados = estadisticaService.obtenerProductosMasSolicitados();
-            List<Map<String, Object>> beneficiariosMasActivos = estadisticaService.obtenerBeneficiariosMasActivos();
-            List<Map<String, Object>> entregasPorMes = estadisticaService.obtenerEntregasPorMes();
+            ConsultaParalelaService.ResultadoConsultas resultado = consultaParalelaService.nuevas()
+                    .agregar("productosMasSolicitados", estadisticaService::obtenerProductosMasSolicitados, List.of())
+                    .agregar("beneficiariosMasActivos", estadisticaService::obtenerBeneficiariosMasActivos, List.of())
+                    .agregar("entregasPorMes", estadisticaService::obtenerEntregasPorMes, List.of())
+                    .agregar("totalBeneficiarios", estadisticaService::contarTotalBeneficiarios, 0L)
+                    .agregar("totalProductosEntregados", estadisticaService::contarTotalProductosEntregados, 0L)
+                    .agregar("mesConMasEntregas", estadisticaService::obtenerMesConMasEntregas, "Sin datos")
+                    .ejecutar();
+
+            model.addAllAttributes(resultado.getValores());
+            model.addAttribute("consultasIncompletas", resultado.getIncompletas());
 
-            model.addAttribute("productosMasSolicitados", productosMasSolicitados);
-            model.addAttribute("beneficiariosMasActivos", beneficiariosMasActivos);
-            model.addAttribute("entregasPorMes", entregasPorMes);
-            model.addAttribute("totalBeneficiarios", estadisticaService.contarTotalBeneficiarios());
-            model.addAttribute("totalProductosEntregados", estadisticaService.contarTotalProductosEntregados());
-            model.addAttribute("mesConMasEntregas", estadisticaService.obtenerMesConMasEntregas());
+            System.out.println("Estadísticas cargadas en " + resultado.getDuracionMs() + " ms" +
+                    (resultado.esParcial() ? " (parcial: " + resultado.getIncompletas() + ")" : ""));
 
             return "estadisticas/graficos";
 
@@ -101,4 +115,77 @@ public class EstadisticaController {
         }
         return response;
     }
-}
\ No newline at end of file
+
+
+    @GetMapping("/api/pronosticos/productos/{id}")
+    @ResponseBody
+    public Map<String, Object> obtenerPronosticoProductoJson(@PathVariable Long id,
+                                                             @RequestParam(defaultValue = "3") int meses) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("data", pronosticoService.pronosticarProducto(id, validarMeses(meses)));
+            response.put("message", "Pronóstico del producto obtenido");
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+        }
+        return response;
+    }
+
+
+    @GetMapping("/api/pronosticos/productos")
+    @ResponseBody
+    public Map<String, Object> obtenerPronosticosMayorDemandaJson(@RequestParam(defaultValue = "3") int meses,
+                                                                  @RequestParam(defaultValue = "20") int limite) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("data", pronosticoService.pronosticarMayorDemanda(validarMeses(meses), Math.max(1, Math.min(limite, 500))));
+            response.put("message", "Productos con mayor demanda prevista obtenidos");
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+        }
+        return response;
+    }
+
+
+    @GetMapping("/api/pronosticos/categorias")
+    @ResponseBody
+    public Map<String, Object> obtenerPronosticosCategoriasJson(@RequestParam(defaultValue = "3") int meses) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("data", pronosticoService.pronosticarCategorias(validarMeses(meses)));
+            response.put("message", "Pronósticos por categoría obtenidos");
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+        }
+        return response;
+    }
+
+
+    @PostMapping("/api/pronosticos/reconstruir")
+    @ResponseBody
+    public Map<String, Object> reconstruirPronosticosJson() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("data", pronosticoService.reconstruir());
+            response.put("message", "Pronósticos reconstruidos");
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+        }
+        return response;
+    }
+
+    private int validarMeses(int meses) {
+        if (meses < 1 || meses > 24) {
+            throw new IllegalArgumentException("meses debe estar entre 1 y 24");
+        }
+        return meses;
+    }
+}
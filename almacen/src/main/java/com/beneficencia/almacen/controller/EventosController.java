@@ -0,0 +1,32 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.service.NotificacionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/eventos")
+public class EventosController {
+
+    @Autowired
+    private NotificacionService notificacionService;
+
+    /**
+     * Flujo SSE de cambios de inventario. El navegador reenvía Last-Event-ID al
+     * reconectarse; la primera conexión puede indicarlo con ?lastEventId= usando
+     * el id que devolvió la carga inicial de la página.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribir(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        String valor = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        // Un id que no es de este arranque (o no se entiende) provoca RESINCRONIZAR
+        return notificacionService.suscribir(valor != null && !valor.isBlank() ? valor.trim() : null);
+    }
+}
@@ -0,0 +1,46 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.service.FiltrosExistencia;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Métricas de los filtros de existencia: consultas evitadas, falsos positivos
+ * observados y tasa estimada según la ocupación de cada filtro.
+ */
+@RestController
+@RequestMapping("/admin/filtros-existencia")
+public class FiltroExistenciaController {
+
+    @Autowired
+    private FiltrosExistencia filtrosExistencia;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> obtenerMetricas() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("filtros", filtrosExistencia.resumen());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/recargar")
+    public ResponseEntity<Map<String, Object>> recargar() {
+        try {
+            filtrosExistencia.recargar();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Filtros reconstruidos");
+            response.put("filtros", filtrosExistencia.resumen());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "Error al reconstruir los filtros: " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.model.Kit;
+import com.beneficencia.almacen.service.DisponibilidadKits;
+import com.beneficencia.almacen.service.KitService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/kits")
+public class KitApiController {
+
+    @Autowired
+    private KitService kitService;
+
+    @Autowired
+    private DisponibilidadKits disponibilidadKits;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listarKits() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("kits", kitService.listar());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse("Error al listar kits: " + e.getMessage()));
+        }
+    }
+
+    /** Kits completos que se pueden armar con el stock actual, con sus componentes ya expandidos. */
+    @GetMapping("/disponibilidad")
+    public ResponseEntity<Map<String, Object>> obtenerDisponibilidad() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("kits", disponibilidadKits.resumen());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse("Error al obtener disponibilidad: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Cuerpo: codigo, nombre, descripcion y componentes [{productoId | subkitId, cantidad}].
+     * Si ya existe un kit con el código se reemplazan sus componentes.
+     */
+    @PostMapping
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<Map<String, Object>> guardarKit(@RequestBody Map<String, Object> request) {
+        try {
+            Map<Long, Integer> productos = new LinkedHashMap<>();
+            Map<Long, Integer> subkits = new LinkedHashMap<>();
+            for (Map<String, Object> componente : (List<Map<String, Object>>) request.getOrDefault("componentes", List.of())) {
+                Integer cantidad = Integer.valueOf(componente.get("cantidad").toString());
+                if (componente.get("productoId") != null) {
+                    productos.merge(Long.valueOf(componente.get("productoId").toString()), cantidad, Integer::sum);
+                } else if (componente.get("subkitId") != null) {
+                    subkits.merge(Long.valueOf(componente.get("subkitId").toString()), cantidad, Integer::sum);
+                }
+            }
+
+            Kit kit = kitService.guardar((String) request.get("codigo"), (String) request.get("nombre"),
+                    (String) request.get("descripcion"), productos, subkits);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Kit " + kit.getCodigo() + " guardado");
+            response.put("id", kit.getId());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse("Error al guardar el kit: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> desactivarKit(@PathVariable Long id) {
+        try {
+            kitService.desactivar(id);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Kit desactivado");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> crearErrorResponse(String mensaje) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", mensaje);
+        return errorResponse;
+    }
+}
@@ -3,13 +3,21 @@ package com.beneficencia.almacen.controller;
 import com.beneficencia.almacen.model.*;
 import com.beneficencia.almacen.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Controller
@@ -28,6 +36,9 @@ public class OrdenAbastecimientoController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private ImpresionLoteService impresionLoteService;
+
     @GetMapping
     public String listarOrdenesAbastecimiento(Model model, Authentication authentication) {
         try {
@@ -98,6 +109,7 @@ public class OrdenAbastecimientoController {
                                              @RequestParam(required = false) List<Long> productoIds,
                                              @RequestParam(required = false) List<Integer> cantidades,
                                              @RequestParam(required = false) List<BigDecimal> precios,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) List<LocalDate> vencimientos,
                                              Authentication authentication,
                                              Model model,
                                              RedirectAttributes redirectAttributes) {
@@ -119,7 +131,7 @@ public class OrdenAbastecimientoController {
 
             ordenAbastecimiento.setUsuario(usuario);
 
-            procesarItemsOrden(ordenAbastecimiento, productoIds, cantidades, precios);
+            procesarItemsOrden(ordenAbastecimiento, productoIds, cantidades, precios, vencimientos);
 
             OrdenAbastecimiento ordenGuardada = ordenAbastecimientoService.guardarOrden(ordenAbastecimiento);
             System.out.println("Orden guardada exitosamente: " + ordenGuardada.getNumeroOA());
@@ -183,6 +195,7 @@ public class OrdenAbastecimientoController {
                                                 @RequestParam(required = false) List<Long> productoIds,
                                                 @RequestParam(required = false) List<Integer> cantidades,
                                                 @RequestParam(required = false) List<BigDecimal> precios,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) List<LocalDate> vencimientos,
                                                 Authentication authentication,
                                                 Model model,
                                                 RedirectAttributes redirectAttributes) {
@@ -203,7 +216,7 @@ public class OrdenAbastecimientoController {
             ordenActualizada.setUsuario(usuario);
             ordenActualizada.setObservaciones(ordenAbastecimiento.getObservaciones());
 
-            List<OrdenAbastecimientoItem> items = procesarItemsParaController(productoIds, cantidades, precios);
+            List<OrdenAbastecimientoItem> items = procesarItemsParaController(productoIds, cantidades, precios, vencimientos);
             ordenActualizada.setItems(items);
 
             if (items != null) {
@@ -233,9 +246,11 @@ public class OrdenAbastecimientoController {
         }
     }
 
-    private List<OrdenAbastecimientoItem> procesarItemsParaController(List<Long> productoIds,
-                                                                      List<Integer> cantidades,
-                                                                      List<BigDecimal> precios) {
+    // Sin private: almacen-benchmarks lo mide desde el mismo paquete
+    List<OrdenAbastecimientoItem> procesarItemsParaController(List<Long> productoIds,
+                                                              List<Integer> cantidades,
+                                                              List<BigDecimal> precios,
+                                                              List<LocalDate> vencimientos) {
 
         if (productoIds == null || productoIds.isEmpty() || productoIds.stream().allMatch(Objects::isNull)) {
             System.out.println(" No hay items para procesar en el controller");
@@ -268,6 +283,7 @@ public class OrdenAbastecimientoController {
                     item.setCantidad(cantidad);
                     item.setPrecioUnitario(precio);
                     item.setSubtotal(precio.multiply(BigDecimal.valueOf(cantidad)));
+                    item.setFechaVencimiento(vencimientos != null && i < vencimientos.size() ? vencimientos.get(i) : null);
 
                     items.add(item);
                     productosYaProcesados.add(productoId);
@@ -343,10 +359,40 @@ public class OrdenAbastecimientoController {
         }
     }
 
+    /**
+     * Varias órdenes en un solo PDF: las de ids (en ese orden) o las del rango de
+     * fechas. El PDF se envía mientras se arma.
+     */
+    @GetMapping("/imprimir-lote")
+    public ResponseEntity<?> imprimirLote(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                          @RequestParam(required = false) List<Long> ids) {
+        List<Long> ordenes;
+        try {
+            ordenes = impresionLoteService.resolverOrdenesAbastecimiento(desde, hasta, ids);
+            if (ordenes.isEmpty()) {
+                throw new RuntimeException("No hay órdenes de abastecimiento para imprimir");
+            }
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        StreamingResponseBody pdf = salida -> impresionLoteService.imprimirOrdenesAbastecimiento(ordenes, salida);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=ordenes_abastecimiento_" + timestamp + ".pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(pdf);
+    }
+
     private void procesarItemsOrden(OrdenAbastecimiento ordenAbastecimiento,
                                     List<Long> productoIds,
                                     List<Integer> cantidades,
-                                    List<BigDecimal> precios) {
+                                    List<BigDecimal> precios,
+                                    List<LocalDate> vencimientos) {
 
         if (productoIds == null || cantidades == null || precios == null ||
                 productoIds.isEmpty() || productoIds.stream().allMatch(Objects::isNull)) {
@@ -372,6 +418,7 @@ public class OrdenAbastecimientoController {
                     item.setCantidad(cantidades.get(i));
                     item.setPrecioUnitario(precios.get(i));
                     item.setSubtotal(precios.get(i).multiply(BigDecimal.valueOf(cantidades.get(i))));
+                    item.setFechaVencimiento(vencimientos != null && i < vencimientos.size() ? vencimientos.get(i) : null);
                     item.setOrdenAbastecimiento(ordenAbastecimiento);
                     items.add(item);
 
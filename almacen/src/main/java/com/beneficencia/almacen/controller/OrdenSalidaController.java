@@ -6,18 +6,29 @@ import com.beneficencia.almacen.model.OrdenSalidaItem;
 import com.beneficencia.almacen.model.Producto;
 import com.beneficencia.almacen.repository.OrdenSalidaRepository;
 import com.beneficencia.almacen.repository.UsuarioRepository;
+import com.beneficencia.almacen.service.ArchivoService;
 import com.beneficencia.almacen.service.BeneficiarioService;
+import com.beneficencia.almacen.service.BusquedaOrdenesService;
+import com.beneficencia.almacen.service.ImpresionLoteService;
+import com.beneficencia.almacen.service.LimiteEntregasService;
 import com.beneficencia.almacen.service.OrdenSalidaService;
 import com.beneficencia.almacen.service.ProductoService;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Controller
@@ -36,9 +47,24 @@ public class OrdenSalidaController {
     @Autowired
     private BeneficiarioService beneficiarioService;
 
+    @Autowired
+    private LimiteEntregasService limiteEntregasService;
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private BusquedaOrdenesService busquedaOrdenesService;
+
+    @Autowired
+    private ImpresionLoteService impresionLoteService;
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    @Value("${almacen.ordenes.tamano-pagina:50}")
+    private int tamanoPagina;
+
     private final String[] MESES_ESPANOL = {
             "Enero", "Febrero", "Marzo", "Abril", "Mayo", "Junio",
             "Julio", "Agosto", "Septiembre", "Octubre", "Noviembre", "Diciembre"
@@ -47,33 +73,27 @@ public class OrdenSalidaController {
     @GetMapping
     public String mostrarPaginaOrdenSalida(
             @RequestParam(value = "busqueda", required = false) String busqueda,
+            @RequestParam(value = "campo", required = false) BusquedaOrdenesService.Campo campo,
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(value = "cursor", required = false) String cursor,
             Model model) {
 
         LocalDate hoy = LocalDate.now();
         int añoActual = hoy.getYear();
         int mesActual = hoy.getMonthValue();
         String nombreMes = MESES_ESPANOL[mesActual - 1];
-        LocalDate inicioMes = hoy.withDayOfMonth(1);
-        LocalDate finMes = hoy.withDayOfMonth(hoy.lengthOfMonth());
-
-        List<OrdenSalida> ordenesSalida;
-
-        if (busqueda != null && !busqueda.trim().isEmpty()) {
-            if (busqueda.matches("\\d{8}")) {
-                ordenesSalida = ordenSalidaService.buscarPorDniUsuario(busqueda);
-            } else {
-                ordenesSalida = ordenSalidaService.buscarPorNumeroTramite(busqueda);
-            }
-
-            // Ordenar los resultados de búsqueda también
-            if (ordenesSalida != null && !ordenesSalida.isEmpty()) {
-                ordenesSalida.sort((o1, o2) -> o2.getFechaSalida().compareTo(o1.getFechaSalida()));
-            }
 
-        } else {
-            ordenesSalida = ordenSalidaService.obtenerTodasOrdenes();
-        }
+        // Una página ya ordenada (fecha y id descendentes); el cursor lleva a la siguiente
+        BusquedaOrdenesService.Pagina pagina = busquedaOrdenesService.buscar(
+                busqueda, campo, false, desde, hasta, cursor, tamanoPagina);
+        List<OrdenSalida> ordenesSalida = pagina.getOrdenes();
 
+        model.addAttribute("siguienteCursor", pagina.getSiguienteCursor());
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("campo", campo);
+        model.addAttribute("desde", desde);
+        model.addAttribute("hasta", hasta);
         model.addAttribute("ordenesSalida", ordenesSalida);
         model.addAttribute("añoActual", añoActual);
         model.addAttribute("mesActual", mesActual);
@@ -84,6 +104,86 @@ public class OrdenSalidaController {
         return "ordenes-salida";
     }
 
+    /**
+     * Misma búsqueda en JSON: campo (DNI, TRAMITE, NUMERO_ORDEN, NUMERO_ORDEN_SALIDA),
+     * exacto, desde/hasta (yyyy-MM-dd), cursor y limite. siguienteCursor es null en la
+     * última página.
+     */
+    @GetMapping("/buscar")
+    @ResponseBody
+    public Map<String, Object> buscarOrdenes(
+            @RequestParam(value = "q", required = false) String texto,
+            @RequestParam(value = "campo", required = false) BusquedaOrdenesService.Campo campo,
+            @RequestParam(value = "exacto", defaultValue = "false") boolean exacto,
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limite", defaultValue = "50") int limite) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            BusquedaOrdenesService.Pagina pagina = busquedaOrdenesService.buscar(
+                    texto, campo, exacto, desde, hasta, cursor, limite);
+
+            List<Map<String, Object>> ordenes = new ArrayList<>();
+            for (OrdenSalida orden : pagina.getOrdenes()) {
+                Map<String, Object> fila = new LinkedHashMap<>();
+                fila.put("id", orden.getId());
+                fila.put("numeroOrden", orden.getNumeroOrden());
+                fila.put("numeroOrdenSalida", orden.getNumeroOrdenSalida());
+                fila.put("fechaSalida", orden.getFechaSalida());
+                fila.put("dniUsuario", orden.getDniUsuario());
+                fila.put("nombreUsuario", orden.getNombreUsuario());
+                fila.put("numeroTramite", orden.getNumeroTramite());
+                fila.put("cantidadProductos", orden.getCantidadProductos());
+                ordenes.add(fila);
+            }
+            response.put("success", true);
+            response.put("ordenes", ordenes);
+            response.put("siguienteCursor", pagina.getSiguienteCursor());
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", "Error en la búsqueda: " + e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * Búsqueda histórica: incluye las órdenes de los años archivados. Pide dni,
+     * tramite o un rango de fechas; cada orden indica si está archivada.
+     */
+    @GetMapping("/historico")
+    @ResponseBody
+    public Map<String, Object> buscarHistorico(
+            @RequestParam(value = "dni", required = false) String dni,
+            @RequestParam(value = "tramite", required = false) String tramite,
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(value = "limite", defaultValue = "100") int limite) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("ordenes", archivoService.buscarOrdenesSalida(dni, tramite, desde, hasta, limite));
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", "Error en la búsqueda histórica: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @GetMapping("/historico/{id}/items")
+    @ResponseBody
+    public Map<String, Object> itemsHistoricos(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("items", archivoService.itemsDeOrdenSalida(id));
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", "Error al obtener los ítems: " + e.getMessage());
+        }
+        return response;
+    }
+
     @PostMapping("/guardar")
     public String guardarOrdenSalida(
             @RequestParam(required = false) String numeroTramite,
@@ -242,7 +342,7 @@ public class OrdenSalidaController {
                 return response;
             }
 
-            Optional<Beneficiario> beneficiarioOpt = beneficiarioService.obtenerBeneficiarioPorDni(dni);
+            Optional<Beneficiario> beneficiarioOpt = beneficiarioService.buscarPorDni(dni);
 
             if (beneficiarioOpt.isPresent()) {
                 Beneficiario beneficiario = beneficiarioOpt.get();
@@ -252,6 +352,7 @@ public class OrdenSalidaController {
                 response.put("apellidos", beneficiario.getApellidos());
                 response.put("telefono", beneficiario.getTelefono());
                 response.put("direccion", beneficiario.getDireccion());
+                response.put("limiteEntregas", limiteEntregasService.consultar(beneficiario.getId()));
                 response.put("mensaje", "Beneficiario encontrado");
             } else {
                 response.put("existe", false);
@@ -304,6 +405,35 @@ public class OrdenSalidaController {
         }
     }
 
+    /**
+     * Varias órdenes en un solo PDF: las de ids (en ese orden) o las del rango de
+     * fechas. El PDF se envía mientras se arma.
+     */
+    @GetMapping("/imprimir-lote")
+    public ResponseEntity<?> imprimirLote(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                          @RequestParam(required = false) List<Long> ids) {
+        List<Long> ordenes;
+        try {
+            ordenes = impresionLoteService.resolverOrdenesSalida(desde, hasta, ids);
+            if (ordenes.isEmpty()) {
+                throw new RuntimeException("No hay órdenes de salida para imprimir");
+            }
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        StreamingResponseBody pdf = salida -> impresionLoteService.imprimirOrdenesSalida(ordenes, salida);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=ordenes_salida_" + timestamp + ".pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(pdf);
+    }
+
     @GetMapping("/editar/{id}")
     public String editarOrden(@PathVariable Long id, Model model) {
         try {
@@ -367,8 +497,10 @@ public class OrdenSalidaController {
             @RequestParam String nombreUsuario,
             @RequestParam String dniUsuario,
             @RequestParam String descripcion,
-            @RequestParam List<Long> productoIds,
-            @RequestParam List<Integer> cantidades,
+            @RequestParam(required = false) List<Long> productoIds,
+            @RequestParam(required = false) List<Integer> cantidades,
+            @RequestParam(required = false) List<Long> kitIds,
+            @RequestParam(required = false) List<Integer> kitCantidades,
             RedirectAttributes redirectAttributes) {
 
         try {
@@ -376,11 +508,16 @@ public class OrdenSalidaController {
                 throw new RuntimeException("El DNI debe tener exactamente 8 dígitos");
             }
 
-            if (productoIds == null || productoIds.isEmpty()) {
-                throw new RuntimeException("Debe seleccionar al menos un producto");
+            if (productoIds == null) productoIds = new ArrayList<>();
+            if (cantidades == null) cantidades = new ArrayList<>();
+            if (kitIds == null) kitIds = new ArrayList<>();
+            if (kitCantidades == null) kitCantidades = new ArrayList<>();
+
+            if (productoIds.isEmpty() && kitIds.isEmpty()) {
+                throw new RuntimeException("Debe seleccionar al menos un producto o kit");
             }
 
-            if (productoIds.size() != cantidades.size()) {
+            if (productoIds.size() != cantidades.size() || kitIds.size() != kitCantidades.size()) {
                 throw new RuntimeException("Error en los datos de productos");
             }
 
@@ -396,6 +533,8 @@ public class OrdenSalidaController {
 
                 redirectAttributes.addFlashAttribute("productoIds", productoIds);
                 redirectAttributes.addFlashAttribute("cantidades", cantidades);
+                redirectAttributes.addFlashAttribute("kitIds", kitIds);
+                redirectAttributes.addFlashAttribute("kitCantidades", kitCantidades);
 
                 return "redirect:/beneficiario/formulario-con-redireccion";
             }
@@ -435,8 +574,17 @@ public class OrdenSalidaController {
                 items.add(item);
             }
 
-            // Guardar la orden con todos los items
-            ordenSalidaService.guardarOrdenConItems(ordenSalida, items);
+            Map<Long, Integer> kits = new LinkedHashMap<>();
+            for (int i = 0; i < kitIds.size(); i++) {
+                kits.merge(kitIds.get(i), kitCantidades.get(i), Integer::sum);
+            }
+
+            // Guardar la orden con todos los items; los kits se expanden a sus productos
+            if (kits.isEmpty()) {
+                ordenSalidaService.guardarOrdenConItems(ordenSalida, items);
+            } else {
+                ordenSalidaService.guardarOrdenConKits(ordenSalida, items, kits);
+            }
 
             redirectAttributes.addFlashAttribute("success", "Orden de salida guardada exitosamente");
             redirectAttributes.addFlashAttribute("numeroOrden", ordenSalida.getNumeroOrden());
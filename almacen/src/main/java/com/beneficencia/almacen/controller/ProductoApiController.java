@@ -1,11 +1,17 @@
 package com.beneficencia.almacen.controller;
 
+import com.beneficencia.almacen.model.OrdenAbastecimiento;
 import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.service.NotificacionService;
 import com.beneficencia.almacen.service.ProductoService;
+import com.beneficencia.almacen.service.RadarVencimientoService;
+import com.beneficencia.almacen.service.ReabastecimientoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,9 +25,19 @@ public class ProductoApiController {
     @Autowired
     private ProductoService productoService;
 
+    @Autowired
+    private NotificacionService notificacionService;
+
+    @Autowired
+    private RadarVencimientoService radarVencimientoService;
+
+    @Autowired
+    private ReabastecimientoService reabastecimientoService;
+
     @GetMapping
     public ResponseEntity<Map<String, Object>> obtenerInventarioCompleto() {
         try {
+            String ultimoEventoId = notificacionService.getUltimoEventoId();
             List<Producto> productos = productoService.obtenerTodosProductos();
             Long productosStockBajo = productoService.contarProductosConStockBajo();
 
@@ -30,6 +46,7 @@ public class ProductoApiController {
             response.put("productos", productos);
             response.put("totalProductos", productos.size());
             response.put("productosStockBajo", productosStockBajo);
+            response.put("ultimoEventoId", ultimoEventoId);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -38,9 +55,12 @@ public class ProductoApiController {
     }
 
     @GetMapping("/alertas")
-    public ResponseEntity<Map<String, Object>> obtenerAlertasStockBajo() {
+    public ResponseEntity<Map<String, Object>> obtenerAlertasStockBajo(@RequestParam(required = false) Integer limite) {
         try {
-            List<Producto> productosStockBajo = productoService.obtenerProductosConStockBajo();
+            // Ordenados del más crítico (menor cantidad - stockMinimo) al menos crítico
+            List<Producto> productosStockBajo = limite != null && limite > 0
+                    ? productoService.obtenerProductosMasCriticos(limite)
+                    : productoService.obtenerProductosConStockBajo();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -102,18 +122,33 @@ public class ProductoApiController {
         }
     }
 
+    /**
+     * Con productoId crea un borrador de orden de abastecimiento para ese producto
+     * (cantidad opcional). Sin cuerpo ejecuta el reabastecimiento de los productos
+     * cuyo consumo cambió desde la última corrida.
+     */
     @PostMapping("/abastecer")
-    public ResponseEntity<Map<String, Object>> solicitarAbastecimiento(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<Map<String, Object>> solicitarAbastecimiento(@RequestBody(required = false) Map<String, Object> request,
+                                                                        Authentication authentication) {
         try {
-            Long productoId = Long.valueOf(request.get("productoId").toString());
-            Integer cantidad = Integer.valueOf(request.get("cantidad").toString());
+            String username = authentication != null ? authentication.getName() : null;
+            Object productoId = request != null ? request.get("productoId") : null;
 
             Map<String, Object> response = new HashMap<>();
+            if (productoId != null) {
+                Object cantidad = request.get("cantidad");
+                Map<String, Object> resultado = reabastecimientoService.solicitar(
+                        Long.valueOf(productoId.toString()),
+                        cantidad != null ? Integer.valueOf(cantidad.toString()) : null,
+                        username);
+                response.putAll(resultado);
+                response.put("message", "Borrador de abastecimiento creado");
+            } else {
+                response.putAll(reabastecimientoService.ejecutar(username));
+                response.put("message", "Reabastecimiento ejecutado");
+            }
             response.put("success", true);
-            response.put("message", "Solicitud de abastecimiento recibida");
-            response.put("productoId", productoId);
-            response.put("cantidadSolicitada", cantidad);
-            response.put("estado", "PENDIENTE");
+            response.put("estado", OrdenAbastecimiento.EstadoOrden.PENDIENTE);
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -132,6 +167,32 @@ public class ProductoApiController {
         }
     }
 
+    @GetMapping("/vencimientos")
+    public ResponseEntity<Map<String, Object>> obtenerProximosAVencer(@RequestParam(defaultValue = "30") int dias,
+                                                                      @RequestParam(defaultValue = "false") boolean incluirVencidos) {
+        try {
+            if (dias < 0 || dias > 3650) {
+                return ResponseEntity.badRequest().body(crearErrorResponse("El rango debe estar entre 0 y 3650 días"));
+            }
+
+            List<Map<String, Object>> lotes = radarVencimientoService.obtenerProximosAVencer(dias, incluirVencidos);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("dias", dias);
+            response.put("lotes", lotes);
+            response.put("totalLotes", lotes.size());
+            response.put("valorEnRiesgo", lotes.stream()
+                    .map(lote -> (BigDecimal) lote.get("valorEnRiesgo"))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+            response.put("resumen", radarVencimientoService.obtenerResumen());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse("Error al obtener vencimientos: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/grupos")
     public ResponseEntity<Map<String, Object>> obtenerGruposUnicos() {
         try {
@@ -0,0 +1,36 @@
+package com.beneficencia.almacen.controller;
+
+import com.beneficencia.almacen.trabajo.PlanificadorTrabajos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+@Controller
+@RequestMapping("/admin/trabajos")
+public class TrabajoController {
+
+    @Autowired
+    private PlanificadorTrabajos planificadorTrabajos;
+
+    @GetMapping
+    public String listarTrabajos(Model model) {
+        model.addAttribute("trabajos", planificadorTrabajos.resumen());
+        model.addAttribute("historial", planificadorTrabajos.historial(50));
+        model.addAttribute("nodo", planificadorTrabajos.getNodo());
+        return "admin/trabajos";
+    }
+
+    @PostMapping("/{nombre}/ejecutar")
+    public String ejecutarAhora(@PathVariable String nombre, RedirectAttributes redirectAttributes) {
+        try {
+            planificadorTrabajos.ejecutarAhora(nombre);
+            redirectAttributes.addFlashAttribute("success",
+                    "El trabajo " + nombre + " se ejecutará en la próxima revisión de algún nodo");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/admin/trabajos";
+    }
+}
@@ -0,0 +1,116 @@
+package com.beneficencia.almacen.evento;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Anillo acotado sin bloqueos para varios productores y varios consumidores.
+ *
+ * Cada productor reserva la siguiente secuencia con un CAS y escribe su entrada en
+ * la posición secuencia &amp; mascara; la entrada lleva su propia secuencia, así que
+ * un consumidor sabe si la posición ya se publicó (misma secuencia), todavía no
+ * (menor) o ya fue pisada por una vuelta posterior (mayor). Cada consumidor avanza
+ * su propia secuencia; solo las de los consumidores que bloquean impiden que un
+ * productor pise una posición que aún no leyeron.
+ */
+final class AnilloEventos {
+
+    private static final long PAUSA_PRODUCTOR_NS = 50_000;
+
+    private final AtomicReferenceArray<Entrada> entradas;
+    private final int capacidad;
+    private final int mascara;
+    private final AtomicLong reclamada = new AtomicLong(-1);
+    private final List<AtomicLong> bloqueantes = new CopyOnWriteArrayList<>();
+
+    // Mínimo de los bloqueantes visto por última vez: evita recorrerlos en cada reserva
+    private volatile long minimoConocido = -1;
+
+    AnilloEventos(int capacidadPedida) {
+        int potencia = Integer.highestOneBit(Math.max(2, capacidadPedida));
+        this.capacidad = potencia < capacidadPedida ? potencia << 1 : potencia;
+        this.mascara = capacidad - 1;
+        this.entradas = new AtomicReferenceArray<>(capacidad);
+    }
+
+    void agregarBloqueante(AtomicLong secuencia) {
+        bloqueantes.add(secuencia);
+    }
+
+    /**
+     * Reserva la siguiente secuencia esperando hasta esperaNanos a que los
+     * consumidores que bloquean liberen lugar.
+     *
+     * @return la secuencia reservada, o -1 si el anillo siguió lleno
+     */
+    long reclamar(long esperaNanos, Runnable alEsperar) {
+        long limite = 0;
+        while (true) {
+            long actual = reclamada.get();
+            long siguiente = actual + 1;
+            long envoltura = siguiente - capacidad;
+            if (envoltura > minimoConocido) {
+                long minimo = minimoBloqueantes(actual);
+                minimoConocido = minimo;
+                if (envoltura > minimo) {
+                    if (limite == 0) {
+                        limite = System.nanoTime() + esperaNanos;
+                        alEsperar.run();
+                    } else if (System.nanoTime() - limite >= 0) {
+                        return -1;
+                    }
+                    LockSupport.parkNanos(PAUSA_PRODUCTOR_NS);
+                    continue;
+                }
+            }
+            if (reclamada.compareAndSet(actual, siguiente)) {
+                return siguiente;
+            }
+        }
+    }
+
+    void publicar(long secuencia, EventoInventario evento, Long idPendiente, boolean reenvio) {
+        entradas.set((int) secuencia & mascara, new Entrada(secuencia, evento, idPendiente, reenvio));
+    }
+
+    /** Entrada de la posición de la secuencia; puede ser de otra vuelta o null. */
+    Entrada leer(long secuencia) {
+        return entradas.get((int) secuencia & mascara);
+    }
+
+    long getReclamada() {
+        return reclamada.get();
+    }
+
+    int getCapacidad() {
+        return capacidad;
+    }
+
+    private long minimoBloqueantes(long predeterminado) {
+        long minimo = predeterminado;
+        for (AtomicLong secuencia : bloqueantes) {
+            minimo = Math.min(minimo, secuencia.get());
+        }
+        return minimo;
+    }
+
+    static final class Entrada {
+        final long secuencia;
+        final EventoInventario evento;
+        final Long idPendiente;
+        final boolean reenvio;
+
+        // Lo marca un consumidor duradero que falló; la bandeja conserva la fila
+        volatile boolean fallido;
+
+        private Entrada(long secuencia, EventoInventario evento, Long idPendiente, boolean reenvio) {
+            this.secuencia = secuencia;
+            this.evento = evento;
+            this.idPendiente = idPendiente;
+            this.reenvio = reenvio;
+        }
+    }
+}
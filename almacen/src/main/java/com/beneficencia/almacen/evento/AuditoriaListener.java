@@ -0,0 +1,198 @@
+package com.beneficencia.almacen.evento;
+
+import com.beneficencia.almacen.model.RegistroAuditoria;
+import com.beneficencia.almacen.service.AuditoriaService;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Captura los cambios de las entidades auditadas con los eventos de Hibernate
+ * posteriores al commit: solo se auditan cambios confirmados, con el estado
+ * anterior y el nuevo que Hibernate ya tiene en la sesión, sin consultas extra.
+ * El diff se arma en el hilo que confirmó (para conocer al usuario y el método
+ * transaccional) y se entrega a {@link AuditoriaService}, que lo escribe aparte.
+ *
+ * Las escrituras con JDBC o JPQL masivo no pasan por aquí.
+ */
+@Component
+public class AuditoriaListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final String SISTEMA = "sistema";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Value("${almacen.auditoria.campos-excluidos:password}")
+    private List<String> camposExcluidos;
+
+    @PostConstruct
+    public void registrar() {
+        EventListenerRegistry registro = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registro.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registro.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return auditoriaService.audita(persister.getMappedClass().getSimpleName());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent evento) {
+        EntityPersister persister = evento.getPersister();
+        if (!requiresPostCommitHandling(persister)) return;
+        registrar(RegistroAuditoria.CREAR, persister, evento.getId(),
+                valores(persister, evento.getState(), evento.getSession()));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent evento) {
+        EntityPersister persister = evento.getPersister();
+        if (!requiresPostCommitHandling(persister)) return;
+
+        String[] nombres = persister.getPropertyNames();
+        Type[] tipos = persister.getPropertyTypes();
+        Object[] anterior = evento.getOldState();
+        Object[] nuevo = evento.getState();
+        int[] sucios = evento.getDirtyProperties();
+
+        Map<String, Object> cambios = new LinkedHashMap<>();
+        for (int i = 0; i < nombres.length; i++) {
+            if (sucios != null && !contiene(sucios, i)) continue;
+            if (omitir(nombres[i], tipos[i])) continue;
+            Object antes = anterior != null ? valor(tipos[i], anterior[i], evento.getSession()) : null;
+            Object despues = valor(tipos[i], nuevo[i], evento.getSession());
+            if (!iguales(antes, despues)) {
+                cambios.put(nombres[i], new Object[]{antes, despues});
+            }
+        }
+        if (!cambios.isEmpty()) {
+            registrar(RegistroAuditoria.MODIFICAR, persister, evento.getId(), cambios);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent evento) {
+        EntityPersister persister = evento.getPersister();
+        if (!requiresPostCommitHandling(persister)) return;
+        registrar(RegistroAuditoria.ELIMINAR, persister, evento.getId(),
+                valores(persister, evento.getDeletedState(), evento.getSession()));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent evento) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent evento) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent evento) {
+    }
+
+    private void registrar(String accion, EntityPersister persister, Object id, Map<String, Object> cambios) {
+        try {
+            auditoriaService.registrar(new AuditoriaService.Cambio(
+                    LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS), usuarioActual(), accion,
+                    persister.getMappedClass().getSimpleName(), id instanceof Number n ? n.longValue() : null,
+                    origen(), cambios));
+        } catch (RuntimeException e) {
+            // La auditoría nunca debe afectar a un cambio ya confirmado
+            System.err.println("No se pudo auditar " + accion + " de " + persister.getEntityName() + " " + id + ": " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> valores(EntityPersister persister, Object[] estado, SharedSessionContractImplementor sesion) {
+        String[] nombres = persister.getPropertyNames();
+        Type[] tipos = persister.getPropertyTypes();
+        Map<String, Object> valores = new LinkedHashMap<>();
+        if (estado == null) return valores;
+        for (int i = 0; i < nombres.length; i++) {
+            if (omitir(nombres[i], tipos[i])) continue;
+            Object valor = valor(tipos[i], estado[i], sesion);
+            if (valor != null) {
+                valores.put(nombres[i], valor);
+            }
+        }
+        return valores;
+    }
+
+    private boolean omitir(String nombre, Type tipo) {
+        return tipo.isCollectionType() || camposExcluidos.contains(nombre);
+    }
+
+    /** Las relaciones se reducen al id de la entidad referida. */
+    private static Object valor(Type tipo, Object valor, SharedSessionContractImplementor sesion) {
+        if (valor == null || !tipo.isEntityType()) return valor;
+        if (valor instanceof HibernateProxy proxy) {
+            return proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return sesion.getEntityPersister(null, valor).getIdentifier(valor, sesion);
+    }
+
+    private static boolean iguales(Object antes, Object despues) {
+        if (antes instanceof BigDecimal a && despues instanceof BigDecimal b) {
+            return a.compareTo(b) == 0;
+        }
+        return Objects.equals(antes, despues);
+    }
+
+    private static boolean contiene(int[] indices, int indice) {
+        for (int i : indices) {
+            if (i == indice) return true;
+        }
+        return false;
+    }
+
+    private static String usuarioActual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return SISTEMA;
+        }
+        return auth.getName();
+    }
+
+    /** "paquete.Clase.metodo" de la transacción de Spring, reducido a "Clase.metodo". */
+    private static String origen() {
+        String nombre = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (nombre == null) return null;
+        int metodo = nombre.lastIndexOf('.');
+        int clase = metodo > 0 ? nombre.lastIndexOf('.', metodo - 1) : -1;
+        return nombre.substring(clase + 1);
+    }
+}
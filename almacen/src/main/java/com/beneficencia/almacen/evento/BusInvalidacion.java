@@ -0,0 +1,20 @@
+package com.beneficencia.almacen.evento;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Avisos de invalidación entre nodos de la aplicación. Un nodo publica qué claves
+ * cambiaron en un canal y los demás nodos suscritos a ese canal las reciben; un
+ * nodo nunca recibe sus propios avisos.
+ */
+public interface BusInvalidacion {
+
+    String getNodo();
+
+    void publicar(String canal, Collection<String> claves);
+
+    /** El receptor recibe las claves agrupadas y sin repetir por cada entrega. */
+    void suscribir(String canal, Consumer<List<String>> receptor);
+}
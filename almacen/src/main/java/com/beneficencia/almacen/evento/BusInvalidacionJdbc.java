@@ -0,0 +1,119 @@
+package com.beneficencia.almacen.evento;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus de invalidación sobre la tabla cambios_cluster de la base compartida.
+ *
+ * Publicar inserta una fila por clave en una transacción propia. Cada nodo sondea
+ * las filas con fecha (reloj de la base) desde su última lectura menos un margen,
+ * para no perder inserciones que confirmaron tarde; los ids ya vistos se recuerdan
+ * para no entregarlos dos veces. Las filas de más de una hora se borran.
+ */
+public class BusInvalidacionJdbc implements BusInvalidacion {
+
+    private static final long MARGEN_RELECTURA_MS = 5_000;
+    private static final int MAX_VISTOS = 50_000;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate nuevaTransaccion;
+    private final String nodo;
+    private final Map<String, List<Consumer<List<String>>>> receptores = new ConcurrentHashMap<>();
+
+    private final Set<Long> vistos = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> mayor) {
+            return size() > MAX_VISTOS;
+        }
+    });
+    private LocalDateTime ultimaFecha;
+
+    public BusInvalidacionJdbc(DataSource dataSource, PlatformTransactionManager transactionManager, String nodo) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodo = nodo;
+    }
+
+    @Override
+    public String getNodo() { return nodo; }
+
+    /**
+     * Se llama después del commit del cambio; la transacción nueva evita escribir
+     * sobre la conexión de la transacción que ya terminó.
+     */
+    @Override
+    public void publicar(String canal, Collection<String> claves) {
+        if (claves.isEmpty()) return;
+        List<Object[]> filas = new ArrayList<>();
+        for (String clave : new LinkedHashSet<>(claves)) {
+            filas.add(new Object[]{nodo, canal, clave});
+        }
+        nuevaTransaccion.executeWithoutResult(estado -> jdbc.batchUpdate(
+                "INSERT INTO cambios_cluster (nodo, canal, clave, fecha) VALUES (?, ?, ?, NOW(3))", filas));
+    }
+
+    @Override
+    public void suscribir(String canal, Consumer<List<String>> receptor) {
+        receptores.computeIfAbsent(canal, c -> new CopyOnWriteArrayList<>()).add(receptor);
+    }
+
+    @Scheduled(fixedDelayString = "${almacen.cluster.sondeo-ms:1000}")
+    public synchronized void sondear() {
+        if (ultimaFecha == null) {
+            // Solo interesan los cambios posteriores al arranque de este nodo
+            ultimaFecha = jdbc.queryForObject("SELECT NOW(3)", LocalDateTime.class);
+            return;
+        }
+
+        Map<String, LinkedHashSet<String>> porCanal = new LinkedHashMap<>();
+        jdbc.query("SELECT id, nodo, canal, clave, fecha FROM cambios_cluster WHERE fecha >= ? ORDER BY id",
+                resultado -> {
+                    long id = resultado.getLong("id");
+                    LocalDateTime fecha = resultado.getObject("fecha", LocalDateTime.class);
+                    if (fecha.isAfter(ultimaFecha)) {
+                        ultimaFecha = fecha;
+                    }
+                    if (!vistos.add(id) || nodo.equals(resultado.getString("nodo"))) return;
+                    porCanal.computeIfAbsent(resultado.getString("canal"), c -> new LinkedHashSet<>())
+                            .add(resultado.getString("clave"));
+                },
+                ultimaFecha.minusNanos(MARGEN_RELECTURA_MS * 1_000_000));
+
+        for (Map.Entry<String, LinkedHashSet<String>> cambio : porCanal.entrySet()) {
+            for (Consumer<List<String>> receptor : receptores.getOrDefault(cambio.getKey(), List.of())) {
+                try {
+                    receptor.accept(new ArrayList<>(cambio.getValue()));
+                } catch (Exception e) {
+                    System.err.println("Error al aplicar cambios de otro nodo (" + cambio.getKey() + "): " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${almacen.cluster.limpieza-ms:600000}")
+    public void limpiar() {
+        int borradas = jdbc.update("DELETE FROM cambios_cluster WHERE fecha < NOW(3) - INTERVAL 1 HOUR");
+        if (borradas > 0) {
+            System.out.println("Bus de invalidación: " + borradas + " avisos antiguos borrados");
+        }
+    }
+}
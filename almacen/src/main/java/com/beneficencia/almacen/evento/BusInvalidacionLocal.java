@@ -0,0 +1,57 @@
+package com.beneficencia.almacen.evento;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus en memoria: entrega en el acto a las demás instancias creadas en la misma
+ * JVM. Con un solo nodo no entrega nada; sirve de reemplazo del bus por base de
+ * datos en pruebas, creando una instancia por nodo simulado.
+ */
+public class BusInvalidacionLocal implements BusInvalidacion {
+
+    private static final List<BusInvalidacionLocal> NODOS = new CopyOnWriteArrayList<>();
+
+    private final String nodo;
+    private final Map<String, List<Consumer<List<String>>>> receptores = new ConcurrentHashMap<>();
+
+    public BusInvalidacionLocal(String nodo) {
+        this.nodo = nodo;
+        NODOS.add(this);
+    }
+
+    @Override
+    public String getNodo() { return nodo; }
+
+    @Override
+    public void publicar(String canal, Collection<String> claves) {
+        if (claves.isEmpty()) return;
+        List<String> unicas = new ArrayList<>(new LinkedHashSet<>(claves));
+        for (BusInvalidacionLocal otro : NODOS) {
+            if (otro != this) {
+                otro.entregar(canal, unicas);
+            }
+        }
+    }
+
+    @Override
+    public void suscribir(String canal, Consumer<List<String>> receptor) {
+        receptores.computeIfAbsent(canal, c -> new CopyOnWriteArrayList<>()).add(receptor);
+    }
+
+    private void entregar(String canal, List<String> claves) {
+        for (Consumer<List<String>> receptor : receptores.getOrDefault(canal, List.of())) {
+            receptor.accept(claves);
+        }
+    }
+
+    public void cerrar() {
+        NODOS.remove(this);
+    }
+}
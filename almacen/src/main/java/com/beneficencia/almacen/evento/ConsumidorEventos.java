@@ -0,0 +1,46 @@
+package com.beneficencia.almacen.evento;
+
+import java.util.List;
+
+/**
+ * Consumidor de los eventos de inventario confirmados. {@link DespachadorEventos}
+ * le da un hilo propio y le entrega los eventos en lotes, en el orden en que se
+ * confirmaron, fuera de la transacción y del hilo de quien hizo el cambio.
+ */
+public interface ConsumidorEventos {
+
+    /** Nombre del hilo, de las métricas y de la propiedad almacen.despacho.politica.&lt;nombre&gt;. */
+    String getNombreConsumidor();
+
+    /**
+     * Filtro que se aplica antes de armar cada lote. Debe depender solo del evento:
+     * en los consumidores duraderos también se evalúa en el hilo que publica, para
+     * decidir si el evento va a la bandeja de salida.
+     */
+    default boolean acepta(EventoInventario evento) {
+        return true;
+    }
+
+    /** Lote con al menos un evento aceptado; se llama siempre desde el mismo hilo. */
+    void procesar(List<EventoInventario> lote);
+
+    default PoliticaPresion getPolitica() {
+        return PoliticaPresion.BLOQUEAR;
+    }
+
+    /**
+     * Un consumidor duradero recibe cada evento aceptado al menos una vez aunque el
+     * nodo se caiga: el evento se guarda en la bandeja de salida dentro de la misma
+     * transacción que el cambio y se borra cuando todos los consumidores duraderos
+     * lo procesaron. Los reenvíos llegan con las filas leídas del JSON guardado
+     * (números como Integer o Long, fechas como texto), por lo que conviene usar
+     * solo los ids. Si procesar lanza una excepción, el lote queda en la bandeja.
+     */
+    default boolean esDuradero() {
+        return false;
+    }
+
+    /** Con {@link PoliticaPresion#DESCARTAR}: se perdieron eventos por atraso. */
+    default void alPerderEventos(long cantidad) {
+    }
+}
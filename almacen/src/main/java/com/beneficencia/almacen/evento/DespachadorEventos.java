@@ -0,0 +1,544 @@
+package com.beneficencia.almacen.evento;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lleva los eventos de inventario confirmados a sus consumidores sin hacer esperar
+ * a quien guardó el cambio.
+ *
+ * Los eventos publicados dentro de una transacción se juntan y, al confirmarse,
+ * pasan a un {@link AnilloEventos} acotado; si la transacción se revierte se
+ * descartan. Cada {@link ConsumidorEventos} tiene un hilo que toma del anillo todo
+ * lo disponible (hasta lote-maximo) y lo procesa de una vez, así que el costo de
+ * índices, pronósticos, SSE y réplica ya no se suma al guardado.
+ *
+ * Si algún consumidor es duradero, los eventos que acepta se escriben además en la
+ * tabla eventos_pendientes justo antes del commit, en la misma conexión (proceso
+ * de Hibernate que corre después del último flush, cuando ya se publicaron los
+ * eventos de los entity listeners). Un consumidor interno borra las filas cuando
+ * todos los duraderos terminaron con ellas; las que quedan se reenvían.
+ */
+@Component
+public class DespachadorEventos {
+
+    private static final long ESPERA_CONSUMIDOR_NS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final String CONFIRMADOR = "bandeja";
+
+    @Autowired
+    private List<ConsumidorEventos> consumidores;
+
+    @Autowired
+    private BusInvalidacion bus;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment environment;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${almacen.despacho.capacidad:8192}")
+    private int capacidad;
+
+    @Value("${almacen.despacho.lote-maximo:256}")
+    private int loteMaximo;
+
+    @Value("${almacen.despacho.espera-maxima-ms:1000}")
+    private long esperaMaximaMs;
+
+    @Value("${almacen.despacho.espera-cierre-ms:5000}")
+    private long esperaCierreMs;
+
+    @Value("${almacen.despacho.bandeja.reenvio-segundos:60}")
+    private int reenvioSegundos;
+
+    @Value("${almacen.despacho.bandeja.intentos-maximos:20}")
+    private int intentosMaximos;
+
+    @Value("${almacen.despacho.bandeja.lote:500}")
+    private int loteReenvio;
+
+    private AnilloEventos anillo;
+    private final List<Suscripcion> suscripciones = new ArrayList<>();
+    private final List<Suscripcion> duraderas = new ArrayList<>();
+    private boolean bandejaActiva;
+    private volatile boolean activo;
+
+    private final LongAdder publicados = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+    private final LongAdder esperasProductor = new LongAdder();
+    private final LongAdder escritosBandeja = new LongAdder();
+    private final LongAdder reenviados = new LongAdder();
+
+    @PostConstruct
+    public void iniciar() {
+        anillo = new AnilloEventos(capacidad);
+        for (ConsumidorEventos consumidor : consumidores) {
+            PoliticaPresion politica = environment.getProperty(
+                    "almacen.despacho.politica." + consumidor.getNombreConsumidor(),
+                    PoliticaPresion.class, consumidor.getPolitica());
+            if (consumidor.esDuradero() && politica != PoliticaPresion.BLOQUEAR) {
+                // Un duradero que descarta perdería filas que nadie reenviaría a tiempo
+                politica = PoliticaPresion.BLOQUEAR;
+            }
+            Suscripcion suscripcion = new Suscripcion(consumidor.getNombreConsumidor(), consumidor, politica,
+                    consumidor.esDuradero(), List.of());
+            suscripciones.add(suscripcion);
+            if (suscripcion.duradera) {
+                duraderas.add(suscripcion);
+            }
+        }
+        bandejaActiva = !duraderas.isEmpty();
+        if (bandejaActiva) {
+            suscripciones.add(new Suscripcion(CONFIRMADOR, null, PoliticaPresion.BLOQUEAR, false, List.copyOf(duraderas)));
+        }
+
+        activo = true;
+        for (Suscripcion suscripcion : suscripciones) {
+            if (suscripcion.politica == PoliticaPresion.BLOQUEAR) {
+                anillo.agregarBloqueante(suscripcion.secuencia);
+            }
+            suscripcion.hilo = new Thread(() -> consumir(suscripcion), "eventos-" + suscripcion.nombre);
+            suscripcion.hilo.setDaemon(true);
+            suscripcion.hilo.start();
+        }
+        System.out.println("Despacho de eventos iniciado - capacidad: " + anillo.getCapacidad() +
+                " - consumidores: " + consumidores.size() + (bandejaActiva ? " - con bandeja de salida" : ""));
+    }
+
+    /**
+     * Deja de aceptar eventos y espera a que los consumidores vacíen el anillo. Lo
+     * que no alcance a procesarse y sea duradero sigue en la bandeja.
+     */
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        long limite = System.currentTimeMillis() + esperaCierreMs;
+        for (Suscripcion suscripcion : suscripciones) {
+            LockSupport.unpark(suscripcion.hilo);
+            try {
+                suscripcion.hilo.join(Math.max(1, limite - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Recibe todos los EventoInventario publicados con ApplicationEventPublisher.
+     * Dentro de una transacción se retienen hasta el commit; fuera de ella (cruces de
+     * umbral, eventos remotos) van directo al anillo.
+     */
+    @EventListener
+    public void alPublicar(EventoInventario evento) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            LotePorConfirmar lote = loteDeLaTransaccion();
+            if (lote != null) {
+                lote.agregar(evento);
+                return;
+            }
+        }
+        encolar(evento, null, false);
+    }
+
+    private LotePorConfirmar loteDeLaTransaccion() {
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacion instanceof LotePorConfirmar lote && lote.despachador() == this) {
+                return lote.terminado ? null : lote;
+            }
+        }
+        LotePorConfirmar lote = new LotePorConfirmar();
+        TransactionSynchronizationManager.registerSynchronization(lote);
+        return lote;
+    }
+
+    /** @return false si el anillo siguió lleno y el evento se rechazó */
+    private boolean encolar(EventoInventario evento, Long idPendiente, boolean reenvio) {
+        if (!activo) {
+            rechazados.increment();
+            return false;
+        }
+        long secuencia = anillo.reclamar(TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs), esperasProductor::increment);
+        if (secuencia < 0) {
+            rechazados.increment();
+            System.err.println("Anillo de eventos lleno durante " + esperaMaximaMs + " ms, se rechaza " + evento +
+                    (idPendiente != null ? " (queda en la bandeja)" : ""));
+            return false;
+        }
+        anillo.publicar(secuencia, evento, idPendiente, reenvio);
+        publicados.increment();
+        for (Suscripcion suscripcion : suscripciones) {
+            if (suscripcion.esperando) {
+                LockSupport.unpark(suscripcion.hilo);
+            }
+        }
+        return true;
+    }
+
+    private boolean requiereBandeja(EventoInventario evento) {
+        if (!bandejaActiva || evento.isRemoto()) return false;
+        for (Suscripcion suscripcion : duraderas) {
+            if (suscripcion.consumidor.acepta(evento)) return true;
+        }
+        return false;
+    }
+
+    // ---- Hilos consumidores ----
+
+    private void consumir(Suscripcion suscripcion) {
+        List<AnilloEventos.Entrada> lote = new ArrayList<>(loteMaximo);
+        while (true) {
+            long siguiente = suscripcion.secuencia.get() + 1;
+            long limite = suscripcion.limiteLectura();
+            long perdidos = 0;
+            long n = siguiente;
+            lote.clear();
+            while (lote.size() < loteMaximo && n <= limite) {
+                AnilloEventos.Entrada entrada = anillo.leer(n);
+                if (entrada == null || entrada.secuencia < n) break;
+                if (entrada.secuencia > n) {
+                    // Solo le pasa a un consumidor que no bloquea: la vuelta siguiente ya pisó esta posición
+                    long saltar = Math.max(n + 1, anillo.getReclamada() - anillo.getCapacidad() + 1);
+                    perdidos += saltar - n;
+                    n = saltar;
+                    continue;
+                }
+                lote.add(entrada);
+                n++;
+            }
+
+            if (n == siguiente) {
+                if (!activo && siguiente > anillo.getReclamada()) return;
+                esperar(suscripcion, siguiente);
+                continue;
+            }
+
+            if (!lote.isEmpty()) {
+                procesar(suscripcion, lote);
+            }
+            suscripcion.secuencia.set(n - 1);
+            if (perdidos > 0) {
+                avisarPerdida(suscripcion, perdidos);
+            }
+        }
+    }
+
+    private void esperar(Suscripcion suscripcion, long siguiente) {
+        suscripcion.esperando = true;
+        AnilloEventos.Entrada entrada = anillo.leer(siguiente);
+        if (activo && (entrada == null || entrada.secuencia < siguiente || !suscripcion.dependencias.isEmpty())) {
+            LockSupport.parkNanos(this, ESPERA_CONSUMIDOR_NS);
+        }
+        suscripcion.esperando = false;
+    }
+
+    private void procesar(Suscripcion suscripcion, List<AnilloEventos.Entrada> lote) {
+        long inicio = System.nanoTime();
+        if (suscripcion.consumidor == null) {
+            confirmar(lote);
+        } else {
+            List<EventoInventario> eventos = new ArrayList<>(lote.size());
+            for (AnilloEventos.Entrada entrada : lote) {
+                if (entrada.reenvio && !suscripcion.duradera) continue;
+                try {
+                    if (suscripcion.consumidor.acepta(entrada.evento)) {
+                        eventos.add(entrada.evento);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Filtro de " + suscripcion.nombre + " falló con " + entrada.evento + ": " + e.getMessage());
+                }
+            }
+            if (!eventos.isEmpty()) {
+                try {
+                    suscripcion.consumidor.procesar(eventos);
+                } catch (RuntimeException e) {
+                    suscripcion.errores++;
+                    System.err.println("Error en el consumidor de eventos " + suscripcion.nombre + " con un lote de " +
+                            eventos.size() + ": " + e.getMessage());
+                    if (suscripcion.duradera) {
+                        lote.forEach(entrada -> entrada.fallido = true);
+                    }
+                }
+            }
+            suscripcion.procesados += eventos.size();
+        }
+        suscripcion.lotes++;
+        suscripcion.leidos += lote.size();
+        suscripcion.loteMaximoVisto = Math.max(suscripcion.loteMaximoVisto, lote.size());
+        suscripcion.ultimoLoteMicros = (System.nanoTime() - inicio) / 1_000;
+    }
+
+    private void avisarPerdida(Suscripcion suscripcion, long perdidos) {
+        suscripcion.perdidos += perdidos;
+        System.err.println("El consumidor de eventos " + suscripcion.nombre + " se atrasó y perdió " + perdidos + " eventos");
+        try {
+            suscripcion.consumidor.alPerderEventos(perdidos);
+        } catch (RuntimeException e) {
+            System.err.println("Error al resincronizar " + suscripcion.nombre + ": " + e.getMessage());
+        }
+    }
+
+    // ---- Bandeja de salida ----
+
+    /** Corre antes del commit, en la conexión de la transacción: si falla, el cambio se revierte. */
+    private void escribirBandeja(SessionImplementor sesion, LotePorConfirmar lote) {
+        List<Integer> posiciones = new ArrayList<>();
+        List<String> filas = new ArrayList<>();
+        for (int i = 0; i < lote.eventos.size(); i++) {
+            EventoInventario evento = lote.eventos.get(i);
+            if (!requiereBandeja(evento)) continue;
+            try {
+                filas.add(objectMapper.writeValueAsString(evento.getFilas()));
+                posiciones.add(i);
+            } catch (Exception e) {
+                System.err.println("No se pudo guardar " + evento + " en la bandeja de salida: " + e.getMessage());
+            }
+        }
+        lote.bandejaEscrita = true;
+        if (posiciones.isEmpty()) return;
+
+        sesion.doWork(conexion -> {
+            try (PreparedStatement insercion = conexion.prepareStatement(
+                    "INSERT INTO eventos_pendientes (tipo, filas, nodo, fecha, intentos) VALUES (?, ?, ?, NOW(3), 0)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < posiciones.size(); i++) {
+                    insercion.setString(1, lote.eventos.get(posiciones.get(i)).getTipo().name());
+                    insercion.setString(2, filas.get(i));
+                    insercion.setString(3, bus.getNodo());
+                    insercion.addBatch();
+                }
+                insercion.executeBatch();
+                try (ResultSet claves = insercion.getGeneratedKeys()) {
+                    int i = 0;
+                    while (claves.next() && i < posiciones.size()) {
+                        lote.idsPendientes.set(posiciones.get(i++), claves.getLong(1));
+                    }
+                }
+            }
+        });
+        escritosBandeja.add(posiciones.size());
+    }
+
+    /** Consumidor interno: borra las filas que todos los duraderos ya procesaron. */
+    private void confirmar(List<AnilloEventos.Entrada> lote) {
+        List<Long> ids = new ArrayList<>();
+        for (AnilloEventos.Entrada entrada : lote) {
+            if (entrada.idPendiente != null && !entrada.fallido) {
+                ids.add(entrada.idPendiente);
+            }
+        }
+        if (ids.isEmpty()) return;
+        try {
+            jdbcTemplate.update("DELETE FROM eventos_pendientes WHERE id IN (" +
+                    String.join(",", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+        } catch (Exception e) {
+            // Las filas se reenviarán: entregar dos veces está permitido, perderlas no
+            System.err.println("No se pudieron confirmar " + ids.size() + " eventos de la bandeja: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Vuelve a poner en el anillo los eventos de la bandeja que nadie confirmó en
+     * reenvio-segundos: los de un nodo que se cayó (este u otro), los rechazados por
+     * anillo lleno y los de lotes que fallaron. Las filas se toman con SKIP LOCKED y
+     * se les corre la fecha, así dos nodos no reenvían la misma fila a la vez.
+     */
+    @Scheduled(initialDelayString = "${almacen.despacho.bandeja.sondeo-ms:30000}",
+            fixedDelayString = "${almacen.despacho.bandeja.sondeo-ms:30000}")
+    public void reenviarPendientes() {
+        if (!bandejaActiva || !activo) return;
+        List<Object[]> tomadas = new TransactionTemplate(transactionManager).execute(estado -> {
+            List<Object[]> filas = jdbcTemplate.query(
+                    "SELECT id, tipo, filas, intentos FROM eventos_pendientes " +
+                            "WHERE fecha < NOW(3) - INTERVAL ? SECOND ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                    (resultado, i) -> new Object[]{resultado.getLong("id"), resultado.getString("tipo"),
+                            resultado.getString("filas"), resultado.getInt("intentos")},
+                    reenvioSegundos, loteReenvio);
+            if (filas.isEmpty()) return filas;
+
+            List<Object[]> agotadas = new ArrayList<>();
+            List<Object[]> reintentos = new ArrayList<>();
+            for (Object[] fila : filas) {
+                ((int) fila[3] >= intentosMaximos ? agotadas : reintentos).add(new Object[]{fila[0]});
+            }
+            if (!agotadas.isEmpty()) {
+                jdbcTemplate.batchUpdate("DELETE FROM eventos_pendientes WHERE id = ?", agotadas);
+                System.err.println("Se descartan " + agotadas.size() + " eventos de la bandeja tras " +
+                        intentosMaximos + " reenvíos");
+            }
+            jdbcTemplate.batchUpdate("UPDATE eventos_pendientes SET fecha = NOW(3), intentos = intentos + 1 WHERE id = ?",
+                    reintentos);
+            return filas.stream().filter(fila -> (int) fila[3] < intentosMaximos).toList();
+        });
+        if (tomadas == null || tomadas.isEmpty()) return;
+
+        for (Object[] fila : tomadas) {
+            try {
+                List<Map<String, Object>> filas = objectMapper.readValue((String) fila[2], new TypeReference<>() {});
+                EventoInventario evento = new EventoInventario(EventoInventario.TipoEvento.valueOf((String) fila[1]), filas);
+                if (encolar(evento, (Long) fila[0], true)) {
+                    reenviados.increment();
+                }
+            } catch (Exception e) {
+                System.err.println("No se pudo reenviar el evento pendiente " + fila[0] + ": " + e.getMessage());
+            }
+        }
+        System.out.println("Eventos reenviados desde la bandeja de salida: " + tomadas.size());
+    }
+
+    // ---- Métricas ----
+
+    public Map<String, Object> resumen() {
+        long reclamada = anillo.getReclamada();
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("capacidad", anillo.getCapacidad());
+        resumen.put("publicados", publicados.sum());
+        resumen.put("rechazados", rechazados.sum());
+        resumen.put("esperasProductor", esperasProductor.sum());
+        resumen.put("bandejaActiva", bandejaActiva);
+        if (bandejaActiva) {
+            resumen.put("escritosBandeja", escritosBandeja.sum());
+            resumen.put("reenviados", reenviados.sum());
+            try {
+                resumen.put("pendientesBandeja", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM eventos_pendientes", Long.class));
+            } catch (Exception e) {
+                resumen.put("pendientesBandeja", null);
+            }
+        }
+
+        List<Map<String, Object>> porConsumidor = new ArrayList<>();
+        for (Suscripcion suscripcion : suscripciones) {
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("nombre", suscripcion.nombre);
+            datos.put("politica", suscripcion.politica);
+            datos.put("duradero", suscripcion.duradera);
+            datos.put("atraso", Math.max(0, reclamada - suscripcion.secuencia.get()));
+            datos.put("procesados", suscripcion.procesados);
+            datos.put("lotes", suscripcion.lotes);
+            datos.put("lotePromedio", suscripcion.lotes > 0
+                    ? Math.round((double) suscripcion.leidos / suscripcion.lotes * 10) / 10.0 : 0);
+            datos.put("loteMaximo", suscripcion.loteMaximoVisto);
+            datos.put("ultimoLoteMicros", suscripcion.ultimoLoteMicros);
+            datos.put("perdidos", suscripcion.perdidos);
+            datos.put("errores", suscripcion.errores);
+            porConsumidor.add(datos);
+        }
+        resumen.put("consumidores", porConsumidor);
+        return resumen;
+    }
+
+    /** Estado de un consumidor; los contadores los escribe solo su hilo. */
+    private static final class Suscripcion {
+        private final String nombre;
+        private final ConsumidorEventos consumidor;
+        private final PoliticaPresion politica;
+        private final boolean duradera;
+        private final List<Suscripcion> dependencias;
+        private final AtomicLong secuencia = new AtomicLong(-1);
+        private Thread hilo;
+
+        private volatile boolean esperando;
+        private volatile long procesados;
+        private volatile long leidos;
+        private volatile long lotes;
+        private volatile long loteMaximoVisto;
+        private volatile long ultimoLoteMicros;
+        private volatile long perdidos;
+        private volatile long errores;
+
+        private Suscripcion(String nombre, ConsumidorEventos consumidor, PoliticaPresion politica, boolean duradera,
+                            List<Suscripcion> dependencias) {
+            this.nombre = nombre;
+            this.consumidor = consumidor;
+            this.politica = politica;
+            this.duradera = duradera;
+            this.dependencias = dependencias;
+        }
+
+        /** Un consumidor con dependencias no lee más allá de lo que ellas ya procesaron. */
+        private long limiteLectura() {
+            long limite = Long.MAX_VALUE;
+            for (Suscripcion dependencia : dependencias) {
+                limite = Math.min(limite, dependencia.secuencia.get());
+            }
+            return limite;
+        }
+    }
+
+    /** Eventos de una transacción en curso; pasan al anillo solo si se confirma. */
+    private final class LotePorConfirmar implements TransactionSynchronization {
+        private final List<EventoInventario> eventos = new ArrayList<>();
+        private final List<Long> idsPendientes = new ArrayList<>();
+        private boolean bandejaRegistrada;
+        private boolean bandejaEscrita;
+        private boolean terminado;
+
+        private DespachadorEventos despachador() {
+            return DespachadorEventos.this;
+        }
+
+        private void agregar(EventoInventario evento) {
+            eventos.add(evento);
+            idsPendientes.add(null);
+            if (!bandejaRegistrada && !bandejaEscrita && requiereBandeja(evento)) {
+                bandejaRegistrada = true;
+                try {
+                    // Después del último flush del commit: incluye los eventos de los entity listeners
+                    SessionImplementor sesion = entityManager.unwrap(SessionImplementor.class);
+                    sesion.getActionQueue().registerProcess(s -> escribirBandeja(s, this));
+                } catch (RuntimeException e) {
+                    System.err.println("Transacción sin sesión de Hibernate, " + evento + " no pasa por la bandeja: " + e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            terminado = true;
+            if (status != STATUS_COMMITTED) return;
+            for (int i = 0; i < eventos.size(); i++) {
+                encolar(eventos.get(i), idsPendientes.get(i), false);
+            }
+        }
+    }
+}
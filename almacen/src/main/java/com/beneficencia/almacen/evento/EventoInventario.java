@@ -0,0 +1,78 @@
+package com.beneficencia.almacen.evento;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cambio en el inventario ya confirmado (o a confirmar) por un servicio de escritura.
+ * Solo transporta las filas afectadas, en forma de mapas listos para serializar a JSON.
+ */
+public class EventoInventario {
+
+    public enum TipoEvento {
+        STOCK_CAMBIADO,
+        PRODUCTO_ELIMINADO,
+        NUEVA_SALIDA,
+        NUEVO_ABASTECIMIENTO,
+        STOCK_BAJO,
+        STOCK_NORMALIZADO,
+        LOTE_CAMBIADO
+    }
+
+    private final TipoEvento tipo;
+    private final List<Map<String, Object>> filas;
+    private final LocalDateTime fecha;
+    private final boolean remoto;
+
+    public EventoInventario(TipoEvento tipo, List<Map<String, Object>> filas) {
+        this(tipo, filas, false);
+    }
+
+    private EventoInventario(TipoEvento tipo, List<Map<String, Object>> filas, boolean remoto) {
+        this.tipo = tipo;
+        this.filas = filas;
+        this.fecha = LocalDateTime.now();
+        this.remoto = remoto;
+    }
+
+    public static EventoInventario deFila(TipoEvento tipo, Map<String, Object> fila) {
+        return new EventoInventario(tipo, List.of(fila));
+    }
+
+    /** Cambio confirmado en otro nodo, que llegó por el bus de invalidación. */
+    public static EventoInventario remoto(TipoEvento tipo, List<Map<String, Object>> filas) {
+        return new EventoInventario(tipo, filas, true);
+    }
+
+    public TipoEvento getTipo() { return tipo; }
+
+    public List<Map<String, Object>> getFilas() { return filas; }
+
+    public LocalDateTime getFecha() { return fecha; }
+
+    public boolean isRemoto() { return remoto; }
+
+    /**
+     * Los cruces de umbral se generan a partir de cambios ya confirmados, por lo
+     * que se publican fuera de cualquier transacción.
+     */
+    public boolean esCruceDeUmbral() {
+        return tipo == TipoEvento.STOCK_BAJO || tipo == TipoEvento.STOCK_NORMALIZADO;
+    }
+
+    /** Cambios de lote: solo alimentan índices internos, no se difunden a los navegadores. */
+    public boolean esDeLote() {
+        return tipo == TipoEvento.LOTE_CAMBIADO;
+    }
+
+    @Override
+    public String toString() {
+        return "EventoInventario{" +
+                "tipo=" + tipo +
+                ", filas=" + filas.size() +
+                ", fecha=" + fecha +
+                (remoto ? ", remoto" : "") +
+                '}';
+    }
+}
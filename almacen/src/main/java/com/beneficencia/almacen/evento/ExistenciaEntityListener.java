@@ -0,0 +1,43 @@
+package com.beneficencia.almacen.evento;
+
+import com.beneficencia.almacen.model.Beneficiario;
+import com.beneficencia.almacen.model.OrdenAbastecimiento;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.service.FiltrosExistencia;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantiene los filtros de existencia al día con cada alta o cambio de DNI, código
+ * de producto o número de OA, sin importar qué servicio haga la escritura.
+ * Las actualizaciones (sobre todo de stock) casi nunca cambian la clave, así que
+ * solo se agregan si el filtro todavía no la tiene.
+ */
+@Component
+public class ExistenciaEntityListener {
+
+    @Autowired
+    private FiltrosExistencia filtrosExistencia;
+
+    @PostPersist
+    public void entidadCreada(Object entidad) {
+        registrar(entidad, false);
+    }
+
+    @PostUpdate
+    public void entidadActualizada(Object entidad) {
+        registrar(entidad, true);
+    }
+
+    private void registrar(Object entidad, boolean siFalta) {
+        if (entidad instanceof Beneficiario beneficiario) {
+            filtrosExistencia.agregar(FiltrosExistencia.Tipo.DNI, beneficiario.getDni(), siFalta);
+        } else if (entidad instanceof Producto producto) {
+            filtrosExistencia.agregar(FiltrosExistencia.Tipo.CODIGO_PRODUCTO, producto.getCodigo(), siFalta);
+        } else if (entidad instanceof OrdenAbastecimiento orden) {
+            filtrosExistencia.agregar(FiltrosExistencia.Tipo.NUMERO_OA, orden.getNumeroOA(), siFalta);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.beneficencia.almacen.evento;
+
+import com.beneficencia.almacen.model.Lote;
+import com.beneficencia.almacen.model.OrdenAbastecimiento;
+import com.beneficencia.almacen.model.OrdenAbastecimientoItem;
+import com.beneficencia.almacen.model.OrdenSalida;
+import com.beneficencia.almacen.model.OrdenSalidaItem;
+import com.beneficencia.almacen.model.Producto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Convierte entidades en las filas compactas que viajan dentro de un {@link EventoInventario}.
+ */
+public final class FilasInventario {
+
+    private FilasInventario() {}
+
+    public static Map<String, Object> producto(Producto producto) {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("id", producto.getId());
+        fila.put("codigo", producto.getCodigo());
+        fila.put("nombre", producto.getNombre());
+        fila.put("categoria", producto.getCategoria());
+        fila.put("unidadMedida", producto.getUnidadMedida());
+        fila.put("cantidad", producto.getCantidad());
+        fila.put("stockMinimo", producto.getStockMinimo());
+        fila.put("precioUnitario", producto.getPrecioUnitario());
+        fila.put("fechaVencimiento", producto.getFechaVencimiento());
+        return fila;
+    }
+
+    /**
+     * Reconstruye una copia desacoplada del producto a partir de su fila, para
+     * estructuras en memoria que no deben retener entidades administradas por JPA.
+     */
+    public static Producto aProducto(Map<String, Object> fila) {
+        Producto producto = new Producto();
+        producto.setId((Long) fila.get("id"));
+        producto.setCodigo((String) fila.get("codigo"));
+        producto.setNombre((String) fila.get("nombre"));
+        producto.setCategoria((String) fila.get("categoria"));
+        producto.setUnidadMedida((String) fila.get("unidadMedida"));
+        producto.setCantidad((Integer) fila.get("cantidad"));
+        producto.setStockMinimo((Integer) fila.get("stockMinimo"));
+        producto.setPrecioUnitario((BigDecimal) fila.get("precioUnitario"));
+        producto.setFechaVencimiento((LocalDate) fila.get("fechaVencimiento"));
+        return producto;
+    }
+
+    public static Map<String, Object> lote(Lote lote) {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("id", lote.getId());
+        fila.put("productoId", lote.getProducto() != null ? lote.getProducto().getId() : null);
+        fila.put("numeroOA", lote.getNumeroOA());
+        fila.put("fechaVencimiento", lote.getFechaVencimiento());
+        fila.put("cantidadDisponible", lote.getCantidadDisponible());
+        return fila;
+    }
+
+    public static Map<String, Object> ordenSalida(OrdenSalida orden, List<OrdenSalidaItem> items) {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("id", orden.getId());
+        fila.put("numeroOrden", orden.getNumeroOrden());
+        fila.put("fechaSalida", orden.getFechaSalida());
+        fila.put("dniUsuario", orden.getDniUsuario());
+        fila.put("beneficiarioId", orden.getBeneficiario() != null ? orden.getBeneficiario().getId() : null);
+        fila.put("cantidadProductos", orden.getCantidadProductos());
+
+        List<Map<String, Object>> detalle = new ArrayList<>();
+        if (items != null) {
+            for (OrdenSalidaItem item : items) {
+                Map<String, Object> linea = new LinkedHashMap<>();
+                linea.put("productoId", item.getProducto().getId());
+                linea.put("nombreProducto", item.getProducto().getNombre());
+                linea.put("cantidad", item.getCantidad());
+                detalle.add(linea);
+            }
+        }
+        fila.put("items", detalle);
+        return fila;
+    }
+
+    public static Map<String, Object> ordenAbastecimiento(OrdenAbastecimiento orden) {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("id", orden.getId());
+        fila.put("numeroOA", orden.getNumeroOA());
+        fila.put("fechaOA", orden.getFechaOA());
+        fila.put("proveedor", orden.getProveedor() != null ? orden.getProveedor().getNombre() : null);
+        fila.put("total", orden.getTotal());
+
+        List<Map<String, Object>> detalle = new ArrayList<>();
+        if (orden.getItems() != null) {
+            for (OrdenAbastecimientoItem item : orden.getItems()) {
+                if (item.getProducto() == null) continue;
+                Map<String, Object> linea = new LinkedHashMap<>();
+                linea.put("productoId", item.getProducto().getId());
+                linea.put("nombreProducto", item.getProducto().getNombre());
+                linea.put("cantidad", item.getCantidad());
+                detalle.add(linea);
+            }
+        }
+        fila.put("items", detalle);
+        return fila;
+    }
+}
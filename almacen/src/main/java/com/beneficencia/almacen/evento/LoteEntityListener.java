@@ -0,0 +1,36 @@
+package com.beneficencia.almacen.evento;
+
+import com.beneficencia.almacen.model.Lote;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Publica LOTE_CAMBIADO por cada escritura de Lote para que los índices en
+ * memoria (radar de vencimientos) sigan al stock por lote.
+ */
+@Component
+public class LoteEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @PostPersist
+    @PostUpdate
+    public void loteGuardado(Lote lote) {
+        publisher.publishEvent(EventoInventario.deFila(
+                EventoInventario.TipoEvento.LOTE_CAMBIADO, FilasInventario.lote(lote)));
+    }
+
+    @PostRemove
+    public void loteEliminado(Lote lote) {
+        Map<String, Object> fila = FilasInventario.lote(lote);
+        fila.put("cantidadDisponible", 0);
+        publisher.publishEvent(EventoInventario.deFila(EventoInventario.TipoEvento.LOTE_CAMBIADO, fila));
+    }
+}
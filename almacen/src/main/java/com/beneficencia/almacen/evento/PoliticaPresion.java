@@ -0,0 +1,22 @@
+package com.beneficencia.almacen.evento;
+
+/**
+ * Qué pasa cuando un consumidor de {@link DespachadorEventos} no alcanza a los
+ * productores y el anillo se llena.
+ */
+public enum PoliticaPresion {
+
+    /**
+     * El consumidor frena a los productores: quien publica espera lugar en el anillo
+     * hasta almacen.despacho.espera-maxima-ms y, si no lo hay, el evento se rechaza
+     * (los de la bandeja de salida se reenvían después).
+     */
+    BLOQUEAR,
+
+    /**
+     * El consumidor no frena a nadie: si se atrasa más que la capacidad del anillo
+     * pierde los eventos más viejos y se le avisa con la cantidad perdida para que
+     * se resincronice desde la base.
+     */
+    DESCARTAR
+}
@@ -0,0 +1,34 @@
+package com.beneficencia.almacen.evento;
+
+import com.beneficencia.almacen.model.Producto;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica un {@link EventoInventario} por cada escritura de Producto, sin importar
+ * qué servicio la haga (ventas, abastecimiento, cuadres o edición manual).
+ * Hibernate obtiene este listener desde el contexto de Spring.
+ */
+@Component
+public class ProductoEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @PostPersist
+    @PostUpdate
+    public void productoGuardado(Producto producto) {
+        publisher.publishEvent(EventoInventario.deFila(
+                EventoInventario.TipoEvento.STOCK_CAMBIADO, FilasInventario.producto(producto)));
+    }
+
+    @PostRemove
+    public void productoEliminado(Producto producto) {
+        publisher.publishEvent(EventoInventario.deFila(
+                EventoInventario.TipoEvento.PRODUCTO_ELIMINADO, FilasInventario.producto(producto)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cantidad de un lote entregada en un item de orden de salida (asignación FEFO).
+ */
+@Entity
+@Table(name = "asignaciones_lote", indexes = {
+        @Index(name = "idx_asignaciones_orden_salida", columnList = "orden_salida_id")
+})
+public class AsignacionLote {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lote_id", nullable = false)
+    private Lote lote;
+
+    @Column(name = "orden_salida_id")
+    private Long ordenSalidaId;
+
+    @Column(name = "orden_salida_item_id")
+    private Long ordenSalidaItemId;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    @Column(name = "fecha_asignacion")
+    private LocalDateTime fechaAsignacion;
+
+    public AsignacionLote() {
+        this.fechaAsignacion = LocalDateTime.now();
+    }
+
+    public AsignacionLote(Lote lote, Long ordenSalidaId, Long ordenSalidaItemId, Integer cantidad) {
+        this();
+        this.lote = lote;
+        this.ordenSalidaId = ordenSalidaId;
+        this.ordenSalidaItemId = ordenSalidaItemId;
+        this.cantidad = cantidad;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Lote getLote() { return lote; }
+    public void setLote(Lote lote) { this.lote = lote; }
+
+    public Long getOrdenSalidaId() { return ordenSalidaId; }
+    public void setOrdenSalidaId(Long ordenSalidaId) { this.ordenSalidaId = ordenSalidaId; }
+
+    public Long getOrdenSalidaItemId() { return ordenSalidaItemId; }
+    public void setOrdenSalidaItemId(Long ordenSalidaItemId) { this.ordenSalidaItemId = ordenSalidaItemId; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+
+    public LocalDateTime getFechaAsignacion() { return fechaAsignacion; }
+    public void setFechaAsignacion(LocalDateTime fechaAsignacion) { this.fechaAsignacion = fechaAsignacion; }
+}
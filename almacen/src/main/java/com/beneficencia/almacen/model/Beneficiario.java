@@ -1,10 +1,12 @@
 package com.beneficencia.almacen.model;
 
+import com.beneficencia.almacen.evento.ExistenciaEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(ExistenciaEntityListener.class)
 @Table(name = "beneficiarios")
 public class Beneficiario {
 
@@ -0,0 +1,46 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Aviso de invalidación para los demás nodos: qué canal cambió (tipo de evento o
+ * caché) y la clave afectada. Cada nodo sondea las filas nuevas y descarta las suyas.
+ */
+@Entity
+@Table(name = "cambios_cluster", indexes = @Index(name = "idx_cambios_cluster_fecha", columnList = "fecha"))
+public class CambioCluster {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 60)
+    private String nodo;
+
+    @Column(nullable = false, length = 60)
+    private String canal;
+
+    @Column(nullable = false, length = 120)
+    private String clave;
+
+    @Column(nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime fecha;
+
+    public CambioCluster() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getNodo() { return nodo; }
+    public void setNodo(String nodo) { this.nodo = nodo; }
+
+    public String getCanal() { return canal; }
+    public void setCanal(String canal) { this.canal = canal; }
+
+    public String getClave() { return clave; }
+    public void setClave(String clave) { this.clave = clave; }
+
+    public LocalDateTime getFecha() { return fecha; }
+    public void setFecha(LocalDateTime fecha) { this.fecha = fecha; }
+}
@@ -0,0 +1,119 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Campaña de distribución masiva (Navidad, emergencias): la misma canasta de
+ * productos para cada beneficiario de una lista. Al iniciarla se reserva de una
+ * vez el stock de toda la campaña y las órdenes de salida se generan por tramos
+ * en segundo plano (TrabajoCampanas).
+ */
+@Entity
+@Table(name = "campanas")
+public class Campana {
+
+    public enum EstadoCampana {
+        BORRADOR, EN_PROCESO, PAUSADA, COMPLETADA, CANCELADA
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 150)
+    private String nombre;
+
+    @Column(length = 500)
+    private String descripcion;
+
+    @Column(name = "fecha_salida", nullable = false)
+    private LocalDate fechaSalida;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoCampana estado = EstadoCampana.BORRADOR;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @OneToMany(mappedBy = "campana", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<CampanaItem> items = new ArrayList<>();
+
+    @Column(name = "total_beneficiarios", nullable = false)
+    private Integer totalBeneficiarios = 0;
+
+    @Column(nullable = false)
+    private Integer generadas = 0;
+
+    // Último error o aviso del proceso de generación
+    @Column(length = 500)
+    private String mensaje;
+
+    @Column(name = "fecha_registro")
+    private LocalDateTime fechaRegistro;
+
+    @Column(name = "fecha_inicio")
+    private LocalDateTime fechaInicio;
+
+    @Column(name = "fecha_fin")
+    private LocalDateTime fechaFin;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    public Campana() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public String getDescripcion() { return descripcion; }
+    public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
+
+    public LocalDate getFechaSalida() { return fechaSalida; }
+    public void setFechaSalida(LocalDate fechaSalida) { this.fechaSalida = fechaSalida; }
+
+    public EstadoCampana getEstado() { return estado; }
+    public void setEstado(EstadoCampana estado) { this.estado = estado; }
+
+    public Usuario getUsuario() { return usuario; }
+    public void setUsuario(Usuario usuario) { this.usuario = usuario; }
+
+    public List<CampanaItem> getItems() { return items; }
+    public void setItems(List<CampanaItem> items) { this.items = items; }
+
+    public Integer getTotalBeneficiarios() { return totalBeneficiarios; }
+    public void setTotalBeneficiarios(Integer totalBeneficiarios) { this.totalBeneficiarios = totalBeneficiarios; }
+
+    public Integer getGeneradas() { return generadas; }
+    public void setGeneradas(Integer generadas) { this.generadas = generadas; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje != null && mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje;
+    }
+
+    public LocalDateTime getFechaRegistro() { return fechaRegistro; }
+    public void setFechaRegistro(LocalDateTime fechaRegistro) { this.fechaRegistro = fechaRegistro; }
+
+    public LocalDateTime getFechaInicio() { return fechaInicio; }
+    public void setFechaInicio(LocalDateTime fechaInicio) { this.fechaInicio = fechaInicio; }
+
+    public LocalDateTime getFechaFin() { return fechaFin; }
+    public void setFechaFin(LocalDateTime fechaFin) { this.fechaFin = fechaFin; }
+
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+
+    public void agregarItem(CampanaItem item) {
+        items.add(item);
+        item.setCampana(this);
+    }
+}
@@ -0,0 +1,74 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Beneficiario de una campaña. ordenSalidaId queda en null hasta que se genera su
+ * orden; la generación toma los pendientes en orden de id, lo que le permite
+ * continuar donde quedó.
+ */
+@Entity
+@Table(name = "campana_beneficiarios",
+        uniqueConstraints = @UniqueConstraint(name = "uk_campana_beneficiarios_dni", columnNames = {"campana_id", "dni"}),
+        indexes = @Index(name = "idx_campana_beneficiarios_pendientes", columnList = "campana_id, orden_salida_id"))
+public class CampanaBeneficiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "campana_id", nullable = false)
+    private Long campanaId;
+
+    @Column(name = "beneficiario_id", nullable = false)
+    private Long beneficiarioId;
+
+    @Column(nullable = false, length = 8)
+    private String dni;
+
+    @Column(nullable = false)
+    private String nombre;
+
+    @Column(name = "orden_salida_id")
+    private Long ordenSalidaId;
+
+    @Column(name = "numero_orden")
+    private String numeroOrden;
+
+    // Entrega física el día de distribución (CheckinService)
+    @Column(name = "fecha_entrega")
+    private LocalDateTime fechaEntrega;
+
+    @Column(name = "entregado_por", length = 50)
+    private String entregadoPor;
+
+    public CampanaBeneficiario() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getCampanaId() { return campanaId; }
+    public void setCampanaId(Long campanaId) { this.campanaId = campanaId; }
+
+    public Long getBeneficiarioId() { return beneficiarioId; }
+    public void setBeneficiarioId(Long beneficiarioId) { this.beneficiarioId = beneficiarioId; }
+
+    public String getDni() { return dni; }
+    public void setDni(String dni) { this.dni = dni; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public Long getOrdenSalidaId() { return ordenSalidaId; }
+    public void setOrdenSalidaId(Long ordenSalidaId) { this.ordenSalidaId = ordenSalidaId; }
+
+    public String getNumeroOrden() { return numeroOrden; }
+    public void setNumeroOrden(String numeroOrden) { this.numeroOrden = numeroOrden; }
+
+    public LocalDateTime getFechaEntrega() { return fechaEntrega; }
+    public void setFechaEntrega(LocalDateTime fechaEntrega) { this.fechaEntrega = fechaEntrega; }
+
+    public String getEntregadoPor() { return entregadoPor; }
+    public void setEntregadoPor(String entregadoPor) { this.entregadoPor = entregadoPor; }
+}
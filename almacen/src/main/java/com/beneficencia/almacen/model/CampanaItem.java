@@ -0,0 +1,46 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Producto de la canasta de una campaña y la cantidad que recibe cada beneficiario.
+ */
+@Entity
+@Table(name = "campana_items", uniqueConstraints =
+        @UniqueConstraint(name = "uk_campana_items_producto", columnNames = {"campana_id", "producto_id"}))
+public class CampanaItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "campana_id", nullable = false)
+    private Campana campana;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "producto_id", nullable = false)
+    private Producto producto;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    public CampanaItem() {}
+
+    public CampanaItem(Producto producto, Integer cantidad) {
+        this.producto = producto;
+        this.cantidad = cantidad;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Campana getCampana() { return campana; }
+    public void setCampana(Campana campana) { this.campana = campana; }
+
+    public Producto getProducto() { return producto; }
+    public void setProducto(Producto producto) { this.producto = producto; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+}
@@ -0,0 +1,62 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Unidades de un lote apartadas para una campaña. Al iniciarla se descuentan del
+ * lote y del producto; cada tramo de órdenes las consume en orden FEFO y lo que
+ * quede se devuelve al lote si la campaña se cancela.
+ */
+@Entity
+@Table(name = "campana_reservas", indexes = @Index(name = "idx_campana_reservas_campana", columnList = "campana_id"))
+public class CampanaReserva {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "campana_id", nullable = false)
+    private Long campanaId;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lote_id", nullable = false)
+    private Lote lote;
+
+    @Column(name = "fecha_vencimiento")
+    private LocalDate fechaVencimiento;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    public CampanaReserva() {}
+
+    public CampanaReserva(Long campanaId, Long productoId, Lote lote, Integer cantidad) {
+        this.campanaId = campanaId;
+        this.productoId = productoId;
+        this.lote = lote;
+        this.fechaVencimiento = lote.getFechaVencimiento();
+        this.cantidad = cantidad;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getCampanaId() { return campanaId; }
+    public void setCampanaId(Long campanaId) { this.campanaId = campanaId; }
+
+    public Long getProductoId() { return productoId; }
+    public void setProductoId(Long productoId) { this.productoId = productoId; }
+
+    public Lote getLote() { return lote; }
+    public void setLote(Lote lote) { this.lote = lote; }
+
+    public LocalDate getFechaVencimiento() { return fechaVencimiento; }
+    public void setFechaVencimiento(LocalDate fechaVencimiento) { this.fechaVencimiento = fechaVencimiento; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+}
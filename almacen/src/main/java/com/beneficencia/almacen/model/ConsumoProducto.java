@@ -0,0 +1,89 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Velocidad de consumo de un producto (unidades por día) calculada con un promedio
+ * de decaimiento exponencial sobre sus salidas. Cada salida se suma una sola vez:
+ * la tasa se lleva a la fecha de referencia y no hace falta releer el historial.
+ */
+@Entity
+@Table(name = "consumo_productos", indexes = @Index(name = "idx_consumo_pendiente", columnList = "pendiente"))
+public class ConsumoProducto {
+
+    // El id es el del producto
+    @Id
+    @Column(name = "producto_id")
+    private Long productoId;
+
+    @Column(nullable = false)
+    private double tasa;
+
+    @Column(name = "fecha_referencia")
+    private LocalDate fechaReferencia;
+
+    @Column(name = "total_unidades", nullable = false)
+    private long totalUnidades;
+
+    // Hubo salidas nuevas desde la última evaluación de reabastecimiento
+    @Column(nullable = false)
+    private boolean pendiente;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    public ConsumoProducto() {}
+
+    public ConsumoProducto(Long productoId) {
+        this.productoId = productoId;
+    }
+
+    /**
+     * Suma una salida a la tasa. decaimiento = ln 2 / vida media en días. Las salidas
+     * con fecha anterior a la referencia (registradas con atraso) se suman ya decaídas.
+     */
+    public void registrarSalida(int cantidad, LocalDate fecha, double decaimiento) {
+        if (fechaReferencia == null) {
+            tasa = decaimiento * cantidad;
+            fechaReferencia = fecha;
+        } else if (!fecha.isBefore(fechaReferencia)) {
+            long dias = ChronoUnit.DAYS.between(fechaReferencia, fecha);
+            tasa = tasa * Math.exp(-decaimiento * dias) + decaimiento * cantidad;
+            fechaReferencia = fecha;
+        } else {
+            long dias = ChronoUnit.DAYS.between(fecha, fechaReferencia);
+            tasa += decaimiento * cantidad * Math.exp(-decaimiento * dias);
+        }
+        totalUnidades += cantidad;
+        pendiente = true;
+        fechaActualizacion = LocalDateTime.now();
+    }
+
+    /** Unidades por día estimadas a la fecha indicada. */
+    public double tasaAl(LocalDate fecha, double decaimiento) {
+        if (fechaReferencia == null) return 0;
+        long dias = Math.max(0, ChronoUnit.DAYS.between(fechaReferencia, fecha));
+        return tasa * Math.exp(-decaimiento * dias);
+    }
+
+    public Long getProductoId() { return productoId; }
+    public void setProductoId(Long productoId) { this.productoId = productoId; }
+
+    public double getTasa() { return tasa; }
+    public void setTasa(double tasa) { this.tasa = tasa; }
+
+    public LocalDate getFechaReferencia() { return fechaReferencia; }
+    public void setFechaReferencia(LocalDate fechaReferencia) { this.fechaReferencia = fechaReferencia; }
+
+    public long getTotalUnidades() { return totalUnidades; }
+    public void setTotalUnidades(long totalUnidades) { this.totalUnidades = totalUnidades; }
+
+    public boolean isPendiente() { return pendiente; }
+    public void setPendiente(boolean pendiente) { this.pendiente = pendiente; }
+
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+}
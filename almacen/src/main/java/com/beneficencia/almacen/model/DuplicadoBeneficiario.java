@@ -0,0 +1,80 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Par de beneficiarios que el detector de duplicados marcó para revisión.
+ * beneficiarioAId es siempre el menor de los dos ids; la restricción única evita
+ * que una nueva pasada vuelva a proponer un par ya revisado.
+ */
+@Entity
+@Table(name = "duplicados_beneficiario",
+        uniqueConstraints = @UniqueConstraint(name = "uk_duplicados_beneficiario_par",
+                columnNames = {"beneficiario_a_id", "beneficiario_b_id"}),
+        indexes = @Index(name = "idx_duplicados_beneficiario_estado", columnList = "estado, puntaje"))
+public class DuplicadoBeneficiario {
+
+    public static final String PENDIENTE = "PENDIENTE";
+    public static final String FUSIONADO = "FUSIONADO";
+    public static final String DESCARTADO = "DESCARTADO";
+    // El par dejó de tener sentido porque uno de los dos se fusionó con un tercero
+    public static final String OBSOLETO = "OBSOLETO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "beneficiario_a_id", nullable = false)
+    private Long beneficiarioAId;
+
+    @Column(name = "beneficiario_b_id", nullable = false)
+    private Long beneficiarioBId;
+
+    @Column(nullable = false)
+    private Double puntaje;
+
+    @Column(length = 200)
+    private String motivo;
+
+    @Column(nullable = false, length = 20)
+    private String estado = PENDIENTE;
+
+    @Column(name = "fecha_deteccion", nullable = false)
+    private LocalDateTime fechaDeteccion;
+
+    @Column(name = "fecha_revision")
+    private LocalDateTime fechaRevision;
+
+    @Column(name = "revisado_por", length = 50)
+    private String revisadoPor;
+
+    public DuplicadoBeneficiario() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getBeneficiarioAId() { return beneficiarioAId; }
+    public void setBeneficiarioAId(Long beneficiarioAId) { this.beneficiarioAId = beneficiarioAId; }
+
+    public Long getBeneficiarioBId() { return beneficiarioBId; }
+    public void setBeneficiarioBId(Long beneficiarioBId) { this.beneficiarioBId = beneficiarioBId; }
+
+    public Double getPuntaje() { return puntaje; }
+    public void setPuntaje(Double puntaje) { this.puntaje = puntaje; }
+
+    public String getMotivo() { return motivo; }
+    public void setMotivo(String motivo) { this.motivo = motivo; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public LocalDateTime getFechaDeteccion() { return fechaDeteccion; }
+    public void setFechaDeteccion(LocalDateTime fechaDeteccion) { this.fechaDeteccion = fechaDeteccion; }
+
+    public LocalDateTime getFechaRevision() { return fechaRevision; }
+    public void setFechaRevision(LocalDateTime fechaRevision) { this.fechaRevision = fechaRevision; }
+
+    public String getRevisadoPor() { return revisadoPor; }
+    public void setRevisadoPor(String revisadoPor) { this.revisadoPor = revisadoPor; }
+}
@@ -0,0 +1,105 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Historial de ejecuciones de los trabajos programados, para la página de administración.
+ */
+@Entity
+@Table(name = "ejecuciones_trabajo", indexes = @Index(name = "idx_ejecuciones_trabajo_inicio", columnList = "trabajo, inicio"))
+public class EjecucionTrabajo {
+
+    public static final String EN_CURSO = "EN_CURSO";
+    public static final String COMPLETADO = "COMPLETADO";
+    public static final String FALLIDO = "FALLIDO";
+    // El nodo que la ejecutaba se detuvo o perdió el arrendamiento
+    public static final String INTERRUMPIDO = "INTERRUMPIDO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 60)
+    private String trabajo;
+
+    @Column(nullable = false, length = 60)
+    private String nodo;
+
+    @Column(nullable = false, length = 20)
+    private String estado = EN_CURSO;
+
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    private LocalDateTime fin;
+
+    @Column(name = "duracion_ms")
+    private Long duracionMs;
+
+    @Column(nullable = false)
+    private Integer tramos = 0;
+
+    @Column(nullable = false)
+    private Long procesados = 0L;
+
+    // Continúa desde el punto de control de una ejecución anterior
+    @Column(nullable = false)
+    private Boolean reanudada = false;
+
+    @Column(length = 500)
+    private String mensaje;
+
+    public EjecucionTrabajo() {}
+
+    public EjecucionTrabajo(String trabajo, String nodo, boolean reanudada) {
+        this.trabajo = trabajo;
+        this.nodo = nodo;
+        this.reanudada = reanudada;
+        this.inicio = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTrabajo() { return trabajo; }
+    public void setTrabajo(String trabajo) { this.trabajo = trabajo; }
+
+    public String getNodo() { return nodo; }
+    public void setNodo(String nodo) { this.nodo = nodo; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public LocalDateTime getInicio() { return inicio; }
+    public void setInicio(LocalDateTime inicio) { this.inicio = inicio; }
+
+    public LocalDateTime getFin() { return fin; }
+    public void setFin(LocalDateTime fin) { this.fin = fin; }
+
+    public Long getDuracionMs() { return duracionMs; }
+    public void setDuracionMs(Long duracionMs) { this.duracionMs = duracionMs; }
+
+    public Integer getTramos() { return tramos; }
+    public void setTramos(Integer tramos) { this.tramos = tramos; }
+
+    public Long getProcesados() { return procesados; }
+    public void setProcesados(Long procesados) { this.procesados = procesados; }
+
+    public Boolean getReanudada() { return reanudada; }
+    public void setReanudada(Boolean reanudada) { this.reanudada = reanudada; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje != null && mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje;
+    }
+
+    /** Cierra la ejecución con su estado final y la duración desde el inicio. */
+    public void terminar(String estado, String mensaje) {
+        this.estado = estado;
+        this.fin = LocalDateTime.now();
+        this.duracionMs = Duration.between(inicio, fin).toMillis();
+        setMensaje(mensaje);
+    }
+}
@@ -0,0 +1,38 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de avance de un proceso incremental: el último id que ya procesó, para que
+ * la siguiente ejecución continúe desde ahí en lugar de recorrer toda la tabla.
+ */
+@Entity
+@Table(name = "estado_procesos")
+public class EstadoProceso {
+
+    @Id
+    @Column(length = 60)
+    private String nombre;
+
+    @Column(name = "ultimo_id", nullable = false)
+    private Long ultimoId = 0L;
+
+    @Column(name = "fecha_ejecucion")
+    private LocalDateTime fechaEjecucion;
+
+    public EstadoProceso() {}
+
+    public EstadoProceso(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public Long getUltimoId() { return ultimoId; }
+    public void setUltimoId(Long ultimoId) { this.ultimoId = ultimoId; }
+
+    public LocalDateTime getFechaEjecucion() { return fechaEjecucion; }
+    public void setFechaEjecucion(LocalDateTime fechaEjecucion) { this.fechaEjecucion = fechaEjecucion; }
+}
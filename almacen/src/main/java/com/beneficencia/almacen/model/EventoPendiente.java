@@ -0,0 +1,55 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Bandeja de salida de eventos de inventario: se escribe en la misma transacción
+ * que el cambio y la fila se borra cuando los consumidores duraderos procesaron el
+ * evento. Las filas que quedan (caída del nodo, anillo lleno, error del consumidor)
+ * se reenvían. Se escribe y se lee con JDBC desde DespachadorEventos.
+ */
+@Entity
+@Table(name = "eventos_pendientes", indexes = @Index(name = "idx_eventos_pendientes_fecha", columnList = "fecha"))
+public class EventoPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 30)
+    private String tipo;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String filas;
+
+    @Column(nullable = false, length = 60)
+    private String nodo;
+
+    /** Alta o último reenvío (reloj de la base). */
+    @Column(nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime fecha;
+
+    @Column(nullable = false)
+    private Integer intentos = 0;
+
+    public EventoPendiente() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+
+    public String getFilas() { return filas; }
+    public void setFilas(String filas) { this.filas = filas; }
+
+    public String getNodo() { return nodo; }
+    public void setNodo(String nodo) { this.nodo = nodo; }
+
+    public LocalDateTime getFecha() { return fecha; }
+    public void setFecha(LocalDateTime fecha) { this.fecha = fecha; }
+
+    public Integer getIntentos() { return intentos; }
+    public void setIntentos(Integer intentos) { this.intentos = intentos; }
+}
@@ -0,0 +1,62 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Línea de un kit: una cantidad de un producto o de otro kit (subkit). Exactamente
+ * uno de los dos está informado.
+ */
+@Entity
+@Table(name = "kit_componentes")
+public class KitComponente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "kit_id", nullable = false)
+    private Kit kit;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "producto_id")
+    private Producto producto;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subkit_id")
+    private Kit subkit;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    public KitComponente() {}
+
+    public static KitComponente deProducto(Producto producto, Integer cantidad) {
+        KitComponente componente = new KitComponente();
+        componente.setProducto(producto);
+        componente.setCantidad(cantidad);
+        return componente;
+    }
+
+    public static KitComponente deSubkit(Kit subkit, Integer cantidad) {
+        KitComponente componente = new KitComponente();
+        componente.setSubkit(subkit);
+        componente.setCantidad(cantidad);
+        return componente;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Kit getKit() { return kit; }
+    public void setKit(Kit kit) { this.kit = kit; }
+
+    public Producto getProducto() { return producto; }
+    public void setProducto(Producto producto) { this.producto = producto; }
+
+    public Kit getSubkit() { return subkit; }
+    public void setSubkit(Kit subkit) { this.subkit = subkit; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+}
@@ -0,0 +1,100 @@
+package com.beneficencia.almacen.model;
+
+import com.beneficencia.almacen.evento.LoteEntityListener;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "lotes", indexes = {
+        @Index(name = "idx_lotes_producto_disponible", columnList = "producto_id, cantidad_disponible"),
+        @Index(name = "idx_lotes_vencimiento", columnList = "fecha_vencimiento")
+})
+@EntityListeners(LoteEntityListener.class)
+public class Lote {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "producto_id", nullable = false)
+    private Producto producto;
+
+    // Item de abastecimiento que originó el lote; null para el saldo previo al control por lotes
+    @Column(name = "orden_abastecimiento_item_id")
+    private Long ordenAbastecimientoItemId;
+
+    @Column(name = "orden_abastecimiento_id")
+    private Long ordenAbastecimientoId;
+
+    @Column(name = "numero_oa")
+    private String numeroOA;
+
+    @Column(name = "fecha_vencimiento")
+    private LocalDate fechaVencimiento;
+
+    @Column(name = "cantidad_inicial", nullable = false)
+    private Integer cantidadInicial;
+
+    @Column(name = "cantidad_disponible", nullable = false)
+    private Integer cantidadDisponible;
+
+    @Column(name = "fecha_ingreso")
+    private LocalDateTime fechaIngreso;
+
+    @Version
+    private Long version;
+
+    public Lote() {
+        this.fechaIngreso = LocalDateTime.now();
+    }
+
+    public Lote(Producto producto, Integer cantidad, LocalDate fechaVencimiento) {
+        this();
+        this.producto = producto;
+        this.cantidadInicial = cantidad;
+        this.cantidadDisponible = cantidad;
+        this.fechaVencimiento = fechaVencimiento;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Producto getProducto() { return producto; }
+    public void setProducto(Producto producto) { this.producto = producto; }
+
+    public Long getOrdenAbastecimientoItemId() { return ordenAbastecimientoItemId; }
+    public void setOrdenAbastecimientoItemId(Long ordenAbastecimientoItemId) { this.ordenAbastecimientoItemId = ordenAbastecimientoItemId; }
+
+    public Long getOrdenAbastecimientoId() { return ordenAbastecimientoId; }
+    public void setOrdenAbastecimientoId(Long ordenAbastecimientoId) { this.ordenAbastecimientoId = ordenAbastecimientoId; }
+
+    public String getNumeroOA() { return numeroOA; }
+    public void setNumeroOA(String numeroOA) { this.numeroOA = numeroOA; }
+
+    public LocalDate getFechaVencimiento() { return fechaVencimiento; }
+    public void setFechaVencimiento(LocalDate fechaVencimiento) { this.fechaVencimiento = fechaVencimiento; }
+
+    public Integer getCantidadInicial() { return cantidadInicial; }
+    public void setCantidadInicial(Integer cantidadInicial) { this.cantidadInicial = cantidadInicial; }
+
+    public Integer getCantidadDisponible() { return cantidadDisponible; }
+    public void setCantidadDisponible(Integer cantidadDisponible) { this.cantidadDisponible = cantidadDisponible; }
+
+    public LocalDateTime getFechaIngreso() { return fechaIngreso; }
+    public void setFechaIngreso(LocalDateTime fechaIngreso) { this.fechaIngreso = fechaIngreso; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    @Override
+    public String toString() {
+        return "Lote{" +
+                "id=" + id +
+                ", numeroOA='" + numeroOA + '\'' +
+                ", fechaVencimiento=" + fechaVencimiento +
+                ", cantidadDisponible=" + cantidadDisponible +
+                '}';
+    }
+}
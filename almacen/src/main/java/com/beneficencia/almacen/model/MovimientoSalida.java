@@ -5,7 +5,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "movimientos_salida")
+@Table(name = "movimientos_salida", indexes = {
+        @Index(name = "idx_movimientos_salida_fecha", columnList = "fecha_salida, fecha_registro"),
+        @Index(name = "idx_movimientos_salida_dni_fecha", columnList = "dni_beneficiario, fecha_salida"),
+        @Index(name = "idx_movimientos_salida_tramite_fecha", columnList = "numero_tramite, fecha_salida")
+})
 public class MovimientoSalida {
 
     @Id
@@ -1,5 +1,6 @@
 package com.beneficencia.almacen.model;
 
+import com.beneficencia.almacen.evento.ExistenciaEntityListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -8,6 +9,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(ExistenciaEntityListener.class)
 @Table(name = "ordenes_abastecimiento")
 public class OrdenAbastecimiento {
 
@@ -2,6 +2,7 @@ package com.beneficencia.almacen.model;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Entity
 @Table(name = "orden_abastecimiento_items")
@@ -27,6 +28,10 @@ public class OrdenAbastecimientoItem {
     @Column(precision = 10, scale = 2)
     private BigDecimal subtotal;
 
+    // Vencimiento del lote recibido; si es null se usa el del producto
+    @Column(name = "fecha_vencimiento")
+    private LocalDate fechaVencimiento;
+
     public void desconectarDeOrden() {
         if (this.ordenAbastecimiento != null) {
             this.ordenAbastecimiento = null;
@@ -65,4 +70,8 @@ public class OrdenAbastecimientoItem {
     public BigDecimal getSubtotal() { return subtotal; }
 
     public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+
+    public LocalDate getFechaVencimiento() { return fechaVencimiento; }
+
+    public void setFechaVencimiento(LocalDate fechaVencimiento) { this.fechaVencimiento = fechaVencimiento; }
 }
\ No newline at end of file
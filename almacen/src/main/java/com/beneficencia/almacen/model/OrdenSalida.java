@@ -7,7 +7,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "ordenes_salida")
+@Table(name = "ordenes_salida", indexes = {
+        @Index(name = "idx_ordenes_salida_beneficiario_registro", columnList = "beneficiario_id, fecha_registro"),
+        // Búsqueda de órdenes (BusquedaOrdenesService): campo exacto o prefijo, ya ordenado por fecha e id
+        @Index(name = "idx_ordenes_salida_fecha", columnList = "fecha_salida, id"),
+        @Index(name = "idx_ordenes_salida_dni_fecha", columnList = "dni_usuario, fecha_salida, id"),
+        @Index(name = "idx_ordenes_salida_tramite_fecha", columnList = "numero_tramite, fecha_salida, id")
+})
 public class OrdenSalida {
 
     @Id
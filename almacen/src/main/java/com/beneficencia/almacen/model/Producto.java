@@ -1,5 +1,7 @@
 package com.beneficencia.almacen.model;
 
+import com.beneficencia.almacen.evento.ExistenciaEntityListener;
+import com.beneficencia.almacen.evento.ProductoEntityListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -7,6 +9,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "productos")
+@EntityListeners({ProductoEntityListener.class, ExistenciaEntityListener.class})
 public class Producto {
 
     @Id
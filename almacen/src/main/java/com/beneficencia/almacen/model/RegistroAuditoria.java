@@ -0,0 +1,78 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cambio confirmado en una entidad auditada: quién, cuándo, desde qué método
+ * transaccional y qué campos cambiaron.
+ *
+ * cambios es un JSON compacto: al MODIFICAR {"campo":[antes,después]} solo con los
+ * campos que cambiaron; al CREAR y al ELIMINAR {"campo":valor} sin los nulos. Las
+ * relaciones se guardan como el id de la entidad referida.
+ */
+@Entity
+@Table(name = "auditoria", indexes = {
+        @Index(name = "idx_auditoria_fecha", columnList = "fecha, id"),
+        @Index(name = "idx_auditoria_entidad", columnList = "entidad, fecha, id"),
+        @Index(name = "idx_auditoria_entidad_id", columnList = "entidad, entidad_id, fecha, id"),
+        @Index(name = "idx_auditoria_usuario", columnList = "usuario, fecha, id")
+})
+public class RegistroAuditoria {
+
+    public static final String CREAR = "CREAR";
+    public static final String MODIFICAR = "MODIFICAR";
+    public static final String ELIMINAR = "ELIMINAR";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime fecha;
+
+    @Column(nullable = false, length = 60)
+    private String usuario;
+
+    @Column(nullable = false, length = 12)
+    private String accion;
+
+    @Column(nullable = false, length = 40)
+    private String entidad;
+
+    @Column(name = "entidad_id")
+    private Long entidadId;
+
+    /** Método transaccional que hizo el cambio, como Clase.metodo. */
+    @Column(length = 120)
+    private String origen;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String cambios;
+
+    public RegistroAuditoria() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDateTime getFecha() { return fecha; }
+    public void setFecha(LocalDateTime fecha) { this.fecha = fecha; }
+
+    public String getUsuario() { return usuario; }
+    public void setUsuario(String usuario) { this.usuario = usuario; }
+
+    public String getAccion() { return accion; }
+    public void setAccion(String accion) { this.accion = accion; }
+
+    public String getEntidad() { return entidad; }
+    public void setEntidad(String entidad) { this.entidad = entidad; }
+
+    public Long getEntidadId() { return entidadId; }
+    public void setEntidadId(Long entidadId) { this.entidadId = entidadId; }
+
+    public String getOrigen() { return origen; }
+    public void setOrigen(String origen) { this.origen = origen; }
+
+    public String getCambios() { return cambios; }
+    public void setCambios(String cambios) { this.cambios = cambios; }
+}
@@ -0,0 +1,69 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cantidad de un lote que llegó a su fecha de vencimiento sin ser entregada.
+ * Lo registra el barrido diario de RadarVencimientoService; un lote se registra una sola vez.
+ */
+@Entity
+@Table(name = "registros_vencimiento")
+public class RegistroVencimiento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lote_id", nullable = false, unique = true)
+    private Long loteId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "producto_id", nullable = false)
+    private Producto producto;
+
+    @Column(name = "numero_oa")
+    private String numeroOA;
+
+    @Column(name = "fecha_vencimiento", nullable = false)
+    private LocalDate fechaVencimiento;
+
+    @Column(nullable = false)
+    private Integer cantidad;
+
+    @Column(name = "valor", precision = 12, scale = 2)
+    private BigDecimal valor;
+
+    @Column(name = "fecha_registro")
+    private LocalDateTime fechaRegistro;
+
+    public RegistroVencimiento() {
+        this.fechaRegistro = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getLoteId() { return loteId; }
+    public void setLoteId(Long loteId) { this.loteId = loteId; }
+
+    public Producto getProducto() { return producto; }
+    public void setProducto(Producto producto) { this.producto = producto; }
+
+    public String getNumeroOA() { return numeroOA; }
+    public void setNumeroOA(String numeroOA) { this.numeroOA = numeroOA; }
+
+    public LocalDate getFechaVencimiento() { return fechaVencimiento; }
+    public void setFechaVencimiento(LocalDate fechaVencimiento) { this.fechaVencimiento = fechaVencimiento; }
+
+    public Integer getCantidad() { return cantidad; }
+    public void setCantidad(Integer cantidad) { this.cantidad = cantidad; }
+
+    public BigDecimal getValor() { return valor; }
+    public void setValor(BigDecimal valor) { this.valor = valor; }
+
+    public LocalDateTime getFechaRegistro() { return fechaRegistro; }
+    public void setFechaRegistro(LocalDateTime fechaRegistro) { this.fechaRegistro = fechaRegistro; }
+}
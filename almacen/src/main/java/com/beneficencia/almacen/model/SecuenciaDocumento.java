@@ -0,0 +1,42 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Último número emitido de una serie de documentos (órdenes de salida por mes,
+ * órdenes de abastecimiento por tipo y año, códigos de producto por categoría).
+ * La fila se bloquea al tomar el siguiente número, así que dos nodos nunca
+ * emiten el mismo.
+ */
+@Entity
+@Table(name = "secuencias_documento")
+public class SecuenciaDocumento {
+
+    @Id
+    @Column(length = 60)
+    private String nombre;
+
+    @Column(nullable = false)
+    private Long valor = 0L;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    public SecuenciaDocumento() {}
+
+    public SecuenciaDocumento(String nombre, Long valor) {
+        this.nombre = nombre;
+        this.valor = valor;
+        this.fechaActualizacion = LocalDateTime.now();
+    }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public Long getValor() { return valor; }
+    public void setValor(Long valor) { this.valor = valor; }
+
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) { this.fechaActualizacion = fechaActualizacion; }
+}
@@ -0,0 +1,68 @@
+package com.beneficencia.almacen.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Estado compartido de un trabajo de mantenimiento entre todos los nodos.
+ *
+ * El nodo que toma el arrendamiento (nodo + arrendadoHasta) es el único que lo
+ * ejecuta; el token aumenta en cada toma y cada tramo lo verifica al guardar su
+ * punto de control, así un nodo que perdió el arrendamiento no puede pisar el
+ * avance de otro. Si el punto de control no es nulo, la ejecución quedó a medias y
+ * la siguiente continúa desde ahí.
+ */
+@Entity
+@Table(name = "trabajos_programados")
+public class TrabajoProgramado {
+
+    @Id
+    @Column(length = 60)
+    private String nombre;
+
+    @Column(name = "proxima_ejecucion", nullable = false, columnDefinition = "DATETIME(3)")
+    private LocalDateTime proximaEjecucion;
+
+    @Column(length = 60)
+    private String nodo;
+
+    @Column(nullable = false)
+    private Long token = 0L;
+
+    @Column(name = "arrendado_hasta", columnDefinition = "DATETIME(3)")
+    private LocalDateTime arrendadoHasta;
+
+    @Column(name = "punto_control", length = 500)
+    private String puntoControl;
+
+    @Column(name = "ejecucion_id")
+    private Long ejecucionId;
+
+    public TrabajoProgramado() {}
+
+    public TrabajoProgramado(String nombre, LocalDateTime proximaEjecucion) {
+        this.nombre = nombre;
+        this.proximaEjecucion = proximaEjecucion;
+    }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public LocalDateTime getProximaEjecucion() { return proximaEjecucion; }
+    public void setProximaEjecucion(LocalDateTime proximaEjecucion) { this.proximaEjecucion = proximaEjecucion; }
+
+    public String getNodo() { return nodo; }
+    public void setNodo(String nodo) { this.nodo = nodo; }
+
+    public Long getToken() { return token; }
+    public void setToken(Long token) { this.token = token; }
+
+    public LocalDateTime getArrendadoHasta() { return arrendadoHasta; }
+    public void setArrendadoHasta(LocalDateTime arrendadoHasta) { this.arrendadoHasta = arrendadoHasta; }
+
+    public String getPuntoControl() { return puntoControl; }
+    public void setPuntoControl(String puntoControl) { this.puntoControl = puntoControl; }
+
+    public Long getEjecucionId() { return ejecucionId; }
+    public void setEjecucionId(Long ejecucionId) { this.ejecucionId = ejecucionId; }
+}
@@ -0,0 +1,23 @@
+package com.beneficencia.almacen.pdf;
+
+/**
+ * Columna de una TablaPdf: título del encabezado, ancho relativo y estilo de sus celdas.
+ */
+public record ColumnaPdf(String titulo, float ancho, EstiloCelda estilo) {
+
+    public static ColumnaPdf texto(String titulo, float ancho) {
+        return new ColumnaPdf(titulo, ancho, EstiloCelda.TEXTO);
+    }
+
+    public static ColumnaPdf centrada(String titulo, float ancho) {
+        return new ColumnaPdf(titulo, ancho, EstiloCelda.CENTRADO);
+    }
+
+    public static ColumnaPdf derecha(String titulo, float ancho) {
+        return new ColumnaPdf(titulo, ancho, EstiloCelda.DERECHA);
+    }
+
+    public ColumnaPdf conEstilo(EstiloCelda estilo) {
+        return new ColumnaPdf(titulo, ancho, estilo);
+    }
+}
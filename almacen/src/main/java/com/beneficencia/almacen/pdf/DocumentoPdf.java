@@ -0,0 +1,42 @@
+package com.beneficencia.almacen.pdf;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Bloques de texto comunes a los PDF del almacén.
+ */
+public final class DocumentoPdf {
+
+    public static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    public static final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private DocumentoPdf() {
+    }
+
+    /** Título, institución y fecha del reporte, centrados. */
+    public static void encabezadoReporte(Document documento, String titulo) throws DocumentException {
+        Paragraph parrafoTitulo = parrafo(titulo, EstilosPdf.TITULO, Element.ALIGN_CENTER);
+        parrafoTitulo.setSpacingAfter(20);
+        documento.add(parrafoTitulo);
+
+        documento.add(parrafo(EstilosPdf.INSTITUCION, EstilosPdf.NORMAL, Element.ALIGN_CENTER));
+
+        Paragraph fecha = parrafo("Fecha de reporte: " + LocalDateTime.now().format(FECHA_HORA),
+                EstilosPdf.NORMAL, Element.ALIGN_CENTER);
+        fecha.setSpacingAfter(20);
+        documento.add(fecha);
+    }
+
+    public static Paragraph parrafo(String texto, Font fuente, int alineacion) {
+        Paragraph parrafo = new Paragraph(texto, fuente);
+        parrafo.setAlignment(alineacion);
+        return parrafo;
+    }
+}
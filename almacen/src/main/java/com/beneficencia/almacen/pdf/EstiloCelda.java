@@ -0,0 +1,87 @@
+package com.beneficencia.almacen.pdf;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfPCell;
+
+/**
+ * Estilo inmutable de una celda: fuente, alineación, fondo, relleno y bordes.
+ * Las variantes se crean una vez (normalmente como constantes) con los métodos
+ * con...; TablaPdf arma una celda plantilla por estilo y la reutiliza en cada fila.
+ */
+public final class EstiloCelda {
+
+    /** Encabezado de columna de los reportes. */
+    public static final EstiloCelda ENCABEZADO = new EstiloCelda(EstilosPdf.NORMAL, Element.ALIGN_CENTER,
+            EstilosPdf.GRIS_CLARO, 5, 1, Rectangle.BOX);
+    public static final EstiloCelda TEXTO = new EstiloCelda(EstilosPdf.NORMAL, Element.ALIGN_LEFT,
+            null, 5, -1, Rectangle.BOX);
+    public static final EstiloCelda CENTRADO = TEXTO.conAlineacion(Element.ALIGN_CENTER);
+    public static final EstiloCelda DERECHA = TEXTO.conAlineacion(Element.ALIGN_RIGHT);
+
+    private final Font fuente;
+    private final int alineacion;
+    private final BaseColor fondo;
+    private final float relleno;
+    private final float anchoBorde;
+    private final int bordes;
+
+    private EstiloCelda(Font fuente, int alineacion, BaseColor fondo, float relleno, float anchoBorde, int bordes) {
+        this.fuente = fuente;
+        this.alineacion = alineacion;
+        this.fondo = fondo;
+        this.relleno = relleno;
+        this.anchoBorde = anchoBorde;
+        this.bordes = bordes;
+    }
+
+    public EstiloCelda conFuente(Font fuente) {
+        return new EstiloCelda(fuente, alineacion, fondo, relleno, anchoBorde, bordes);
+    }
+
+    public EstiloCelda conAlineacion(int alineacion) {
+        return new EstiloCelda(fuente, alineacion, fondo, relleno, anchoBorde, bordes);
+    }
+
+    public EstiloCelda conFondo(BaseColor fondo) {
+        return new EstiloCelda(fuente, alineacion, fondo, relleno, anchoBorde, bordes);
+    }
+
+    public EstiloCelda conRelleno(float relleno) {
+        return new EstiloCelda(fuente, alineacion, fondo, relleno, anchoBorde, bordes);
+    }
+
+    /** Bordes como en Rectangle (BOX, NO_BORDER, TOP | BOTTOM...). */
+    public EstiloCelda conBordes(int bordes) {
+        return new EstiloCelda(fuente, alineacion, fondo, relleno, anchoBorde, bordes);
+    }
+
+    public Font getFuente() {
+        return fuente;
+    }
+
+    int getAlineacion() {
+        return alineacion;
+    }
+
+    float getRelleno() {
+        return relleno;
+    }
+
+    /** Celda vacía con este estilo, para usar como plantilla. */
+    PdfPCell plantilla() {
+        PdfPCell celda = new PdfPCell();
+        celda.setHorizontalAlignment(alineacion);
+        celda.setPadding(relleno);
+        celda.setBorder(bordes);
+        if (fondo != null) {
+            celda.setBackgroundColor(fondo);
+        }
+        if (anchoBorde >= 0) {
+            celda.setBorderWidth(anchoBorde);
+        }
+        return celda;
+    }
+}
@@ -0,0 +1,40 @@
+package com.beneficencia.almacen.pdf;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.FontFactory;
+
+/**
+ * Fuentes y colores de los PDF del almacén, creados una sola vez.
+ *
+ * iText no tiene fuentes inmutables: estas se comparten entre reportes y entre
+ * hilos, así que nunca se les cambia el tamaño ni el color; para otra variante se
+ * agrega otra constante.
+ */
+public final class EstilosPdf {
+
+    public static final String INSTITUCION = "Sociedad de Beneficencia de Lambayeque";
+
+    public static final BaseColor GRIS_CLARO = BaseColor.LIGHT_GRAY;
+    public static final BaseColor ROJO_SUAVE = new BaseColor(255, 200, 200);
+    public static final BaseColor VERDE_SUAVE = new BaseColor(200, 255, 200);
+    public static final BaseColor GRIS_SUAVE = new BaseColor(220, 220, 220);
+
+    // Reportes
+    public static final Font TITULO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
+    public static final Font SUBTITULO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+    public static final Font NORMAL = FontFactory.getFont(FontFactory.HELVETICA, 12);
+    public static final Font NEGRITA = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+    public static final Font NEGRITA_PEQUENA = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, BaseColor.BLACK);
+
+    // Documentos impresos (órdenes)
+    public static final Font DOCUMENTO_TITULO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+    public static final Font DOCUMENTO_SUBTITULO = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+    public static final Font DOCUMENTO_SECCION = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10);
+    public static final Font DOCUMENTO_ETIQUETA = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9);
+    public static final Font DOCUMENTO_TEXTO = FontFactory.getFont(FontFactory.HELVETICA, 9);
+    public static final Font DOCUMENTO_PIE = FontFactory.getFont(FontFactory.HELVETICA, 8, BaseColor.GRAY);
+
+    private EstilosPdf() {
+    }
+}
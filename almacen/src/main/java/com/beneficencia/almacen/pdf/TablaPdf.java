@@ -0,0 +1,214 @@
+package com.beneficencia.almacen.pdf;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPCellEvent;
+import com.itextpdf.text.pdf.PdfPTable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Tabla de un PDF definida por sus columnas, que se llena celda por celda.
+ *
+ * Cada estilo tiene sus celdas plantilla armadas una sola vez (PdfPTable copia la
+ * celda al agregarla). Un texto que entra en una línea de su columna, que es casi
+ * siempre, va en una celda de altura fija sin Phrase y lo dibuja un PdfPCellEvent
+ * en la posición en que lo pondría iText: así se evita el armado de líneas de
+ * ColumnText, que por celda asigna varios KB y se repite al medir y al escribir.
+ * Los textos que no entran en una línea se arman con iText como siempre.
+ *
+ * La tabla se envía al documento cada FILAS_POR_ENVIO filas (tabla grande de
+ * iText, con el encabezado repetido en cada página) para no tener el reporte
+ * entero en memoria. No es segura para varios hilos: una instancia por tabla.
+ */
+public final class TablaPdf {
+
+    static final int FILAS_POR_ENVIO = 200;
+
+    private final Document documento;
+    private final PdfPTable tabla;
+    private final Plantilla[] porColumna;
+    private final float[] anchos;
+    private final Map<EstiloCelda, Plantilla> otrasPlantillas = new IdentityHashMap<>();
+    private int columna;
+    private int filasSinEnviar;
+    private long filas;
+
+    public TablaPdf(Document documento, ColumnaPdf... columnas) throws DocumentException {
+        this(documento, EstiloCelda.ENCABEZADO, columnas);
+    }
+
+    public TablaPdf(Document documento, EstiloCelda encabezado, ColumnaPdf... columnas) throws DocumentException {
+        this.documento = documento;
+        this.tabla = new PdfPTable(columnas.length);
+        this.porColumna = new Plantilla[columnas.length];
+        this.anchos = new float[columnas.length];
+
+        float suma = 0;
+        float[] relativos = new float[columnas.length];
+        for (int i = 0; i < columnas.length; i++) {
+            relativos[i] = columnas[i].ancho();
+            suma += relativos[i];
+            porColumna[i] = plantilla(columnas[i].estilo());
+        }
+        tabla.setWidths(relativos);
+        tabla.setWidthPercentage(100);
+        tabla.setComplete(false);
+
+        // Mismo cálculo que hace PdfPTable con el ancho al 100 %
+        float anchoTotal = documento.right() - documento.left();
+        for (int i = 0; i < columnas.length; i++) {
+            anchos[i] = anchoTotal * relativos[i] / suma;
+        }
+
+        PdfPCell cabecera = encabezado.plantilla();
+        for (ColumnaPdf columnaPdf : columnas) {
+            cabecera.setPhrase(new Phrase(columnaPdf.titulo(), encabezado.getFuente()));
+            tabla.addCell(cabecera);
+        }
+        tabla.setHeaderRows(1);
+    }
+
+    public TablaPdf espacioAntes(float espacio) {
+        tabla.setSpacingBefore(espacio);
+        return this;
+    }
+
+    /** Escribe en la siguiente columna con el estilo de esa columna. */
+    public TablaPdf celda(String valor) throws DocumentException {
+        return escribir(porColumna[columna], valor, 1);
+    }
+
+    /** Escribe en la siguiente columna con otro estilo (por ejemplo, según el valor). */
+    public TablaPdf celda(String valor, EstiloCelda estilo) throws DocumentException {
+        return escribir(plantilla(estilo), valor, 1);
+    }
+
+    /** Una celda que ocupa varias columnas. */
+    public TablaPdf combinada(String valor, int columnas, EstiloCelda estilo) throws DocumentException {
+        return escribir(plantilla(estilo), valor, columnas);
+    }
+
+    /** Fila con un mensaje a lo ancho de toda la tabla, p. ej. cuando no hay datos. */
+    public TablaPdf filaCompleta(String mensaje, EstiloCelda estilo) throws DocumentException {
+        return combinada(mensaje, porColumna.length - columna, estilo);
+    }
+
+    public long getFilas() {
+        return filas;
+    }
+
+    /** Envía las filas que faltan; después de esto la tabla ya no se usa. */
+    public void terminar() throws DocumentException {
+        tabla.setComplete(true);
+        documento.add(tabla);
+    }
+
+    private TablaPdf escribir(Plantilla plantilla, String valor, int columnas) throws DocumentException {
+        String texto = valor != null ? valor : "";
+        if (columnas == 1 && plantilla.entraEnUnaLinea(texto, anchos[columna])) {
+            PdfPCell celda = plantilla.unaLinea;
+            // setCellEvent acumula eventos: primero se quita el de la celda anterior
+            celda.setCellEvent(null);
+            if (!texto.isEmpty()) {
+                celda.setCellEvent(new TextoCelda(texto, plantilla));
+            }
+            tabla.addCell(celda);
+        } else {
+            PdfPCell celda = plantilla.conTexto;
+            celda.setPhrase(new Phrase(texto, plantilla.fuente));
+            celda.setColspan(columnas);
+            tabla.addCell(celda);
+        }
+
+        columna += columnas;
+        if (columna >= porColumna.length) {
+            columna = 0;
+            filas++;
+            if (++filasSinEnviar >= FILAS_POR_ENVIO) {
+                documento.add(tabla);
+                // El espacio va solo antes del primer tramo
+                tabla.setSpacingBefore(0);
+                filasSinEnviar = 0;
+            }
+        }
+        return this;
+    }
+
+    private Plantilla plantilla(EstiloCelda estilo) {
+        return otrasPlantillas.computeIfAbsent(estilo, Plantilla::new);
+    }
+
+    /** Las dos celdas plantilla de un estilo y lo necesario para dibujar su texto. */
+    private static final class Plantilla {
+        final PdfPCell conTexto;
+        final PdfPCell unaLinea;
+        final Font fuente;
+        final BaseFont base;
+        final float tamano;
+        final BaseColor color;
+        final int alineacion;
+        final float relleno;
+
+        Plantilla(EstiloCelda estilo) {
+            this.fuente = estilo.getFuente();
+            this.base = fuente.getCalculatedBaseFont(false);
+            this.tamano = fuente.getCalculatedSize();
+            this.color = fuente.getColor() != null ? fuente.getColor() : BaseColor.BLACK;
+            this.alineacion = estilo.getAlineacion();
+            this.relleno = estilo.getRelleno();
+            this.conTexto = estilo.plantilla();
+            this.unaLinea = estilo.plantilla();
+            // iText deja una línea de un solo tamaño de letra en relleno + tamaño + relleno
+            this.unaLinea.setFixedHeight(relleno * 2 + tamano);
+        }
+
+        boolean entraEnUnaLinea(String texto, float anchoColumna) {
+            if (texto.indexOf('\n') >= 0) {
+                return false;
+            }
+            return base.getWidthPoint(texto, tamano) < anchoColumna - relleno * 2 - 0.01f;
+        }
+    }
+
+    /** Dibuja el texto de una celda de una línea donde lo dejaría ColumnText. */
+    private static final class TextoCelda implements PdfPCellEvent {
+        private final String texto;
+        private final Plantilla plantilla;
+
+        TextoCelda(String texto, Plantilla plantilla) {
+            this.texto = texto;
+            this.plantilla = plantilla;
+        }
+
+        @Override
+        public void cellLayout(PdfPCell celda, Rectangle posicion, PdfContentByte[] lienzos) {
+            float x = switch (plantilla.alineacion) {
+                case Element.ALIGN_CENTER -> (posicion.getLeft() + posicion.getRight()) / 2;
+                case Element.ALIGN_RIGHT -> posicion.getRight() - plantilla.relleno;
+                default -> posicion.getLeft() + plantilla.relleno;
+            };
+            int alineacion = plantilla.alineacion == Element.ALIGN_CENTER || plantilla.alineacion == Element.ALIGN_RIGHT
+                    ? plantilla.alineacion : Element.ALIGN_LEFT;
+            float y = posicion.getTop() - plantilla.relleno - plantilla.tamano;
+
+            PdfContentByte lienzo = lienzos[PdfPTable.TEXTCANVAS];
+            lienzo.saveState();
+            lienzo.setColorFill(plantilla.color);
+            lienzo.beginText();
+            lienzo.setFontAndSize(plantilla.base, plantilla.tamano);
+            lienzo.showTextAligned(alineacion, texto, x, y, 0);
+            lienzo.endText();
+            lienzo.restoreState();
+        }
+    }
+}
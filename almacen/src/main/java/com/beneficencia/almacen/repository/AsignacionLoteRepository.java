@@ -0,0 +1,18 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.AsignacionLote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AsignacionLoteRepository extends JpaRepository<AsignacionLote, Long> {
+
+    @Query("SELECT a FROM AsignacionLote a JOIN FETCH a.lote WHERE a.ordenSalidaId = :ordenSalidaId")
+    List<AsignacionLote> findByOrdenSalidaIdConLote(@Param("ordenSalidaId") Long ordenSalidaId);
+
+    List<AsignacionLote> findByLoteProductoId(Long productoId);
+}
@@ -5,12 +5,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BeneficiarioRepository extends JpaRepository<Beneficiario, Long> {
     Optional<Beneficiario> findByDni(String dni);
+    List<Beneficiario> findByDniIn(Collection<String> dnis);
     boolean existsByDni(String dni);
 
     @Query("SELECT b FROM Beneficiario b ORDER BY b.fechaRegistro DESC")
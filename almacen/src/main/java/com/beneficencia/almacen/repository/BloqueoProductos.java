@@ -0,0 +1,18 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.Producto;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BloqueoProductos {
+
+    /**
+     * Bloquea los productos en orden de id y los devuelve con lo que tiene la fila
+     * bloqueada. A diferencia de findParaActualizar, pisa el estado de los que ya
+     * estaban cargados en la sesión (con open-in-view, los que leyó el controlador):
+     * usar antes de leer stock para descontarlo o devolverlo, y nunca después de
+     * haber cambiado alguno en la misma transacción.
+     */
+    List<Producto> bloquearVigentes(Collection<Long> ids);
+}
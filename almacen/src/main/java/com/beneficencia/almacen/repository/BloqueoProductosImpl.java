@@ -0,0 +1,32 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.Producto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+import java.util.List;
+
+class BloqueoProductosImpl implements BloqueoProductos {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Producto> bloquearVigentes(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        List<Producto> productos = entityManager
+                .createQuery("SELECT p FROM Producto p WHERE p.id IN :ids ORDER BY p.id", Producto.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        // Hibernate no copia la fila a las instancias que ya estaban en la sesión; y en
+        // REPEATABLE READ una lectura simple vería la foto del inicio de la transacción,
+        // así que se vuelve a leer con bloqueo, que lee lo último confirmado
+        for (Producto producto : productos) {
+            entityManager.refresh(producto, LockModeType.PESSIMISTIC_WRITE);
+        }
+        return productos;
+    }
+}
@@ -0,0 +1,20 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.CampanaBeneficiario;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CampanaBeneficiarioRepository extends JpaRepository<CampanaBeneficiario, Long> {
+
+    @Query("SELECT b FROM CampanaBeneficiario b WHERE b.campanaId = :campanaId AND b.ordenSalidaId IS NULL ORDER BY b.id")
+    List<CampanaBeneficiario> findPendientes(@Param("campanaId") Long campanaId, Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM CampanaBeneficiario b WHERE b.campanaId = :campanaId AND b.ordenSalidaId IS NULL")
+    long countPendientes(@Param("campanaId") Long campanaId);
+}
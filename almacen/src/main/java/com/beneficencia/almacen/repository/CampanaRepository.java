@@ -0,0 +1,28 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.Campana;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CampanaRepository extends JpaRepository<Campana, Long> {
+
+    List<Campana> findAllByOrderByFechaRegistroDesc();
+
+    List<Campana> findByEstadoOrderByIdAsc(Campana.EstadoCampana estado);
+
+    @Query("SELECT DISTINCT c FROM Campana c LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.producto WHERE c.id = :id")
+    Optional<Campana> findConItems(@Param("id") Long id);
+
+    /** Generación, pausa y cancelación bloquean la campaña para no cruzarse. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Campana c WHERE c.id = :id")
+    Optional<Campana> findParaActualizar(@Param("id") Long id);
+}
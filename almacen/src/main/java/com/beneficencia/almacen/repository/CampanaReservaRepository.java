@@ -0,0 +1,18 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.CampanaReserva;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CampanaReservaRepository extends JpaRepository<CampanaReserva, Long> {
+
+    /** Reservas con saldo en orden FEFO: primero las que vencen antes, sin vencimiento al final. */
+    @Query("SELECT r FROM CampanaReserva r WHERE r.campanaId = :campanaId AND r.cantidad > 0 " +
+           "ORDER BY r.productoId, CASE WHEN r.fechaVencimiento IS NULL THEN 1 ELSE 0 END, r.fechaVencimiento, r.lote.id")
+    List<CampanaReserva> findDisponibles(@Param("campanaId") Long campanaId);
+}
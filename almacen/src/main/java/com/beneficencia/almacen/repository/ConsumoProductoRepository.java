@@ -0,0 +1,13 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.ConsumoProducto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConsumoProductoRepository extends JpaRepository<ConsumoProducto, Long> {
+
+    List<ConsumoProducto> findByPendienteTrue();
+}
@@ -0,0 +1,25 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.DuplicadoBeneficiario;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DuplicadoBeneficiarioRepository extends JpaRepository<DuplicadoBeneficiario, Long> {
+
+    List<DuplicadoBeneficiario> findByEstadoOrderByPuntajeDesc(String estado, Pageable pageable);
+
+    long countByEstado(String estado);
+
+    /** Los pares pendientes que involucran a un beneficiario que ya no existe quedan obsoletos. */
+    @Modifying
+    @Query("UPDATE DuplicadoBeneficiario d SET d.estado = 'OBSOLETO' WHERE d.estado = 'PENDIENTE' " +
+            "AND (d.beneficiarioAId = :beneficiarioId OR d.beneficiarioBId = :beneficiarioId)")
+    int marcarObsoletos(@Param("beneficiarioId") Long beneficiarioId);
+}
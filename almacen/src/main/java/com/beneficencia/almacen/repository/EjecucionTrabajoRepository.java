@@ -0,0 +1,24 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.EjecucionTrabajo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EjecucionTrabajoRepository extends JpaRepository<EjecucionTrabajo, Long> {
+
+    List<EjecucionTrabajo> findByTrabajoOrderByInicioDesc(String trabajo, Pageable pageable);
+
+    List<EjecucionTrabajo> findAllByOrderByInicioDesc(Pageable pageable);
+
+    @Query("SELECT e.id FROM EjecucionTrabajo e WHERE e.id > :desdeId AND e.inicio < :antesDe " +
+           "AND e.estado <> 'EN_CURSO' ORDER BY e.id")
+    List<Long> findIdsAnterioresA(@Param("desdeId") Long desdeId, @Param("antesDe") LocalDateTime antesDe,
+                                  Pageable pageable);
+}
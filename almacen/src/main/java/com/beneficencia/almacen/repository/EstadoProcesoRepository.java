@@ -0,0 +1,9 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.EstadoProceso;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EstadoProcesoRepository extends JpaRepository<EstadoProceso, String> {
+}
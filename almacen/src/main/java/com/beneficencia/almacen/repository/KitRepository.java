@@ -0,0 +1,24 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.Kit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface KitRepository extends JpaRepository<Kit, Long> {
+
+    Optional<Kit> findByCodigo(String codigo);
+
+    /** Todos los kits con sus componentes en una consulta, para precalcular las expansiones. */
+    @Query("SELECT DISTINCT k FROM Kit k LEFT JOIN FETCH k.componentes c LEFT JOIN FETCH c.producto " +
+            "LEFT JOIN FETCH c.subkit ORDER BY k.nombre")
+    List<Kit> findAllConComponentes();
+
+    @Query("SELECT DISTINCT c.kit FROM KitComponente c WHERE c.subkit.id = :subkitId")
+    List<Kit> findQueContienen(@Param("subkitId") Long subkitId);
+}
@@ -0,0 +1,29 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.Lote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LoteRepository extends JpaRepository<Lote, Long> {
+
+    @Query("SELECT l FROM Lote l WHERE l.producto.id = :productoId AND l.cantidadDisponible > 0")
+    List<Lote> findDisponiblesPorProducto(@Param("productoId") Long productoId);
+
+    @Query("SELECT l FROM Lote l WHERE l.ordenAbastecimientoId = :ordenId AND l.producto.id = :productoId " +
+            "AND l.cantidadDisponible > 0 ORDER BY l.id DESC")
+    List<Lote> findDisponiblesPorOrdenYProducto(@Param("ordenId") Long ordenId, @Param("productoId") Long productoId);
+
+    @Query("SELECT l FROM Lote l WHERE l.producto.id = :productoId AND l.ordenAbastecimientoId IS NULL " +
+            "AND l.cantidadDisponible > 0")
+    List<Lote> findSaldosPorProducto(@Param("productoId") Long productoId);
+
+    List<Lote> findByProductoId(Long productoId);
+
+    @Query("SELECT l FROM Lote l JOIN FETCH l.producto WHERE l.cantidadDisponible > 0 AND l.fechaVencimiento IS NOT NULL")
+    List<Lote> findDisponiblesConVencimiento();
+}
@@ -23,11 +23,10 @@ public interface MovimientoSalidaRepository extends JpaRepository<MovimientoSali
 
     List<MovimientoSalida> findByProductoId(Long productoId);
 
-    @Query("SELECT ms FROM MovimientoSalida ms WHERE ms.dniBeneficiario LIKE %:dni%")
-    List<MovimientoSalida> findByDniBeneficiarioContaining(@Param("dni") String dni);
+    // Prefijo en lugar de LIKE '%x%' para que usen los índices por DNI y por trámite
+    List<MovimientoSalida> findByDniBeneficiarioStartingWithOrderByFechaSalidaDescIdDesc(String dni);
 
-    @Query("SELECT ms FROM MovimientoSalida ms WHERE ms.numeroTramite LIKE %:tramite%")
-    List<MovimientoSalida> findByNumeroTramiteContaining(@Param("tramite") String tramite);
+    List<MovimientoSalida> findByNumeroTramiteStartingWithOrderByFechaSalidaDescIdDesc(String tramite);
 
     @Query("SELECT ms FROM MovimientoSalida ms ORDER BY ms.fechaSalida DESC, ms.fechaRegistro DESC")
     List<MovimientoSalida> findAllOrderByFecha();
@@ -1,9 +1,28 @@
 package com.beneficencia.almacen.repository;
 
+import com.beneficencia.almacen.model.OrdenAbastecimiento;
 import com.beneficencia.almacen.model.OrdenAbastecimientoItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrdenAbastecimientoItemRepository extends JpaRepository<OrdenAbastecimientoItem, Long> {
-}
\ No newline at end of file
+
+    // [productoId, proveedorId, tipoOrden, precioUnitario], la compra más reciente primero
+    @Query("SELECT i.producto.id, oa.proveedor.id, oa.tipoOrden, i.precioUnitario " +
+            "FROM OrdenAbastecimientoItem i JOIN i.ordenAbastecimiento oa " +
+            "WHERE i.producto.id IN :productoIds AND oa.estado <> :excluido " +
+            "ORDER BY oa.fechaOA DESC, oa.id DESC")
+    List<Object[]> findHistorialCompras(@Param("productoIds") Collection<Long> productoIds,
+                                        @Param("excluido") OrdenAbastecimiento.EstadoOrden excluido);
+
+    @Query("SELECT DISTINCT i.producto.id FROM OrdenAbastecimientoItem i " +
+            "WHERE i.ordenAbastecimiento.estado = :estado AND i.producto.id IN :productoIds")
+    List<Long> findProductosConOrdenEnEstado(@Param("productoIds") Collection<Long> productoIds,
+                                             @Param("estado") OrdenAbastecimiento.EstadoOrden estado);
+}
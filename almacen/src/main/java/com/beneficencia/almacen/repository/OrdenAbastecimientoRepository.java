@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +22,9 @@ public interface OrdenAbastecimientoRepository extends JpaRepository<OrdenAbaste
 
     boolean existsByNumeroOA(String numeroOA);
 
+    @Query("SELECT oa.estado FROM OrdenAbastecimiento oa WHERE oa.id = :id")
+    Optional<OrdenAbastecimiento.EstadoOrden> findEstadoById(@Param("id") Long id);
+
     @Query("SELECT DISTINCT oa FROM OrdenAbastecimiento oa " +
             "LEFT JOIN FETCH oa.proveedor " +
             "LEFT JOIN FETCH oa.usuario " +
@@ -35,6 +39,21 @@ public interface OrdenAbastecimientoRepository extends JpaRepository<OrdenAbaste
             "WHERE oa.id = :id")
     Optional<OrdenAbastecimiento> findByIdWithItems(@Param("id") Long id);
 
+    @Query("SELECT DISTINCT oa FROM OrdenAbastecimiento oa " +
+            "LEFT JOIN FETCH oa.proveedor " +
+            "LEFT JOIN FETCH oa.usuario " +
+            "LEFT JOIN FETCH oa.items i " +
+            "LEFT JOIN FETCH i.producto " +
+            "WHERE oa.id IN :ids")
+    List<OrdenAbastecimiento> findByIdInWithItems(@Param("ids") List<Long> ids);
+
+    @Query("SELECT oa.id FROM OrdenAbastecimiento oa WHERE oa.fechaOA BETWEEN :desde AND :hasta " +
+            "ORDER BY oa.fechaOA, oa.id")
+    List<Long> findIdsByFechaOABetween(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT oa.id FROM OrdenAbastecimiento oa WHERE oa.id IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") List<Long> ids);
+
     @Query("SELECT COUNT(oa) FROM OrdenAbastecimiento oa WHERE oa.tipoOrden = :tipoOrden AND YEAR(oa.fechaOA) = :year")
     Long countByTipoOrdenAndFechaOAYear(@Param("tipoOrden") OrdenAbastecimiento.TipoOrden tipoOrden,
                                         @Param("year") int year);
@@ -1,11 +1,13 @@
 package com.beneficencia.almacen.repository;
 
 import com.beneficencia.almacen.model.OrdenSalidaItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -20,4 +22,36 @@ public interface OrdenSalidaItemRepository extends JpaRepository<OrdenSalidaItem
 
     @Query("SELECT oi FROM OrdenSalidaItem oi JOIN FETCH oi.producto WHERE oi.ordenSalida.id = :ordenId")
     List<OrdenSalidaItem> findItemsConProductosPorOrdenId(@Param("ordenId") Long ordenId);
-}
\ No newline at end of file
+
+    @Query("SELECT MAX(oi.id) FROM OrdenSalidaItem oi WHERE oi.fechaRegistro IS NULL OR oi.fechaRegistro < :corte")
+    Long findUltimoIdRegistradoAntesDe(@Param("corte") LocalDateTime corte);
+
+    // [itemId, productoId, cantidad, fechaSalida] en orden de id, para recorrer el historial por tramos
+    @Query("SELECT oi.id, oi.producto.id, oi.cantidad, o.fechaSalida FROM OrdenSalidaItem oi " +
+            "JOIN oi.ordenSalida o " +
+            "WHERE oi.id > :desde AND oi.id <= :hasta " +
+            "ORDER BY oi.id")
+    List<Object[]> findConsumosEntre(@Param("desde") Long desde, @Param("hasta") Long hasta, Pageable pageable);
+
+    // Consumo de las órdenes en caliente y de las archivadas (ver ArchivoService); una
+    // orden está en un solo lado, así que no se cuenta dos veces
+    String CONSUMO_DOS_NIVELES = "SELECT oi.producto_id, o.fecha_salida, oi.cantidad FROM orden_salida_items oi " +
+            "JOIN ordenes_salida o ON o.id = oi.orden_salida_id WHERE o.id <= :hastaOrdenId " +
+            "UNION ALL " +
+            "SELECT oi.producto_id, o.fecha_salida, oi.cantidad FROM orden_salida_items_archivo oi " +
+            "JOIN ordenes_salida_archivo o ON o.id = oi.orden_salida_id WHERE o.id <= :hastaOrdenId";
+
+    // [productoId, año, mes, cantidad] consumo mensual por producto hasta la orden indicada
+    @Query(value = "SELECT c.producto_id, YEAR(c.fecha_salida), MONTH(c.fecha_salida), SUM(c.cantidad) " +
+            "FROM (" + CONSUMO_DOS_NIVELES + ") c " +
+            "GROUP BY c.producto_id, YEAR(c.fecha_salida), MONTH(c.fecha_salida) " +
+            "ORDER BY c.producto_id, YEAR(c.fecha_salida), MONTH(c.fecha_salida)", nativeQuery = true)
+    List<Object[]> findConsumoMensualPorProducto(@Param("hastaOrdenId") Long hastaOrdenId);
+
+    // [categoria, año, mes, cantidad]
+    @Query(value = "SELECT p.categoria, YEAR(c.fecha_salida), MONTH(c.fecha_salida), SUM(c.cantidad) " +
+            "FROM (" + CONSUMO_DOS_NIVELES + ") c JOIN productos p ON p.id = c.producto_id " +
+            "GROUP BY p.categoria, YEAR(c.fecha_salida), MONTH(c.fecha_salida) " +
+            "ORDER BY p.categoria, YEAR(c.fecha_salida), MONTH(c.fecha_salida)", nativeQuery = true)
+    List<Object[]> findConsumoMensualPorCategoria(@Param("hastaOrdenId") Long hastaOrdenId);
+}
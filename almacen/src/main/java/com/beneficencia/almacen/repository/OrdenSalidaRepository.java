@@ -15,18 +15,33 @@ public interface OrdenSalidaRepository extends JpaRepository<OrdenSalida, Long>
 
     List<OrdenSalida> findByFechaSalidaBetween(LocalDate fechaInicio, LocalDate fechaFin);
 
+    @Query("SELECT MAX(os.id) FROM OrdenSalida os")
+    Long findUltimoId();
+
     @Query("SELECT os FROM OrdenSalida os ORDER BY os.fechaSalida DESC, os.fechaRegistro DESC")
     List<OrdenSalida> findAllOrderByFecha();
 
-    @Query("SELECT os FROM OrdenSalida os WHERE os.dniUsuario LIKE %:dni%")
-    List<OrdenSalida> findByDniUsuarioContaining(@Param("dni") String dni);
+    // Prefijo en lugar de LIKE '%x%' para que usen los índices por DNI y por trámite
+    List<OrdenSalida> findByDniUsuarioStartingWithOrderByFechaSalidaDescIdDesc(String dni);
 
-    @Query("SELECT os FROM OrdenSalida os WHERE os.numeroTramite LIKE %:tramite%")
-    List<OrdenSalida> findByNumeroTramiteContaining(@Param("tramite") String tramite);
+    List<OrdenSalida> findByNumeroTramiteStartingWithOrderByFechaSalidaDescIdDesc(String tramite);
 
     @Query("SELECT os FROM OrdenSalida os WHERE os.numeroOrden = :numeroOrden")
     Optional<OrdenSalida> findByNumeroOrden(@Param("numeroOrden") String numeroOrden);
 
+    @Query("SELECT os.id FROM OrdenSalida os WHERE os.fechaSalida BETWEEN :desde AND :hasta " +
+            "ORDER BY os.fechaSalida, os.id")
+    List<Long> findIdsByFechaSalidaBetween(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT os.id FROM OrdenSalida os WHERE os.id IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") List<Long> ids);
+
+    @Query("SELECT DISTINCT os FROM OrdenSalida os " +
+            "LEFT JOIN FETCH os.items i " +
+            "LEFT JOIN FETCH i.producto " +
+            "WHERE os.id IN :ids")
+    List<OrdenSalida> findByIdInWithItems(@Param("ids") List<Long> ids);
+
     @Query("SELECT COUNT(os) FROM OrdenSalida os WHERE YEAR(os.fechaSalida) = :year AND MONTH(os.fechaSalida) = :month")
     Long countByFechaSalidaYearAndMonth(@Param("year") int year, @Param("month") int month);
 }
\ No newline at end of file
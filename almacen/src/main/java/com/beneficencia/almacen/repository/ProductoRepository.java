@@ -1,16 +1,19 @@
 package com.beneficencia.almacen.repository;
 
 import com.beneficencia.almacen.model.Producto;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, BloqueoProductos {
 
     List<Producto> findByCodigoStartingWithOrderByIdDesc(String prefijo);
 
@@ -31,6 +34,18 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
 
     Optional<Producto> findByCodigo(String codigo);
 
+    @Query("SELECT p FROM Producto p WHERE p.cantidad > 0 AND NOT EXISTS (SELECT l.id FROM Lote l WHERE l.producto = p)")
+    List<Producto> findConStockSinLotes();
+
+    /**
+     * Bloquea los productos siempre en orden de id para que dos reservas no se crucen.
+     * Los que ya estaban en la sesión conservan lo que se leyó antes del bloqueo: para
+     * leer stock usar bloquearVigentes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Producto p WHERE p.id IN :ids ORDER BY p.id")
+    List<Producto> findParaActualizar(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT p FROM Producto p WHERE LOWER(p.nombre) LIKE LOWER(CONCAT('%', :termino, '%')) OR LOWER(p.codigo) LIKE LOWER(CONCAT('%', :termino, '%'))")
     List<Producto> findByNombreContainingIgnoreCaseOrCodigoContainingIgnoreCase(@Param("termino") String termino, String busqueda);
 }
\ No newline at end of file
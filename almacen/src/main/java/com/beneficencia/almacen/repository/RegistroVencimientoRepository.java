@@ -0,0 +1,21 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.RegistroVencimiento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RegistroVencimientoRepository extends JpaRepository<RegistroVencimiento, Long> {
+
+    @Query("SELECT r.loteId FROM RegistroVencimiento r WHERE r.loteId IN :loteIds")
+    List<Long> findLoteIdsRegistrados(@Param("loteIds") Collection<Long> loteIds);
+
+    @Query("SELECT r FROM RegistroVencimiento r JOIN FETCH r.producto WHERE r.fechaRegistro >= :desde ORDER BY r.fechaRegistro DESC")
+    List<RegistroVencimiento> findRegistradosDesde(@Param("desde") LocalDateTime desde);
+}
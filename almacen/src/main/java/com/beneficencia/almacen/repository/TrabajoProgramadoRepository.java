@@ -0,0 +1,60 @@
+package com.beneficencia.almacen.repository;
+
+import com.beneficencia.almacen.model.TrabajoProgramado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TrabajoProgramadoRepository extends JpaRepository<TrabajoProgramado, String> {
+
+    /**
+     * Toma el arrendamiento si el trabajo ya debe ejecutarse y nadie lo tiene (o el
+     * arrendamiento anterior venció). Devuelve 1 solo en el nodo que lo consiguió.
+     * Vencimientos y plazo se miden con el reloj de la base, el mismo para todos los
+     * nodos, así que un nodo adelantado no roba el arrendamiento de otro.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE trabajos_programados SET nodo = :nodo, token = token + 1, " +
+           "arrendado_hasta = NOW(3) + INTERVAL :segundos SECOND " +
+           "WHERE nombre = :nombre AND proxima_ejecucion <= NOW(3) " +
+           "AND (arrendado_hasta IS NULL OR arrendado_hasta < NOW(3))", nativeQuery = true)
+    int tomarArrendamiento(@Param("nombre") String nombre, @Param("nodo") String nodo,
+                           @Param("segundos") long segundos);
+
+    /** Guarda el avance y renueva el arrendamiento; 0 si otro nodo lo tomó entretanto. */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE trabajos_programados SET punto_control = :puntoControl, ejecucion_id = :ejecucionId, " +
+           "arrendado_hasta = NOW(3) + INTERVAL :segundos SECOND " +
+           "WHERE nombre = :nombre AND token = :token", nativeQuery = true)
+    int guardarAvance(@Param("nombre") String nombre, @Param("token") Long token,
+                      @Param("puntoControl") String puntoControl, @Param("ejecucionId") Long ejecucionId,
+                      @Param("segundos") long segundos);
+
+    /** Libera el arrendamiento y programa la siguiente ejecución. */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TrabajoProgramado t SET t.arrendadoHasta = NULL, t.ejecucionId = NULL, " +
+           "t.puntoControl = :puntoControl, t.proximaEjecucion = :proxima " +
+           "WHERE t.nombre = :nombre AND t.token = :token")
+    int liberar(@Param("nombre") String nombre, @Param("token") Long token,
+                @Param("puntoControl") String puntoControl, @Param("proxima") LocalDateTime proxima);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TrabajoProgramado t SET t.proximaEjecucion = :proxima " +
+           "WHERE t.nombre = :nombre AND t.proximaEjecucion > :proxima")
+    int adelantar(@Param("nombre") String nombre, @Param("proxima") LocalDateTime proxima);
+
+    /** Deja el trabajo vencido según el reloj de la base, con el que se toma el arrendamiento. */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE trabajos_programados SET proxima_ejecucion = NOW(3) " +
+           "WHERE nombre = :nombre AND proxima_ejecucion > NOW(3)", nativeQuery = true)
+    int adelantarAhora(@Param("nombre") String nombre);
+
+    /** Hora de la base, para comparar con arrendado_hasta. */
+    @Query(value = "SELECT NOW(3)", nativeQuery = true)
+    LocalDateTime ahoraEnBase();
+}
@@ -0,0 +1,253 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.ConsumidorEventos;
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.FilasInventario;
+import com.beneficencia.almacen.evento.PoliticaPresion;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de productos ordenados por margen de stock (cantidad - stockMinimo).
+ *
+ * Los productos con stock bajo son exactamente el prefijo con margen <= 0, así que
+ * listarlos, tomar los N más críticos o contarlos cuesta O(k) sobre los k resultados
+ * en lugar de recorrer toda la tabla. Se carga al iniciar la aplicación y se
+ * actualiza con cada cambio de stock confirmado (en el hilo "alertas" del
+ * despacho de eventos); cuando un producto entra o sale
+ * del conjunto de stock bajo se publica STOCK_BAJO o STOCK_NORMALIZADO.
+ *
+ * Una recarga lee los productos fuera del candado; los cambios que llegan mientras
+ * tanto se aplican igual y además se guardan, para volver a aplicarlos sobre lo
+ * leído al reemplazar el índice (como los pronósticos con las salidas).
+ */
+@Component
+public class AlertaStockIndex implements ConsumidorEventos {
+
+    /** Mismo criterio que ProductoService.tieneStockBajo cuando no hay stock mínimo definido. */
+    public static final int STOCK_MINIMO_POR_DEFECTO = 5;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final NavigableSet<Entrada> porMargen = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Entrada::getMargen).thenComparingLong(Entrada::getId));
+    private final Map<Long, Entrada> porId = new ConcurrentHashMap<>();
+    private final AtomicLong cantidadStockBajo = new AtomicLong();
+
+    private final Object recargando = new Object();
+    // Eventos recibidos durante una recarga; null si no hay ninguna en curso
+    private List<EventoInventario> duranteRecarga;
+
+    private volatile boolean listo = false;
+
+    public static boolean esStockBajo(Integer cantidad, Integer stockMinimo) {
+        if (cantidad == null) return true;
+        return cantidad <= (stockMinimo != null ? stockMinimo : STOCK_MINIMO_POR_DEFECTO);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+        System.out.println("Índice de alertas de stock cargado - productos: " + porId.size() +
+                " - stock bajo: " + cantidadStockBajo.get());
+    }
+
+    /**
+     * Reconstruye el índice desde la base de datos. Corrige cualquier desvío por
+     * escrituras que no pasen por JPA (scripts, cargas masivas).
+     */
+    @Scheduled(initialDelayString = "${almacen.alertas.recarga-ms:600000}",
+            fixedDelayString = "${almacen.alertas.recarga-ms:600000}")
+    public void recargar() {
+        // Una recarga a la vez: la del horario y la de alPerderEventos pueden coincidir
+        synchronized (recargando) {
+            synchronized (this) {
+                duranteRecarga = new ArrayList<>();
+            }
+            try {
+                List<Producto> productos = productoRepository.findAll();
+                synchronized (this) {
+                    Map<Long, Entrada> nuevas = new HashMap<>();
+                    for (Producto producto : productos) {
+                        nuevas.put(producto.getId(), new Entrada(FilasInventario.aProducto(FilasInventario.producto(producto))));
+                    }
+
+                    porMargen.clear();
+                    porId.clear();
+                    porId.putAll(nuevas);
+                    porMargen.addAll(nuevas.values());
+                    cantidadStockBajo.set(nuevas.values().stream().filter(Entrada::esStockBajo).count());
+
+                    // Los cruces de estos eventos ya se publicaron cuando llegaron
+                    List<EventoInventario> recibidos = duranteRecarga;
+                    duranteRecarga = null;
+                    recibidos.forEach(this::aplicar);
+                    listo = true;
+                }
+            } finally {
+                synchronized (this) {
+                    duranteRecarga = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String getNombreConsumidor() {
+        return "alertas";
+    }
+
+    @Override
+    public boolean acepta(EventoInventario evento) {
+        return evento.getTipo() == EventoInventario.TipoEvento.STOCK_CAMBIADO
+                || evento.getTipo() == EventoInventario.TipoEvento.PRODUCTO_ELIMINADO;
+    }
+
+    @Override
+    public void procesar(List<EventoInventario> lote) {
+        lote.forEach(this::alConfirmarCambio);
+    }
+
+    /** Si se atrasa no frena los guardados: pierde eventos y se reconstruye desde la base. */
+    @Override
+    public PoliticaPresion getPolitica() {
+        return PoliticaPresion.DESCARTAR;
+    }
+
+    @Override
+    public void alPerderEventos(long cantidad) {
+        recargar();
+    }
+
+    public void alConfirmarCambio(EventoInventario evento) {
+        aplicar(evento).forEach(eventPublisher::publishEvent);
+    }
+
+    /** Aplica el evento al índice y devuelve los cruces de umbral que produjo. */
+    private synchronized List<EventoInventario> aplicar(EventoInventario evento) {
+        if (duranteRecarga != null) {
+            duranteRecarga.add(evento);
+        }
+        List<EventoInventario> cruces = new ArrayList<>();
+        if (evento.getTipo() == EventoInventario.TipoEvento.STOCK_CAMBIADO) {
+            for (Map<String, Object> fila : evento.getFilas()) {
+                EventoInventario cruce = actualizar(FilasInventario.aProducto(fila));
+                if (cruce != null) {
+                    cruces.add(cruce);
+                }
+            }
+        } else if (evento.getTipo() == EventoInventario.TipoEvento.PRODUCTO_ELIMINADO) {
+            for (Map<String, Object> fila : evento.getFilas()) {
+                eliminar((Long) fila.get("id"));
+            }
+        }
+        return cruces;
+    }
+
+    /**
+     * Reemplaza la entrada del producto y devuelve el evento de cruce si cambió
+     * su pertenencia al conjunto de stock bajo, o null si no hubo cruce.
+     */
+    synchronized EventoInventario actualizar(Producto copia) {
+        Entrada nueva = new Entrada(copia);
+        Entrada anterior = porId.put(copia.getId(), nueva);
+        if (anterior != null) {
+            porMargen.remove(anterior);
+        }
+        porMargen.add(nueva);
+
+        boolean estabaBajo = anterior != null && anterior.esStockBajo();
+        if (estabaBajo == nueva.esStockBajo()) {
+            return null;
+        }
+
+        if (nueva.esStockBajo()) {
+            cantidadStockBajo.incrementAndGet();
+            return EventoInventario.deFila(EventoInventario.TipoEvento.STOCK_BAJO, FilasInventario.producto(copia));
+        }
+        cantidadStockBajo.decrementAndGet();
+        return EventoInventario.deFila(EventoInventario.TipoEvento.STOCK_NORMALIZADO, FilasInventario.producto(copia));
+    }
+
+    synchronized void eliminar(Long productoId) {
+        Entrada anterior = porId.remove(productoId);
+        if (anterior != null) {
+            porMargen.remove(anterior);
+            if (anterior.esStockBajo()) {
+                cantidadStockBajo.decrementAndGet();
+            }
+        }
+    }
+
+    public boolean estaListo() {
+        return listo;
+    }
+
+    /** Productos con stock bajo, del más crítico al menos crítico. */
+    public List<Producto> obtenerStockBajo() {
+        return obtenerMasCriticos(Integer.MAX_VALUE);
+    }
+
+    /** Los N productos con menor margen que además están en stock bajo. */
+    public List<Producto> obtenerMasCriticos(int limite) {
+        List<Producto> resultado = new ArrayList<>();
+        for (Entrada entrada : porMargen) {
+            if (!entrada.esStockBajo() || resultado.size() >= limite) break;
+            resultado.add(entrada.getProducto());
+        }
+        return resultado;
+    }
+
+    public long contarStockBajo() {
+        return cantidadStockBajo.get();
+    }
+
+    public boolean estaEnStockBajo(Long productoId) {
+        Entrada entrada = porId.get(productoId);
+        return entrada != null && entrada.esStockBajo();
+    }
+
+    private static final class Entrada {
+        private final Producto producto;
+        private final long margen;
+
+        private Entrada(Producto producto) {
+            this.producto = producto;
+            if (producto.getCantidad() == null) {
+                // Sin datos de cantidad se considera el caso más crítico
+                this.margen = Long.MIN_VALUE;
+            } else {
+                int stockMinimo = producto.getStockMinimo() != null ? producto.getStockMinimo() : STOCK_MINIMO_POR_DEFECTO;
+                this.margen = (long) producto.getCantidad() - stockMinimo;
+            }
+        }
+
+        private long getMargen() { return margen; }
+
+        private long getId() { return producto.getId(); }
+
+        private Producto getProducto() { return producto; }
+
+        private boolean esStockBajo() { return margen <= 0; }
+    }
+}
@@ -0,0 +1,315 @@
+package com.beneficencia.almacen.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Archivo de los años cerrados: las órdenes de salida (con sus ítems y sus
+ * movimientos), los movimientos sueltos y las órdenes de abastecimiento cerradas
+ * con fecha anterior a los almacen.archivo.anios-en-caliente últimos años pasan a
+ * tablas &lt;tabla&gt;_archivo con la misma estructura.
+ *
+ * Las entidades y sus repositorios solo ven las tablas en caliente; las consultas
+ * históricas de este servicio (y las de consumo del pronóstico) leen las dos con
+ * UNION ALL. El traslado lo hace TrabajoArchivo por tramos de ids: cada tramo copia
+ * y borra en la misma transacción, así que una fila está siempre en un solo lado.
+ */
+@Service
+public class ArchivoService {
+
+    public static final String SUFIJO = "_archivo";
+    public static final int LIMITE_MAXIMO = 500;
+
+    private static final List<String> TABLAS = List.of("ordenes_salida", "orden_salida_items",
+            "movimientos_inventario", "ordenes_abastecimiento", "orden_abastecimiento_items");
+
+    private static final String COLUMNAS_ORDEN = "id, numero_orden, numero_orden_salida, fecha_salida, dni_usuario, " +
+            "nombre_usuario, beneficiario_id, numero_tramite, cantidad_productos, estado";
+    private static final String COLUMNAS_MOVIMIENTO = "id, producto_id, tipo_movimiento, cantidad, motivo, " +
+            "orden_salida_id, fecha_movimiento, observaciones";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    // Solo para inicializarse después de que Hibernate actualice el esquema
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${almacen.archivo.anios-en-caliente:2}")
+    private int aniosEnCaliente;
+
+    // Columnas de cada tabla en caliente, en el orden en que se copian
+    private final Map<String, String> columnas = new ConcurrentHashMap<>();
+    private volatile boolean preparado;
+
+    /**
+     * Crea las tablas de archivo que falten y les agrega las columnas nuevas de las
+     * tablas en caliente (ddl-auto solo actualiza las de las entidades). Corre antes
+     * de los listeners de ApplicationReadyEvent, como la carga del pronóstico, que ya
+     * leen las tablas de archivo.
+     */
+    @PostConstruct
+    public synchronized void preparar() {
+        try {
+            for (String tabla : TABLAS) {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + tabla + SUFIJO + " LIKE " + tabla);
+                Map<String, String> enArchivo = tiposColumnas(tabla + SUFIJO);
+                Map<String, String> enCaliente = tiposColumnas(tabla);
+                enCaliente.forEach((columna, tipo) -> {
+                    if (!enArchivo.containsKey(columna)) {
+                        jdbcTemplate.execute("ALTER TABLE " + tabla + SUFIJO + " ADD COLUMN " + columna + " " + tipo + " NULL");
+                    }
+                });
+                columnas.put(tabla, String.join(", ", enCaliente.keySet()));
+            }
+            preparado = true;
+        } catch (Exception e) {
+            System.err.println("No se pudieron preparar las tablas de archivo: " + e.getMessage());
+        }
+    }
+
+    /** Primer día del año más antiguo que se queda en caliente. */
+    public LocalDate limite() {
+        return LocalDate.of(LocalDate.now().getYear() - Math.max(aniosEnCaliente - 1, 0), 1, 1);
+    }
+
+    /**
+     * Pasa al archivo hasta tamano órdenes de salida anteriores al límite con id
+     * mayor que desdeId, junto con sus ítems y sus movimientos. Devuelve los ids
+     * archivados, en orden.
+     */
+    public List<Long> archivarOrdenesSalida(LocalDate limite, long desdeId, int tamano) {
+        verificarPreparado();
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM ordenes_salida WHERE fecha_salida < ? AND id > ? ORDER BY id LIMIT ?",
+                Long.class, limite, desdeId, tamano);
+        if (ids.isEmpty()) return ids;
+
+        MapSqlParameterSource parametros = new MapSqlParameterSource("ids", ids);
+        mover("orden_salida_items", "orden_salida_id IN (:ids)", parametros);
+        mover("movimientos_inventario", "orden_salida_id IN (:ids)", parametros);
+        mover("ordenes_salida", "id IN (:ids)", parametros);
+        return ids;
+    }
+
+    /** Movimientos anteriores al límite que no son de una orden de salida. */
+    public List<Long> archivarMovimientos(LocalDate limite, long desdeId, int tamano) {
+        verificarPreparado();
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM movimientos_inventario WHERE orden_salida_id IS NULL AND fecha_movimiento < ? " +
+                        "AND id > ? ORDER BY id LIMIT ?",
+                Long.class, limite.atStartOfDay(), desdeId, tamano);
+        if (ids.isEmpty()) return ids;
+
+        mover("movimientos_inventario", "id IN (:ids)", new MapSqlParameterSource("ids", ids));
+        return ids;
+    }
+
+    /** Órdenes de abastecimiento ya cerradas (no pendientes) anteriores al límite, con sus ítems. */
+    public List<Long> archivarOrdenesAbastecimiento(LocalDate limite, long desdeId, int tamano) {
+        verificarPreparado();
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM ordenes_abastecimiento WHERE fecha_oa < ? AND estado <> 'PENDIENTE' " +
+                        "AND id > ? ORDER BY id LIMIT ?",
+                Long.class, limite, desdeId, tamano);
+        if (ids.isEmpty()) return ids;
+
+        MapSqlParameterSource parametros = new MapSqlParameterSource("ids", ids);
+        mover("orden_abastecimiento_items", "orden_abastecimiento_id IN (:ids)", parametros);
+        mover("ordenes_abastecimiento", "id IN (:ids)", parametros);
+        return ids;
+    }
+
+    /**
+     * Órdenes de salida de los dos niveles, de la más reciente a la más antigua.
+     * Cada fila indica si está archivada.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> buscarOrdenesSalida(String dni, String numeroTramite,
+                                                         LocalDate desde, LocalDate hasta, int limite) {
+        verificarPreparado();
+        if (esVacio(dni) && esVacio(numeroTramite) && desde == null && hasta == null) {
+            throw new RuntimeException("Indique un DNI, un número de trámite o un rango de fechas");
+        }
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new RuntimeException("La fecha inicial no puede ser posterior a la final");
+        }
+
+        List<String> condiciones = new ArrayList<>();
+        MapSqlParameterSource parametros = new MapSqlParameterSource("limite", limitar(limite));
+        if (!esVacio(dni)) {
+            condiciones.add("dni_usuario = :dni");
+            parametros.addValue("dni", dni.trim());
+        }
+        if (!esVacio(numeroTramite)) {
+            condiciones.add("numero_tramite = :tramite");
+            parametros.addValue("tramite", numeroTramite.trim());
+        }
+        if (desde != null) {
+            condiciones.add("fecha_salida >= :desde");
+            parametros.addValue("desde", desde);
+        }
+        if (hasta != null) {
+            condiciones.add("fecha_salida <= :hasta");
+            parametros.addValue("hasta", hasta);
+        }
+        String where = " WHERE " + String.join(" AND ", condiciones) + " ORDER BY fecha_salida DESC, id DESC LIMIT :limite";
+
+        // Cada parte se limita por separado para que use sus índices antes de unir
+        String sql = "(SELECT " + COLUMNAS_ORDEN + ", FALSE AS archivada FROM ordenes_salida" + where + ")" +
+                " UNION ALL " +
+                "(SELECT " + COLUMNAS_ORDEN + ", TRUE AS archivada FROM ordenes_salida" + SUFIJO + where + ")" +
+                " ORDER BY fecha_salida DESC, id DESC LIMIT :limite";
+        return namedJdbcTemplate.query(sql, parametros, (resultado, i) -> {
+            Map<String, Object> orden = new LinkedHashMap<>();
+            orden.put("id", resultado.getLong("id"));
+            orden.put("numeroOrden", resultado.getString("numero_orden"));
+            orden.put("numeroOrdenSalida", resultado.getString("numero_orden_salida"));
+            orden.put("fechaSalida", resultado.getObject("fecha_salida", LocalDate.class));
+            orden.put("dniUsuario", resultado.getString("dni_usuario"));
+            orden.put("nombreUsuario", resultado.getString("nombre_usuario"));
+            orden.put("beneficiarioId", resultado.getObject("beneficiario_id", Long.class));
+            orden.put("numeroTramite", resultado.getString("numero_tramite"));
+            orden.put("cantidadProductos", resultado.getObject("cantidad_productos", Integer.class));
+            orden.put("estado", resultado.getString("estado"));
+            orden.put("archivada", resultado.getBoolean("archivada"));
+            return orden;
+        });
+    }
+
+    /** Ítems de una orden de salida, esté en caliente o archivada. */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> itemsDeOrdenSalida(Long ordenId) {
+        verificarPreparado();
+        String columnasItem = "SELECT i.id, i.producto_id, p.nombre, i.cantidad, %s AS archivada FROM %s i " +
+                "LEFT JOIN productos p ON p.id = i.producto_id WHERE i.orden_salida_id = :orden";
+        String sql = String.format(columnasItem, "FALSE", "orden_salida_items") + " UNION ALL " +
+                String.format(columnasItem, "TRUE", "orden_salida_items" + SUFIJO) + " ORDER BY id";
+        return namedJdbcTemplate.query(sql, new MapSqlParameterSource("orden", ordenId), (resultado, i) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", resultado.getLong("id"));
+            item.put("productoId", resultado.getObject("producto_id", Long.class));
+            item.put("producto", resultado.getString("nombre"));
+            item.put("cantidad", resultado.getObject("cantidad", Integer.class));
+            item.put("archivada", resultado.getBoolean("archivada"));
+            return item;
+        });
+    }
+
+    /** Movimientos de un producto en los dos niveles, del más reciente al más antiguo. */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> movimientosDeProducto(Long productoId, LocalDate desde, LocalDate hasta, int limite) {
+        verificarPreparado();
+        if (productoId == null) {
+            throw new RuntimeException("Indique el producto");
+        }
+        MapSqlParameterSource parametros = new MapSqlParameterSource("producto", productoId)
+                .addValue("limite", limitar(limite));
+        StringBuilder where = new StringBuilder(" WHERE producto_id = :producto");
+        if (desde != null) {
+            where.append(" AND fecha_movimiento >= :desde");
+            parametros.addValue("desde", desde.atStartOfDay());
+        }
+        if (hasta != null) {
+            where.append(" AND fecha_movimiento < :hasta");
+            parametros.addValue("hasta", hasta.plusDays(1).atStartOfDay());
+        }
+        where.append(" ORDER BY fecha_movimiento DESC, id DESC LIMIT :limite");
+
+        String sql = "(SELECT " + COLUMNAS_MOVIMIENTO + ", FALSE AS archivada FROM movimientos_inventario" + where + ")" +
+                " UNION ALL " +
+                "(SELECT " + COLUMNAS_MOVIMIENTO + ", TRUE AS archivada FROM movimientos_inventario" + SUFIJO + where + ")" +
+                " ORDER BY fecha_movimiento DESC, id DESC LIMIT :limite";
+        return namedJdbcTemplate.query(sql, parametros, (resultado, i) -> {
+            Map<String, Object> movimiento = new LinkedHashMap<>();
+            movimiento.put("id", resultado.getLong("id"));
+            movimiento.put("productoId", resultado.getLong("producto_id"));
+            movimiento.put("tipoMovimiento", resultado.getString("tipo_movimiento"));
+            movimiento.put("cantidad", resultado.getObject("cantidad", Integer.class));
+            movimiento.put("motivo", resultado.getString("motivo"));
+            movimiento.put("ordenSalidaId", resultado.getObject("orden_salida_id", Long.class));
+            movimiento.put("fechaMovimiento", resultado.getTimestamp("fecha_movimiento") != null
+                    ? resultado.getTimestamp("fecha_movimiento").toLocalDateTime() : null);
+            movimiento.put("observaciones", resultado.getString("observaciones"));
+            movimiento.put("archivada", resultado.getBoolean("archivada"));
+            return movimiento;
+        });
+    }
+
+    /**
+     * Filas aproximadas en caliente y archivadas de cada tabla (estimación de
+     * information_schema: un COUNT(*) recorrería las tablas enteras).
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> resumen() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("preparado", preparado);
+        resumen.put("aniosEnCaliente", aniosEnCaliente);
+        resumen.put("limite", limite());
+
+        Map<String, Long> filas = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT TABLE_NAME, TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE()",
+                resultado -> {
+                    filas.put(resultado.getString("TABLE_NAME").toLowerCase(), resultado.getLong("TABLE_ROWS"));
+                });
+        Map<String, Object> tablas = new LinkedHashMap<>();
+        for (String tabla : TABLAS) {
+            Map<String, Object> detalle = new LinkedHashMap<>();
+            detalle.put("enCaliente", filas.getOrDefault(tabla, 0L));
+            detalle.put("archivadas", filas.getOrDefault(tabla + SUFIJO, 0L));
+            tablas.put(tabla, detalle);
+        }
+        resumen.put("tablas", tablas);
+        return resumen;
+    }
+
+    private void mover(String tabla, String condicion, MapSqlParameterSource parametros) {
+        String lista = columnas.get(tabla);
+        namedJdbcTemplate.update("INSERT INTO " + tabla + SUFIJO + " (" + lista + ") SELECT " + lista +
+                " FROM " + tabla + " WHERE " + condicion, parametros);
+        namedJdbcTemplate.update("DELETE FROM " + tabla + " WHERE " + condicion, parametros);
+    }
+
+    private Map<String, String> tiposColumnas(String tabla) {
+        Map<String, String> tipos = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT COLUMN_NAME, COLUMN_TYPE FROM information_schema.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION",
+                resultado -> {
+                    tipos.put(resultado.getString("COLUMN_NAME"), resultado.getString("COLUMN_TYPE"));
+                }, tabla);
+        return Collections.unmodifiableMap(tipos);
+    }
+
+    // Sin DDL aquí: en MySQL un CREATE TABLE confirma la transacción en curso
+    private void verificarPreparado() {
+        if (!preparado) {
+            throw new RuntimeException("Las tablas de archivo no están preparadas");
+        }
+    }
+
+    private static int limitar(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    private static boolean esVacio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+}
@@ -0,0 +1,264 @@
+package com.beneficencia.almacen.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Asignación First-Expired-First-Out de lotes en memoria.
+ *
+ * Cada producto tiene su propia cola de prioridad ordenada por fecha de vencimiento
+ * (los lotes sin vencimiento van al final) y luego por id de lote. Asignar m lotes
+ * cuesta O(m log L) sobre los L lotes abiertos del producto. La clase no conoce JPA:
+ * LoteService la carga desde la base de datos y persiste lo que ella decide.
+ *
+ * Las colas se modifican antes de que la transacción que las cambia se confirme, así
+ * que cada transacción toma la cola del producto ({@link #tomar}) y la suelta al
+ * terminar: al confirmarse quedan sus cambios, al revertirse la cola se descarta.
+ * Mientras una cola tiene dueño las demás transacciones esperan y las lecturas van a
+ * la base, de modo que nadie ve cantidades sin confirmar.
+ */
+public class AsignadorFefo {
+
+    static final Comparator<LoteDisponible> ORDEN_FEFO = Comparator
+            .comparing(LoteDisponible::getFechaVencimiento, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(LoteDisponible::getLoteId);
+
+    private final Map<Long, ColaProducto> colas = new ConcurrentHashMap<>();
+    // Transacción que tiene cambios sin confirmar en la cola de cada producto
+    private final Map<Long, Object> duenios = new HashMap<>();
+
+    public boolean estaCargado(long productoId) {
+        return colas.containsKey(productoId);
+    }
+
+    /** Reemplaza la cola del producto por los lotes indicados. */
+    public void cargar(long productoId, Collection<LoteDisponible> lotes) {
+        ColaProducto cola = new ColaProducto();
+        for (LoteDisponible lote : lotes) {
+            cola.agregar(lote);
+        }
+        colas.put(productoId, cola);
+    }
+
+    /** Olvida la cola del producto; la próxima operación debe volver a cargarla. */
+    public void descartar(long productoId) {
+        colas.remove(productoId);
+    }
+
+    public void descartarTodo() {
+        colas.clear();
+    }
+
+    /**
+     * Toma la cola del producto para los cambios de duenio. Si otra transacción la
+     * tiene, espera a que la suelte; es solo el momento entre su commit (que libera
+     * el bloqueo del producto) y el aviso de que terminó. Si tarda más de esperaMs se
+     * descarta la cola, que se vuelve a leer de la base, y se toma igual.
+     *
+     * @return false si duenio ya la tenía
+     */
+    public boolean tomar(long productoId, Object duenio, long esperaMs) {
+        synchronized (duenios) {
+            long limite = System.currentTimeMillis() + esperaMs;
+            Object actual = duenios.get(productoId);
+            while (actual != null && actual != duenio) {
+                long restante = limite - System.currentTimeMillis();
+                if (restante <= 0) {
+                    System.err.println("La cola de lotes del producto " + productoId + " no se liberó en " +
+                            esperaMs + " ms; se descarta");
+                    colas.remove(productoId);
+                    break;
+                }
+                try {
+                    duenios.wait(restante);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrumpido esperando la cola del producto " + productoId, e);
+                }
+                actual = duenios.get(productoId);
+            }
+            return duenios.put(productoId, duenio) != duenio;
+        }
+    }
+
+    /** La transacción de duenio se confirmó: sus cambios quedan y la cola se libera. */
+    public void soltar(long productoId, Object duenio) {
+        synchronized (duenios) {
+            if (duenios.get(productoId) == duenio) {
+                duenios.remove(productoId);
+                duenios.notifyAll();
+            }
+        }
+    }
+
+    /** La transacción de duenio se revirtió: la cola tiene cambios que no existen y se descarta. */
+    public void revertir(long productoId, Object duenio) {
+        synchronized (duenios) {
+            if (duenios.get(productoId) == duenio) {
+                colas.remove(productoId);
+                duenios.remove(productoId);
+                duenios.notifyAll();
+            }
+        }
+    }
+
+    /** Si alguna transacción tiene cambios sin confirmar en la cola del producto. */
+    public boolean enUso(long productoId) {
+        synchronized (duenios) {
+            return duenios.containsKey(productoId);
+        }
+    }
+
+    /** Agrega un lote nuevo si la cola del producto ya está en memoria. */
+    public void agregar(long productoId, LoteDisponible lote) {
+        ColaProducto cola = colas.get(productoId);
+        if (cola != null) {
+            synchronized (cola) {
+                cola.agregar(lote);
+            }
+        }
+    }
+
+    public long disponible(long productoId) {
+        ColaProducto cola = colas.get(productoId);
+        if (cola == null) return 0;
+        synchronized (cola) {
+            return cola.total;
+        }
+    }
+
+    /**
+     * Descuenta la cantidad de los lotes que vencen primero. Es todo o nada: si
+     * los lotes no alcanzan no se modifica nada y se lanza IllegalStateException.
+     */
+    public List<Asignacion> asignar(long productoId, int cantidad) {
+        ColaProducto cola = colas.get(productoId);
+        if (cola == null) {
+            throw new IllegalStateException("Lotes del producto " + productoId + " no cargados");
+        }
+
+        synchronized (cola) {
+            if (cola.total < cantidad) {
+                throw new IllegalStateException("Lotes insuficientes para el producto " + productoId +
+                        ". Disponible: " + cola.total + ", Solicitado: " + cantidad);
+            }
+
+            List<Asignacion> asignaciones = new ArrayList<>();
+            int restante = cantidad;
+            while (restante > 0) {
+                LoteDisponible lote = cola.cola.peek();
+                int tomada = Math.min(lote.cantidad, restante);
+                lote.cantidad -= tomada;
+                restante -= tomada;
+                cola.total -= tomada;
+                asignaciones.add(new Asignacion(lote.loteId, lote.fechaVencimiento, tomada));
+
+                if (lote.cantidad == 0) {
+                    cola.cola.poll();
+                    cola.porId.remove(lote.loteId);
+                }
+            }
+            return asignaciones;
+        }
+    }
+
+    /**
+     * Ajusta la cola al stock del producto cuando sus lotes suman más: descuenta el
+     * exceso de los que vencen primero y devuelve lo descontado. Si los lotes no
+     * superan el stock no cambia nada (el faltante lo cubre un lote de saldo).
+     */
+    public List<Asignacion> descontarExceso(long productoId, long stock) {
+        long exceso = disponible(productoId) - stock;
+        if (exceso <= 0) {
+            return List.of();
+        }
+        return asignar(productoId, (int) exceso);
+    }
+
+    /** Devuelve cantidad a un lote, reabriéndolo si ya estaba agotado. */
+    public void devolver(long productoId, long loteId, LocalDate fechaVencimiento, int cantidad) {
+        ColaProducto cola = colas.get(productoId);
+        if (cola == null) return;
+
+        synchronized (cola) {
+            LoteDisponible lote = cola.porId.get(loteId);
+            if (lote != null) {
+                // La cantidad no forma parte del orden, se puede modificar en su lugar
+                lote.cantidad += cantidad;
+                cola.total += cantidad;
+            } else {
+                cola.agregar(new LoteDisponible(loteId, fechaVencimiento, cantidad));
+            }
+        }
+    }
+
+    /** Lotes abiertos del producto en orden FEFO (copia). */
+    public List<LoteDisponible> verLotes(long productoId) {
+        ColaProducto cola = colas.get(productoId);
+        if (cola == null) return List.of();
+        synchronized (cola) {
+            List<LoteDisponible> copia = new ArrayList<>();
+            for (LoteDisponible lote : cola.cola) {
+                copia.add(new LoteDisponible(lote.loteId, lote.fechaVencimiento, lote.cantidad));
+            }
+            copia.sort(ORDEN_FEFO);
+            return copia;
+        }
+    }
+
+    private static final class ColaProducto {
+        private final PriorityQueue<LoteDisponible> cola = new PriorityQueue<>(ORDEN_FEFO);
+        private final Map<Long, LoteDisponible> porId = new HashMap<>();
+        private long total = 0;
+
+        private void agregar(LoteDisponible lote) {
+            if (lote.cantidad <= 0) return;
+            cola.add(lote);
+            porId.put(lote.loteId, lote);
+            total += lote.cantidad;
+        }
+    }
+
+    public static final class LoteDisponible {
+        private final long loteId;
+        private final LocalDate fechaVencimiento;
+        private int cantidad;
+
+        public LoteDisponible(long loteId, LocalDate fechaVencimiento, int cantidad) {
+            this.loteId = loteId;
+            this.fechaVencimiento = fechaVencimiento;
+            this.cantidad = cantidad;
+        }
+
+        public long getLoteId() { return loteId; }
+
+        public LocalDate getFechaVencimiento() { return fechaVencimiento; }
+
+        public int getCantidad() { return cantidad; }
+    }
+
+    public static final class Asignacion {
+        private final long loteId;
+        private final LocalDate fechaVencimiento;
+        private final int cantidad;
+
+        public Asignacion(long loteId, LocalDate fechaVencimiento, int cantidad) {
+            this.loteId = loteId;
+            this.fechaVencimiento = fechaVencimiento;
+            this.cantidad = cantidad;
+        }
+
+        public long getLoteId() { return loteId; }
+
+        public LocalDate getFechaVencimiento() { return fechaVencimiento; }
+
+        public int getCantidad() { return cantidad; }
+    }
+}
@@ -0,0 +1,333 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.model.RegistroAuditoria;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro de auditoría de las entidades que mueven inventario.
+ *
+ * AuditoriaListener arma cada cambio después del commit, en el hilo que lo hizo,
+ * y solo lo deja en cola; un proceso periódico lo escribe por lotes con un INSERT
+ * de varias filas, así que auditar no agrega escrituras a la transacción del
+ * usuario. Si la base falla los cambios siguen en la cola y se reintentan; con la
+ * cola llena (almacen.auditoria.maximo-en-cola) se descartan y se cuentan.
+ *
+ * Si el lote falla por sus datos (un valor que viola una restricción) reintentarlo
+ * no sirve y frenaría toda la cola: se parte en mitades hasta aislar los cambios
+ * que fallan solos, que se descartan y se cuentan como inválidos.
+ */
+@Service
+public class AuditoriaService {
+
+    public static final int LIMITE_MAXIMO = 200;
+
+    private static final String INSERCION = "INSERT INTO auditoria " +
+            "(fecha, usuario, accion, entidad, entidad_id, origen, cambios) VALUES ";
+    private static final String VALORES = "(?, ?, ?, ?, ?, ?, ?)";
+
+    public record Cambio(LocalDateTime fecha, String usuario, String accion, String entidad, Long entidadId,
+                         String origen, Map<String, Object> cambios) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${almacen.auditoria.lote:500}")
+    private int tamanoLote;
+
+    @Value("${almacen.auditoria.maximo-en-cola:100000}")
+    private int maximoEnCola;
+
+    @Value("${almacen.auditoria.entidades:Producto,Lote,OrdenSalida,OrdenSalidaItem,OrdenAbastecimiento,OrdenAbastecimientoItem,CuadreInventario,Kit,KitComponente,Usuario}")
+    private List<String> entidades;
+
+    private final Queue<Cambio> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enCola = new AtomicInteger();
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong invalidos = new AtomicLong();
+
+    /** Cambios del frente del lote ya resueltos: escritos o descartados por inválidos. */
+    private static final class Avance {
+        private int escritos;
+        private int invalidos;
+    }
+
+    public boolean audita(String entidad) {
+        return entidades.contains(entidad);
+    }
+
+    public List<String> getEntidades() {
+        return entidades;
+    }
+
+    /** No toca la base: solo encola. */
+    public void registrar(Cambio cambio) {
+        if (enCola.incrementAndGet() > maximoEnCola) {
+            enCola.decrementAndGet();
+            if (descartados.incrementAndGet() % 1000 == 1) {
+                System.err.println("Cola de auditoría llena, cambios descartados: " + descartados.get());
+            }
+            return;
+        }
+        pendientes.add(cambio);
+    }
+
+    @Scheduled(initialDelayString = "${almacen.auditoria.persistencia-ms:1000}",
+            fixedDelayString = "${almacen.auditoria.persistencia-ms:1000}")
+    public synchronized void persistir() {
+        // Solo este método saca de la cola: se guarda un lote y recién entonces se retira
+        while (!pendientes.isEmpty()) {
+            List<Cambio> lote = new ArrayList<>(tamanoLote);
+            Iterator<Cambio> iterador = pendientes.iterator();
+            while (iterador.hasNext() && lote.size() < tamanoLote) {
+                lote.add(iterador.next());
+            }
+            Avance avance = new Avance();
+            try {
+                guardarPartiendo(lote, avance);
+            } catch (Exception e) {
+                System.err.println("Error al guardar la auditoría (se reintentará): " + e.getMessage());
+                return;
+            } finally {
+                retirar(avance);
+            }
+        }
+    }
+
+    /**
+     * Guarda el lote; si falla por sus datos lo parte en dos y guarda cada mitad, en
+     * orden, hasta dejar afuera solo los cambios que fallan solos. Los errores de
+     * conexión o bloqueo se propagan para reintentar lo que falta.
+     */
+    private void guardarPartiendo(List<Cambio> lote, Avance avance) {
+        try {
+            guardar(lote);
+            avance.escritos += lote.size();
+        } catch (DataAccessException e) {
+            if (!esErrorDeDatos(e)) throw e;
+            if (lote.size() == 1) {
+                Cambio cambio = lote.get(0);
+                avance.invalidos++;
+                System.err.println("Cambio de auditoría descartado (" + cambio.accion() + " " + cambio.entidad() + " " +
+                        cambio.entidadId() + "): " + e.getMostSpecificCause().getMessage());
+                return;
+            }
+            int mitad = lote.size() / 2;
+            guardarPartiendo(lote.subList(0, mitad), avance);
+            guardarPartiendo(lote.subList(mitad, lote.size()), avance);
+        }
+    }
+
+    private static boolean esErrorDeDatos(DataAccessException e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    /** Saca de la cola el frente que ya quedó resuelto, aunque el resto del lote haya fallado. */
+    private void retirar(Avance avance) {
+        int resueltos = avance.escritos + avance.invalidos;
+        for (int i = 0; i < resueltos; i++) {
+            pendientes.poll();
+        }
+        enCola.addAndGet(-resueltos);
+        escritos.addAndGet(avance.escritos);
+        invalidos.addAndGet(avance.invalidos);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        persistir();
+    }
+
+    private void guardar(List<Cambio> lote) {
+        List<Object> parametros = new ArrayList<>(lote.size() * 7);
+        for (Cambio cambio : lote) {
+            parametros.add(cambio.fecha());
+            parametros.add(recortar(cambio.usuario(), 60));
+            parametros.add(cambio.accion());
+            parametros.add(recortar(cambio.entidad(), 40));
+            parametros.add(cambio.entidadId());
+            parametros.add(recortar(cambio.origen(), 120));
+            parametros.add(json(cambio));
+        }
+        String sql = INSERCION + String.join(", ", Collections.nCopies(lote.size(), VALORES));
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado ->
+                jdbcTemplate.update(sql, parametros.toArray()));
+    }
+
+    private String json(Cambio cambio) {
+        try {
+            return objectMapper.writeValueAsString(cambio.cambios());
+        } catch (Exception e) {
+            System.err.println("No se pudo serializar el cambio de " + cambio.entidad() + " " + cambio.entidadId() +
+                    ": " + e.getMessage());
+            return "{}";
+        }
+    }
+
+    private static String recortar(String texto, int largo) {
+        return texto != null && texto.length() > largo ? texto.substring(0, largo) : texto;
+    }
+
+    public Map<String, Object> resumen() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("enCola", enCola.get());
+        resumen.put("escritos", escritos.get());
+        resumen.put("descartados", descartados.get());
+        resumen.put("invalidos", invalidos.get());
+        return resumen;
+    }
+
+    /**
+     * Registros de auditoría del más nuevo al más viejo, filtrados por entidad (y
+     * opcionalmente su id), usuario y rango de fechas. Cada combinación de filtros
+     * tiene un índice que termina en (fecha, id), así que la página se lee ya
+     * ordenada; el cursor es la última (fecha, id) entregada, como en
+     * BusquedaOrdenesService; uno ilegible se toma como la primera página.
+     */
+    @Transactional(readOnly = true)
+    public Pagina buscar(String entidad, Long entidadId, String usuario, LocalDate desde, LocalDate hasta,
+                         String cursor, int limite) {
+        int tamano = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        StringBuilder jpql = new StringBuilder("SELECT r FROM RegistroAuditoria r WHERE 1 = 1");
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        if (entidad != null && !entidad.isBlank()) {
+            jpql.append(" AND r.entidad = :entidad");
+            parametros.put("entidad", entidad.trim());
+            if (entidadId != null) {
+                jpql.append(" AND r.entidadId = :entidadId");
+                parametros.put("entidadId", entidadId);
+            }
+        }
+        if (usuario != null && !usuario.isBlank()) {
+            jpql.append(" AND r.usuario = :usuario");
+            parametros.put("usuario", usuario.trim());
+        }
+        if (desde != null) {
+            jpql.append(" AND r.fecha >= :desde");
+            parametros.put("desde", desde.atStartOfDay());
+        }
+        if (hasta != null) {
+            jpql.append(" AND r.fecha < :hasta");
+            parametros.put("hasta", hasta.plusDays(1).atStartOfDay());
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            int separador = cursor.indexOf('_');
+            try {
+                if (separador < 0) throw new IllegalArgumentException("sin separador");
+                LocalDateTime cursorFecha = LocalDateTime.parse(cursor.substring(0, separador));
+                Long cursorId = Long.valueOf(cursor.substring(separador + 1));
+                jpql.append(" AND (r.fecha < :cursorFecha OR (r.fecha = :cursorFecha AND r.id < :cursorId))");
+                parametros.put("cursorFecha", cursorFecha);
+                parametros.put("cursorId", cursorId);
+            } catch (RuntimeException e) {
+                System.err.println("Cursor de auditoría inválido, se vuelve a la primera página: " + cursor);
+            }
+        }
+        jpql.append(" ORDER BY r.fecha DESC, r.id DESC");
+
+        TypedQuery<RegistroAuditoria> query = entityManager.createQuery(jpql.toString(), RegistroAuditoria.class);
+        parametros.forEach(query::setParameter);
+        query.setMaxResults(tamano + 1);
+        List<RegistroAuditoria> resultados = query.getResultList();
+
+        boolean hayMas = resultados.size() > tamano;
+        List<RegistroAuditoria> pagina = hayMas ? resultados.subList(0, tamano) : resultados;
+        List<Map<String, Object>> filas = new ArrayList<>(pagina.size());
+        for (RegistroAuditoria registro : pagina) {
+            filas.add(describir(registro));
+        }
+        String siguiente = null;
+        if (hayMas) {
+            RegistroAuditoria ultimo = pagina.get(pagina.size() - 1);
+            siguiente = ultimo.getFecha() + "_" + ultimo.getId();
+        }
+        return new Pagina(filas, siguiente);
+    }
+
+    /** Registro con sus cambios desarmados en {campo, antes, despues} para la vista. */
+    private Map<String, Object> describir(RegistroAuditoria registro) {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("id", registro.getId());
+        fila.put("fecha", registro.getFecha());
+        fila.put("usuario", registro.getUsuario());
+        fila.put("accion", registro.getAccion());
+        fila.put("entidad", registro.getEntidad());
+        fila.put("entidadId", registro.getEntidadId());
+        fila.put("origen", registro.getOrigen());
+
+        List<Map<String, Object>> campos = new ArrayList<>();
+        try {
+            Map<String, Object> cambios = objectMapper.readValue(registro.getCambios(), new TypeReference<LinkedHashMap<String, Object>>() {});
+            cambios.forEach((campo, valor) -> {
+                Map<String, Object> detalle = new LinkedHashMap<>();
+                detalle.put("campo", campo);
+                if (RegistroAuditoria.MODIFICAR.equals(registro.getAccion()) && valor instanceof List<?> par && par.size() == 2) {
+                    detalle.put("antes", par.get(0));
+                    detalle.put("despues", par.get(1));
+                } else if (RegistroAuditoria.ELIMINAR.equals(registro.getAccion())) {
+                    detalle.put("antes", valor);
+                } else {
+                    detalle.put("despues", valor);
+                }
+                campos.add(detalle);
+            });
+        } catch (Exception e) {
+            campos.add(Map.of("campo", "?", "despues", registro.getCambios()));
+        }
+        fila.put("campos", campos);
+        return fila;
+    }
+
+    public static final class Pagina {
+        private final List<Map<String, Object>> registros;
+        private final String siguienteCursor;
+
+        private Pagina(List<Map<String, Object>> registros, String siguienteCursor) {
+            this.registros = registros;
+            this.siguienteCursor = siguienteCursor;
+        }
+
+        public List<Map<String, Object>> getRegistros() { return registros; }
+
+        /** null si esta es la última página. */
+        public String getSiguienteCursor() { return siguienteCursor; }
+    }
+}
@@ -17,10 +17,14 @@ public class BeneficiarioService {
     @Autowired
     private BeneficiarioRepository beneficiarioRepository;
 
+    @Autowired
+    private FiltrosExistencia filtrosExistencia;
+
     public Optional<Beneficiario> obtenerBeneficiarioPorDni(String dni) {
         return beneficiarioRepository.findByDni(dni);
     }
 
+    @Transactional(readOnly = true)
     public List<Beneficiario> obtenerTodosBeneficiarios() {
         return beneficiarioRepository.findAll();
     }
@@ -29,8 +33,12 @@ public class BeneficiarioService {
         return beneficiarioRepository.findById(id);
     }
 
+    /**
+     * Búsqueda para pantallas (verificar-dni): el filtro de existencia puede decir "no
+     * está" a un DNI recién dado de alta en otro nodo, así que no sirve antes de un alta.
+     */
     public Optional<Beneficiario> buscarPorDni(String dni) {
-        return beneficiarioRepository.findByDni(dni);
+        return filtrosExistencia.buscar(FiltrosExistencia.Tipo.DNI, dni, beneficiarioRepository::findByDni);
     }
 
     public Beneficiario guardarBeneficiario(Beneficiario beneficiario) {
@@ -91,6 +99,7 @@ public class BeneficiarioService {
         return guardarBeneficiario(nuevo);
     }
 
+    @Transactional(readOnly = true)
     public List<Beneficiario> obtenerBeneficiariosOrdenadosPorFechaDesc() {
         return beneficiarioRepository.findAllOrderByFechaRegistroDesc();
     }
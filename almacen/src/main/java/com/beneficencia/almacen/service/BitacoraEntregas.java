@@ -0,0 +1,130 @@
+package com.beneficencia.almacen.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Bitácora de escritura anticipada de las entregas del día de distribución: un
+ * archivo por campaña con una línea "dni;momento;usuario" por entrega.
+ *
+ * La línea se escribe y se lleva al disco (force) antes de responder al operador,
+ * así que ni una caída de la aplicación ni un corte de energía del equipo pierden
+ * entregas ya confirmadas. Al arrancar, las entregas de la bitácora se vuelven a
+ * aplicar en la base (la actualización es idempotente) y luego se vacía.
+ */
+public class BitacoraEntregas {
+
+    private static final String EXTENSION = ".wal";
+
+    /** Entrega leída de la bitácora. */
+    public record Entrada(Long campanaId, String dni, long momento, String usuario) {}
+
+    private final Path directorio;
+    private final Map<Long, FileChannel> canales = new HashMap<>();
+
+    public BitacoraEntregas(Path directorio) {
+        this.directorio = directorio;
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de la bitácora: " + directorio, e);
+        }
+    }
+
+    public synchronized void registrar(Long campanaId, String dni, long momento, String usuario) {
+        String linea = dni + ";" + momento + ";" + (usuario != null ? usuario.replace(';', '_') : "") + "\n";
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(linea.getBytes(StandardCharsets.UTF_8));
+            FileChannel canal = canal(campanaId);
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo registrar la entrega en la bitácora", e);
+        }
+    }
+
+    /**
+     * Vacía las bitácoras abiertas y borra las de ejecuciones anteriores; solo se
+     * llama cuando todo lo escrito ya está en la base.
+     */
+    public synchronized void vaciar() {
+        for (FileChannel canal : canales.values()) {
+            try {
+                canal.truncate(0);
+                canal.force(false);
+            } catch (IOException e) {
+                System.err.println("Error al vaciar la bitácora de entregas: " + e.getMessage());
+            }
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            for (Path archivo : archivos.filter(a -> a.getFileName().toString().endsWith(EXTENSION)).toList()) {
+                if (!canales.containsKey(campanaDe(archivo))) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al borrar bitácoras anteriores: " + e.getMessage());
+        }
+    }
+
+    /** Entregas de todas las bitácoras; una última línea incompleta (caída a mitad de escritura) se ignora. */
+    public synchronized List<Entrada> leerTodo() {
+        List<Entrada> entradas = new ArrayList<>();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            for (Path archivo : archivos.filter(a -> a.getFileName().toString().endsWith(EXTENSION)).toList()) {
+                Long campanaId = campanaDe(archivo);
+                String contenido = Files.readString(archivo, StandardCharsets.UTF_8);
+                int fin = contenido.lastIndexOf('\n');
+                if (fin < 0) continue;
+                for (String linea : contenido.substring(0, fin).split("\n")) {
+                    String[] partes = linea.split(";", 3);
+                    if (partes.length < 3 || !partes[0].matches("\\d{8}")) continue;
+                    entradas.add(new Entrada(campanaId, partes[0], Long.parseLong(partes[1]),
+                            partes[2].isEmpty() ? null : partes[2]));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la bitácora de entregas", e);
+        }
+        return entradas;
+    }
+
+    public synchronized void cerrar() {
+        for (FileChannel canal : canales.values()) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar la bitácora de entregas: " + e.getMessage());
+            }
+        }
+        canales.clear();
+    }
+
+    private static Long campanaDe(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Long.valueOf(nombre.substring("entregas-".length(), nombre.length() - EXTENSION.length()));
+    }
+
+    private FileChannel canal(Long campanaId) throws IOException {
+        FileChannel canal = canales.get(campanaId);
+        if (canal == null) {
+            canal = FileChannel.open(directorio.resolve("entregas-" + campanaId + EXTENSION),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            canales.put(campanaId, canal);
+        }
+        return canal;
+    }
+}
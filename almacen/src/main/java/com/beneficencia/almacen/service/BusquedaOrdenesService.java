@@ -0,0 +1,191 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.model.OrdenSalida;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Búsqueda de órdenes de salida por DNI, número de trámite, número de orden o número
+ * de orden de salida, con rango de fechas y paginación por cursor.
+ *
+ * Cada campo tiene un índice (campo, fecha_salida, id), así que la búsqueda exacta
+ * recorre el índice ya ordenado y se detiene en la página; la búsqueda por prefijo
+ * (LIKE 'x%') usa el mismo índice como rango. El cursor es la última (fecha, id)
+ * entregada: la página siguiente pide lo que está estrictamente después en el orden
+ * fecha DESC, id DESC, sin OFFSET, así que cuesta lo mismo en la página 1 que en la
+ * 1000. Un texto sin campo se busca como prefijo en los tres números y las tres
+ * páginas se intercalan por el mismo orden.
+ */
+@Service
+@Transactional(readOnly = true)
+public class BusquedaOrdenesService {
+
+    public static final int LIMITE_MAXIMO = 200;
+
+    public enum Campo {
+        DNI("dniUsuario"),
+        TRAMITE("numeroTramite"),
+        NUMERO_ORDEN("numeroOrden"),
+        NUMERO_ORDEN_SALIDA("numeroOrdenSalida");
+
+        private final String atributo;
+
+        Campo(String atributo) {
+            this.atributo = atributo;
+        }
+    }
+
+    private static final Comparator<OrdenSalida> ORDEN = Comparator
+            .comparing(OrdenSalida::getFechaSalida, Comparator.reverseOrder())
+            .thenComparing(OrdenSalida::getId, Comparator.reverseOrder());
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param texto  valor buscado; vacío lista todas las órdenes del rango
+     * @param campo  campo a buscar; null deduce el campo del texto (8 dígitos = DNI)
+     * @param exacto true compara por igualdad; si no, por prefijo (un DNI completo
+     *               siempre se busca exacto)
+     * @param cursor valor de {@link Pagina#getSiguienteCursor()} de la página anterior;
+     *               si no se puede leer se devuelve la primera página
+     */
+    public Pagina buscar(String texto, Campo campo, boolean exacto, LocalDate desde, LocalDate hasta,
+                         String cursor, int limite) {
+        int tamano = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        Cursor desdeCursor = Cursor.leer(cursor);
+        String valor = texto != null ? texto.trim() : "";
+
+        List<OrdenSalida> resultados;
+        if (valor.isEmpty()) {
+            resultados = consultar(null, null, false, desde, hasta, desdeCursor, tamano + 1);
+        } else if (campo != null) {
+            boolean igualdad = exacto || (campo == Campo.DNI && valor.matches("\\d{8}"));
+            resultados = consultar(campo, valor, igualdad, desde, hasta, desdeCursor, tamano + 1);
+        } else if (valor.matches("\\d{8}")) {
+            resultados = consultar(Campo.DNI, valor, true, desde, hasta, desdeCursor, tamano + 1);
+        } else {
+            resultados = intercalar(List.of(
+                    consultar(Campo.TRAMITE, valor, exacto, desde, hasta, desdeCursor, tamano + 1),
+                    consultar(Campo.NUMERO_ORDEN, valor, exacto, desde, hasta, desdeCursor, tamano + 1),
+                    consultar(Campo.NUMERO_ORDEN_SALIDA, valor, exacto, desde, hasta, desdeCursor, tamano + 1)),
+                    tamano + 1);
+        }
+
+        boolean hayMas = resultados.size() > tamano;
+        List<OrdenSalida> pagina = hayMas ? new ArrayList<>(resultados.subList(0, tamano)) : resultados;
+        String siguiente = hayMas ? Cursor.escribir(pagina.get(pagina.size() - 1)) : null;
+        return new Pagina(pagina, siguiente);
+    }
+
+    private List<OrdenSalida> consultar(Campo campo, String valor, boolean igualdad, LocalDate desde,
+                                        LocalDate hasta, Cursor cursor, int maximo) {
+        StringBuilder jpql = new StringBuilder("SELECT os FROM OrdenSalida os WHERE 1 = 1");
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        if (campo != null) {
+            if (igualdad) {
+                jpql.append(" AND os.").append(campo.atributo).append(" = :valor");
+                parametros.put("valor", valor);
+            } else {
+                jpql.append(" AND os.").append(campo.atributo).append(" LIKE :valor ESCAPE '!'");
+                parametros.put("valor", escaparLike(valor) + "%");
+            }
+        }
+        if (desde != null) {
+            jpql.append(" AND os.fechaSalida >= :desde");
+            parametros.put("desde", desde);
+        }
+        if (hasta != null) {
+            jpql.append(" AND os.fechaSalida <= :hasta");
+            parametros.put("hasta", hasta);
+        }
+        if (cursor != null) {
+            jpql.append(" AND (os.fechaSalida < :cursorFecha OR (os.fechaSalida = :cursorFecha AND os.id < :cursorId))");
+            parametros.put("cursorFecha", cursor.fecha);
+            parametros.put("cursorId", cursor.id);
+        }
+        jpql.append(" ORDER BY os.fechaSalida DESC, os.id DESC");
+
+        TypedQuery<OrdenSalida> query = entityManager.createQuery(jpql.toString(), OrdenSalida.class);
+        parametros.forEach(query::setParameter);
+        query.setMaxResults(maximo);
+        return query.getResultList();
+    }
+
+    /** Une listas ya ordenadas sin repetir órdenes (un texto puede coincidir en dos campos). */
+    private static List<OrdenSalida> intercalar(List<List<OrdenSalida>> listas, int maximo) {
+        List<OrdenSalida> todas = new ArrayList<>();
+        listas.forEach(todas::addAll);
+        todas.sort(ORDEN);
+
+        List<OrdenSalida> resultado = new ArrayList<>();
+        Set<Long> vistos = new HashSet<>();
+        for (OrdenSalida orden : todas) {
+            if (resultado.size() >= maximo) break;
+            if (vistos.add(orden.getId())) {
+                resultado.add(orden);
+            }
+        }
+        return resultado;
+    }
+
+    /** '!' como escape: la barra invertida también es escape dentro de los literales de MySQL. */
+    private static String escaparLike(String valor) {
+        return valor.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    public static final class Pagina {
+        private final List<OrdenSalida> ordenes;
+        private final String siguienteCursor;
+
+        private Pagina(List<OrdenSalida> ordenes, String siguienteCursor) {
+            this.ordenes = ordenes;
+            this.siguienteCursor = siguienteCursor;
+        }
+
+        public List<OrdenSalida> getOrdenes() { return ordenes; }
+
+        /** null si esta es la última página. */
+        public String getSiguienteCursor() { return siguienteCursor; }
+    }
+
+    /** Posición en el orden fecha DESC, id DESC, escrita como "yyyy-MM-dd_id". */
+    private static final class Cursor {
+        private final LocalDate fecha;
+        private final Long id;
+
+        private Cursor(LocalDate fecha, Long id) {
+            this.fecha = fecha;
+            this.id = id;
+        }
+
+        /** Un cursor alterado o de otra versión se trata como la primera página. */
+        static Cursor leer(String texto) {
+            if (texto == null || texto.isBlank()) return null;
+            int separador = texto.indexOf('_');
+            try {
+                if (separador < 0) throw new IllegalArgumentException("sin separador");
+                return new Cursor(LocalDate.parse(texto.substring(0, separador)), Long.valueOf(texto.substring(separador + 1)));
+            } catch (RuntimeException e) {
+                System.err.println("Cursor de búsqueda inválido, se vuelve a la primera página: " + texto);
+                return null;
+            }
+        }
+
+        static String escribir(OrdenSalida orden) {
+            return orden.getFechaSalida() + "_" + orden.getId();
+        }
+    }
+}
@@ -0,0 +1,539 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.FilasInventario;
+import com.beneficencia.almacen.model.*;
+import com.beneficencia.almacen.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Campañas de distribución masiva.
+ *
+ * Crear registra la canasta y la lista de beneficiarios (los DNIs nuevos se dan de
+ * alta de una vez). Iniciar verifica el stock total de la campaña con una sola
+ * lectura bloqueante de los productos de la canasta y lo reserva: descuenta el
+ * producto y aparta los lotes FEFO en CampanaReserva. Después TrabajoCampanas genera
+ * las órdenes por tramos: cada tramo toma un bloque de números de orden, inserta por
+ * lotes JDBC las órdenes, sus items, las asignaciones de lote y los movimientos, y
+ * marca a sus beneficiarios como atendidos, todo en una transacción. Si un tramo
+ * falla la campaña queda PAUSADA con el error y al reanudarla sigue con los
+ * beneficiarios pendientes.
+ */
+@Service
+@Transactional
+public class CampanaService {
+
+    private static final int TAMANO_CONSULTA_DNI = 1000;
+
+    @Autowired
+    private CampanaRepository campanaRepository;
+
+    @Autowired
+    private CampanaBeneficiarioRepository campanaBeneficiarioRepository;
+
+    @Autowired
+    private CampanaReservaRepository campanaReservaRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private BeneficiarioRepository beneficiarioRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private OrdenSalidaService ordenSalidaService;
+
+    @Autowired
+    private LimiteEntregasService limiteEntregasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Registra la campaña en BORRADOR.
+     *
+     * @param canasta       productoId -> cantidad que recibe cada beneficiario
+     * @param beneficiarios dni -> nombre completo; el nombre solo es obligatorio
+     *                      para los DNIs que todavía no están registrados
+     */
+    public Campana crear(String nombre, String descripcion, LocalDate fechaSalida,
+                         Map<Long, Integer> canasta, Map<String, String> beneficiarios, String username) {
+        if (nombre == null || nombre.isBlank()) {
+            throw new RuntimeException("El nombre de la campaña es obligatorio");
+        }
+        if (canasta.isEmpty()) {
+            throw new RuntimeException("La canasta debe tener al menos un producto");
+        }
+        if (beneficiarios.isEmpty()) {
+            throw new RuntimeException("La campaña debe tener al menos un beneficiario");
+        }
+        canasta.forEach((productoId, cantidad) -> {
+            if (cantidad == null || cantidad <= 0) {
+                throw new RuntimeException("La cantidad por beneficiario debe ser mayor a cero (producto " + productoId + ")");
+            }
+        });
+        List<String> invalidos = beneficiarios.keySet().stream().filter(dni -> !dni.matches("\\d{8}")).limit(10).toList();
+        if (!invalidos.isEmpty()) {
+            throw new RuntimeException("DNIs inválidos: " + String.join(", ", invalidos));
+        }
+
+        Usuario usuario = usuarioRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + username));
+        Map<Long, Producto> productos = productoRepository.findAllById(canasta.keySet()).stream()
+                .collect(Collectors.toMap(Producto::getId, p -> p));
+
+        Campana campana = new Campana();
+        campana.setNombre(nombre.trim());
+        campana.setDescripcion(descripcion);
+        campana.setFechaSalida(fechaSalida != null ? fechaSalida : LocalDate.now());
+        campana.setUsuario(usuario);
+        campana.setFechaRegistro(LocalDateTime.now());
+        campana.setFechaActualizacion(LocalDateTime.now());
+        canasta.forEach((productoId, cantidad) -> {
+            Producto producto = productos.get(productoId);
+            if (producto == null) {
+                throw new RuntimeException("Producto no encontrado: " + productoId);
+            }
+            campana.agregarItem(new CampanaItem(producto, cantidad));
+        });
+
+        Map<String, Beneficiario> registrados = registrarBeneficiarios(beneficiarios);
+        campana.setTotalBeneficiarios(registrados.size());
+        Campana guardada = campanaRepository.save(campana);
+
+        List<Object[]> filas = new ArrayList<>(registrados.size());
+        for (Map.Entry<String, Beneficiario> entrada : registrados.entrySet()) {
+            Beneficiario beneficiario = entrada.getValue();
+            String nombreCompleto = beneficiarios.get(entrada.getKey());
+            if (nombreCompleto == null || nombreCompleto.isBlank()) {
+                nombreCompleto = (beneficiario.getNombres() + " " +
+                        (beneficiario.getApellidos() != null ? beneficiario.getApellidos() : "")).trim();
+            }
+            filas.add(new Object[]{guardada.getId(), beneficiario.getId(), entrada.getKey(), nombreCompleto});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO campana_beneficiarios (campana_id, beneficiario_id, dni, nombre) " +
+                "VALUES (?, ?, ?, ?)", filas);
+
+        System.out.println("Campaña " + guardada.getNombre() + " registrada: " + filas.size() + " beneficiarios, " +
+                canasta.size() + " productos por canasta");
+        return guardada;
+    }
+
+    /** Busca los DNIs por bloques y da de alta los que faltan. */
+    private Map<String, Beneficiario> registrarBeneficiarios(Map<String, String> beneficiarios) {
+        Map<String, Beneficiario> porDni = new HashMap<>();
+        List<String> dnis = new ArrayList<>(beneficiarios.keySet());
+        // Se consultan todos: el filtro de existencia puede no conocer aún un alta de otro nodo
+        for (int i = 0; i < dnis.size(); i += TAMANO_CONSULTA_DNI) {
+            beneficiarioRepository.findByDniIn(dnis.subList(i, Math.min(i + TAMANO_CONSULTA_DNI, dnis.size())))
+                    .forEach(b -> porDni.put(b.getDni(), b));
+        }
+
+        List<Beneficiario> nuevos = new ArrayList<>();
+        List<String> sinNombre = new ArrayList<>();
+        for (String dni : dnis) {
+            if (porDni.containsKey(dni)) continue;
+            String nombreCompleto = beneficiarios.get(dni);
+            if (nombreCompleto == null || nombreCompleto.isBlank()) {
+                sinNombre.add(dni);
+                continue;
+            }
+            String[] nombres = nombreCompleto.trim().split(" ", 2);
+            Beneficiario nuevo = new Beneficiario();
+            nuevo.setDni(dni);
+            nuevo.setNombres(nombres[0]);
+            nuevo.setApellidos(nombres.length > 1 ? nombres[1] : "");
+            nuevos.add(nuevo);
+        }
+        if (!sinNombre.isEmpty()) {
+            throw new RuntimeException(sinNombre.size() + " DNIs no registrados necesitan nombre: " +
+                    String.join(", ", sinNombre.subList(0, Math.min(10, sinNombre.size()))));
+        }
+        beneficiarioRepository.saveAll(nuevos).forEach(b -> porDni.put(b.getDni(), b));
+
+        // Mismo orden que la lista recibida
+        Map<String, Beneficiario> ordenados = new LinkedHashMap<>();
+        for (String dni : dnis) {
+            ordenados.put(dni, porDni.get(dni));
+        }
+        return ordenados;
+    }
+
+    /**
+     * Verifica y reserva el stock de toda la campaña y la deja EN_PROCESO. Falla sin
+     * reservar nada si algún producto no alcanza.
+     */
+    public Campana iniciar(Long campanaId) {
+        Campana campana = campanaRepository.findParaActualizar(campanaId)
+                .orElseThrow(() -> new RuntimeException("Campaña no encontrada: " + campanaId));
+        if (campana.getEstado() != Campana.EstadoCampana.BORRADOR) {
+            throw new RuntimeException("Solo se puede iniciar una campaña en borrador (estado: " + campana.getEstado() + ")");
+        }
+
+        long pendientes = campanaBeneficiarioRepository.countPendientes(campanaId);
+        Map<Long, Long> necesario = new LinkedHashMap<>();
+        for (CampanaItem item : campana.getItems()) {
+            necesario.put(item.getProducto().getId(), (long) item.getCantidad() * pendientes);
+        }
+
+        List<Producto> productos = productoRepository.bloquearVigentes(necesario.keySet());
+        List<String> faltantes = new ArrayList<>();
+        for (Producto producto : productos) {
+            long total = necesario.get(producto.getId());
+            if (producto.getCantidad() < total) {
+                faltantes.add(producto.getNombre() + " (disponible " + producto.getCantidad() + ", necesario " + total + ")");
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            throw new RuntimeException("Stock insuficiente para la campaña: " + String.join("; ", faltantes));
+        }
+
+        List<CampanaReserva> reservas = new ArrayList<>();
+        for (Producto producto : productos) {
+            int stockAntes = producto.getCantidad();
+            int total = necesario.get(producto.getId()).intValue();
+            producto.setCantidad(stockAntes - total);
+            loteService.reservar(producto, stockAntes, total).forEach((lote, cantidad) ->
+                    reservas.add(new CampanaReserva(campanaId, producto.getId(), lote, cantidad)));
+        }
+        campanaReservaRepository.saveAll(reservas);
+
+        campana.setEstado(Campana.EstadoCampana.EN_PROCESO);
+        campana.setFechaInicio(LocalDateTime.now());
+        campana.setFechaActualizacion(LocalDateTime.now());
+        campana.setMensaje(null);
+        System.out.println("Campaña " + campana.getNombre() + " iniciada: " + pendientes + " órdenes por generar, " +
+                reservas.size() + " reservas de lote");
+        return campana;
+    }
+
+    /** Primera campaña EN_PROCESO, o null si no hay ninguna. */
+    @Transactional(readOnly = true)
+    public Long siguienteEnProceso() {
+        return campanaRepository.findByEstadoOrderByIdAsc(Campana.EstadoCampana.EN_PROCESO).stream()
+                .map(Campana::getId)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Genera las órdenes de salida de hasta tamano beneficiarios pendientes y
+     * devuelve cuántas generó. Al no quedar pendientes la campaña se completa.
+     */
+    public int generarTramo(Long campanaId, int tamano) {
+        Campana campana = campanaRepository.findParaActualizar(campanaId)
+                .orElseThrow(() -> new RuntimeException("Campaña no encontrada: " + campanaId));
+        if (campana.getEstado() != Campana.EstadoCampana.EN_PROCESO) return 0;
+
+        List<CampanaBeneficiario> pendientes = campanaBeneficiarioRepository.findPendientes(
+                campanaId, PageRequest.of(0, tamano));
+        if (pendientes.isEmpty()) {
+            completar(campana);
+            return 0;
+        }
+
+        int n = pendientes.size();
+        List<CampanaItem> canasta = campana.getItems();
+        int unidadesPorOrden = canasta.stream().mapToInt(CampanaItem::getCantidad).sum();
+        List<String> numeros = ordenSalidaService.generarNumerosOrden(n);
+        List<String> numerosSalida = ordenSalidaService.generarNumerosOrdenSalida(campana.getFechaSalida(), n);
+        LocalDateTime ahora = LocalDateTime.now();
+        Long usuarioId = campana.getUsuario().getId();
+        String tramite = "CAMP-" + campanaId;
+
+        // Órdenes
+        List<Object[]> ordenes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            CampanaBeneficiario beneficiario = pendientes.get(i);
+            ordenes.add(new Object[]{numeros.get(i), numerosSalida.get(i), campana.getFechaSalida(),
+                    beneficiario.getDni(), beneficiario.getNombre(), beneficiario.getBeneficiarioId(), tramite,
+                    unidadesPorOrden, "Campaña: " + campana.getNombre(), usuarioId, "COMPLETADA", ahora, ahora});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO ordenes_salida (numero_orden, numero_orden_salida, fecha_salida, " +
+                "dni_usuario, nombre_usuario, beneficiario_id, numero_tramite, cantidad_productos, descripcion, " +
+                "usuario_id, estado, fecha_registro, fecha_actualizacion) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                ordenes);
+
+        Map<String, Long> ordenPorNumero = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, numero_orden FROM ordenes_salida WHERE numero_orden IN (:numeros)",
+                Map.of("numeros", numeros),
+                resultado -> { ordenPorNumero.put(resultado.getString("numero_orden"), resultado.getLong("id")); });
+        List<Long> ordenIds = numeros.stream().map(ordenPorNumero::get).toList();
+
+        // Items: uno por producto de la canasta en cada orden
+        List<Object[]> items = new ArrayList<>(n * canasta.size());
+        for (Long ordenId : ordenIds) {
+            for (CampanaItem item : canasta) {
+                BigDecimal precio = item.getProducto().getPrecioUnitario() != null
+                        ? item.getProducto().getPrecioUnitario() : BigDecimal.ZERO;
+                items.add(new Object[]{ordenId, item.getProducto().getId(), item.getCantidad(), precio,
+                        precio.multiply(BigDecimal.valueOf(item.getCantidad())), ahora});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orden_salida_items (orden_salida_id, producto_id, cantidad, " +
+                "precio_unitario, subtotal, fecha_registro) VALUES (?, ?, ?, ?, ?, ?)", items);
+
+        Map<String, Long> itemPorOrdenYProducto = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, orden_salida_id, producto_id FROM orden_salida_items " +
+                        "WHERE orden_salida_id IN (:ordenes)", Map.of("ordenes", ordenIds),
+                resultado -> {
+                    itemPorOrdenYProducto.put(resultado.getLong("orden_salida_id") + "/" + resultado.getLong("producto_id"),
+                            resultado.getLong("id"));
+                });
+
+        // Asignaciones de lote desde la reserva de la campaña, en orden FEFO
+        Map<Long, Deque<CampanaReserva>> reservas = new HashMap<>();
+        for (CampanaReserva reserva : campanaReservaRepository.findDisponibles(campanaId)) {
+            reservas.computeIfAbsent(reserva.getProductoId(), id -> new ArrayDeque<>()).add(reserva);
+        }
+        List<Object[]> asignaciones = new ArrayList<>();
+        List<Object[]> movimientos = new ArrayList<>(n * canasta.size());
+        for (int i = 0; i < n; i++) {
+            Long ordenId = ordenIds.get(i);
+            for (CampanaItem item : canasta) {
+                Long productoId = item.getProducto().getId();
+                Long itemId = itemPorOrdenYProducto.get(ordenId + "/" + productoId);
+                Deque<CampanaReserva> cola = reservas.getOrDefault(productoId, new ArrayDeque<>());
+                int porAsignar = item.getCantidad();
+                while (porAsignar > 0) {
+                    CampanaReserva reserva = cola.peekFirst();
+                    if (reserva == null) {
+                        throw new RuntimeException("La reserva de la campaña no alcanza para " + item.getProducto().getNombre());
+                    }
+                    int tomado = Math.min(porAsignar, reserva.getCantidad());
+                    reserva.setCantidad(reserva.getCantidad() - tomado);
+                    if (reserva.getCantidad() == 0) cola.pollFirst();
+                    asignaciones.add(new Object[]{reserva.getLote().getId(), ordenId, itemId, tomado, ahora});
+                    porAsignar -= tomado;
+                }
+                movimientos.add(new Object[]{productoId, MovimientoInventario.TipoMovimiento.SALIDA.name(),
+                        item.getCantidad(), "Orden de salida: " + numeros.get(i) + " (campaña " + campana.getNombre() + ")",
+                        usuarioId, ordenId, ahora});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO asignaciones_lote (lote_id, orden_salida_id, orden_salida_item_id, " +
+                "cantidad, fecha_asignacion) VALUES (?, ?, ?, ?, ?)", asignaciones);
+        jdbcTemplate.batchUpdate("INSERT INTO movimientos_inventario (producto_id, tipo_movimiento, cantidad, motivo, " +
+                "usuario_id, orden_salida_id, fecha_movimiento) VALUES (?, ?, ?, ?, ?, ?, ?)", movimientos);
+
+        List<Object[]> atendidos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            atendidos.add(new Object[]{ordenIds.get(i), numeros.get(i), pendientes.get(i).getId()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE campana_beneficiarios SET orden_salida_id = ?, numero_orden = ? WHERE id = ?",
+                atendidos);
+
+        campana.setGeneradas(campana.getGeneradas() + n);
+        campana.setFechaActualizacion(ahora);
+        if (n < tamano) {
+            completar(campana);
+        }
+
+        // Las órdenes de campaña cuentan para el límite por beneficiario, pero no se bloquean por él
+        limiteEntregasService.registrarAlConfirmar(
+                pendientes.stream().map(CampanaBeneficiario::getBeneficiarioId).toList());
+        publicarSalidas(campana, pendientes, ordenIds, numeros, unidadesPorOrden);
+        return n;
+    }
+
+    /** Las órdenes insertadas por JDBC no pasan por JPA: el evento se arma aquí. */
+    private void publicarSalidas(Campana campana, List<CampanaBeneficiario> beneficiarios, List<Long> ordenIds,
+                                 List<String> numeros, int unidadesPorOrden) {
+        List<OrdenSalidaItem> items = new ArrayList<>();
+        for (CampanaItem itemCampana : campana.getItems()) {
+            OrdenSalidaItem item = new OrdenSalidaItem();
+            item.setProducto(itemCampana.getProducto());
+            item.setCantidad(itemCampana.getCantidad());
+            items.add(item);
+        }
+
+        List<Map<String, Object>> filas = new ArrayList<>(ordenIds.size());
+        for (int i = 0; i < ordenIds.size(); i++) {
+            OrdenSalida orden = new OrdenSalida();
+            orden.setId(ordenIds.get(i));
+            orden.setNumeroOrden(numeros.get(i));
+            orden.setFechaSalida(campana.getFechaSalida());
+            orden.setDniUsuario(beneficiarios.get(i).getDni());
+            Beneficiario beneficiario = new Beneficiario();
+            beneficiario.setId(beneficiarios.get(i).getBeneficiarioId());
+            orden.setBeneficiario(beneficiario);
+            orden.setCantidadProductos(unidadesPorOrden);
+            filas.add(FilasInventario.ordenSalida(orden, items));
+        }
+        eventPublisher.publishEvent(new EventoInventario(EventoInventario.TipoEvento.NUEVA_SALIDA, filas));
+    }
+
+    private void completar(Campana campana) {
+        int devueltas = liberarReservas(campana.getId());
+        campana.setEstado(Campana.EstadoCampana.COMPLETADA);
+        campana.setFechaFin(LocalDateTime.now());
+        campana.setFechaActualizacion(LocalDateTime.now());
+        campana.setMensaje(devueltas > 0 ? devueltas + " unidades sobrantes devueltas al stock" : null);
+        System.out.println("Campaña " + campana.getNombre() + " completada: " + campana.getGeneradas() + " órdenes");
+    }
+
+    /** Devuelve a lotes y productos lo reservado que no se entregó; devuelve las unidades. */
+    private int liberarReservas(Long campanaId) {
+        List<CampanaReserva> reservas = campanaReservaRepository.findDisponibles(campanaId);
+        if (reservas.isEmpty()) return 0;
+
+        Map<Long, Integer> porProducto = new HashMap<>();
+        for (CampanaReserva reserva : reservas) {
+            porProducto.merge(reserva.getProductoId(), reserva.getCantidad(), Integer::sum);
+        }
+        for (Producto producto : productoRepository.bloquearVigentes(porProducto.keySet())) {
+            producto.setCantidad(producto.getCantidad() + porProducto.get(producto.getId()));
+        }
+
+        int unidades = 0;
+        for (CampanaReserva reserva : reservas) {
+            loteService.devolverReserva(reserva.getLote(), reserva.getCantidad());
+            unidades += reserva.getCantidad();
+            reserva.setCantidad(0);
+        }
+        return unidades;
+    }
+
+    public Campana pausar(Long campanaId) {
+        Campana campana = obtenerParaActualizar(campanaId);
+        if (campana.getEstado() != Campana.EstadoCampana.EN_PROCESO) {
+            throw new RuntimeException("Solo se puede pausar una campaña en proceso");
+        }
+        campana.setEstado(Campana.EstadoCampana.PAUSADA);
+        campana.setFechaActualizacion(LocalDateTime.now());
+        return campana;
+    }
+
+    public Campana reanudar(Long campanaId) {
+        Campana campana = obtenerParaActualizar(campanaId);
+        if (campana.getEstado() != Campana.EstadoCampana.PAUSADA) {
+            throw new RuntimeException("Solo se puede reanudar una campaña pausada");
+        }
+        campana.setEstado(Campana.EstadoCampana.EN_PROCESO);
+        campana.setMensaje(null);
+        campana.setFechaActualizacion(LocalDateTime.now());
+        return campana;
+    }
+
+    /** Las órdenes ya generadas se conservan; el resto de la reserva vuelve al stock. */
+    public Campana cancelar(Long campanaId) {
+        Campana campana = obtenerParaActualizar(campanaId);
+        if (campana.getEstado() == Campana.EstadoCampana.COMPLETADA
+                || campana.getEstado() == Campana.EstadoCampana.CANCELADA) {
+            throw new RuntimeException("La campaña ya está " + campana.getEstado());
+        }
+        int devueltas = liberarReservas(campanaId);
+        campana.setEstado(Campana.EstadoCampana.CANCELADA);
+        campana.setFechaFin(LocalDateTime.now());
+        campana.setFechaActualizacion(LocalDateTime.now());
+        campana.setMensaje("Cancelada con " + campana.getGeneradas() + " órdenes generadas; " +
+                devueltas + " unidades devueltas al stock");
+        return campana;
+    }
+
+    /** Registra el error de un tramo fallido en una transacción aparte y pausa la campaña. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void pausarPorError(Long campanaId, String error) {
+        campanaRepository.findParaActualizar(campanaId).ifPresent(campana -> {
+            if (campana.getEstado() == Campana.EstadoCampana.EN_PROCESO) {
+                campana.setEstado(Campana.EstadoCampana.PAUSADA);
+            }
+            campana.setMensaje("Error: " + error);
+            campana.setFechaActualizacion(LocalDateTime.now());
+        });
+    }
+
+    private Campana obtenerParaActualizar(Long campanaId) {
+        return campanaRepository.findParaActualizar(campanaId)
+                .orElseThrow(() -> new RuntimeException("Campaña no encontrada: " + campanaId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> listar() {
+        return campanaRepository.findAllByOrderByFechaRegistroDesc().stream()
+                .map(this::resumir)
+                .collect(Collectors.toList());
+    }
+
+    /** Avance de la campaña con su velocidad y el tiempo restante estimado. */
+    @Transactional(readOnly = true)
+    public Map<String, Object> obtenerProgreso(Long campanaId) {
+        Campana campana = campanaRepository.findConItems(campanaId)
+                .orElseThrow(() -> new RuntimeException("Campaña no encontrada: " + campanaId));
+        Map<String, Object> progreso = resumir(campana);
+
+        List<Map<String, Object>> canasta = new ArrayList<>();
+        for (CampanaItem item : campana.getItems()) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("productoId", item.getProducto().getId());
+            fila.put("codigo", item.getProducto().getCodigo());
+            fila.put("nombre", item.getProducto().getNombre());
+            fila.put("cantidadPorBeneficiario", item.getCantidad());
+            fila.put("cantidadTotal", (long) item.getCantidad() * campana.getTotalBeneficiarios());
+            canasta.add(fila);
+        }
+        progreso.put("canasta", canasta);
+
+        Map<Long, Integer> reservado = new LinkedHashMap<>();
+        for (CampanaReserva reserva : campanaReservaRepository.findDisponibles(campanaId)) {
+            reservado.merge(reserva.getProductoId(), reserva.getCantidad(), Integer::sum);
+        }
+        progreso.put("reservaPendiente", reservado);
+
+        if (campana.getFechaInicio() != null && campana.getGeneradas() > 0) {
+            LocalDateTime hasta = campana.getFechaFin() != null ? campana.getFechaFin() : LocalDateTime.now();
+            double segundos = Math.max(1, Duration.between(campana.getFechaInicio(), hasta).toSeconds());
+            double porSegundo = campana.getGeneradas() / segundos;
+            progreso.put("ordenesPorSegundo", Math.round(porSegundo * 10) / 10.0);
+            if (campana.getEstado() == Campana.EstadoCampana.EN_PROCESO) {
+                int restantes = campana.getTotalBeneficiarios() - campana.getGeneradas();
+                progreso.put("segundosRestantes", Math.round(restantes / porSegundo));
+            }
+        }
+        return progreso;
+    }
+
+    private Map<String, Object> resumir(Campana campana) {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("id", campana.getId());
+        fila.put("nombre", campana.getNombre());
+        fila.put("descripcion", campana.getDescripcion());
+        fila.put("fechaSalida", campana.getFechaSalida());
+        fila.put("estado", campana.getEstado());
+        fila.put("totalBeneficiarios", campana.getTotalBeneficiarios());
+        fila.put("generadas", campana.getGeneradas());
+        fila.put("porcentaje", campana.getTotalBeneficiarios() > 0
+                ? Math.round(campana.getGeneradas() * 1000.0 / campana.getTotalBeneficiarios()) / 10.0 : 0);
+        fila.put("mensaje", campana.getMensaje());
+        fila.put("fechaRegistro", campana.getFechaRegistro());
+        fila.put("fechaInicio", campana.getFechaInicio());
+        fila.put("fechaFin", campana.getFechaFin());
+        return fila;
+    }
+}
@@ -0,0 +1,311 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.BusInvalidacion;
+import com.beneficencia.almacen.model.Campana;
+import com.beneficencia.almacen.repository.CampanaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Modo de registro para el día de distribución de una campaña.
+ *
+ * Al abrir el día se carga el padrón de la campaña en memoria (PadronEntrega) con
+ * una sola consulta. Consultar un DNI y marcar su entrega no tocan la base: la
+ * entrega se escribe en la bitácora (BitacoraEntregas) y queda en cola; un
+ * proceso periódico la guarda por lotes en campana_beneficiarios.
+ *
+ * En modo clúster el padrón en memoria de cada nodo solo sirve para consultar: la
+ * entrega se reclama en la base con un UPDATE ... WHERE fecha_entrega IS NULL antes
+ * de responder, y solo el nodo cuya actualización afecta la fila la da por hecha.
+ * Luego se avisa a los demás nodos para que su padrón muestre la entrega.
+ */
+@Service
+public class CheckinService {
+
+    private static final String CANAL = "ENTREGA_CAMPANA";
+
+    @Autowired
+    private CampanaRepository campanaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BusInvalidacion bus;
+
+    @Value("${almacen.checkin.directorio:./datos/checkin}")
+    private String directorio;
+
+    @Value("${almacen.checkin.lote:500}")
+    private int tamanoLote;
+
+    @Value("${almacen.cluster.activo:false}")
+    private boolean cluster;
+
+    private final Map<Long, PadronEntrega> padrones = new ConcurrentHashMap<>();
+    private final Queue<BitacoraEntregas.Entrada> pendientes = new ConcurrentLinkedQueue<>();
+    private BitacoraEntregas bitacora;
+
+    @PostConstruct
+    public void iniciar() {
+        bitacora = new BitacoraEntregas(Path.of(directorio));
+        bus.suscribir(CANAL, this::recibirDeOtroNodo);
+    }
+
+    /** Vuelve a aplicar en la base las entregas que quedaron en la bitácora tras una caída. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperar() {
+        List<BitacoraEntregas.Entrada> entradas = bitacora.leerTodo();
+        if (entradas.isEmpty()) return;
+        guardar(entradas);
+        bitacora.vaciar();
+        System.out.println("Entregas recuperadas de la bitácora: " + entradas.size());
+    }
+
+    /** Carga (o recarga) el padrón de la campaña. */
+    public Map<String, Object> abrir(Long campanaId) {
+        persistir();
+        Campana campana = campanaRepository.findConItems(campanaId)
+                .orElseThrow(() -> new RuntimeException("Campaña no encontrada: " + campanaId));
+        String derecho = campana.getItems().stream()
+                .map(item -> item.getCantidad() + " x " + item.getProducto().getNombre())
+                .collect(Collectors.joining(", "));
+
+        List<PadronEntrega.Fila> filas = jdbcTemplate.query(
+                "SELECT dni, beneficiario_id, nombre, numero_orden, fecha_entrega FROM campana_beneficiarios WHERE campana_id = ?",
+                (resultado, i) -> {
+                    Timestamp entrega = resultado.getTimestamp("fecha_entrega");
+                    return new PadronEntrega.Fila(resultado.getString("dni"), resultado.getLong("beneficiario_id"),
+                            resultado.getString("nombre"), resultado.getString("numero_orden"),
+                            entrega != null ? entrega.getTime() : 0L);
+                },
+                campanaId);
+
+        PadronEntrega padron = new PadronEntrega(campanaId, campana.getNombre(), derecho, filas);
+        padrones.put(campanaId, padron);
+        System.out.println("Padrón de entrega cargado - campaña: " + campana.getNombre() +
+                " - beneficiarios: " + padron.getTotal() + " - ya entregados: " + padron.getEntregados());
+        return resumen(campanaId);
+    }
+
+    /** Guarda lo pendiente y libera el padrón de memoria. */
+    public void cerrar(Long campanaId) {
+        persistir();
+        padrones.remove(campanaId);
+    }
+
+    public Map<String, Object> consultar(Long campanaId, String dni) {
+        PadronEntrega padron = obtenerPadron(campanaId);
+        int posicion = padron.buscar(dni);
+        if (posicion < 0) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("enPadron", false);
+            fila.put("dni", dni);
+            return fila;
+        }
+        return fila(padron, posicion);
+    }
+
+    /**
+     * Marca la entrega del DNI. Falla si no está en el padrón o si ya recibió; la
+     * respuesta vuelve en cuanto la entrega queda en la bitácora (o, en modo
+     * clúster, en la base); si no se pudo escribir, la marca se deshace.
+     */
+    public Map<String, Object> entregar(Long campanaId, String dni, String usuario) {
+        PadronEntrega padron = obtenerPadron(campanaId);
+        int posicion = padron.buscar(dni);
+        if (posicion < 0) {
+            throw new RuntimeException("El DNI " + dni + " no está en el padrón de " + padron.getCampana());
+        }
+
+        long momento = System.currentTimeMillis();
+        if (!padron.marcar(posicion, momento, usuario)) {
+            String por = padron.getEntregadoPor(posicion);
+            throw new RuntimeException("Ya recibió su entrega el " + aFecha(padron.getEntregadoEn(posicion)) +
+                    (por != null ? " (" + por + ")" : ""));
+        }
+
+        BitacoraEntregas.Entrada entrada = new BitacoraEntregas.Entrada(campanaId, padron.getDni(posicion), momento, usuario);
+        if (cluster) {
+            reclamar(padron, posicion, entrada);
+        } else {
+            synchronized (bitacora) {
+                try {
+                    bitacora.registrar(campanaId, entrada.dni(), momento, usuario);
+                } catch (RuntimeException e) {
+                    // No quedó registrada: sin deshacer la marca, cada reintento diría "Ya recibió"
+                    padron.desmarcar(posicion, momento);
+                    throw new RuntimeException("No se pudo registrar la entrega: " + e.getMessage());
+                }
+                pendientes.add(entrada);
+            }
+        }
+        try {
+            bus.publicar(CANAL, List.of(campanaId + "/" + entrada.dni() + "/" + momento));
+        } catch (Exception e) {
+            System.err.println("No se pudo avisar la entrega a los demás nodos: " + e.getMessage());
+        }
+        return fila(padron, posicion);
+    }
+
+    /**
+     * Escribe la entrega en la base; si otro nodo la registró primero se muestra la
+     * suya y se rechaza esta. Si la base falla, la marca local se deshace.
+     */
+    private void reclamar(PadronEntrega padron, int posicion, BitacoraEntregas.Entrada entrada) {
+        int filas;
+        try {
+            filas = jdbcTemplate.update("UPDATE campana_beneficiarios SET fecha_entrega = ?, entregado_por = ? " +
+                            "WHERE campana_id = ? AND dni = ? AND fecha_entrega IS NULL",
+                    aFecha(entrada.momento()), entrada.usuario(), entrada.campanaId(), entrada.dni());
+        } catch (Exception e) {
+            padron.desmarcar(posicion, entrada.momento());
+            throw new RuntimeException("No se pudo registrar la entrega: " + e.getMessage());
+        }
+        if (filas == 1) return;
+
+        Map<String, Object> previa = jdbcTemplate.queryForMap(
+                "SELECT fecha_entrega, entregado_por FROM campana_beneficiarios WHERE campana_id = ? AND dni = ?",
+                entrada.campanaId(), entrada.dni());
+        Timestamp fecha = (Timestamp) previa.get("fecha_entrega");
+        String por = (String) previa.get("entregado_por");
+        padron.corregir(posicion, fecha.getTime(), por);
+        throw new RuntimeException("Ya recibió su entrega el " + fecha.toLocalDateTime() +
+                (por != null ? " (" + por + ")" : ""));
+    }
+
+    private void recibirDeOtroNodo(List<String> claves) {
+        for (String clave : claves) {
+            String[] partes = clave.split("/");
+            PadronEntrega padron = padrones.get(Long.valueOf(partes[0]));
+            if (padron == null) continue;
+            int posicion = padron.buscar(partes[1]);
+            if (posicion >= 0) {
+                padron.marcar(posicion, Long.parseLong(partes[2]), null);
+            }
+        }
+    }
+
+    /** Guarda en la base las entregas en cola, por lotes, y vacía la bitácora si no queda nada. */
+    @Scheduled(initialDelayString = "${almacen.checkin.persistencia-ms:1000}",
+            fixedDelayString = "${almacen.checkin.persistencia-ms:1000}")
+    public synchronized void persistir() {
+        if (pendientes.isEmpty()) return;
+
+        // Solo este método saca de la cola: se guarda un lote y recién entonces se retira
+        while (!pendientes.isEmpty()) {
+            List<BitacoraEntregas.Entrada> lote = new ArrayList<>(tamanoLote);
+            Iterator<BitacoraEntregas.Entrada> iterador = pendientes.iterator();
+            while (iterador.hasNext() && lote.size() < tamanoLote) {
+                lote.add(iterador.next());
+            }
+            if (!guardarLote(lote)) return;
+            for (int i = 0; i < lote.size(); i++) {
+                pendientes.poll();
+            }
+        }
+
+        synchronized (bitacora) {
+            if (pendientes.isEmpty()) {
+                bitacora.vaciar();
+            }
+        }
+    }
+
+    /**
+     * Guarda el lote; si la base falla las entregas siguen en la cola y en la bitácora
+     * y se reintentan en la próxima pasada.
+     */
+    private boolean guardarLote(List<BitacoraEntregas.Entrada> lote) {
+        try {
+            guardar(lote);
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error al guardar entregas (se reintentará): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void guardar(List<BitacoraEntregas.Entrada> entradas) {
+        List<Object[]> filas = new ArrayList<>(entradas.size());
+        for (BitacoraEntregas.Entrada entrada : entradas) {
+            filas.add(new Object[]{aFecha(entrada.momento()), entrada.usuario(), entrada.campanaId(), entrada.dni()});
+        }
+        // Solo la primera entrega cuenta: reaplicar la bitácora no cambia nada
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado ->
+                jdbcTemplate.batchUpdate("UPDATE campana_beneficiarios SET fecha_entrega = ?, entregado_por = ? " +
+                        "WHERE campana_id = ? AND dni = ? AND fecha_entrega IS NULL", filas));
+    }
+
+    public Map<String, Object> resumen(Long campanaId) {
+        PadronEntrega padron = obtenerPadron(campanaId);
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("campanaId", campanaId);
+        resumen.put("campana", padron.getCampana());
+        resumen.put("derecho", padron.getDerecho());
+        resumen.put("total", padron.getTotal());
+        resumen.put("entregados", padron.getEntregados());
+        resumen.put("faltan", padron.getTotal() - padron.getEntregados());
+        resumen.put("porGuardar", pendientes.size());
+        return resumen;
+    }
+
+    public List<Long> getAbiertos() {
+        return new ArrayList<>(padrones.keySet());
+    }
+
+    private PadronEntrega obtenerPadron(Long campanaId) {
+        PadronEntrega padron = padrones.get(campanaId);
+        if (padron == null) {
+            throw new RuntimeException("El padrón de la campaña " + campanaId + " no está abierto");
+        }
+        return padron;
+    }
+
+    private Map<String, Object> fila(PadronEntrega padron, int posicion) {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("enPadron", true);
+        fila.put("dni", padron.getDni(posicion));
+        fila.put("beneficiarioId", padron.getBeneficiarioId(posicion));
+        fila.put("nombre", padron.getNombre(posicion));
+        fila.put("numeroOrden", padron.getNumeroOrden(posicion));
+        fila.put("derecho", padron.getDerecho());
+        long entregadoEn = padron.getEntregadoEn(posicion);
+        fila.put("entregado", entregadoEn > 0);
+        fila.put("fechaEntrega", entregadoEn > 0 ? aFecha(entregadoEn) : null);
+        fila.put("entregadoPor", padron.getEntregadoPor(posicion));
+        return fila;
+    }
+
+    private static LocalDateTime aFecha(long momento) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(momento), ZoneId.systemDefault());
+    }
+
+    @PreDestroy
+    public void detener() {
+        persistir();
+        bitacora.cerrar();
+    }
+}
@@ -0,0 +1,160 @@
+package com.beneficencia.almacen.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta en paralelo consultas de solo lectura independientes entre sí.
+ * Cada consulta corre en el pool "consultasExecutor" dentro de su propia
+ * transacción readOnly (y por tanto con su propia conexión). Si una consulta
+ * excede su tiempo límite o falla, se usa su valor por defecto y la página
+ * se arma con resultados parciales.
+ *
+ * Cancelar el futuro no detiene una llamada JDBC en curso, así que el tiempo
+ * límite también va como timeout de la transacción: Spring lo aplica a cada
+ * sentencia (JdbcTemplate y consultas JPA) y el driver cancela la consulta en
+ * MySQL, lo que libera el hilo y la conexión. Si el pool está saturado la
+ * consulta no se encola en el hilo de la petición: se responde sin ella.
+ */
+@Service
+public class ConsultaParalelaService {
+
+    public static final String NOMBRE_TRANSACCION = "consultas-paralelas";
+
+    @Autowired
+    @Qualifier("consultasExecutor")
+    private ThreadPoolTaskExecutor consultasExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${almacen.consultas.timeout-ms:5000}")
+    private long timeoutPorDefectoMs;
+
+    public Consultas nuevas() {
+        return new Consultas();
+    }
+
+    public class Consultas {
+
+        private final List<Consulta<?>> consultas = new ArrayList<>();
+
+        public <T> Consultas agregar(String nombre, Supplier<T> proveedor, T valorPorDefecto) {
+            return agregar(nombre, proveedor, valorPorDefecto, timeoutPorDefectoMs);
+        }
+
+        public <T> Consultas agregar(String nombre, Supplier<T> proveedor, T valorPorDefecto, long timeoutMs) {
+            consultas.add(new Consulta<>(nombre, proveedor, valorPorDefecto, timeoutMs));
+            return this;
+        }
+
+        public ResultadoConsultas ejecutar() {
+            return ConsultaParalelaService.this.ejecutar(consultas);
+        }
+    }
+
+    private ResultadoConsultas ejecutar(List<Consulta<?>> consultas) {
+        long inicio = System.nanoTime();
+        List<CompletableFuture<Object>> futuros = new ArrayList<>(consultas.size());
+        for (Consulta<?> consulta : consultas) {
+            TransactionTemplate soloLectura = new TransactionTemplate(transactionManager);
+            soloLectura.setReadOnly(true);
+            soloLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            // Dashboard y estadísticas: pueden leer de la réplica (ver EnrutadorDataSource)
+            soloLectura.setName(NOMBRE_TRANSACCION);
+            // El timeout de la transacción va en segundos; se redondea hacia arriba
+            soloLectura.setTimeout((int) Math.max(1, (consulta.timeoutMs + 999) / 1000));
+            try {
+                futuros.add(CompletableFuture.supplyAsync(
+                        () -> soloLectura.execute(status -> consulta.proveedor.get()),
+                        consultasExecutor));
+            } catch (RejectedExecutionException e) {
+                futuros.add(CompletableFuture.failedFuture(
+                        new RejectedExecutionException("pool de consultas saturado")));
+            }
+        }
+
+        Map<String, Object> valores = new LinkedHashMap<>();
+        List<String> incompletas = new ArrayList<>();
+
+        for (int i = 0; i < consultas.size(); i++) {
+            Consulta<?> consulta = consultas.get(i);
+            CompletableFuture<Object> futuro = futuros.get(i);
+            long restanteMs = consulta.timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+            try {
+                valores.put(consulta.nombre, futuro.get(Math.max(restanteMs, 0), TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                futuro.cancel(true);
+                System.err.println("Consulta " + consulta.nombre + " excedió " + consulta.timeoutMs + " ms");
+                valores.put(consulta.nombre, consulta.valorPorDefecto);
+                incompletas.add(consulta.nombre);
+            } catch (ExecutionException e) {
+                System.err.println("Error en consulta " + consulta.nombre + ": " + e.getCause().getMessage());
+                valores.put(consulta.nombre, consulta.valorPorDefecto);
+                incompletas.add(consulta.nombre);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                valores.put(consulta.nombre, consulta.valorPorDefecto);
+                incompletas.add(consulta.nombre);
+            }
+        }
+
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        return new ResultadoConsultas(valores, incompletas, duracionMs);
+    }
+
+    private static class Consulta<T> {
+        private final String nombre;
+        private final Supplier<T> proveedor;
+        private final T valorPorDefecto;
+        private final long timeoutMs;
+
+        private Consulta(String nombre, Supplier<T> proveedor, T valorPorDefecto, long timeoutMs) {
+            this.nombre = nombre;
+            this.proveedor = proveedor;
+            this.valorPorDefecto = valorPorDefecto;
+            this.timeoutMs = timeoutMs;
+        }
+    }
+
+    public static class ResultadoConsultas {
+        private final Map<String, Object> valores;
+        private final List<String> incompletas;
+        private final long duracionMs;
+
+        public ResultadoConsultas(Map<String, Object> valores, List<String> incompletas, long duracionMs) {
+            this.valores = Collections.unmodifiableMap(valores);
+            this.incompletas = Collections.unmodifiableList(incompletas);
+            this.duracionMs = duracionMs;
+        }
+
+        public Map<String, Object> getValores() { return valores; }
+
+        public Object get(String nombre) { return valores.get(nombre); }
+
+        public List<String> getIncompletas() { return incompletas; }
+
+        public boolean esParcial() { return !incompletas.isEmpty(); }
+
+        public long getDuracionMs() { return duracionMs; }
+    }
+}
@@ -8,6 +8,7 @@ import com.beneficencia.almacen.repository.OrdenSalidaRepository;
 import com.beneficencia.almacen.repository.ProductoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -17,6 +18,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Transactional(readOnly = true)
 public class DashboardService {
 
         @Autowired
@@ -28,9 +30,26 @@ public class DashboardService {
         @Autowired
         private ProductoRepository productoRepository;
 
+        @Autowired
+        private ProductoService productoService;
+
         public Map<String, Object> getDashboardData() {
             Map<String, Object> dashboardData = new HashMap<>();
 
+            List<Map<String, Object>> movimientosRecientes = obtenerMovimientosRecientes();
+            List<Producto> productosSinMovimientos = obtenerProductosSinMovimientos();
+            List<Producto> productosStockBajo = obtenerProductosStockBajo();
+
+            dashboardData.put("movimientosRecientes", movimientosRecientes);
+            dashboardData.put("productosSinMovimientos", productosSinMovimientos);
+            dashboardData.put("productosStockBajo", productosStockBajo);
+            dashboardData.put("cantidadSinMovimientos", productosSinMovimientos.size());
+            dashboardData.put("cantidadStockBajo", productosStockBajo.size());
+
+            return dashboardData;
+        }
+
+        public List<Map<String, Object>> obtenerMovimientosRecientes() {
             LocalDate fechaInicio = LocalDate.now().minusDays(30);
             LocalDate fechaFin = LocalDate.now();
 
@@ -55,6 +74,10 @@ public class DashboardService {
                 }
             }
 
+            return movimientosRecientes;
+        }
+
+        public List<Producto> obtenerProductosSinMovimientos() {
             LocalDate fechaInicioSinMovimientos = LocalDate.now().minusDays(90);
             List<Producto> todosProductos = productoRepository.findAll();
             List<Producto> productosSinMovimientos = new ArrayList<>();
@@ -74,14 +97,23 @@ public class DashboardService {
                 }
             }
 
-            List<Producto> productosStockBajo = productoRepository.findProductosConStockBajo();
+            return productosSinMovimientos;
+        }
 
-            dashboardData.put("movimientosRecientes", movimientosRecientes);
-            dashboardData.put("productosSinMovimientos", productosSinMovimientos);
-            dashboardData.put("productosStockBajo", productosStockBajo);
-            dashboardData.put("cantidadSinMovimientos", productosSinMovimientos.size());
-            dashboardData.put("cantidadStockBajo", productosStockBajo.size());
+        public List<Producto> obtenerProductosStockBajo() {
+            return productoService.obtenerProductosConStockBajo();
+        }
 
-            return dashboardData;
+        /**
+         * Contadores de las tarjetas del dashboard. Se consulta una sola vez al abrir
+         * la página; luego se mantienen con los eventos de /api/eventos.
+         */
+        public Map<String, Object> obtenerResumen() {
+            Map<String, Object> resumen = new HashMap<>();
+            resumen.put("totalProductos", productoRepository.count());
+            resumen.put("cantidadStockBajo", productoService.contarProductosConStockBajo());
+            resumen.put("salidasHoy", ordenSalidaRepository
+                    .findByFechaSalidaBetween(LocalDate.now(), LocalDate.now()).size());
+            return resumen;
         }
-    }
+    }
\ No newline at end of file
@@ -0,0 +1,281 @@
+package com.beneficencia.almacen.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Detección de beneficiarios duplicados sin comparar todos contra todos.
+ *
+ * Cada registro recibe claves de bloqueo: el código fonético de su nombre, su DNI
+ * sin cada uno de sus dígitos (dos DNIs a un dígito cambiado, sobrante o
+ * intercambiado comparten una de esas claves) y una clave por banda de su firma
+ * MinHash (LSH: nombres con trigramas muy parecidos coinciden en alguna banda).
+ * Solo se comparan los registros que comparten alguna clave; los bloques de más de
+ * tamanoMaximoBloque registros (apellidos muy comunes) se saltan.
+ *
+ * Las claves se reparten en particiones por su hash para acotar la memoria de cada
+ * pasada: las entradas (clave, registro) de una partición se ordenan y cada tramo
+ * de claves iguales es un bloque. Los pares resultantes se ordenan, se quitan los
+ * repetidos y se puntúan en paralelo en el ForkJoinPool.
+ */
+public class DetectorDuplicados {
+
+    static final int TRAMO_MINIMO = 4096;
+    static final int MAXIMO_DIGITOS_DNI = 8;
+    static final int CLAVES_POR_REGISTRO = 1 + MAXIMO_DIGITOS_DNI + SimilitudNombres.BANDAS;
+
+    private static final int SEMILLA_FONETICA = 1;
+    private static final int SEMILLA_DNI = 2;
+    private static final int SEMILLA_BANDA = 3;
+
+    private final ForkJoinPool pool;
+    private final double umbral;
+    private final int tamanoMaximoBloque;
+
+    public DetectorDuplicados(ForkJoinPool pool, double umbral, int tamanoMaximoBloque) {
+        this.pool = pool;
+        this.umbral = umbral;
+        this.tamanoMaximoBloque = tamanoMaximoBloque;
+    }
+
+    /** Calcula en paralelo los nombres normalizados y las claves de todos los registros. */
+    public Registros preparar(long[] ids, String[] dnis, String[] nombres, String[] apellidos) {
+        Registros registros = new Registros(ids, dnis);
+        pool.invoke(new Preparacion(registros, nombres, apellidos, 0, ids.length));
+        return registros;
+    }
+
+    /** Pares con puntaje >= umbral entre las claves de la partición indicada. */
+    public List<Par> detectar(Registros registros, int particion, int particiones) {
+        long[] entradas = entradasDeParticion(registros, particion, particiones);
+        Arrays.parallelSort(entradas);
+
+        long[] pares = paresCandidatos(entradas);
+        Arrays.parallelSort(pares);
+        int distintos = quitarRepetidos(pares);
+
+        float[] puntajes = new float[distintos];
+        pool.invoke(new Puntuacion(registros, pares, puntajes, 0, distintos));
+
+        List<Par> resultado = new ArrayList<>();
+        for (int i = 0; i < distintos; i++) {
+            if (puntajes[i] >= umbral) {
+                int a = (int) (pares[i] >>> 32);
+                int b = (int) pares[i];
+                resultado.add(new Par(registros.ids[a], registros.ids[b], puntajes[i], motivo(registros, a, b)));
+            }
+        }
+        return resultado;
+    }
+
+    /** Entradas clave << 32 | índice, solo de las claves de esta partición. */
+    private long[] entradasDeParticion(Registros registros, int particion, int particiones) {
+        int[] claves = registros.claves;
+        int cantidad = 0;
+        for (int clave : claves) {
+            if (clave != 0 && Math.floorMod(clave, particiones) == particion) cantidad++;
+        }
+        long[] entradas = new long[cantidad];
+        int n = 0;
+        for (int i = 0; i < claves.length; i++) {
+            int clave = claves[i];
+            if (clave != 0 && Math.floorMod(clave, particiones) == particion) {
+                entradas[n++] = ((long) clave << 32) | (i / CLAVES_POR_REGISTRO);
+            }
+        }
+        return entradas;
+    }
+
+    private long[] paresCandidatos(long[] entradas) {
+        long[] pares = new long[Math.max(16, entradas.length)];
+        int n = 0;
+        int inicio = 0;
+        while (inicio < entradas.length) {
+            int clave = (int) (entradas[inicio] >>> 32);
+            int fin = inicio + 1;
+            while (fin < entradas.length && (int) (entradas[fin] >>> 32) == clave) fin++;
+
+            int tamano = fin - inicio;
+            if (tamano > 1 && tamano <= tamanoMaximoBloque) {
+                long nuevos = (long) tamano * (tamano - 1) / 2;
+                if (n + nuevos > pares.length) {
+                    pares = Arrays.copyOf(pares, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(pares.length * 2L, n + nuevos)));
+                }
+                for (int i = inicio; i < fin; i++) {
+                    int a = (int) entradas[i];
+                    for (int j = i + 1; j < fin; j++) {
+                        int b = (int) entradas[j];
+                        if (a == b) continue;
+                        pares[n++] = a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+                    }
+                }
+            }
+            inicio = fin;
+        }
+        return Arrays.copyOf(pares, n);
+    }
+
+    private static int quitarRepetidos(long[] ordenados) {
+        if (ordenados.length == 0) return 0;
+        int n = 1;
+        for (int i = 1; i < ordenados.length; i++) {
+            if (ordenados[i] != ordenados[n - 1]) {
+                ordenados[n++] = ordenados[i];
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 60% similitud del nombre (Jaro-Winkler sobre las palabras ordenadas) y 40%
+     * cercanía del DNI: mismo DNI 1, a un error 0.9, a dos errores 0.6. El DNI se
+     * mira primero: si ni con el nombre idéntico se alcanza el umbral, el nombre no
+     * se compara (es el caso de casi todos los candidatos que vienen de LSH).
+     */
+    float puntaje(Registros registros, int a, int b) {
+        int distancia = SimilitudNombres.distanciaDni(registros.dnis[a], registros.dnis[b], 2);
+        double dni = distancia == 0 ? 1.0 : distancia == 1 ? 0.9 : distancia == 2 ? 0.6 : 0.0;
+        if (0.6 + 0.4 * dni < umbral) {
+            return (float) (0.4 * dni);
+        }
+        double nombre = SimilitudNombres.jaroWinkler(registros.nombres[a], registros.nombres[b]);
+        return (float) (0.6 * nombre + 0.4 * dni);
+    }
+
+    private static String motivo(Registros registros, int a, int b) {
+        int distancia = SimilitudNombres.distanciaDni(registros.dnis[a], registros.dnis[b], 2);
+        double nombre = SimilitudNombres.jaroWinkler(registros.nombres[a], registros.nombres[b]);
+        String dni = distancia == 0 ? "mismo DNI" : distancia > 2 ? "DNI distinto"
+                : "DNI a " + distancia + (distancia == 1 ? " error" : " errores");
+        return String.format("%s, nombre %.2f", dni, nombre);
+    }
+
+    /** Beneficiarios en arreglos paralelos; claves guarda CLAVES_POR_REGISTRO por registro (0 = sin clave). */
+    public static final class Registros {
+        private final long[] ids;
+        private final String[] dnis;
+        private final String[] nombres;
+        private final int[] claves;
+
+        private Registros(long[] ids, String[] dnis) {
+            this.ids = ids;
+            this.dnis = new String[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                this.dnis[i] = dnis[i] != null ? dnis[i].trim() : "";
+            }
+            this.nombres = new String[ids.length];
+            this.claves = new int[ids.length * CLAVES_POR_REGISTRO];
+        }
+
+        public int getTamano() { return ids.length; }
+
+        private void calcularClaves(int i, String nombres, String apellidos) {
+            String nombre = SimilitudNombres.normalizarNombre(nombres, apellidos);
+            this.nombres[i] = nombre;
+            int base = i * CLAVES_POR_REGISTRO;
+            if (!nombre.isEmpty()) {
+                claves[base] = noCero(SimilitudNombres.hash(SimilitudNombres.fonetica(nombre), SEMILLA_FONETICA));
+                int[] firma = SimilitudNombres.minhash(nombre);
+                for (int banda = 0; banda < SimilitudNombres.BANDAS; banda++) {
+                    long h = banda;
+                    for (int fila = 0; fila < SimilitudNombres.FILAS_POR_BANDA; fila++) {
+                        h = SimilitudNombres.mezclar(h * 31 + firma[banda * SimilitudNombres.FILAS_POR_BANDA + fila]);
+                    }
+                    claves[base + 1 + MAXIMO_DIGITOS_DNI + banda] = noCero((int) (h >>> 32) ^ SEMILLA_BANDA);
+                }
+            }
+            String dni = dnis[i];
+            for (int d = 0; d < Math.min(dni.length(), MAXIMO_DIGITOS_DNI); d++) {
+                String sinDigito = dni.substring(0, d) + dni.substring(d + 1);
+                claves[base + 1 + d] = noCero(SimilitudNombres.hash(sinDigito, SEMILLA_DNI));
+            }
+        }
+
+        private static int noCero(int clave) {
+            return clave != 0 ? clave : 1;
+        }
+    }
+
+    public static final class Par {
+        private final long beneficiarioAId;
+        private final long beneficiarioBId;
+        private final double puntaje;
+        private final String motivo;
+
+        private Par(long beneficiarioAId, long beneficiarioBId, double puntaje, String motivo) {
+            this.beneficiarioAId = Math.min(beneficiarioAId, beneficiarioBId);
+            this.beneficiarioBId = Math.max(beneficiarioAId, beneficiarioBId);
+            this.puntaje = puntaje;
+            this.motivo = motivo;
+        }
+
+        public long getBeneficiarioAId() { return beneficiarioAId; }
+
+        public long getBeneficiarioBId() { return beneficiarioBId; }
+
+        public double getPuntaje() { return puntaje; }
+
+        public String getMotivo() { return motivo; }
+    }
+
+    private static final class Preparacion extends RecursiveAction {
+        private final Registros registros;
+        private final String[] nombres;
+        private final String[] apellidos;
+        private final int desde;
+        private final int hasta;
+
+        private Preparacion(Registros registros, String[] nombres, String[] apellidos, int desde, int hasta) {
+            this.registros = registros;
+            this.nombres = nombres;
+            this.apellidos = apellidos;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= TRAMO_MINIMO) {
+                for (int i = desde; i < hasta; i++) {
+                    registros.calcularClaves(i, nombres[i], apellidos[i]);
+                }
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new Preparacion(registros, nombres, apellidos, desde, medio),
+                    new Preparacion(registros, nombres, apellidos, medio, hasta));
+        }
+    }
+
+    private final class Puntuacion extends RecursiveAction {
+        private final Registros registros;
+        private final long[] pares;
+        private final float[] puntajes;
+        private final int desde;
+        private final int hasta;
+
+        private Puntuacion(Registros registros, long[] pares, float[] puntajes, int desde, int hasta) {
+            this.registros = registros;
+            this.pares = pares;
+            this.puntajes = puntajes;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= TRAMO_MINIMO) {
+                for (int i = desde; i < hasta; i++) {
+                    puntajes[i] = puntaje(registros, (int) (pares[i] >>> 32), (int) pares[i]);
+                }
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new Puntuacion(registros, pares, puntajes, desde, medio),
+                    new Puntuacion(registros, pares, puntajes, medio, hasta));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.ConsumidorEventos;
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.PoliticaPresion;
+import com.beneficencia.almacen.model.Kit;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.repository.KitRepository;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expansiones precalculadas de los kits y cuántos kits completos se pueden armar
+ * con el stock actual.
+ *
+ * Guarda el stock de los productos que forman parte de algún kit y un índice
+ * inverso producto -> kits. Cada cambio de stock confirmado recalcula solo los kits
+ * que contienen ese producto, recorriendo su vector de componentes. Las definiciones
+ * se recargan al modificarse un kit y periódicamente, como AlertaStockIndex, y
+ * los cambios de stock que llegan durante la recarga se vuelven a aplicar sobre
+ * lo leído (también los de productos que recién entran en un kit).
+ */
+@Component
+public class DisponibilidadKits implements ConsumidorEventos {
+
+    private static final long[] SIN_KITS = new long[0];
+
+    @Autowired
+    private KitRepository kitRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    private volatile Map<Long, ExpansionKit> expansiones = Map.of();
+    private volatile Map<Long, long[]> kitsPorProducto = Map.of();
+    private final Map<Long, Integer> stock = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> disponibles = new ConcurrentHashMap<>();
+
+    private final Object recargando = new Object();
+    // Cambios de stock [productoId, cantidad] recibidos durante una recarga; null si no hay ninguna
+    private List<long[]> duranteRecarga;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+        System.out.println("Disponibilidad de kits cargada - kits: " + expansiones.size() +
+                " - productos en kits: " + kitsPorProducto.size());
+    }
+
+    @Scheduled(initialDelayString = "${almacen.kits.recarga-ms:600000}",
+            fixedDelayString = "${almacen.kits.recarga-ms:600000}")
+    public void recargar() {
+        synchronized (recargando) {
+            synchronized (this) {
+                duranteRecarga = new ArrayList<>();
+            }
+            try {
+                recargarDefiniciones();
+            } finally {
+                synchronized (this) {
+                    duranteRecarga = null;
+                }
+            }
+        }
+    }
+
+    private void recargarDefiniciones() {
+        List<Kit> kits = kitRepository.findAllConComponentes();
+        Map<Long, ExpansionKit> nuevas = ExpansionKit.expandirTodos(kits);
+
+        Map<Long, List<Long>> inverso = new HashMap<>();
+        for (ExpansionKit expansion : nuevas.values()) {
+            for (long productoId : expansion.getProductoIds()) {
+                inverso.computeIfAbsent(productoId, id -> new ArrayList<>()).add(expansion.getKitId());
+            }
+        }
+        Map<Long, long[]> nuevoInverso = new HashMap<>();
+        inverso.forEach((productoId, ids) -> nuevoInverso.put(productoId,
+                ids.stream().mapToLong(Long::longValue).toArray()));
+
+        Map<Long, Integer> nuevoStock = new HashMap<>();
+        for (Producto producto : productoRepository.findAllById(inverso.keySet())) {
+            nuevoStock.put(producto.getId(), producto.getCantidad() != null ? producto.getCantidad() : 0);
+        }
+
+        synchronized (this) {
+            stock.clear();
+            stock.putAll(nuevoStock);
+            expansiones = nuevas;
+            kitsPorProducto = nuevoInverso;
+            disponibles.clear();
+            for (ExpansionKit expansion : nuevas.values()) {
+                disponibles.put(expansion.getKitId(), expansion.disponibles(this::stockDe));
+            }
+
+            List<long[]> recibidos = duranteRecarga;
+            duranteRecarga = null;
+            for (long[] cambio : recibidos) {
+                actualizarStock(cambio[0], (int) cambio[1]);
+            }
+        }
+    }
+
+    @Override
+    public String getNombreConsumidor() {
+        return "kits";
+    }
+
+    @Override
+    public boolean acepta(EventoInventario evento) {
+        return evento.getTipo() == EventoInventario.TipoEvento.STOCK_CAMBIADO
+                || evento.getTipo() == EventoInventario.TipoEvento.PRODUCTO_ELIMINADO;
+    }
+
+    @Override
+    public void procesar(List<EventoInventario> lote) {
+        lote.forEach(this::alConfirmarCambio);
+    }
+
+    @Override
+    public PoliticaPresion getPolitica() {
+        return PoliticaPresion.DESCARTAR;
+    }
+
+    @Override
+    public void alPerderEventos(long cantidad) {
+        recargar();
+    }
+
+    public void alConfirmarCambio(EventoInventario evento) {
+        if (evento.getTipo() == EventoInventario.TipoEvento.STOCK_CAMBIADO) {
+            for (Map<String, Object> fila : evento.getFilas()) {
+                Object cantidad = fila.get("cantidad");
+                actualizarStock((Long) fila.get("id"), cantidad != null ? ((Number) cantidad).intValue() : 0);
+            }
+        } else if (evento.getTipo() == EventoInventario.TipoEvento.PRODUCTO_ELIMINADO) {
+            for (Map<String, Object> fila : evento.getFilas()) {
+                actualizarStock((Long) fila.get("id"), 0);
+            }
+        }
+    }
+
+    /** Recalcula solo los kits que usan el producto; los demás productos se ignoran. */
+    synchronized void actualizarStock(Long productoId, int cantidad) {
+        if (duranteRecarga != null) {
+            duranteRecarga.add(new long[]{productoId, cantidad});
+        }
+        long[] kits = kitsPorProducto.getOrDefault(productoId, SIN_KITS);
+        if (kits.length == 0) return;
+
+        stock.put(productoId, cantidad);
+        Map<Long, ExpansionKit> actuales = expansiones;
+        for (long kitId : kits) {
+            ExpansionKit expansion = actuales.get(kitId);
+            if (expansion != null) {
+                disponibles.put(kitId, expansion.disponibles(this::stockDe));
+            }
+        }
+    }
+
+    private int stockDe(long productoId) {
+        return stock.getOrDefault(productoId, 0);
+    }
+
+    /** Expansión precalculada del kit, o null si no existe. */
+    public ExpansionKit obtenerExpansion(Long kitId) {
+        return expansiones.get(kitId);
+    }
+
+    public int obtenerDisponibles(Long kitId) {
+        return disponibles.getOrDefault(kitId, 0);
+    }
+
+    /** Kits activos con su disponibilidad, el producto que la limita y sus componentes. */
+    public List<Map<String, Object>> resumen() {
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (ExpansionKit expansion : expansiones.values()) {
+            if (!expansion.isActivo()) continue;
+
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("id", expansion.getKitId());
+            fila.put("codigo", expansion.getCodigo());
+            fila.put("nombre", expansion.getNombre());
+            fila.put("disponibles", obtenerDisponibles(expansion.getKitId()));
+            fila.put("productoLimitante", expansion.limitante(this::stockDe));
+
+            List<Map<String, Object>> componentes = new ArrayList<>();
+            long[] productoIds = expansion.getProductoIds();
+            int[] cantidades = expansion.getCantidades();
+            for (int i = 0; i < productoIds.length; i++) {
+                Map<String, Object> componente = new LinkedHashMap<>();
+                componente.put("productoId", productoIds[i]);
+                componente.put("cantidad", cantidades[i]);
+                componente.put("stock", stockDe(productoIds[i]));
+                componentes.add(componente);
+            }
+            fila.put("componentes", componentes);
+            filas.add(fila);
+        }
+        return filas;
+    }
+}
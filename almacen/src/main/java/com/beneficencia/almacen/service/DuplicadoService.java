@@ -0,0 +1,246 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.model.Beneficiario;
+import com.beneficencia.almacen.model.DuplicadoBeneficiario;
+import com.beneficencia.almacen.repository.BeneficiarioRepository;
+import com.beneficencia.almacen.repository.DuplicadoBeneficiarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Cola de revisión de beneficiarios duplicados. El trabajo "duplicados" la llena
+ * con {@link DetectorDuplicados}, una partición de claves por tramo; un
+ * administrador revisa cada par y lo fusiona o lo descarta.
+ */
+@Service
+@Transactional
+public class DuplicadoService {
+
+    @Autowired
+    private DuplicadoBeneficiarioRepository duplicadoRepository;
+
+    @Autowired
+    private BeneficiarioRepository beneficiarioRepository;
+
+    @Autowired
+    private LimiteEntregasService limiteEntregasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${almacen.duplicados.umbral:0.8}")
+    private double umbral;
+
+    @Value("${almacen.duplicados.tamano-maximo-bloque:64}")
+    private int tamanoMaximoBloque;
+
+    @Value("${almacen.duplicados.paralelismo:0}")
+    private int paralelismo;
+
+    private ForkJoinPool pool;
+
+    // Padrón de la pasada en curso; se comparte entre los tramos que corren en este nodo
+    private volatile DetectorDuplicados.Registros registros;
+
+    /** Lee todos los beneficiarios y calcula sus claves de bloqueo. */
+    public void prepararPasada() {
+        List<Long> ids = new ArrayList<>();
+        List<String> dnis = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+        List<String> apellidos = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, dni, nombres, apellidos FROM beneficiarios ORDER BY id", resultado -> {
+            ids.add(resultado.getLong("id"));
+            dnis.add(resultado.getString("dni"));
+            nombres.add(resultado.getString("nombres"));
+            apellidos.add(resultado.getString("apellidos"));
+        });
+
+        long[] arregloIds = new long[ids.size()];
+        for (int i = 0; i < arregloIds.length; i++) {
+            arregloIds[i] = ids.get(i);
+        }
+        registros = detector().preparar(arregloIds, dnis.toArray(new String[0]),
+                nombres.toArray(new String[0]), apellidos.toArray(new String[0]));
+    }
+
+    /**
+     * Detecta los pares de una partición y los agrega a la cola. Los pares que ya
+     * estaban (pendientes o ya revisados) se ignoran gracias a la restricción única.
+     *
+     * @return pares detectados en la partición, incluidos los que ya estaban
+     */
+    public int procesarParticion(int particion, int particiones) {
+        if (registros == null) {
+            // El tramo anterior corrió en otro nodo
+            prepararPasada();
+        }
+        List<DetectorDuplicados.Par> pares = detector().detectar(registros, particion, particiones);
+        if (pares.isEmpty()) return 0;
+
+        List<Object[]> filas = new ArrayList<>(pares.size());
+        for (DetectorDuplicados.Par par : pares) {
+            filas.add(new Object[]{par.getBeneficiarioAId(), par.getBeneficiarioBId(), par.getPuntaje(), par.getMotivo()});
+        }
+        jdbcTemplate.batchUpdate("INSERT IGNORE INTO duplicados_beneficiario " +
+                "(beneficiario_a_id, beneficiario_b_id, puntaje, motivo, estado, fecha_deteccion) " +
+                "VALUES (?, ?, ?, ?, 'PENDIENTE', NOW())", filas);
+        return pares.size();
+    }
+
+    public void terminarPasada() {
+        registros = null;
+    }
+
+    public int getCantidadRegistros() {
+        DetectorDuplicados.Registros actuales = registros;
+        return actuales != null ? actuales.getTamano() : 0;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> listarPendientes(int limite) {
+        List<DuplicadoBeneficiario> pares = duplicadoRepository.findByEstadoOrderByPuntajeDesc(
+                DuplicadoBeneficiario.PENDIENTE, PageRequest.of(0, Math.max(1, limite)));
+
+        Set<Long> ids = new HashSet<>();
+        pares.forEach(par -> {
+            ids.add(par.getBeneficiarioAId());
+            ids.add(par.getBeneficiarioBId());
+        });
+        Map<Long, Beneficiario> beneficiarios = new HashMap<>();
+        beneficiarioRepository.findAllById(ids).forEach(b -> beneficiarios.put(b.getId(), b));
+
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (DuplicadoBeneficiario par : pares) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("id", par.getId());
+            fila.put("puntaje", par.getPuntaje());
+            fila.put("motivo", par.getMotivo());
+            fila.put("fechaDeteccion", par.getFechaDeteccion());
+            fila.put("beneficiarioA", describir(beneficiarios.get(par.getBeneficiarioAId()), par.getBeneficiarioAId()));
+            fila.put("beneficiarioB", describir(beneficiarios.get(par.getBeneficiarioBId()), par.getBeneficiarioBId()));
+            filas.add(fila);
+        }
+        return filas;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> resumen() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        for (String estado : List.of(DuplicadoBeneficiario.PENDIENTE, DuplicadoBeneficiario.FUSIONADO,
+                DuplicadoBeneficiario.DESCARTADO, DuplicadoBeneficiario.OBSOLETO)) {
+            resumen.put(estado.toLowerCase(), duplicadoRepository.countByEstado(estado));
+        }
+        return resumen;
+    }
+
+    /**
+     * Fusiona el par en el beneficiario conservarId: sus órdenes y campañas pasan al
+     * que se conserva, los datos de contacto que le falten se completan con los del
+     * otro y el otro se elimina. Los demás pares pendientes del eliminado quedan
+     * obsoletos; el DNI que figura en cada orden no cambia.
+     */
+    public DuplicadoBeneficiario fusionar(Long id, Long conservarId, String usuario) {
+        DuplicadoBeneficiario par = obtenerPendiente(id);
+        Long eliminarId;
+        if (par.getBeneficiarioAId().equals(conservarId)) {
+            eliminarId = par.getBeneficiarioBId();
+        } else if (par.getBeneficiarioBId().equals(conservarId)) {
+            eliminarId = par.getBeneficiarioAId();
+        } else {
+            throw new RuntimeException("El beneficiario a conservar debe ser uno de los dos del par");
+        }
+
+        Beneficiario conservar = beneficiarioRepository.findById(conservarId)
+                .orElseThrow(() -> new RuntimeException("Beneficiario no encontrado: " + conservarId));
+        Beneficiario eliminar = beneficiarioRepository.findById(eliminarId)
+                .orElseThrow(() -> new RuntimeException("Beneficiario no encontrado: " + eliminarId));
+
+        if (esVacio(conservar.getTelefono())) conservar.setTelefono(eliminar.getTelefono());
+        if (esVacio(conservar.getDireccion())) conservar.setDireccion(eliminar.getDireccion());
+        conservar.setFechaActualizacion(LocalDateTime.now());
+
+        int ordenes = jdbcTemplate.update("UPDATE ordenes_salida SET beneficiario_id = ? WHERE beneficiario_id = ?",
+                conservarId, eliminarId);
+        // También las órdenes de los años archivados, que no tienen clave foránea
+        jdbcTemplate.update("UPDATE ordenes_salida" + ArchivoService.SUFIJO + " SET beneficiario_id = ? WHERE beneficiario_id = ?",
+                conservarId, eliminarId);
+        jdbcTemplate.update("UPDATE campana_beneficiarios SET beneficiario_id = ? WHERE beneficiario_id = ?",
+                conservarId, eliminarId);
+        beneficiarioRepository.delete(eliminar);
+
+        par.setEstado(DuplicadoBeneficiario.FUSIONADO);
+        par.setFechaRevision(LocalDateTime.now());
+        par.setRevisadoPor(usuario);
+        duplicadoRepository.save(par);
+        duplicadoRepository.flush();
+        duplicadoRepository.marcarObsoletos(eliminarId);
+
+        if (ordenes > 0 && limiteEntregasService.estaActivo()) {
+            // Las órdenes del eliminado cuentan ahora para el que se conserva
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    limiteEntregasService.recargar();
+                }
+            });
+        }
+        System.out.println("Beneficiario " + eliminar.getDni() + " fusionado en " + conservar.getDni() +
+                " por " + usuario + " - órdenes reasignadas: " + ordenes);
+        return par;
+    }
+
+    public DuplicadoBeneficiario descartar(Long id, String usuario) {
+        DuplicadoBeneficiario par = obtenerPendiente(id);
+        par.setEstado(DuplicadoBeneficiario.DESCARTADO);
+        par.setFechaRevision(LocalDateTime.now());
+        par.setRevisadoPor(usuario);
+        return duplicadoRepository.save(par);
+    }
+
+    private DuplicadoBeneficiario obtenerPendiente(Long id) {
+        DuplicadoBeneficiario par = duplicadoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Par de duplicados no encontrado: " + id));
+        if (!DuplicadoBeneficiario.PENDIENTE.equals(par.getEstado())) {
+            throw new RuntimeException("El par ya fue revisado (" + par.getEstado() + ")");
+        }
+        return par;
+    }
+
+    private Map<String, Object> describir(Beneficiario beneficiario, Long id) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("id", id);
+        if (beneficiario != null) {
+            datos.put("dni", beneficiario.getDni());
+            datos.put("nombres", beneficiario.getNombres());
+            datos.put("apellidos", beneficiario.getApellidos());
+            datos.put("telefono", beneficiario.getTelefono());
+            datos.put("direccion", beneficiario.getDireccion());
+            datos.put("fechaRegistro", beneficiario.getFechaRegistro());
+        }
+        return datos;
+    }
+
+    private static boolean esVacio(String texto) {
+        return texto == null || texto.isBlank();
+    }
+
+    private DetectorDuplicados detector() {
+        synchronized (this) {
+            if (pool == null) {
+                int hilos = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+                pool = new ForkJoinPool(hilos);
+            }
+        }
+        return new DetectorDuplicados(pool, umbral, tamanoMaximoBloque);
+    }
+}
@@ -8,7 +8,7 @@ import jakarta.persistence.Query;
 import java.util.*;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class EstadisticaService {
 
     @Autowired
@@ -0,0 +1,136 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.model.Kit;
+import com.beneficencia.almacen.model.KitComponente;
+
+import java.util.*;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Lista de materiales de un kit ya aplanada: vectores paralelos con los productos
+ * (ordenados por id) y las unidades de cada uno por kit. Los subkits quedan
+ * multiplicados y los productos repetidos sumados, así que despachar N kits o
+ * calcular cuántos se pueden armar recorre solo estos arreglos.
+ */
+public final class ExpansionKit {
+
+    private final Long kitId;
+    private final String codigo;
+    private final String nombre;
+    private final boolean activo;
+    private final long[] productoIds;
+    private final int[] cantidades;
+
+    private ExpansionKit(Kit kit, SortedMap<Long, Long> unidades) {
+        this.kitId = kit.getId();
+        this.codigo = kit.getCodigo();
+        this.nombre = kit.getNombre();
+        this.activo = kit.isActivo();
+        this.productoIds = new long[unidades.size()];
+        this.cantidades = new int[unidades.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> entrada : unidades.entrySet()) {
+            productoIds[i] = entrada.getKey();
+            cantidades[i] = Math.toIntExact(entrada.getValue());
+            i++;
+        }
+    }
+
+    /**
+     * Expande todos los kits recibidos, que deben traer sus componentes cargados.
+     * Falla si un kit se contiene a sí mismo directa o indirectamente.
+     */
+    public static Map<Long, ExpansionKit> expandirTodos(Collection<Kit> kits) {
+        Map<Long, Kit> porId = new HashMap<>();
+        for (Kit kit : kits) {
+            porId.put(kit.getId(), kit);
+        }
+        Map<Long, SortedMap<Long, Long>> aplanados = new HashMap<>();
+        Map<Long, ExpansionKit> expansiones = new LinkedHashMap<>();
+        for (Kit kit : kits) {
+            SortedMap<Long, Long> unidades = aplanar(kit.getId(), porId, aplanados, new LinkedHashSet<>());
+            expansiones.put(kit.getId(), new ExpansionKit(kit, unidades));
+        }
+        return expansiones;
+    }
+
+    private static SortedMap<Long, Long> aplanar(Long kitId, Map<Long, Kit> porId,
+                                                 Map<Long, SortedMap<Long, Long>> aplanados, Set<Long> enCurso) {
+        SortedMap<Long, Long> hecho = aplanados.get(kitId);
+        if (hecho != null) return hecho;
+
+        Kit kit = porId.get(kitId);
+        if (kit == null) {
+            throw new RuntimeException("Kit no encontrado: " + kitId);
+        }
+        if (!enCurso.add(kitId)) {
+            throw new RuntimeException("El kit " + kit.getCodigo() + " se contiene a sí mismo");
+        }
+
+        SortedMap<Long, Long> unidades = new TreeMap<>();
+        for (KitComponente componente : kit.getComponentes()) {
+            long cantidad = componente.getCantidad();
+            if (componente.getProducto() != null) {
+                unidades.merge(componente.getProducto().getId(), cantidad, Long::sum);
+            } else if (componente.getSubkit() != null) {
+                aplanar(componente.getSubkit().getId(), porId, aplanados, enCurso)
+                        .forEach((productoId, porSubkit) -> unidades.merge(productoId, porSubkit * cantidad, Long::sum));
+            }
+        }
+        enCurso.remove(kitId);
+        aplanados.put(kitId, unidades);
+        return unidades;
+    }
+
+    /** Kits completos que alcanzan con el stock dado; 0 si el kit no tiene productos. */
+    public int disponibles(LongToIntFunction stock) {
+        if (productoIds.length == 0) return 0;
+        int minimo = Integer.MAX_VALUE;
+        for (int i = 0; i < productoIds.length; i++) {
+            minimo = Math.min(minimo, Math.max(0, stock.applyAsInt(productoIds[i])) / cantidades[i]);
+            if (minimo == 0) break;
+        }
+        return minimo;
+    }
+
+    /** Producto que limita el armado de kits con el stock dado, o null si no tiene productos. */
+    public Long limitante(LongToIntFunction stock) {
+        Long limitante = null;
+        int minimo = Integer.MAX_VALUE;
+        for (int i = 0; i < productoIds.length; i++) {
+            int alcanza = Math.max(0, stock.applyAsInt(productoIds[i])) / cantidades[i];
+            if (alcanza < minimo) {
+                minimo = alcanza;
+                limitante = productoIds[i];
+            }
+        }
+        return limitante;
+    }
+
+    /** Unidades de cada producto para despachar la cantidad de kits indicada. */
+    public Map<Long, Integer> multiplicar(int kits) {
+        Map<Long, Integer> unidades = new LinkedHashMap<>();
+        for (int i = 0; i < productoIds.length; i++) {
+            unidades.put(productoIds[i], Math.multiplyExact(cantidades[i], kits));
+        }
+        return unidades;
+    }
+
+    public boolean contiene(long productoId) {
+        return Arrays.binarySearch(productoIds, productoId) >= 0;
+    }
+
+    public Long getKitId() { return kitId; }
+
+    public String getCodigo() { return codigo; }
+
+    public String getNombre() { return nombre; }
+
+    public boolean isActivo() { return activo; }
+
+    public long[] getProductoIds() { return productoIds.clone(); }
+
+    public int[] getCantidades() { return cantidades.clone(); }
+
+    public int getTamano() { return productoIds.length; }
+}
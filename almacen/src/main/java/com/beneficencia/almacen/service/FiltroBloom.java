@@ -0,0 +1,104 @@
+package com.beneficencia.almacen.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre cadenas: responde "seguro que no está" o "puede estar".
+ *
+ * Se dimensiona con la cantidad esperada de claves y la tasa de falsos positivos
+ * deseada: m = -n·ln(p) / ln(2)² bits y k = (m/n)·ln(2) funciones hash. Las k
+ * posiciones salen de dos hashes de 64 bits (h1 + i·h2), así cada clave se recorre
+ * una sola vez. Los bits se marcan con CAS, de modo que agregar y consultar pueden
+ * ocurrir a la vez desde varios hilos. No admite borrar claves.
+ */
+class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int cantidadHashes;
+    private final long capacidad;
+    private final AtomicLong bitsMarcados = new AtomicLong();
+    private final AtomicLong claves = new AtomicLong();
+
+    FiltroBloom(long capacidad, double tasaFalsosPositivos) {
+        long n = Math.max(1, capacidad);
+        long m = (long) Math.ceil(-n * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, (m + 63) / 64 * 64);
+        if (m / 64 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filtro demasiado grande para " + capacidad + " claves");
+        }
+        this.bits = new AtomicLongArray((int) (m / 64));
+        this.cantidadBits = m;
+        this.cantidadHashes = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        this.capacidad = n;
+    }
+
+    void agregar(String clave) {
+        long h1 = hash(clave);
+        long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        boolean nueva = false;
+        for (int i = 0; i < cantidadHashes; i++) {
+            long posicion = Math.floorMod(h1 + i * h2, cantidadBits);
+            int palabra = (int) (posicion >>> 6);
+            long mascara = 1L << posicion;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) break;
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+            if ((actual & mascara) == 0) {
+                bitsMarcados.incrementAndGet();
+                nueva = true;
+            }
+        }
+        if (nueva) {
+            claves.incrementAndGet();
+        }
+    }
+
+    boolean puedeContener(String clave) {
+        long h1 = hash(clave);
+        long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < cantidadHashes; i++) {
+            long posicion = Math.floorMod(h1 + i * h2, cantidadBits);
+            if ((bits.get((int) (posicion >>> 6)) & (1L << posicion)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Claves agregadas que marcaron al menos un bit nuevo (cota inferior de las distintas). */
+    long getClaves() { return claves.get(); }
+
+    long getCapacidad() { return capacidad; }
+
+    long getCantidadBits() { return cantidadBits; }
+
+    int getCantidadHashes() { return cantidadHashes; }
+
+    /** Probabilidad de falso positivo con la ocupación actual: (bits marcados / m)^k. */
+    double tasaFalsosPositivosEstimada() {
+        return Math.pow((double) bitsMarcados.get() / cantidadBits, cantidadHashes);
+    }
+
+    /** FNV-1a de 64 bits sobre los caracteres, terminado con la mezcla de MurmurHash3. */
+    private static long hash(String clave) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < clave.length(); i++) {
+            h ^= clave.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mezclar(h);
+    }
+
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
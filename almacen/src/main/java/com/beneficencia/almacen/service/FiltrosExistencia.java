@@ -0,0 +1,310 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.BusInvalidacion;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Filtros de Bloom delante de las consultas de existencia por DNI, código de producto
+ * y número de OA. Si el filtro responde "no está" se evita la consulta a la base; si
+ * responde "puede estar" se consulta como siempre.
+ *
+ * Cada filtro se arma al iniciar con un solo SELECT de la columna y se dimensiona
+ * para el doble de las filas actuales. Las claves nuevas se agregan desde
+ * ExistenciaEntityListener al escribir la entidad y otra vez al confirmar (por si
+ * la reconstrucción leyó antes del commit), y se avisan a los demás nodos por el
+ * bus. Los borrados no se quitan: solo dejan falsos positivos hasta la siguiente
+ * reconstrucción periódica, que también corrige escrituras hechas fuera de JPA.
+ * Mientras un filtro no está listo todas las consultas van a la base.
+ *
+ * Como los avisos entre nodos llegan con retraso, un "no está" puede ser falso
+ * durante unos instantes. Por eso los filtros solo se usan en consultas de pantalla
+ * (verificar-dni, validaciones del formulario); las altas y la numeración consultan
+ * siempre la base antes de insertar.
+ */
+@Component
+public class FiltrosExistencia {
+
+    private static final String CANAL = "EXISTENCIA";
+    private static final long CAPACIDAD_MINIMA = 10_000;
+
+    public enum Tipo {
+        DNI("SELECT dni FROM beneficiarios"),
+        CODIGO_PRODUCTO("SELECT codigo FROM productos"),
+        NUMERO_OA("SELECT numero_oa FROM ordenes_abastecimiento");
+
+        private final String consulta;
+
+        Tipo(String consulta) {
+            this.consulta = consulta;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BusInvalidacion bus;
+
+    @Value("${almacen.existencia.tasa-falsos-positivos:0.01}")
+    private double tasaFalsosPositivos;
+
+    private final Map<Tipo, Filtro> filtros = new EnumMap<>(Tipo.class);
+
+    public FiltrosExistencia() {
+        for (Tipo tipo : Tipo.values()) {
+            filtros.put(tipo, new Filtro());
+        }
+    }
+
+    @PostConstruct
+    public void suscribir() {
+        bus.suscribir(CANAL, this::recibirDeOtroNodo);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+        StringBuilder detalle = new StringBuilder();
+        filtros.forEach((tipo, filtro) -> detalle.append(" - ").append(tipo).append(": ").append(filtro.actual != null ? filtro.actual.getClaves() : 0));
+        System.out.println("Filtros de existencia cargados" + detalle);
+    }
+
+    /**
+     * Reconstruye cada filtro desde la base, con el tamaño ajustado a las filas
+     * actuales. Las claves que llegan mientras se lee van a los dos filtros.
+     */
+    @Scheduled(initialDelayString = "${almacen.existencia.recarga-ms:3600000}",
+            fixedDelayString = "${almacen.existencia.recarga-ms:3600000}")
+    public void recargar() {
+        for (Tipo tipo : Tipo.values()) {
+            try {
+                reconstruir(tipo);
+            } catch (Exception e) {
+                System.err.println("Error al reconstruir el filtro de existencia " + tipo + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void reconstruir(Tipo tipo) {
+        Filtro filtro = filtros.get(tipo);
+        Long filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (" + tipo.consulta + ") t", Long.class);
+        FiltroBloom nuevo = new FiltroBloom(Math.max(CAPACIDAD_MINIMA, 2 * (filas != null ? filas : 0)), tasaFalsosPositivos);
+
+        synchronized (filtro) {
+            filtro.enConstruccion = nuevo;
+        }
+        try {
+            jdbcTemplate.query(tipo.consulta, resultado -> {
+                String clave = resultado.getString(1);
+                if (clave != null) {
+                    nuevo.agregar(normalizar(clave));
+                }
+            });
+            synchronized (filtro) {
+                filtro.actual = nuevo;
+                filtro.reiniciarContadores();
+            }
+        } finally {
+            synchronized (filtro) {
+                filtro.enConstruccion = null;
+            }
+        }
+    }
+
+    /**
+     * Devuelve false sin ir a la base si el filtro descarta la clave; en otro caso
+     * delega en la consulta y registra si el "puede estar" fue un falso positivo.
+     */
+    public boolean existe(Tipo tipo, String clave, Predicate<String> consulta) {
+        if (!puedeExistir(tipo, clave)) {
+            return false;
+        }
+        boolean existe = consulta.test(clave);
+        registrarConsulta(tipo, clave, existe);
+        return existe;
+    }
+
+    /** Igual que {@link #existe} para búsquedas que devuelven la entidad. */
+    public <T> Optional<T> buscar(Tipo tipo, String clave, Function<String, Optional<T>> consulta) {
+        if (!puedeExistir(tipo, clave)) {
+            return Optional.empty();
+        }
+        Optional<T> resultado = consulta.apply(clave);
+        registrarConsulta(tipo, clave, resultado.isPresent());
+        return resultado;
+    }
+
+    private boolean puedeExistir(Tipo tipo, String clave) {
+        Filtro filtro = filtros.get(tipo);
+        FiltroBloom actual = filtro.actual;
+        if (actual == null || clave == null || clave.isBlank()) {
+            return true;
+        }
+        filtro.consultas.incrementAndGet();
+        if (!actual.puedeContener(normalizar(clave))) {
+            filtro.descartadas.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void registrarConsulta(Tipo tipo, String clave, boolean existe) {
+        Filtro filtro = filtros.get(tipo);
+        if (filtro.actual == null || clave == null || clave.isBlank()) {
+            return;
+        }
+        if (existe) {
+            filtro.confirmadas.incrementAndGet();
+        } else {
+            filtro.falsosPositivos.incrementAndGet();
+        }
+    }
+
+    /**
+     * Agrega la clave ya mismo (para consultas dentro de la misma transacción) y de
+     * nuevo al confirmar, cuando además se avisa a los otros nodos. Las claves de una
+     * transacción se publican juntas, en un solo aviso.
+     *
+     * Con siFalta no se hace nada si el filtro ya responde "puede estar" y no hay una
+     * reconstrucción en curso. Si esa respuesta era un falso positivo, los otros
+     * nodos no se enteran de la clave hasta su próxima reconstrucción.
+     */
+    public void agregar(Tipo tipo, String clave, boolean siFalta) {
+        if (clave == null || clave.isBlank()) return;
+        if (siFalta) {
+            Filtro filtro = filtros.get(tipo);
+            synchronized (filtro) {
+                if (filtro.actual != null && filtro.enConstruccion == null
+                        && filtro.actual.puedeContener(normalizar(clave))) {
+                    return;
+                }
+            }
+        }
+        agregarLocal(tipo, clave);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bus.publicar(CANAL, List.of(tipo.name() + ":" + clave));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<String> pendientes = (List<String>) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            List<String> nuevas = new ArrayList<>();
+            pendientes = nuevas;
+            TransactionSynchronizationManager.bindResource(this, nuevas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (String pendiente : nuevas) {
+                        int separador = pendiente.indexOf(':');
+                        agregarLocal(Tipo.valueOf(pendiente.substring(0, separador)), pendiente.substring(separador + 1));
+                    }
+                    bus.publicar(CANAL, nuevas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(FiltrosExistencia.this);
+                }
+            });
+        }
+        pendientes.add(tipo.name() + ":" + clave);
+    }
+
+    private void agregarLocal(Tipo tipo, String clave) {
+        Filtro filtro = filtros.get(tipo);
+        String normalizada = normalizar(clave);
+        synchronized (filtro) {
+            if (filtro.actual != null) filtro.actual.agregar(normalizada);
+            if (filtro.enConstruccion != null) filtro.enConstruccion.agregar(normalizada);
+        }
+    }
+
+    private void recibirDeOtroNodo(List<String> claves) {
+        for (String clave : claves) {
+            int separador = clave.indexOf(':');
+            if (separador < 0) continue;
+            try {
+                agregarLocal(Tipo.valueOf(clave.substring(0, separador)), clave.substring(separador + 1));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Aviso de existencia no reconocido: " + clave);
+            }
+        }
+    }
+
+    /** Estado y métricas de cada filtro desde su última reconstrucción. */
+    public List<Map<String, Object>> resumen() {
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        filtros.forEach((tipo, filtro) -> {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("tipo", tipo.name());
+            FiltroBloom actual = filtro.actual;
+            fila.put("listo", actual != null);
+            if (actual != null) {
+                long descartadas = filtro.descartadas.get();
+                long falsosPositivos = filtro.falsosPositivos.get();
+                fila.put("claves", actual.getClaves());
+                fila.put("capacidad", actual.getCapacidad());
+                fila.put("bits", actual.getCantidadBits());
+                fila.put("hashes", actual.getCantidadHashes());
+                fila.put("tasaEstimada", actual.tasaFalsosPositivosEstimada());
+                fila.put("consultas", filtro.consultas.get());
+                fila.put("descartadas", descartadas);
+                fila.put("confirmadas", filtro.confirmadas.get());
+                fila.put("falsosPositivos", falsosPositivos);
+                // Entre las claves que no existen, qué parte dejó pasar el filtro
+                fila.put("tasaObservada", descartadas + falsosPositivos > 0
+                        ? (double) falsosPositivos / (descartadas + falsosPositivos) : 0.0);
+            }
+            resultado.add(fila);
+        });
+        return resultado;
+    }
+
+    /**
+     * MySQL compara con intercalaciones que ignoran mayúsculas y acentos, así que el
+     * filtro guarda la forma sin acentos, en minúsculas y sin espacios al final: dos
+     * claves que la base considera iguales caen en los mismos bits.
+     */
+    static String normalizar(String clave) {
+        String sinAcentos = Normalizer.normalize(clave, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinAcentos.toLowerCase(Locale.ROOT).stripTrailing();
+    }
+
+    private static final class Filtro {
+        private volatile FiltroBloom actual;
+        private FiltroBloom enConstruccion;
+        private final AtomicLong consultas = new AtomicLong();
+        private final AtomicLong descartadas = new AtomicLong();
+        private final AtomicLong confirmadas = new AtomicLong();
+        private final AtomicLong falsosPositivos = new AtomicLong();
+
+        private void reiniciarContadores() {
+            consultas.set(0);
+            descartadas.set(0);
+            confirmadas.set(0);
+            falsosPositivos.set(0);
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.model.OrdenAbastecimiento;
+import com.beneficencia.almacen.model.OrdenAbastecimientoItem;
+import com.beneficencia.almacen.model.OrdenSalida;
+import com.beneficencia.almacen.model.OrdenSalidaItem;
+import com.beneficencia.almacen.model.Proveedor;
+import com.beneficencia.almacen.pdf.ColumnaPdf;
+import com.beneficencia.almacen.pdf.DocumentoPdf;
+import com.beneficencia.almacen.pdf.EstiloCelda;
+import com.beneficencia.almacen.pdf.EstilosPdf;
+import com.beneficencia.almacen.pdf.TablaPdf;
+import com.beneficencia.almacen.repository.OrdenAbastecimientoRepository;
+import com.beneficencia.almacen.repository.OrdenSalidaRepository;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Impresión de muchas órdenes de salida o de abastecimiento en un solo PDF.
+ *
+ * Las órdenes se cargan de a almacen.impresion.lote con una consulta con JOIN FETCH
+ * de sus items y productos, así que un lote entero son unas pocas consultas. Cada
+ * orden se dibuja como un PDF propio en el pool de impresión y los PDFs se copian
+ * al flujo de salida en el orden pedido, a medida que están listos: mientras se
+ * copia un lote ya se dibuja el siguiente, y nunca hay más de dos lotes en memoria.
+ *
+ * Las páginas replican las vistas imprimir-orden-salida e imprimir-orden-abastecimiento.
+ */
+@Service
+public class ImpresionLoteService {
+
+    private static final String INSTITUCION = "SOCIEDAD DE BENEFICENCIA DE LAMBAYEQUE";
+    private static final DateTimeFormatter FECHA = DocumentoPdf.FECHA;
+    private static final DateTimeFormatter FECHA_HORA = DocumentoPdf.FECHA_HORA;
+
+    private static final Font TITULO = EstilosPdf.DOCUMENTO_TITULO;
+    private static final Font SUBTITULO = EstilosPdf.DOCUMENTO_SUBTITULO;
+    private static final Font SECCION = EstilosPdf.DOCUMENTO_SECCION;
+    private static final Font ETIQUETA = EstilosPdf.DOCUMENTO_ETIQUETA;
+    private static final Font TEXTO = EstilosPdf.DOCUMENTO_TEXTO;
+    private static final Font PIE = EstilosPdf.DOCUMENTO_PIE;
+
+    private static final EstiloCelda ENCABEZADO = EstiloCelda.ENCABEZADO.conFuente(ETIQUETA).conRelleno(4);
+    private static final EstiloCelda IZQUIERDA = EstiloCelda.TEXTO.conFuente(TEXTO).conRelleno(4);
+    private static final EstiloCelda CENTRO = IZQUIERDA.conAlineacion(Element.ALIGN_CENTER);
+    private static final EstiloCelda DERECHA = IZQUIERDA.conAlineacion(Element.ALIGN_RIGHT);
+    private static final EstiloCelda TOTAL = DERECHA.conFuente(ETIQUETA);
+
+    private static final ColumnaPdf[] COLUMNAS_SALIDA = {
+            new ColumnaPdf("#", 8f, CENTRO),
+            new ColumnaPdf("Producto", 72f, IZQUIERDA),
+            new ColumnaPdf("Cantidad", 20f, CENTRO)
+    };
+
+    private static final ColumnaPdf[] COLUMNAS_ABASTECIMIENTO = {
+            new ColumnaPdf("#", 6f, CENTRO),
+            new ColumnaPdf("Descripción", 40f, IZQUIERDA),
+            new ColumnaPdf("Unidad", 12f, CENTRO),
+            new ColumnaPdf("Cantidad", 12f, CENTRO),
+            new ColumnaPdf("Precio Unitario (S/)", 15f, DERECHA),
+            new ColumnaPdf("Subtotal (S/)", 15f, DERECHA)
+    };
+
+    private static final String SIN_PRODUCTOS = "No hay productos registrados";
+
+    // Helvetica no tiene el ✓ de la vista HTML
+    private static final String[] OBSERVACIONES_SALIDA = {
+            "- La presente orden de salida ha sido generada según los procedimientos establecidos.",
+            "- Los productos han sido verificados y autorizados para su salida.",
+            "- La cantidad especificada ha sido descontada del inventario del almacén.",
+            "- Este documento sirve como comprobante oficial de salida de productos."
+    };
+
+    @Autowired
+    private OrdenSalidaRepository ordenSalidaRepository;
+
+    @Autowired
+    private OrdenAbastecimientoRepository ordenAbastecimientoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${almacen.impresion.paralelismo:0}")
+    private int paralelismo;
+
+    @Value("${almacen.impresion.lote:100}")
+    private int tamanoLote;
+
+    @Value("${almacen.impresion.maximo-ordenes:5000}")
+    private int maximoOrdenes;
+
+    private final Object bloqueo = new Object();
+    private ForkJoinPool pool;
+
+    @FunctionalInterface
+    private interface Dibujo<T> {
+        void dibujar(Document documento, T orden) throws DocumentException;
+    }
+
+    /**
+     * Ids de las órdenes de salida a imprimir: las pedidas (en ese orden, sin
+     * repetidas ni inexistentes) o, si no hay, las del rango de fechas.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> resolverOrdenesSalida(LocalDate desde, LocalDate hasta, List<Long> ids) {
+        return resolver(desde, hasta, ids, ordenSalidaRepository::findIdsByFechaSalidaBetween,
+                ordenSalidaRepository::findIdsExistentes);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> resolverOrdenesAbastecimiento(LocalDate desde, LocalDate hasta, List<Long> ids) {
+        return resolver(desde, hasta, ids, ordenAbastecimientoRepository::findIdsByFechaOABetween,
+                ordenAbastecimientoRepository::findIdsExistentes);
+    }
+
+    /**
+     * Escribe el PDF en la salida a medida que se arma. Si algo falla a mitad de
+     * camino la salida queda truncada: por eso los ids se resuelven antes.
+     */
+    public void imprimirOrdenesSalida(List<Long> ids, OutputStream salida) {
+        String generado = LocalDateTime.now().format(FECHA_HORA);
+        imprimir(ids, salida, ordenSalidaRepository::findByIdInWithItems, OrdenSalida::getId,
+                (documento, orden) -> dibujarOrdenSalida(documento, orden, generado));
+    }
+
+    public void imprimirOrdenesAbastecimiento(List<Long> ids, OutputStream salida) {
+        String generado = LocalDateTime.now().format(FECHA_HORA);
+        imprimir(ids, salida, ordenAbastecimientoRepository::findByIdInWithItems, OrdenAbastecimiento::getId,
+                (documento, orden) -> dibujarOrdenAbastecimiento(documento, orden, generado));
+    }
+
+    private List<Long> resolver(LocalDate desde, LocalDate hasta, List<Long> ids,
+                                BiFunction<LocalDate, LocalDate, List<Long>> porFechas,
+                                Function<List<Long>, List<Long>> existentes) {
+        List<Long> resultado;
+        if (ids != null && !ids.isEmpty()) {
+            resultado = new ArrayList<>(new LinkedHashSet<>(ids));
+            validarCantidad(resultado.size());
+            Set<Long> encontrados = new HashSet<>();
+            for (List<Long> tramo : tramos(resultado)) {
+                encontrados.addAll(existentes.apply(tramo));
+            }
+            resultado.removeIf(id -> !encontrados.contains(id));
+        } else if (desde != null && hasta != null) {
+            if (hasta.isBefore(desde)) {
+                throw new RuntimeException("La fecha final no puede ser anterior a la inicial");
+            }
+            resultado = porFechas.apply(desde, hasta);
+        } else {
+            throw new RuntimeException("Indique un rango de fechas o una lista de órdenes");
+        }
+        validarCantidad(resultado.size());
+        return resultado;
+    }
+
+    private void validarCantidad(int cantidad) {
+        if (cantidad > maximoOrdenes) {
+            throw new RuntimeException("Se pidieron " + cantidad + " órdenes; el máximo por impresión es " + maximoOrdenes);
+        }
+    }
+
+    private <T> void imprimir(List<Long> ids, OutputStream salida, Function<List<Long>, List<T>> cargar,
+                              Function<T, Long> idDe, Dibujo<T> dibujo) {
+        if (ids.isEmpty()) {
+            throw new RuntimeException("No hay órdenes para imprimir");
+        }
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        ForkJoinPool hilos = obtenerPool();
+        Deque<Future<byte[]>> enCurso = new ArrayDeque<>();
+        Document documento = new Document(PageSize.A4);
+        try {
+            PdfCopy copia = new PdfCopy(documento, salida);
+            documento.open();
+            for (List<Long> tramo : tramos(ids)) {
+                // Las órdenes salen de la transacción con todo lo que se dibuja ya cargado
+                List<T> ordenes = lectura.execute(estado -> enOrden(cargar.apply(tramo), tramo, idDe));
+                for (T orden : ordenes) {
+                    enCurso.add(hilos.submit(() -> dibujar(orden, dibujo)));
+                }
+                while (enCurso.size() > tamanoLote) {
+                    agregar(copia, enCurso.poll().get());
+                }
+            }
+            while (!enCurso.isEmpty()) {
+                agregar(copia, enCurso.poll().get());
+            }
+            documento.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Impresión interrumpida");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error al dibujar una orden: " + e.getCause().getMessage(), e.getCause());
+        } catch (DocumentException | IOException e) {
+            throw new RuntimeException("Error al generar el PDF: " + e.getMessage(), e);
+        } finally {
+            enCurso.forEach(pendiente -> pendiente.cancel(true));
+        }
+    }
+
+    private List<List<Long>> tramos(List<Long> ids) {
+        int tamano = Math.max(1, tamanoLote);
+        List<List<Long>> tramos = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += tamano) {
+            tramos.add(ids.subList(i, Math.min(i + tamano, ids.size())));
+        }
+        return tramos;
+    }
+
+    /** La consulta con IN no respeta el orden pedido; las borradas entretanto se omiten. */
+    private static <T> List<T> enOrden(List<T> cargadas, List<Long> ids, Function<T, Long> idDe) {
+        Map<Long, T> porId = new HashMap<>();
+        for (T orden : cargadas) {
+            porId.put(idDe.apply(orden), orden);
+        }
+        List<T> ordenadas = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T orden = porId.get(id);
+            if (orden != null) {
+                ordenadas.add(orden);
+            }
+        }
+        return ordenadas;
+    }
+
+    private static <T> byte[] dibujar(T orden, Dibujo<T> dibujo) throws DocumentException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        Document documento = new Document(PageSize.A4, 36, 36, 36, 36);
+        PdfWriter.getInstance(documento, out);
+        documento.open();
+        dibujo.dibujar(documento, orden);
+        documento.close();
+        return out.toByteArray();
+    }
+
+    private static void agregar(PdfCopy copia, byte[] pdf) throws IOException, DocumentException {
+        PdfReader lector = new PdfReader(pdf);
+        try {
+            for (int pagina = 1; pagina <= lector.getNumberOfPages(); pagina++) {
+                copia.addPage(copia.getImportedPage(lector, pagina));
+            }
+            // Escribe ya las páginas de esta orden y suelta el lector
+            copia.freeReader(lector);
+        } finally {
+            lector.close();
+        }
+    }
+
+    private static void dibujarOrdenSalida(Document documento, OrdenSalida orden, String generado) throws DocumentException {
+        encabezado(documento, "ORDEN DE SALIDA DE PRODUCTOS");
+
+        PdfPTable datos = columnas(
+                bloque("INFORMACIÓN DE ORDEN",
+                        "N° ORDEN:", orden.getNumeroOrden(),
+                        "FECHA SALIDA:", fecha(orden.getFechaSalida(), FECHA),
+                        "N° TRÁMITE:", orden.getNumeroTramite(),
+                        "CANTIDAD:", orden.getCantidadProductos() + " unidades"),
+                bloque("SOLICITANTE",
+                        "USUARIO:", orden.getNombreUsuario(),
+                        "DNI:", orden.getDniUsuario(),
+                        "FECHA REGISTRO:", fecha(orden.getFechaRegistro(), FECHA_HORA)));
+        documento.add(datos);
+
+        documento.add(seccion("DESCRIPCIÓN / MOTIVO"));
+        documento.add(new Paragraph(texto(orden.getDescripcion()), TEXTO));
+
+        documento.add(seccion("DETALLE DE PRODUCTOS"));
+        TablaPdf detalle = new TablaPdf(documento, ENCABEZADO, COLUMNAS_SALIDA);
+        int numero = 1;
+        for (OrdenSalidaItem item : orden.getItems()) {
+            detalle.celda(String.valueOf(numero++))
+                    .celda(texto(item.getProducto() != null ? item.getProducto().getNombre() : null))
+                    .celda(String.valueOf(item.getCantidad()));
+        }
+        if (orden.getItems().isEmpty()) {
+            detalle.filaCompleta(SIN_PRODUCTOS, CENTRO);
+        }
+        detalle.terminar();
+
+        documento.add(seccion("OBSERVACIONES"));
+        for (String observacion : OBSERVACIONES_SALIDA) {
+            documento.add(new Paragraph(observacion, TEXTO));
+        }
+
+        firmas(documento,
+                new String[]{"RESPONSABLE DE ALMACÉN", "Sociedad de Beneficencia de Lambayeque"},
+                new String[]{"USUARIO SOLICITANTE", texto(orden.getNombreUsuario()), "DNI: " + texto(orden.getDniUsuario())});
+        pie(documento, generado);
+    }
+
+    private static void dibujarOrdenAbastecimiento(Document documento, OrdenAbastecimiento orden, String generado)
+            throws DocumentException {
+        encabezado(documento, "ORDEN DE ABASTECIMIENTO");
+
+        String usuario = orden.getUsuario() != null
+                ? orden.getUsuario().getNombre() + " " + orden.getUsuario().getApellido() : null;
+        documento.add(columnas(
+                bloque("INFORMACIÓN DE ORDEN",
+                        "N° ORDEN:", orden.getNumeroOA(),
+                        "FECHA:", fecha(orden.getFechaOA(), FECHA),
+                        "TIPO:", orden.getTipoOrden() != null ? orden.getTipoOrden().name() : null,
+                        "ESTADO:", orden.getEstado() != null ? orden.getEstado().name() : null),
+                bloque("SOLICITANTE",
+                        "USUARIO:", usuario,
+                        "FECHA CREACIÓN:", fecha(orden.getFechaCreacion(), FECHA_HORA),
+                        "TOTAL:", "S/ " + moneda(orden.getTotal()))));
+
+        Proveedor proveedor = orden.getProveedor();
+        boolean conProveedor = proveedor != null;
+        documento.add(columnas(
+                bloque("INFORMACIÓN DEL PROVEEDOR",
+                        "RUC:", conProveedor ? proveedor.getRuc() : null,
+                        "PROVEEDOR:", conProveedor ? proveedor.getNombre() : null,
+                        "DIRECCIÓN:", conProveedor ? proveedor.getDireccion() : null),
+                bloque(" ",
+                        "TELÉFONO:", conProveedor ? proveedor.getTelefono() : null,
+                        "EMAIL:", conProveedor ? proveedor.getEmail() : null)));
+
+        documento.add(seccion("DETALLE DE PRODUCTOS / SERVICIOS"));
+        TablaPdf detalle = new TablaPdf(documento, ENCABEZADO, COLUMNAS_ABASTECIMIENTO);
+        int numero = 1;
+        for (OrdenAbastecimientoItem item : orden.getItems()) {
+            detalle.celda(String.valueOf(numero++))
+                    .celda(texto(item.getProducto() != null ? item.getProducto().getNombre() : null))
+                    .celda(texto(item.getProducto() != null ? item.getProducto().getUnidadMedida() : null))
+                    .celda(String.valueOf(item.getCantidad()))
+                    .celda(moneda(item.getPrecioUnitario()))
+                    .celda(moneda(item.getSubtotal()));
+        }
+        if (orden.getItems().isEmpty()) {
+            detalle.filaCompleta(SIN_PRODUCTOS, CENTRO);
+        }
+        detalle.combinada("TOTAL (S/)", 5, TOTAL)
+                .celda(moneda(orden.getTotal()), TOTAL);
+        detalle.terminar();
+
+        if (orden.getObservaciones() != null && !orden.getObservaciones().isBlank()) {
+            documento.add(seccion("OBSERVACIONES"));
+            documento.add(new Paragraph(orden.getObservaciones(), TEXTO));
+        }
+
+        firmas(documento,
+                new String[]{"RESPONSABLE DE ALMACÉN", "Sociedad de Beneficencia de Lambayeque"},
+                new String[]{"PROVEEDOR", conProveedor ? texto(proveedor.getNombre()) : "N/A"});
+        pie(documento, generado);
+    }
+
+    private static void encabezado(Document documento, String titulo) throws DocumentException {
+        Paragraph institucion = new Paragraph(INSTITUCION, TITULO);
+        institucion.setAlignment(Element.ALIGN_CENTER);
+        documento.add(institucion);
+        Paragraph documentoTitulo = new Paragraph(titulo, SUBTITULO);
+        documentoTitulo.setAlignment(Element.ALIGN_CENTER);
+        documento.add(documentoTitulo);
+        Paragraph subtitulo = new Paragraph("Sistema de Gestión de Almacén", TEXTO);
+        subtitulo.setAlignment(Element.ALIGN_CENTER);
+        subtitulo.setSpacingAfter(10);
+        documento.add(subtitulo);
+    }
+
+    private static Paragraph seccion(String titulo) {
+        Paragraph seccion = new Paragraph(titulo, SECCION);
+        seccion.setSpacingBefore(8);
+        seccion.setSpacingAfter(4);
+        return seccion;
+    }
+
+    /** Título y pares etiqueta/valor en dos columnas, sin bordes. */
+    private static PdfPTable bloque(String titulo, String... pares) {
+        PdfPTable bloque = new PdfPTable(new float[]{40f, 60f});
+        bloque.setWidthPercentage(100);
+        PdfPCell cabecera = sinBorde(new PdfPCell(new Phrase(titulo, SECCION)));
+        cabecera.setColspan(2);
+        cabecera.setBorder(Rectangle.BOTTOM);
+        cabecera.setPaddingBottom(4);
+        bloque.addCell(cabecera);
+        for (int i = 0; i + 1 < pares.length; i += 2) {
+            bloque.addCell(sinBorde(new PdfPCell(new Phrase(pares[i], ETIQUETA))));
+            bloque.addCell(sinBorde(new PdfPCell(new Phrase(texto(pares[i + 1]), TEXTO))));
+        }
+        return bloque;
+    }
+
+    private static PdfPTable columnas(PdfPTable izquierda, PdfPTable derecha) {
+        PdfPTable columnas = new PdfPTable(2);
+        columnas.setWidthPercentage(100);
+        columnas.setSpacingAfter(6);
+        PdfPCell celdaIzquierda = sinBorde(new PdfPCell(izquierda));
+        celdaIzquierda.setPaddingRight(8);
+        columnas.addCell(celdaIzquierda);
+        PdfPCell celdaDerecha = sinBorde(new PdfPCell(derecha));
+        celdaDerecha.setPaddingLeft(8);
+        columnas.addCell(celdaDerecha);
+        return columnas;
+    }
+
+    private static void firmas(Document documento, String[] izquierda, String[] derecha) throws DocumentException {
+        // La columna del medio separa las dos líneas de firma
+        PdfPTable firmas = new PdfPTable(new float[]{45f, 10f, 45f});
+        firmas.setWidthPercentage(80);
+        firmas.setSpacingBefore(50);
+        firmas.addCell(firma(izquierda));
+        firmas.addCell(sinBorde(new PdfPCell()));
+        firmas.addCell(firma(derecha));
+        documento.add(firmas);
+    }
+
+    private static PdfPCell firma(String[] lineas) {
+        PdfPCell firma = new PdfPCell();
+        firma.setBorder(Rectangle.TOP);
+        firma.setHorizontalAlignment(Element.ALIGN_CENTER);
+        for (int i = 0; i < lineas.length; i++) {
+            Paragraph linea = new Paragraph(lineas[i], i == 0 ? ETIQUETA : PIE);
+            linea.setAlignment(Element.ALIGN_CENTER);
+            firma.addElement(linea);
+        }
+        return firma;
+    }
+
+    private static void pie(Document documento, String generado) throws DocumentException {
+        Paragraph pie = new Paragraph("Documento generado automáticamente el " + generado, PIE);
+        pie.setAlignment(Element.ALIGN_CENTER);
+        pie.setSpacingBefore(20);
+        documento.add(pie);
+        Paragraph sistema = new Paragraph("BENEFICENCIA PÚBLICA - SISTEMA DE GESTIÓN DE ALMACÉN", PIE);
+        sistema.setAlignment(Element.ALIGN_CENTER);
+        documento.add(sistema);
+    }
+
+    private static PdfPCell sinBorde(PdfPCell celda) {
+        celda.setBorder(Rectangle.NO_BORDER);
+        celda.setPadding(2);
+        return celda;
+    }
+
+    private static String texto(String valor) {
+        return valor != null && !valor.isBlank() ? valor : "N/A";
+    }
+
+    private static String fecha(TemporalAccessor fecha, DateTimeFormatter formato) {
+        return fecha != null ? formato.format(fecha) : null;
+    }
+
+    private static String moneda(BigDecimal valor) {
+        return String.format(Locale.US, "%,.2f", valor != null ? valor : BigDecimal.ZERO);
+    }
+
+    private ForkJoinPool obtenerPool() {
+        synchronized (bloqueo) {
+            if (pool == null) {
+                int hilos = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+                pool = new ForkJoinPool(hilos);
+            }
+            return pool;
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
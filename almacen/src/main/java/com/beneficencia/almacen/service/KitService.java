@@ -0,0 +1,138 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.model.Kit;
+import com.beneficencia.almacen.model.KitComponente;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.repository.KitRepository;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+@Transactional
+public class KitService {
+
+    @Autowired
+    private KitRepository kitRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private DisponibilidadKits disponibilidadKits;
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> listar() {
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (Kit kit : kitRepository.findAllConComponentes()) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("id", kit.getId());
+            fila.put("codigo", kit.getCodigo());
+            fila.put("nombre", kit.getNombre());
+            fila.put("descripcion", kit.getDescripcion());
+            fila.put("activo", kit.isActivo());
+            fila.put("disponibles", disponibilidadKits.obtenerDisponibles(kit.getId()));
+
+            List<Map<String, Object>> componentes = new ArrayList<>();
+            for (KitComponente componente : kit.getComponentes()) {
+                Map<String, Object> linea = new LinkedHashMap<>();
+                if (componente.getProducto() != null) {
+                    linea.put("productoId", componente.getProducto().getId());
+                    linea.put("nombre", componente.getProducto().getNombre());
+                } else {
+                    linea.put("subkitId", componente.getSubkit().getId());
+                    linea.put("nombre", componente.getSubkit().getNombre());
+                }
+                linea.put("cantidad", componente.getCantidad());
+                componentes.add(linea);
+            }
+            fila.put("componentes", componentes);
+            filas.add(fila);
+        }
+        return filas;
+    }
+
+    /**
+     * Crea el kit o reemplaza sus componentes si ya existe uno con ese código.
+     *
+     * @param productos productoId -> unidades por kit
+     * @param subkits   kitId -> kits contenidos por kit
+     */
+    public Kit guardar(String codigo, String nombre, String descripcion,
+                       Map<Long, Integer> productos, Map<Long, Integer> subkits) {
+        if (codigo == null || codigo.isBlank() || nombre == null || nombre.isBlank()) {
+            throw new RuntimeException("El código y el nombre del kit son obligatorios");
+        }
+        if (productos.isEmpty() && subkits.isEmpty()) {
+            throw new RuntimeException("El kit debe tener al menos un componente");
+        }
+        productos.forEach((id, cantidad) -> validarCantidad(cantidad));
+        subkits.forEach((id, cantidad) -> validarCantidad(cantidad));
+
+        Kit kit = kitRepository.findByCodigo(codigo.trim()).orElseGet(() -> {
+            Kit nuevo = new Kit();
+            nuevo.setCodigo(codigo.trim());
+            nuevo.setFechaRegistro(LocalDateTime.now());
+            return nuevo;
+        });
+        kit.setNombre(nombre.trim());
+        kit.setDescripcion(descripcion);
+        kit.setActivo(true);
+        kit.setFechaActualizacion(LocalDateTime.now());
+
+        kit.getComponentes().clear();
+        for (Producto producto : productoRepository.findAllById(productos.keySet())) {
+            kit.agregarComponente(KitComponente.deProducto(producto, productos.get(producto.getId())));
+        }
+        for (Kit subkit : kitRepository.findAllById(subkits.keySet())) {
+            kit.agregarComponente(KitComponente.deSubkit(subkit, subkits.get(subkit.getId())));
+        }
+        if (kit.getComponentes().size() != productos.size() + subkits.size()) {
+            throw new RuntimeException("Algún producto o subkit del kit no existe");
+        }
+
+        Kit guardado = kitRepository.saveAndFlush(kit);
+        // Valida que no haya ciclos entre kits antes de confirmar
+        ExpansionKit.expandirTodos(kitRepository.findAllConComponentes());
+        recargarAlConfirmar();
+        return guardado;
+    }
+
+    /** Desactiva el kit; las órdenes ya despachadas solo guardan sus productos. */
+    public void desactivar(Long kitId) {
+        Kit kit = kitRepository.findById(kitId)
+                .orElseThrow(() -> new RuntimeException("Kit no encontrado: " + kitId));
+        List<Kit> contenedores = kitRepository.findQueContienen(kitId).stream().filter(Kit::isActivo).toList();
+        if (!contenedores.isEmpty()) {
+            throw new RuntimeException("El kit forma parte de " + contenedores.get(0).getCodigo());
+        }
+        kit.setActivo(false);
+        kit.setFechaActualizacion(LocalDateTime.now());
+        recargarAlConfirmar();
+    }
+
+    private void validarCantidad(Integer cantidad) {
+        if (cantidad == null || cantidad <= 0) {
+            throw new RuntimeException("Las cantidades del kit deben ser mayores a cero");
+        }
+    }
+
+    private void recargarAlConfirmar() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            disponibilidadKits.recargar();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                disponibilidadKits.recargar();
+            }
+        });
+    }
+}
@@ -0,0 +1,278 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.ConsumidorEventos;
+import com.beneficencia.almacen.evento.EventoInventario;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Límite de entregas por beneficiario: como máximo almacen.limites.maximo-ordenes
+ * órdenes de salida en los últimos almacen.limites.ventana-dias días (0 = sin límite).
+ *
+ * Cada beneficiario tiene una VentanaDeslizante en memoria, reconstruida al arrancar
+ * con una sola consulta agrupada por beneficiario y día de registro. Verificar y
+ * apartar el cupo de una orden es una operación atómica sobre su contador; si la
+ * transacción se revierte el cupo se devuelve.
+ *
+ * En modo clúster los contadores de cada nodo no ven los cupos que otro nodo aparta
+ * en ese momento, así que el límite se verifica en la base: se bloquea la fila del
+ * beneficiario y se cuentan sus órdenes dentro de la transacción que crea la nueva.
+ * Los contadores quedan solo para mostrar el estado.
+ */
+@Service
+public class LimiteEntregasService implements ConsumidorEventos {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${almacen.limites.maximo-ordenes:0}")
+    private int maximoOrdenes;
+
+    @Value("${almacen.limites.ventana-dias:30}")
+    private int ventanaDias;
+
+    @Value("${almacen.cluster.activo:false}")
+    private boolean cluster;
+
+    private final Map<Long, VentanaDeslizante> ventanas = new ConcurrentHashMap<>();
+
+    /** Cupos apartados por transacciones que aún no terminan; la consulta de recargar() no los ve. */
+    private final Set<Reserva> enCurso = ConcurrentHashMap.newKeySet();
+
+    /** Órdenes confirmadas mientras corre recargar(), como [beneficiarioId, día, cantidad]; protegido por ventanas. */
+    private List<long[]> duranteRecarga;
+
+    private static final class Reserva {
+        final long beneficiarioId;
+        final long dia;
+
+        Reserva(long beneficiarioId, long dia) {
+            this.beneficiarioId = beneficiarioId;
+            this.dia = dia;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        recargar();
+        System.out.println("Contadores de entregas cargados - beneficiarios con órdenes en " + ventanaDias +
+                " días: " + ventanas.size() + (estaActivo() ? " - límite: " + maximoOrdenes : " - sin límite"));
+    }
+
+    /**
+     * Reconstruye los contadores; corrige órdenes borradas en otros nodos o cargadas
+     * por fuera. Los cupos todavía apartados y las órdenes que se confirman durante
+     * la consulta se vuelven a sumar al cambiar de mapa. Una orden confirmada justo
+     * mientras corre la consulta puede quedar contada dos veces hasta la próxima
+     * recarga: el contador puede quedar alto, nunca bajo.
+     */
+    @Scheduled(initialDelayString = "${almacen.limites.recarga-ms:600000}",
+            fixedDelayString = "${almacen.limites.recarga-ms:600000}")
+    public void recargar() {
+        synchronized (ventanas) {
+            duranteRecarga = new ArrayList<>();
+        }
+        try {
+            Map<Long, VentanaDeslizante> nuevas = consultarVentanas();
+            synchronized (ventanas) {
+                for (Reserva reserva : enCurso) {
+                    nuevas.computeIfAbsent(reserva.beneficiarioId, id -> new VentanaDeslizante(ventanaDias))
+                            .sumar(reserva.dia, 1);
+                }
+                for (long[] suma : duranteRecarga) {
+                    nuevas.computeIfAbsent(suma[0], id -> new VentanaDeslizante(ventanaDias)).sumar(suma[1], (int) suma[2]);
+                }
+                ventanas.clear();
+                ventanas.putAll(nuevas);
+            }
+        } finally {
+            synchronized (ventanas) {
+                duranteRecarga = null;
+            }
+        }
+    }
+
+    private Map<Long, VentanaDeslizante> consultarVentanas() {
+        Map<Long, VentanaDeslizante> nuevas = new ConcurrentHashMap<>();
+        LocalDate desde = LocalDate.now().minusDays(ventanaDias - 1L);
+        jdbcTemplate.query("SELECT beneficiario_id, DATE(fecha_registro) AS dia, COUNT(*) AS ordenes " +
+                        "FROM ordenes_salida WHERE beneficiario_id IS NOT NULL AND fecha_registro >= ? " +
+                        "GROUP BY beneficiario_id, DATE(fecha_registro)",
+                resultado -> {
+                    nuevas.computeIfAbsent(resultado.getLong("beneficiario_id"), id -> new VentanaDeslizante(ventanaDias))
+                            .sumar(resultado.getDate("dia").toLocalDate().toEpochDay(), resultado.getInt("ordenes"));
+                },
+                desde.atStartOfDay());
+        return nuevas;
+    }
+
+    public boolean estaActivo() {
+        return maximoOrdenes > 0;
+    }
+
+    public int contar(Long beneficiarioId) {
+        VentanaDeslizante ventana = ventanas.get(beneficiarioId);
+        return ventana != null ? ventana.total(hoy()) : 0;
+    }
+
+    /** Estado del beneficiario frente al límite, para mostrarlo al buscar su DNI. */
+    public Map<String, Object> consultar(Long beneficiarioId) {
+        int entregas = contar(beneficiarioId);
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("entregasEnVentana", entregas);
+        estado.put("ventanaDias", ventanaDias);
+        estado.put("limite", estaActivo() ? maximoOrdenes : null);
+        estado.put("puedeRecibir", !estaActivo() || entregas < maximoOrdenes);
+        return estado;
+    }
+
+    /**
+     * Aparta el cupo de una nueva orden del beneficiario o falla si ya llegó al
+     * límite. Si la transacción en curso se revierte, el cupo se devuelve. En modo
+     * clúster debe llamarse dentro de la transacción que guarda la orden.
+     */
+    public void reservar(Long beneficiarioId) {
+        boolean enBase = cluster && estaActivo();
+        if (enBase) {
+            verificarEnBase(beneficiarioId);
+        }
+
+        long dia = hoy();
+        Reserva reserva = new Reserva(beneficiarioId, dia);
+        synchronized (ventanas) {
+            VentanaDeslizante ventana = ventana(beneficiarioId);
+            if (!estaActivo() || enBase) {
+                ventana.sumar(dia, 1);
+            } else if (!ventana.intentarSumar(dia, maximoOrdenes)) {
+                throw new RuntimeException("El beneficiario ya recibió " + ventana.total(dia) + " entregas en los últimos " +
+                        ventanaDias + " días (máximo " + maximoOrdenes + ")");
+            }
+            enCurso.add(reserva);
+        }
+        alTerminar(confirmada -> {
+            synchronized (ventanas) {
+                enCurso.remove(reserva);
+                if (!confirmada) {
+                    ventana(beneficiarioId).sumar(dia, -1);
+                } else if (duranteRecarga != null) {
+                    duranteRecarga.add(new long[]{beneficiarioId, dia, 1});
+                }
+            }
+        });
+    }
+
+    /**
+     * Bloquea al beneficiario hasta el fin de la transacción y cuenta sus órdenes de
+     * la ventana con una lectura actual (no la foto de la transacción), así que dos
+     * nodos que crean órdenes para la misma persona se turnan y el segundo ve la del primero.
+     */
+    private void verificarEnBase(Long beneficiarioId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("El límite de entregas se verifica dentro de una transacción");
+        }
+        jdbcTemplate.queryForList("SELECT id FROM beneficiarios WHERE id = ? FOR UPDATE", Long.class, beneficiarioId);
+        LocalDate desde = LocalDate.now().minusDays(ventanaDias - 1L);
+        Integer ordenes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ordenes_salida WHERE beneficiario_id = ? AND fecha_registro >= ? FOR SHARE",
+                Integer.class, beneficiarioId, desde.atStartOfDay());
+        if (ordenes != null && ordenes >= maximoOrdenes) {
+            throw new RuntimeException("El beneficiario ya recibió " + ordenes + " entregas en los últimos " +
+                    ventanaDias + " días (máximo " + maximoOrdenes + ")");
+        }
+    }
+
+    /** Cuenta órdenes que no pasan por el límite (campañas) cuando la transacción se confirma. */
+    public void registrarAlConfirmar(Collection<Long> beneficiarioIds) {
+        long dia = hoy();
+        alTerminar(confirmada -> {
+            if (confirmada) beneficiarioIds.forEach(id -> sumar(id, dia, 1));
+        });
+    }
+
+    /** Devuelve el cupo de una orden eliminada cuando la transacción se confirma. */
+    public void descontarAlConfirmar(Long beneficiarioId, LocalDateTime fechaRegistro) {
+        long dia = (fechaRegistro != null ? fechaRegistro.toLocalDate() : LocalDate.now()).toEpochDay();
+        alTerminar(confirmada -> {
+            if (confirmada) sumar(beneficiarioId, dia, -1);
+        });
+    }
+
+    @Override
+    public String getNombreConsumidor() {
+        return "limites-entregas";
+    }
+
+    /** Órdenes creadas en otros nodos; las propias ya se contaron al reservar. */
+    @Override
+    public boolean acepta(EventoInventario evento) {
+        return evento.isRemoto() && evento.getTipo() == EventoInventario.TipoEvento.NUEVA_SALIDA;
+    }
+
+    @Override
+    public void procesar(List<EventoInventario> lote) {
+        lote.forEach(this::alRecibirDeOtroNodo);
+    }
+
+    public void alRecibirDeOtroNodo(EventoInventario evento) {
+        for (Map<String, Object> fila : evento.getFilas()) {
+            Object beneficiarioId = fila.get("beneficiarioId");
+            if (beneficiarioId != null) {
+                sumar(((Number) beneficiarioId).longValue(), hoy(), 1);
+            }
+        }
+    }
+
+    /**
+     * Suma una orden ya confirmada. Si hay una recarga en curso las altas se repiten
+     * en el mapa nuevo; las bajas no, porque la consulta puede haberlas visto ya.
+     */
+    private void sumar(long beneficiarioId, long dia, int cantidad) {
+        synchronized (ventanas) {
+            ventana(beneficiarioId).sumar(dia, cantidad);
+            if (cantidad > 0 && duranteRecarga != null) {
+                duranteRecarga.add(new long[]{beneficiarioId, dia, cantidad});
+            }
+        }
+    }
+
+    private VentanaDeslizante ventana(Long beneficiarioId) {
+        synchronized (ventanas) {
+            return ventanas.computeIfAbsent(beneficiarioId, id -> new VentanaDeslizante(ventanaDias));
+        }
+    }
+
+    private static long hoy() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    private void alTerminar(Consumer<Boolean> accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                accion.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
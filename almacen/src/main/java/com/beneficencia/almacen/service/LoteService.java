@@ -0,0 +1,386 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.model.AsignacionLote;
+import com.beneficencia.almacen.model.Lote;
+import com.beneficencia.almacen.model.OrdenAbastecimiento;
+import com.beneficencia.almacen.model.OrdenAbastecimientoItem;
+import com.beneficencia.almacen.model.OrdenSalidaItem;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.repository.AsignacionLoteRepository;
+import com.beneficencia.almacen.repository.LoteRepository;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stock por lotes. Cada item de abastecimiento crea un lote con su vencimiento y cada
+ * item de salida se reparte entre lotes con {@link AsignadorFefo}. Las colas en memoria
+ * se cargan por producto la primera vez que se usan; lo que se asigna en memoria se
+ * persiste en la misma transacción de la orden y, si esa transacción se revierte, la
+ * cola del producto se descarta para recargarla desde la base de datos.
+ *
+ * Toda operación que cambia lotes bloquea primero el producto (findParaActualizar) y
+ * después toma su cola hasta que la transacción termina. Así el stock contra el que se
+ * concilian los lotes no cambia mientras se usa, y ninguna otra transacción ve en la
+ * cola asignaciones que todavía no se confirmaron.
+ */
+@Service
+@Transactional
+public class LoteService {
+
+    @Autowired
+    private LoteRepository loteRepository;
+
+    @Autowired
+    private AsignacionLoteRepository asignacionLoteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Value("${almacen.lotes.espera-cola-ms:10000}")
+    private long esperaColaMs;
+
+    private final AsignadorFefo asignador = new AsignadorFefo();
+
+    /**
+     * Reparte un item de salida entre los lotes que vencen primero.
+     *
+     * @param producto   producto administrado del item (no la referencia que trae el formulario)
+     * @param stockAntes cantidad del producto antes de descontar este item, leída con el
+     *                   producto ya bloqueado; los lotes se concilian contra ella por si
+     *                   hubo ajustes fuera de las órdenes
+     */
+    public List<AsignacionLote> asignarSalida(Long ordenSalidaId, OrdenSalidaItem item, Producto producto, int stockAntes) {
+        Long productoId = producto.getId();
+        bloquearYTomar(List.of(productoId));
+        asegurarCola(producto, stockAntes);
+
+        List<AsignadorFefo.Asignacion> asignaciones = asignador.asignar(productoId, item.getCantidad());
+
+        Map<Long, Lote> lotes = cargarLotes(asignaciones);
+        List<AsignacionLote> registros = new ArrayList<>(asignaciones.size());
+        for (AsignadorFefo.Asignacion asignacion : asignaciones) {
+            Lote lote = lotes.get(asignacion.getLoteId());
+            // @Version en Lote detecta si otro nodo consumió el mismo lote
+            lote.setCantidadDisponible(lote.getCantidadDisponible() - asignacion.getCantidad());
+            registros.add(new AsignacionLote(lote, ordenSalidaId, item.getId(), asignacion.getCantidad()));
+        }
+        return asignacionLoteRepository.saveAll(registros);
+    }
+
+    /**
+     * Aparta de los lotes que vencen primero la cantidad de una campaña y la descuenta
+     * de ellos; devuelve cuánto se tomó de cada lote. stockAntes es el stock del
+     * producto antes de la reserva, igual que en {@link #asignarSalida}.
+     */
+    public Map<Lote, Integer> reservar(Producto producto, int stockAntes, int cantidad) {
+        Long productoId = producto.getId();
+        bloquearYTomar(List.of(productoId));
+        asegurarCola(producto, stockAntes);
+
+        List<AsignadorFefo.Asignacion> asignaciones = asignador.asignar(productoId, cantidad);
+
+        Map<Long, Lote> lotes = cargarLotes(asignaciones);
+        Map<Lote, Integer> reservados = new LinkedHashMap<>();
+        for (AsignadorFefo.Asignacion asignacion : asignaciones) {
+            Lote lote = lotes.get(asignacion.getLoteId());
+            lote.setCantidadDisponible(lote.getCantidadDisponible() - asignacion.getCantidad());
+            reservados.put(lote, asignacion.getCantidad());
+        }
+        return reservados;
+    }
+
+    /** Devuelve a su lote unidades reservadas que no llegaron a entregarse. */
+    public void devolverReserva(Lote lote, int cantidad) {
+        bloquearYTomar(List.of(lote.getProducto().getId()));
+        lote.setCantidadDisponible(lote.getCantidadDisponible() + cantidad);
+        devolverAlConfirmar(lote.getProducto().getId(), lote.getId(), lote.getFechaVencimiento(), cantidad);
+    }
+
+    /** Devuelve a sus lotes lo asignado a una orden de salida que se elimina. */
+    public void revertirSalida(Long ordenSalidaId) {
+        List<AsignacionLote> asignaciones = asignacionLoteRepository.findByOrdenSalidaIdConLote(ordenSalidaId);
+        if (asignaciones.isEmpty()) return;
+
+        bloquearYTomar(asignaciones.stream().map(asignacion -> asignacion.getLote().getProducto().getId()).toList());
+        for (AsignacionLote asignacion : asignaciones) {
+            Lote lote = asignacion.getLote();
+            lote.setCantidadDisponible(lote.getCantidadDisponible() + asignacion.getCantidad());
+            devolverAlConfirmar(lote.getProducto().getId(), lote.getId(), lote.getFechaVencimiento(), asignacion.getCantidad());
+        }
+        asignacionLoteRepository.deleteAll(asignaciones);
+        System.out.println("Lotes restituidos para orden de salida " + ordenSalidaId + ": " + asignaciones.size());
+    }
+
+    /** Crea el lote de un item ya sumado al inventario por una orden de abastecimiento nueva. */
+    public void registrarLote(OrdenAbastecimiento orden, OrdenAbastecimientoItem item) {
+        if (item.getProducto() == null || item.getCantidad() == null || item.getCantidad() <= 0) return;
+        crearLote(orden, item, item.getCantidad());
+    }
+
+    /**
+     * Refleja en los lotes la edición de una orden de abastecimiento: un aumento crea
+     * un lote adicional y una reducción se descuenta de los lotes abiertos de esa orden.
+     */
+    public void ajustarPorEdicion(OrdenAbastecimiento orden, OrdenAbastecimientoItem item, int diferencia) {
+        if (diferencia > 0) {
+            crearLote(orden, item, diferencia);
+            return;
+        }
+
+        Long productoId = item.getProducto().getId();
+        bloquearYTomar(List.of(productoId));
+        int porDescontar = -diferencia;
+        for (Lote lote : loteRepository.findDisponiblesPorOrdenYProducto(orden.getId(), productoId)) {
+            if (porDescontar == 0) break;
+            int descuento = Math.min(porDescontar, lote.getCantidadDisponible());
+            lote.setCantidadDisponible(lote.getCantidadDisponible() - descuento);
+            porDescontar -= descuento;
+        }
+        descartarAlTerminar(productoId);
+    }
+
+    /**
+     * Registra como lote de saldo el stock de los productos que todavía no tienen
+     * ningún lote, usando el vencimiento del producto. Se ejecuta una vez al iniciar
+     * para que las consultas por vencimiento no dependan de Producto.fechaVencimiento.
+     */
+    public int crearSaldosIniciales() {
+        List<Producto> sinLotes = productoRepository.findConStockSinLotes();
+        for (Producto producto : sinLotes) {
+            loteRepository.save(new Lote(producto, producto.getCantidad(), producto.getFechaVencimiento()));
+        }
+        if (!sinLotes.isEmpty()) {
+            System.out.println("Lotes de saldo iniciales creados: " + sinLotes.size());
+        }
+        return sinLotes.size();
+    }
+
+    /**
+     * Los lotes de saldo no tienen vencimiento propio: siguen al del producto
+     * cuando éste se edita.
+     */
+    public void sincronizarVencimientoSaldos(Producto producto) {
+        if (producto.getId() == null) return;
+        bloquearYTomar(List.of(producto.getId()));
+
+        boolean cambio = false;
+        for (Lote saldo : loteRepository.findSaldosPorProducto(producto.getId())) {
+            if (!Objects.equals(saldo.getFechaVencimiento(), producto.getFechaVencimiento())) {
+                saldo.setFechaVencimiento(producto.getFechaVencimiento());
+                cambio = true;
+            }
+        }
+        if (cambio) {
+            // La fecha es parte del orden FEFO: la cola se reconstruye
+            descartarAlTerminar(producto.getId());
+        }
+    }
+
+    /** Borra los lotes (y sus asignaciones) de un producto que se elimina. */
+    public void eliminarLotesDeProducto(Long productoId) {
+        bloquearYTomar(List.of(productoId));
+        asignacionLoteRepository.deleteAll(asignacionLoteRepository.findByLoteProductoId(productoId));
+        loteRepository.deleteAll(loteRepository.findByProductoId(productoId));
+        descartarAlTerminar(productoId);
+    }
+
+    /**
+     * Lotes abiertos del producto en orden FEFO. Sin bloqueo no se puede cargar la
+     * cola (podría quedar atrás de un cambio ya confirmado), así que si no está en
+     * memoria o tiene cambios sin confirmar se lee de la base.
+     */
+    @Transactional(readOnly = true)
+    public List<AsignadorFefo.LoteDisponible> obtenerLotesDisponibles(Producto producto) {
+        Long productoId = producto.getId();
+        if (asignador.estaCargado(productoId) && !asignador.enUso(productoId)) {
+            return asignador.verLotes(productoId);
+        }
+        List<AsignadorFefo.LoteDisponible> lotes = new ArrayList<>(leerLotes(productoId));
+        lotes.sort(AsignadorFefo.ORDEN_FEFO);
+        return lotes;
+    }
+
+    private void crearLote(OrdenAbastecimiento orden, OrdenAbastecimientoItem item, int cantidad) {
+        Producto producto = item.getProducto();
+        LocalDate vencimiento = item.getFechaVencimiento() != null
+                ? item.getFechaVencimiento()
+                : producto.getFechaVencimiento();
+
+        Lote lote = new Lote(producto, cantidad, vencimiento);
+        lote.setOrdenAbastecimientoId(orden.getId());
+        lote.setOrdenAbastecimientoItemId(item.getId());
+        lote.setNumeroOA(orden.getNumeroOA());
+        Long productoId = producto.getId();
+        bloquearYTomar(List.of(productoId));
+        Lote guardado = loteRepository.save(lote);
+
+        // Solo se vuelve asignable cuando la orden quedó confirmada
+        alTerminar(confirmada -> {
+            if (confirmada) {
+                asignador.agregar(productoId, new AsignadorFefo.LoteDisponible(guardado.getId(), vencimiento, cantidad));
+            }
+        });
+    }
+
+    /**
+     * Carga la cola del producto si hace falta y la concilia con su stock: el stock
+     * sin lote (previo a este control o agregado por edición manual o cuadre) se
+     * registra como un lote de saldo, y el exceso de lotes se descuenta en orden FEFO.
+     */
+    private void asegurarCola(Producto producto, int stock) {
+        Long productoId = producto.getId();
+        if (!asignador.estaCargado(productoId)) {
+            asignador.cargar(productoId, leerLotes(productoId));
+        }
+
+        long enLotes = asignador.disponible(productoId);
+        if (enLotes < stock) {
+            Lote saldo = new Lote(producto, (int) (stock - enLotes), producto.getFechaVencimiento());
+            saldo = loteRepository.save(saldo);
+            asignador.agregar(productoId, new AsignadorFefo.LoteDisponible(
+                    saldo.getId(), saldo.getFechaVencimiento(), saldo.getCantidadDisponible()));
+            System.out.println("Lote de saldo creado para " + producto.getNombre() + ": " + saldo.getCantidadDisponible());
+        } else if (enLotes > stock) {
+            List<AsignadorFefo.Asignacion> ajuste = asignador.descontarExceso(productoId, stock);
+            Map<Long, Lote> lotes = cargarLotes(ajuste);
+            for (AsignadorFefo.Asignacion asignacion : ajuste) {
+                Lote lote = lotes.get(asignacion.getLoteId());
+                lote.setCantidadDisponible(lote.getCantidadDisponible() - asignacion.getCantidad());
+            }
+            System.out.println("Lotes de " + producto.getNombre() + " ajustados al stock actual: -" + (enLotes - stock));
+        }
+    }
+
+    private List<AsignadorFefo.LoteDisponible> leerLotes(Long productoId) {
+        return loteRepository.findDisponiblesPorProducto(productoId).stream()
+                .map(lote -> new AsignadorFefo.LoteDisponible(
+                        lote.getId(), lote.getFechaVencimiento(), lote.getCantidadDisponible()))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Lote> cargarLotes(List<AsignadorFefo.Asignacion> asignaciones) {
+        List<Long> ids = asignaciones.stream().map(AsignadorFefo.Asignacion::getLoteId).toList();
+        return loteRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Lote::getId, Function.identity()));
+    }
+
+    /**
+     * Lotes o productos que cambiaron en otro nodo: la cola en memoria del producto
+     * se descarta y se vuelve a leer de la base la próxima vez que se use.
+     */
+    @EventListener(condition = "#evento.remoto")
+    public void alCambiarEnOtroNodo(EventoInventario evento) {
+        if (evento.getTipo() != EventoInventario.TipoEvento.LOTE_CAMBIADO
+                && evento.getTipo() != EventoInventario.TipoEvento.PRODUCTO_ELIMINADO) {
+            return;
+        }
+        for (Map<String, Object> fila : evento.getFilas()) {
+            Object productoId = evento.esDeLote() ? fila.get("productoId") : fila.get("id");
+            if (productoId != null) {
+                asignador.descartar((Long) productoId);
+            }
+        }
+    }
+
+    // Si se revierte, la cola tomada se descarta al soltarla
+    private void devolverAlConfirmar(Long productoId, Long loteId, LocalDate vencimiento, int cantidad) {
+        alTerminar(confirmada -> {
+            if (confirmada) {
+                asignador.devolver(productoId, loteId, vencimiento, cantidad);
+            }
+        });
+    }
+
+    private void descartarAlTerminar(Long productoId) {
+        alTerminar(confirmada -> asignador.descartar(productoId));
+    }
+
+    /**
+     * Bloquea los productos en la base (en orden de id) y después toma sus colas para
+     * esta transacción. El orden importa: con el bloqueo tomado, la única transacción
+     * que puede tener la cola es una que ya terminó y está por soltarla.
+     */
+    private void bloquearYTomar(Collection<Long> productoIds) {
+        Set<Long> ids = new TreeSet<>(productoIds);
+        productoRepository.findParaActualizar(ids);
+
+        Transaccion transaccion = transaccion();
+        if (transaccion == null) return;
+        for (Long productoId : ids) {
+            if (asignador.tomar(productoId, transaccion, esperaColaMs)) {
+                transaccion.productos.add(productoId);
+            }
+        }
+    }
+
+    private void alTerminar(Consumer<Boolean> accion) {
+        Transaccion transaccion = transaccion();
+        if (transaccion == null) {
+            accion.accept(true);
+            return;
+        }
+        transaccion.acciones.add(accion);
+    }
+
+    /**
+     * Estado de la transacción actual: las colas que tomó y lo que hay que hacer en
+     * memoria al terminar. Las acciones corren antes de soltar las colas, así la
+     * siguiente transacción ya las encuentra aplicadas.
+     */
+    private Transaccion transaccion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Transaccion transaccion = (Transaccion) TransactionSynchronizationManager.getResource(asignador);
+        if (transaccion == null) {
+            Transaccion nueva = new Transaccion();
+            TransactionSynchronizationManager.bindResource(asignador, nueva);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(asignador);
+                    boolean confirmada = status == STATUS_COMMITTED;
+                    try {
+                        nueva.acciones.forEach(accion -> accion.accept(confirmada));
+                    } finally {
+                        for (Long productoId : nueva.productos) {
+                            if (confirmada) {
+                                asignador.soltar(productoId, nueva);
+                            } else {
+                                asignador.revertir(productoId, nueva);
+                            }
+                        }
+                    }
+                }
+            });
+            transaccion = nueva;
+        }
+        return transaccion;
+    }
+
+    private static final class Transaccion {
+        private final Set<Long> productos = new LinkedHashSet<>();
+        private final List<Consumer<Boolean>> acciones = new ArrayList<>();
+    }
+}
@@ -0,0 +1,102 @@
+package com.beneficencia.almacen.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Suavizado exponencial con estacionalidad mensual (Holt-Winters multiplicativo sin
+ * tendencia) sobre el consumo mensual de un producto o una categoría.
+ *
+ * Las salidas se acumulan en el mes abierto; cuando llega una salida de un mes
+ * posterior, el mes abierto (y los meses sin movimiento intermedios) se cierran
+ * actualizando el nivel y el factor de su mes. Cada salida cuesta O(1) y el estado
+ * ocupa 12 factores más el nivel. Una salida registrada con atraso para un mes ya
+ * cerrado se suma al mes abierto; la reconstrucción completa la ubica en su mes.
+ */
+public class ModeloPronostico {
+
+    public static final int PERIODO = 12;
+
+    private static final double FACTOR_MINIMO = 0.01;
+
+    private final double alfa;
+    private final double gamma;
+
+    private double nivel;
+    private final double[] estacional = new double[PERIODO];
+    private YearMonth mesAbierto;
+    private double acumulado;
+    private int mesesCerrados;
+
+    /**
+     * @param alfa  peso de la última observación en el nivel (0-1)
+     * @param gamma peso de la última observación en el factor de su mes (0-1)
+     */
+    public ModeloPronostico(double alfa, double gamma) {
+        this.alfa = alfa;
+        this.gamma = gamma;
+        Arrays.fill(estacional, 1.0);
+    }
+
+    public synchronized void registrar(LocalDate fecha, double cantidad) {
+        YearMonth mes = YearMonth.from(fecha);
+        if (mesAbierto == null) {
+            mesAbierto = mes;
+        } else if (mes.isAfter(mesAbierto)) {
+            avanzarHasta(mes);
+        }
+        acumulado += cantidad;
+    }
+
+    /** Cierra los meses anteriores al indicado, que queda como mes abierto. */
+    public synchronized void avanzarHasta(YearMonth mes) {
+        if (mesAbierto == null) return;
+        while (mesAbierto.isBefore(mes)) {
+            cerrarMes(mesAbierto.getMonthValue() - 1, acumulado);
+            acumulado = 0;
+            mesAbierto = mesAbierto.plusMonths(1);
+        }
+    }
+
+    private void cerrarMes(int indice, double observado) {
+        if (mesesCerrados == 0) {
+            nivel = observado;
+        } else {
+            double factor = estacional[indice];
+            double desestacionalizado = factor > FACTOR_MINIMO ? observado / factor : nivel;
+            nivel = alfa * desestacionalizado + (1 - alfa) * nivel;
+            if (nivel > 0) {
+                estacional[indice] = gamma * (observado / nivel) + (1 - gamma) * factor;
+            }
+        }
+        mesesCerrados++;
+    }
+
+    /**
+     * Consumo previsto para los meses desde (inclusive). Los meses ya terminados
+     * antes de desde se cierran primero. Sin ningún mes cerrado no hay pronóstico.
+     */
+    public synchronized List<Double> pronosticar(YearMonth desde, int meses) {
+        avanzarHasta(desde);
+        List<Double> resultado = new ArrayList<>(meses);
+        if (mesesCerrados == 0) return resultado;
+
+        YearMonth mes = desde;
+        for (int i = 0; i < meses; i++) {
+            resultado.add(nivel * estacional[mes.getMonthValue() - 1]);
+            mes = mes.plusMonths(1);
+        }
+        return resultado;
+    }
+
+    public synchronized double getNivel() { return nivel; }
+
+    public synchronized int getMesesCerrados() { return mesesCerrados; }
+
+    public synchronized YearMonth getMesAbierto() { return mesAbierto; }
+
+    public synchronized double getAcumuladoMesAbierto() { return acumulado; }
+}
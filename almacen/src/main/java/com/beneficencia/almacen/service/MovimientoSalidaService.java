@@ -78,11 +78,11 @@ public class MovimientoSalidaService {
     }
 
     public List<MovimientoSalida> buscarPorDniBeneficiario(String dni) {
-        return movimientoSalidaRepository.findByDniBeneficiarioContaining(dni);
+        return movimientoSalidaRepository.findByDniBeneficiarioStartingWithOrderByFechaSalidaDescIdDesc(dni);
     }
 
     public List<MovimientoSalida> buscarPorNumeroTramite(String tramite) {
-        return movimientoSalidaRepository.findByNumeroTramiteContaining(tramite);
+        return movimientoSalidaRepository.findByNumeroTramiteStartingWithOrderByFechaSalidaDescIdDesc(tramite);
     }
 
     public List<MovimientoSalida> buscarPorProductoCodigoOrNombre(String busqueda) {
@@ -0,0 +1,272 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.ConsumidorEventos;
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.PoliticaPresion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Difunde por Server-Sent Events los cambios de inventario ya confirmados.
+ *
+ * Cada evento recibe un id "arranque:secuencia" y se guarda en un historial
+ * acotado; un cliente que se reconecta con Last-Event-ID recibe solo lo que se
+ * perdió. La secuencia vuelve a cero en cada arranque y cada nodo del cluster
+ * tiene la suya, así que un id de otro arranque u otro nodo no se compara: como
+ * un id que ya salió del historial, recibe RESINCRONIZAR para que recargue.
+ * Todos los envíos pasan por un único hilo, así el orden de los ids se respeta
+ * y una conexión lenta nunca bloquea la transacción que originó el cambio.
+ */
+@Service
+public class NotificacionService implements ConsumidorEventos {
+
+    public static final String RESINCRONIZAR = "RESINCRONIZAR";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${almacen.eventos.historial:500}")
+    private int capacidadHistorial;
+
+    @Value("${almacen.eventos.timeout-ms:1800000}")
+    private long timeoutConexionMs;
+
+    private final List<SseEmitter> conexiones = new CopyOnWriteArrayList<>();
+    private final Deque<EventoEnviado> historial = new ArrayDeque<>();
+    private final ExecutorService difusor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "eventos-sse");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    // Identifica este arranque de este nodo; va delante de cada id de evento
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36)
+            + Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36 * 36), 36);
+
+    private long ultimoId = 0;
+
+    /**
+     * Abre una conexión SSE. Si el cliente informa el último id que recibió,
+     * primero se le reenvían los eventos posteriores que siguen en el historial.
+     */
+    public SseEmitter suscribir(String ultimoEventoRecibido) {
+        SseEmitter emitter = new SseEmitter(timeoutConexionMs);
+        emitter.onCompletion(() -> conexiones.remove(emitter));
+        emitter.onTimeout(() -> conexiones.remove(emitter));
+        emitter.onError(e -> conexiones.remove(emitter));
+
+        synchronized (historial) {
+            List<EventoEnviado> pendientes = new ArrayList<>();
+            boolean resincronizar = false;
+
+            if (ultimoEventoRecibido != null) {
+                long recibido = secuenciaDe(ultimoEventoRecibido);
+                if (recibido < 0 || recibido > ultimoId) {
+                    // Otro arranque u otro nodo: sus ids no dicen nada de este historial
+                    resincronizar = true;
+                } else if (recibido < ultimoId) {
+                    EventoEnviado masAntiguo = historial.peekFirst();
+                    if (masAntiguo == null || masAntiguo.id > recibido + 1) {
+                        resincronizar = true;
+                    } else {
+                        for (EventoEnviado enviado : historial) {
+                            if (enviado.id > recibido) {
+                                pendientes.add(enviado);
+                            }
+                        }
+                    }
+                }
+            }
+
+            boolean debeResincronizar = resincronizar;
+            long idActual = ultimoId;
+            // Se encola bajo el mismo candado que publicar(), así ningún evento se pierde ni se duplica
+            difusor.execute(() -> {
+                try {
+                    if (debeResincronizar) {
+                        emitter.send(SseEmitter.event()
+                                .id(idEvento(idActual))
+                                .name(RESINCRONIZAR)
+                                .data("{}"));
+                    }
+                    for (EventoEnviado enviado : pendientes) {
+                        enviar(emitter, enviado);
+                    }
+                    conexiones.add(emitter);
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            });
+        }
+
+        return emitter;
+    }
+
+    public String getUltimoEventoId() {
+        synchronized (historial) {
+            return idEvento(ultimoId);
+        }
+    }
+
+    public int getConexionesActivas() {
+        return conexiones.size();
+    }
+
+    @Override
+    public String getNombreConsumidor() {
+        return "notificaciones";
+    }
+
+    /** Cambios confirmados y cruces de umbral; los de lote no llegan a los navegadores. */
+    @Override
+    public boolean acepta(EventoInventario evento) {
+        return !evento.esDeLote();
+    }
+
+    @Override
+    public void procesar(List<EventoInventario> lote) {
+        lote.forEach(this::publicar);
+    }
+
+    @Override
+    public PoliticaPresion getPolitica() {
+        return PoliticaPresion.DESCARTAR;
+    }
+
+    /** Los navegadores conectados ya no tienen la secuencia completa: que recarguen. */
+    @Override
+    public void alPerderEventos(long cantidad) {
+        synchronized (historial) {
+            historial.clear();
+            long idActual = ultimoId;
+            difusor.execute(() -> {
+                for (SseEmitter emitter : conexiones) {
+                    try {
+                        emitter.send(SseEmitter.event()
+                                .id(idEvento(idActual))
+                                .name(RESINCRONIZAR)
+                                .data("{}"));
+                    } catch (IOException | IllegalStateException e) {
+                        conexiones.remove(emitter);
+                        emitter.completeWithError(e);
+                    }
+                }
+            });
+        }
+    }
+
+    private void publicar(EventoInventario evento) {
+        String datos;
+        try {
+            Map<String, Object> cuerpo = new LinkedHashMap<>();
+            cuerpo.put("tipo", evento.getTipo());
+            cuerpo.put("fecha", evento.getFecha());
+            cuerpo.put("filas", evento.getFilas());
+            datos = objectMapper.writeValueAsString(cuerpo);
+        } catch (IOException e) {
+            System.err.println("No se pudo serializar " + evento + ": " + e.getMessage());
+            return;
+        }
+
+        synchronized (historial) {
+            EventoEnviado enviado = new EventoEnviado(++ultimoId, evento.getTipo().name(), datos);
+            historial.addLast(enviado);
+            while (historial.size() > capacidadHistorial) {
+                historial.removeFirst();
+            }
+            difusor.execute(() -> difundir(enviado));
+        }
+    }
+
+    private void difundir(EventoEnviado enviado) {
+        for (SseEmitter emitter : conexiones) {
+            try {
+                enviar(emitter, enviado);
+            } catch (IOException | IllegalStateException e) {
+                conexiones.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void enviar(SseEmitter emitter, EventoEnviado enviado) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(idEvento(enviado.id))
+                .name(enviado.nombre)
+                .data(enviado.datos));
+    }
+
+    private String idEvento(long secuencia) {
+        return arranque + ":" + secuencia;
+    }
+
+    /** Secuencia de un id de este arranque, o -1 si es de otro arranque o no se entiende. */
+    private long secuenciaDe(String id) {
+        int separador = id.lastIndexOf(':');
+        if (separador < 0 || !id.substring(0, separador).equals(arranque)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(separador + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Comentario SSE periódico para que proxies y navegadores no cierren
+     * conexiones inactivas y para descartar las que ya se cortaron.
+     */
+    @Scheduled(fixedRateString = "${almacen.eventos.heartbeat-ms:25000}")
+    public void latido() {
+        if (conexiones.isEmpty()) return;
+        difusor.execute(() -> {
+            for (SseEmitter emitter : conexiones) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    conexiones.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        difusor.shutdownNow();
+        for (SseEmitter emitter : conexiones) {
+            emitter.complete();
+        }
+        conexiones.clear();
+    }
+
+    private static class EventoEnviado {
+        private final long id;
+        private final String nombre;
+        private final String datos;
+
+        private EventoEnviado(long id, String nombre, String datos) {
+            this.id = id;
+            this.nombre = nombre;
+            this.datos = datos;
+        }
+    }
+}
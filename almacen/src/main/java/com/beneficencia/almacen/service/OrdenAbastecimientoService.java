@@ -1,10 +1,13 @@
 package com.beneficencia.almacen.service;
 
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.FilasInventario;
 import com.beneficencia.almacen.model.*;
 import com.beneficencia.almacen.repository.OrdenAbastecimientoItemRepository;
 import com.beneficencia.almacen.repository.OrdenAbastecimientoRepository;
 import com.beneficencia.almacen.repository.ProveedorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityManager;
@@ -31,6 +34,18 @@ public class OrdenAbastecimientoService {
     @Autowired  //
     private ProductoService productoService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private FiltrosExistencia filtrosExistencia;
+
+    @Autowired
+    private SecuenciaDocumentoService secuenciaDocumentoService;
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -67,6 +82,7 @@ public class OrdenAbastecimientoService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<OrdenAbastecimiento> obtenerTodasOrdenes() {
         try {
             System.out.println("=== BUSCANDO TODAS LAS ÓRDENES DE ABASTECIMIENTO ===");
@@ -139,6 +155,12 @@ public class OrdenAbastecimientoService {
             System.out.println("¿Es nueva orden? " + esNuevaOrden +
                     " - ID: " + ordenAbastecimiento.getId());
 
+            // Un borrador de reabastecimiento nunca sumó stock: al confirmarlo se suma completo
+            boolean recibeBorrador = !esNuevaOrden && ordenAbastecimientoRepository
+                    .findEstadoById(ordenAbastecimiento.getId())
+                    .map(estado -> estado == OrdenAbastecimiento.EstadoOrden.PENDIENTE)
+                    .orElse(false);
+
             if (!esNuevaOrden) {
                 eliminarItemsAntiguosDirectamente(ordenAbastecimiento.getId());
             }
@@ -185,7 +207,10 @@ public class OrdenAbastecimientoService {
 
             OrdenAbastecimiento ordenGuardada = ordenAbastecimientoRepository.save(ordenAbastecimiento);
 
-            actualizarInventarioProductos(ordenGuardada, esNuevaOrden);
+            actualizarInventarioProductos(ordenGuardada, esNuevaOrden || recibeBorrador);
+
+            eventPublisher.publishEvent(EventoInventario.deFila(
+                    EventoInventario.TipoEvento.NUEVO_ABASTECIMIENTO, FilasInventario.ordenAbastecimiento(ordenGuardada)));
 
             System.out.println("Orden guardada exitosamente con ID: " + ordenGuardada.getId());
             System.out.println("Total de orden: S/ " + ordenGuardada.getTotal());
@@ -201,6 +226,27 @@ public class OrdenAbastecimientoService {
         }
     }
 
+    /**
+     * Guarda una orden en estado PENDIENTE sin tocar el inventario. La usa el
+     * reabastecimiento automático; el stock se suma cuando la orden se edita y confirma.
+     */
+    @Transactional
+    public OrdenAbastecimiento guardarBorrador(OrdenAbastecimiento borrador) {
+        if (borrador.getTipoOrden() == null || borrador.getProveedor() == null) {
+            throw new IllegalArgumentException("El borrador requiere tipo de orden y proveedor");
+        }
+
+        borrador.setEstado(OrdenAbastecimiento.EstadoOrden.PENDIENTE);
+        borrador.setNumeroOA(generarNumeroOAUnico(borrador.getTipoOrden()));
+        calcularTotal(borrador);
+        borrador.setFechaActualizacion(LocalDateTime.now());
+
+        // saveAndFlush para que el siguiente número generado vea este
+        OrdenAbastecimiento guardado = ordenAbastecimientoRepository.saveAndFlush(borrador);
+        System.out.println("Borrador de abastecimiento " + guardado.getNumeroOA() + " - items: " + guardado.getItems().size());
+        return guardado;
+    }
+
     private void actualizarInventarioProductos(OrdenAbastecimiento orden, boolean esNuevaOrden) {
         System.out.println("ACTUALIZANDO INVENTARIO - Orden: " + orden.getNumeroOA() +
                 " - Tipo: " + (esNuevaOrden ? "NUEVA" : "EDITAR"));
@@ -239,6 +285,7 @@ public class OrdenAbastecimientoService {
                     }
 
                     productoService.actualizarProducto(productoActual);
+                    loteService.registrarLote(orden, item);
 
                     System.out.println("Producto sumado: " + productoActual.getNombre() +
                             " - Stock: " + cantidadActual + " + " + cantidadOrdenada + " = " + nuevaCantidad);
@@ -302,6 +349,7 @@ public class OrdenAbastecimientoService {
                         }
 
                         productoActual.setCantidad(nuevaCantidad);
+                        loteService.ajustarPorEdicion(orden, itemEditado, diferencia);
 
                         System.out.println("Ajuste: " + cantidadActual + " + " + diferencia + " = " + nuevaCantidad);
                     }
@@ -394,37 +442,21 @@ public class OrdenAbastecimientoService {
 
         System.out.println("Generando número para tipo: " + tipoOrden + ", prefijo: " + prefijo + ", año: " + año);
 
-        try {
-            Long maxNumero = ordenAbastecimientoRepository.findMaxNumeroByPrefijoAndYear(prefijo, año);
-            Long nextNumber = (maxNumero != null) ? maxNumero + 1 : 1;
-
-            String numeroPropuesto = String.format("%s-%s-%03d", prefijo, año, nextNumber);
-            System.out.println("Número propuesto: " + numeroPropuesto);
-
+        // La serie arranca en el mayor número ya emitido; los existentes se saltan
+        // por si quedaron números cargados a mano por encima de la serie
+        for (int intento = 0; intento < 1000; intento++) {
+            long numero = secuenciaDocumentoService.siguiente("oa-" + prefijo + "-" + año, () -> {
+                Long maxNumero = ordenAbastecimientoRepository.findMaxNumeroByPrefijoAndYear(prefijo, año);
+                return maxNumero != null ? maxNumero : 0L;
+            });
+            String numeroPropuesto = String.format("%s-%s-%03d", prefijo, año, numero);
             if (!ordenAbastecimientoRepository.existsByNumeroOA(numeroPropuesto)) {
+                System.out.println("Número propuesto: " + numeroPropuesto);
                 return numeroPropuesto;
             }
-        } catch (Exception e) {
-            System.err.println("Error en generación automática: " + e.getMessage());
         }
 
-        System.out.println("Buscando número disponible secuencialmente...");
-        for (long i = 1; i <= 999; i++) {
-            String numeroPropuesto = String.format("%s-%s-%03d", prefijo, año, i);
-            if (!ordenAbastecimientoRepository.existsByNumeroOA(numeroPropuesto)) {
-                System.out.println("Número generado (búsqueda secuencial): " + numeroPropuesto);
-                return numeroPropuesto;
-            }
-        }
-
-        String numeroFallback = generarNumeroFallback(prefijo, año);
-        System.out.println("Número fallback: " + numeroFallback);
-        return numeroFallback;
-    }
-
-    private String generarNumeroFallback(String prefijo, String año) {
-        String timestamp = String.valueOf(System.currentTimeMillis()).substring(7, 12);
-        return String.format("%s-%s-%s", prefijo, año, timestamp);
+        throw new RuntimeException("No se encontró un número de orden libre para " + prefijo + "-" + año);
     }
 
     private String obtenerPrefijoTipo(OrdenAbastecimiento.TipoOrden tipoOrden) {
@@ -437,7 +469,8 @@ public class OrdenAbastecimientoService {
         };
     }
 
-    private void calcularTotal(OrdenAbastecimiento ordenAbastecimiento) {
+    // Sin private: almacen-benchmarks lo mide desde el mismo paquete
+    void calcularTotal(OrdenAbastecimiento ordenAbastecimiento) {
         if (ordenAbastecimiento.getItems() != null && !ordenAbastecimiento.getItems().isEmpty()) {
             double total = ordenAbastecimiento.getItems().stream()
                     .mapToDouble(item -> item.getSubtotal() != null ? item.getSubtotal().doubleValue() : 0.0)
@@ -450,7 +483,7 @@ public class OrdenAbastecimientoService {
         }
     }
 
-    private void validarItemsOrden(OrdenAbastecimiento ordenAbastecimiento) {
+    void validarItemsOrden(OrdenAbastecimiento ordenAbastecimiento) {
         if (ordenAbastecimiento.getItems() == null || ordenAbastecimiento.getItems().isEmpty()) {
             System.out.println("Orden sin items - permitido para algunos tipos de orden");
             return;
@@ -504,7 +537,8 @@ public class OrdenAbastecimientoService {
 
     public boolean existeOrdenConNumero(String numeroOA) {
         try {
-            return ordenAbastecimientoRepository.existsByNumeroOA(numeroOA);
+            return filtrosExistencia.existe(FiltrosExistencia.Tipo.NUMERO_OA, numeroOA,
+                    ordenAbastecimientoRepository::existsByNumeroOA);
         } catch (Exception e) {
             System.err.println("ERROR al verificar número de orden: " + e.getMessage());
             return false;
@@ -1,8 +1,11 @@
 package com.beneficencia.almacen.service;
 
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.FilasInventario;
 import com.beneficencia.almacen.model.*;
 import com.beneficencia.almacen.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -11,8 +14,14 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 @Transactional
@@ -36,6 +45,22 @@ public class OrdenSalidaService {
     @Autowired
     private MovimientoInventarioRepository movimientoInventarioRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private SecuenciaDocumentoService secuenciaDocumentoService;
+
+    @Autowired
+    private DisponibilidadKits disponibilidadKits;
+
+    @Autowired
+    private LimiteEntregasService limiteEntregasService;
+
+    @Transactional(readOnly = true)
     public List<OrdenSalida> obtenerTodasOrdenes() {
         return ordenSalidaRepository.findAllOrderByFecha();
     }
@@ -54,16 +79,19 @@ public class OrdenSalidaService {
         return ordenOpt;
     }
 
+    @Transactional(readOnly = true)
     public List<OrdenSalida> buscarPorFecha(LocalDate fechaInicio, LocalDate fechaFin) {
         return ordenSalidaRepository.findByFechaSalidaBetween(fechaInicio, fechaFin);
     }
 
+    @Transactional(readOnly = true)
     public List<OrdenSalida> buscarPorDniUsuario(String dni) {
-        return ordenSalidaRepository.findByDniUsuarioContaining(dni);
+        return ordenSalidaRepository.findByDniUsuarioStartingWithOrderByFechaSalidaDescIdDesc(dni);
     }
 
+    @Transactional(readOnly = true)
     public List<OrdenSalida> buscarPorNumeroTramite(String tramite) {
-        return ordenSalidaRepository.findByNumeroTramiteContaining(tramite);
+        return ordenSalidaRepository.findByNumeroTramiteStartingWithOrderByFechaSalidaDescIdDesc(tramite);
     }
 
     public Optional<OrdenSalida> buscarPorNumeroOrden(String numeroOrden) {
@@ -99,6 +127,9 @@ public class OrdenSalidaService {
                     });
         }
         ordenSalida.setBeneficiario(beneficiario);
+        if (beneficiario != null) {
+            limiteEntregasService.reservar(beneficiario.getId());
+        }
 
         if (ordenSalida.getNumeroOrden() == null || ordenSalida.getNumeroOrden().isEmpty()) {
             ordenSalida.setNumeroOrden(generarNumeroOrden());
@@ -115,16 +146,10 @@ public class OrdenSalidaService {
         OrdenSalida ordenGuardada = ordenSalidaRepository.save(ordenSalida);
 
         if (items != null && !items.isEmpty()) {
+            Map<Long, Producto> productos = bloquearConStock(items);
             for (OrdenSalidaItem item : items) {
-                // Validar y actualizar stock
-                Producto producto = productoRepository.findById(item.getProducto().getId())
-                        .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + item.getProducto().getId()));
-
-                if (producto.getCantidad() < item.getCantidad()) {
-                    throw new RuntimeException("Stock insuficiente para " + producto.getNombre() +
-                            ". Disponible: " + producto.getCantidad() + ", Solicitado: " + item.getCantidad());
-                }
-
+                Producto producto = productos.get(item.getProducto().getId());
+                int stockAntes = producto.getCantidad();
                 producto.setCantidad(producto.getCantidad() - item.getCantidad());
                 productoRepository.save(producto);
 
@@ -134,6 +159,7 @@ public class OrdenSalidaService {
                 }
 
                 ordenSalidaItemRepository.save(item);
+                loteService.asignarSalida(ordenGuardada.getId(), item, producto, stockAntes);
 
                 MovimientoInventario movimiento = crearMovimientoSalida(
                         producto,
@@ -150,7 +176,91 @@ public class OrdenSalidaService {
             );
         }
 
-        return ordenSalidaRepository.save(ordenGuardada);
+        OrdenSalida resultado = ordenSalidaRepository.save(ordenGuardada);
+        eventPublisher.publishEvent(EventoInventario.deFila(
+                EventoInventario.TipoEvento.NUEVA_SALIDA, FilasInventario.ordenSalida(resultado, items)));
+        return resultado;
+    }
+
+    /**
+     * Despacha una orden con productos sueltos y kits. Cada kit se reemplaza por los
+     * productos de su expansión precalculada; si un producto ya está en la orden se
+     * suma a esa línea.
+     *
+     * @param kits kitId -> cantidad de kits
+     */
+    @Transactional
+    public OrdenSalida guardarOrdenConKits(OrdenSalida ordenSalida, List<OrdenSalidaItem> items, Map<Long, Integer> kits) {
+        Map<Long, OrdenSalidaItem> porProducto = new LinkedHashMap<>();
+        for (OrdenSalidaItem item : items) {
+            OrdenSalidaItem existente = porProducto.putIfAbsent(item.getProducto().getId(), item);
+            if (existente != null) {
+                existente.setCantidad(existente.getCantidad() + item.getCantidad());
+            }
+        }
+
+        List<String> despachados = new ArrayList<>();
+        for (Map.Entry<Long, Integer> kit : kits.entrySet()) {
+            ExpansionKit expansion = disponibilidadKits.obtenerExpansion(kit.getKey());
+            if (expansion == null || !expansion.isActivo()) {
+                throw new RuntimeException("Kit no encontrado o inactivo: " + kit.getKey());
+            }
+            if (kit.getValue() == null || kit.getValue() <= 0) {
+                throw new RuntimeException("La cantidad del kit " + expansion.getNombre() + " debe ser mayor a cero");
+            }
+            expansion.multiplicar(kit.getValue()).forEach((productoId, cantidad) -> {
+                OrdenSalidaItem item = porProducto.get(productoId);
+                if (item == null) {
+                    item = new OrdenSalidaItem();
+                    item.setProducto(productoRepository.getReferenceById(productoId));
+                    item.setCantidad(0);
+                    porProducto.put(productoId, item);
+                }
+                item.setCantidad(item.getCantidad() + cantidad);
+            });
+            despachados.add(kit.getValue() + " x " + expansion.getNombre());
+        }
+
+        if (!despachados.isEmpty()) {
+            String kitsTexto = "Kits: " + String.join(", ", despachados);
+            ordenSalida.setObservaciones(ordenSalida.getObservaciones() == null || ordenSalida.getObservaciones().isBlank()
+                    ? kitsTexto : ordenSalida.getObservaciones() + " | " + kitsTexto);
+        }
+        return guardarOrdenConItems(ordenSalida, new ArrayList<>(porProducto.values()));
+    }
+
+    /**
+     * Bloquea de una vez todos los productos de la orden (en orden de id, para no
+     * cruzarse con otras salidas) y verifica el stock de todos antes de tocar
+     * ninguno, sumando las líneas repetidas de un mismo producto. El stock se relee
+     * con el bloqueo tomado: el controlador ya cargó estos productos en la sesión.
+     */
+    private Map<Long, Producto> bloquearConStock(List<OrdenSalidaItem> items) {
+        Map<Long, Integer> solicitado = new LinkedHashMap<>();
+        for (OrdenSalidaItem item : items) {
+            solicitado.merge(item.getProducto().getId(), item.getCantidad(), Integer::sum);
+        }
+
+        Map<Long, Producto> productos = new HashMap<>();
+        for (Producto producto : productoRepository.bloquearVigentes(solicitado.keySet())) {
+            productos.put(producto.getId(), producto);
+        }
+
+        List<String> faltantes = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entrada : solicitado.entrySet()) {
+            Producto producto = productos.get(entrada.getKey());
+            if (producto == null) {
+                throw new RuntimeException("Producto no encontrado: " + entrada.getKey());
+            }
+            if (producto.getCantidad() < entrada.getValue()) {
+                faltantes.add(producto.getNombre() + ". Disponible: " + producto.getCantidad() +
+                        ", Solicitado: " + entrada.getValue());
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            throw new RuntimeException("Stock insuficiente para " + String.join("; ", faltantes));
+        }
+        return productos;
     }
 
     private MovimientoInventario crearMovimientoSalida(Producto producto, Integer cantidad,
@@ -199,6 +309,21 @@ public class OrdenSalidaService {
         if (ordenOpt.isPresent()) {
             OrdenSalida orden = ordenOpt.get();
 
+            // Los items trajeron sus productos antes del bloqueo: se bloquean (en orden de id)
+            // y se releen antes de devolver stock, tenga o no la orden lotes asignados
+            Set<Long> productoIds = new TreeSet<>();
+            for (OrdenSalidaItem item : orden.getItems()) {
+                if (item.getProducto() != null) {
+                    productoIds.add(item.getProducto().getId());
+                }
+            }
+            productoRepository.bloquearVigentes(productoIds);
+
+            loteService.revertirSalida(id);
+            if (orden.getBeneficiario() != null) {
+                limiteEntregasService.descontarAlConfirmar(orden.getBeneficiario().getId(), orden.getFechaRegistro());
+            }
+
             for (OrdenSalidaItem item : orden.getItems()) {
                 Producto producto = item.getProducto();
                 if (producto != null) {
@@ -226,23 +351,40 @@ public class OrdenSalidaService {
     }
 
     private String generarNumeroOrden() {
-        Long totalOrdenes = contarTotalOrdenes();
-        int consecutivo = totalOrdenes.intValue() + 1;
-        int año = LocalDate.now().getYear();
-        return String.format("OS-%04d-%d", consecutivo, año);
+        return generarNumerosOrden(1).get(0);
     }
 
     private String generarNumeroOrdenSalida(LocalDate fechaSalida) {
-        String fechaStr = fechaSalida != null ?
-                fechaSalida.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM")) :
-                LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM"));
+        return generarNumerosOrdenSalida(fechaSalida, 1).get(0);
+    }
 
-        Long secuencia = ordenSalidaRepository.countByFechaSalidaYearAndMonth(
-                fechaSalida != null ? fechaSalida.getYear() : LocalDate.now().getYear(),
-                fechaSalida != null ? fechaSalida.getMonthValue() : LocalDate.now().getMonthValue()
-        );
+    /** Bloque de números de orden consecutivos (OS-0001-2025) tomado con un solo bloqueo de la serie. */
+    public List<String> generarNumerosOrden(int cantidad) {
+        long primero = secuenciaDocumentoService.reservarBloque("orden-salida", cantidad, () -> {
+            Long ultimoId = ordenSalidaRepository.findUltimoId();
+            return Math.max(contarTotalOrdenes(), ultimoId != null ? ultimoId : 0L);
+        });
+        int año = LocalDate.now().getYear();
+        List<String> numeros = new ArrayList<>(cantidad);
+        for (long consecutivo = primero; consecutivo < primero + cantidad; consecutivo++) {
+            numeros.add(String.format("OS-%04d-%d", consecutivo, año));
+        }
+        return numeros;
+    }
 
-        return String.format("OS-%s-%04d", fechaStr, secuencia + 1);
+    /** Bloque de números de orden de salida del mes (OS-2025-01-0001). */
+    public List<String> generarNumerosOrdenSalida(LocalDate fechaSalida, int cantidad) {
+        LocalDate fecha = fechaSalida != null ? fechaSalida : LocalDate.now();
+        String fechaStr = fecha.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM"));
+
+        long primero = secuenciaDocumentoService.reservarBloque("orden-salida-" + fechaStr, cantidad, () ->
+                ordenSalidaRepository.countByFechaSalidaYearAndMonth(fecha.getYear(), fecha.getMonthValue()));
+
+        List<String> numeros = new ArrayList<>(cantidad);
+        for (long secuencia = primero; secuencia < primero + cantidad; secuencia++) {
+            numeros.add(String.format("OS-%s-%04d", fechaStr, secuencia));
+        }
+        return numeros;
     }
 
 }
\ No newline at end of file
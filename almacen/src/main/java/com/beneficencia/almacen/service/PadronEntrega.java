@@ -0,0 +1,108 @@
+package com.beneficencia.almacen.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Padrón de un día de distribución en memoria: arreglos paralelos ordenados por DNI
+ * (como entero de 8 dígitos), así que buscar un DNI es una búsqueda binaria y marcar
+ * la entrega es un compareAndSet sobre la hora de entrega, sin consultas a la base.
+ */
+public final class PadronEntrega {
+
+    /** Fila para armar el padrón; entregadoEn es 0 si aún no recibió. */
+    public record Fila(String dni, long beneficiarioId, String nombre, String numeroOrden, long entregadoEn) {}
+
+    private final Long campanaId;
+    private final String campana;
+    private final String derecho;
+    private final int[] dnis;
+    private final long[] beneficiarioIds;
+    private final String[] nombres;
+    private final String[] numerosOrden;
+    private final AtomicLongArray entregadoEn;
+    private final String[] entregadoPor;
+    private final AtomicInteger entregados = new AtomicInteger();
+
+    public PadronEntrega(Long campanaId, String campana, String derecho, List<Fila> filas) {
+        this.campanaId = campanaId;
+        this.campana = campana;
+        this.derecho = derecho;
+
+        Fila[] ordenadas = filas.toArray(new Fila[0]);
+        Arrays.sort(ordenadas, (a, b) -> Integer.compare(Integer.parseInt(a.dni()), Integer.parseInt(b.dni())));
+        int n = ordenadas.length;
+        this.dnis = new int[n];
+        this.beneficiarioIds = new long[n];
+        this.nombres = new String[n];
+        this.numerosOrden = new String[n];
+        this.entregadoEn = new AtomicLongArray(n);
+        this.entregadoPor = new String[n];
+        for (int i = 0; i < n; i++) {
+            Fila fila = ordenadas[i];
+            dnis[i] = Integer.parseInt(fila.dni());
+            beneficiarioIds[i] = fila.beneficiarioId();
+            nombres[i] = fila.nombre();
+            numerosOrden[i] = fila.numeroOrden();
+            entregadoEn.set(i, fila.entregadoEn());
+            if (fila.entregadoEn() > 0) entregados.incrementAndGet();
+        }
+    }
+
+    /** Posición del DNI en el padrón, o -1 si no está. */
+    public int buscar(String dni) {
+        if (dni == null || !dni.matches("\\d{8}")) return -1;
+        int posicion = Arrays.binarySearch(dnis, Integer.parseInt(dni));
+        return posicion >= 0 ? posicion : -1;
+    }
+
+    /**
+     * Marca la entrega si aún no se hizo. Devuelve false si otra persona (u otro
+     * nodo) ya la marcó.
+     */
+    public boolean marcar(int posicion, long momento, String usuario) {
+        if (!entregadoEn.compareAndSet(posicion, 0L, momento)) return false;
+        entregadoPor[posicion] = usuario;
+        entregados.incrementAndGet();
+        return true;
+    }
+
+    /** Deshace una marca propia que no se pudo escribir en la bitácora o en la base. */
+    public void desmarcar(int posicion, long momento) {
+        if (entregadoEn.compareAndSet(posicion, momento, 0L)) {
+            entregadoPor[posicion] = null;
+            entregados.decrementAndGet();
+        }
+    }
+
+    /** Reemplaza una marca propia por la entrega que otro nodo registró antes en la base. */
+    public void corregir(int posicion, long momento, String usuario) {
+        entregadoEn.set(posicion, momento);
+        entregadoPor[posicion] = usuario;
+    }
+
+    public Long getCampanaId() { return campanaId; }
+
+    public String getCampana() { return campana; }
+
+    /** Lo que recibe cada beneficiario (la canasta de la campaña). */
+    public String getDerecho() { return derecho; }
+
+    public int getTotal() { return dnis.length; }
+
+    public int getEntregados() { return entregados.get(); }
+
+    public String getDni(int posicion) { return String.format("%08d", dnis[posicion]); }
+
+    public long getBeneficiarioId(int posicion) { return beneficiarioIds[posicion]; }
+
+    public String getNombre(int posicion) { return nombres[posicion]; }
+
+    public String getNumeroOrden(int posicion) { return numerosOrden[posicion]; }
+
+    public long getEntregadoEn(int posicion) { return entregadoEn.get(posicion); }
+
+    public String getEntregadoPor(int posicion) { return entregadoPor[posicion]; }
+}
@@ -21,6 +21,8 @@ public interface ProductoService {
 
     List<Producto> obtenerProductosConStockBajo();
 
+    List<Producto> obtenerProductosMasCriticos(int limite);
+
     boolean existeProductoPorCodigo(String codigo);
 
     List<Producto> buscarProductosPorTermino(String termino);
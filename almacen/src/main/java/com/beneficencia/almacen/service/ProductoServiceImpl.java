@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +19,18 @@ public class ProductoServiceImpl implements ProductoService {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private AlertaStockIndex alertaStockIndex;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private SecuenciaDocumentoService secuenciaDocumentoService;
+
+    @Autowired
+    private FiltrosExistencia filtrosExistencia;
+
     private static final Map<String, String> PREFIJOS_CATEGORIA = Map.of(
             "Medicamentos", "MED",
             "Insumos Médicos", "INS",
@@ -33,30 +46,39 @@ public class ProductoServiceImpl implements ProductoService {
 
         String prefijo = PREFIJOS_CATEGORIA.getOrDefault(categoria, PREFIJO_DEFAULT);
 
+        long siguienteNumero = secuenciaDocumentoService.siguiente("producto-" + prefijo,
+                () -> ultimoNumeroDeCodigo(prefijo));
+
+        return String.format("%s-%03d", prefijo, siguienteNumero);
+    }
+
+    /** Número del último código emitido con el prefijo, para iniciar su serie. */
+    private long ultimoNumeroDeCodigo(String prefijo) {
         List<Producto> productos = productoRepository.findByCodigoStartingWithOrderByIdDesc(prefijo + "-");
 
-        int siguienteNumero = 1;
+        int ultimoNumero = 0;
         if (!productos.isEmpty()) {
             String ultimoCodigo = productos.get(0).getCodigo();
             try {
                 String[] partes = ultimoCodigo.split("-");
                 if (partes.length > 1) {
                     String numeroStr = partes[1].replaceAll("^0+", "");
-                    siguienteNumero = Integer.parseInt(numeroStr.isEmpty() ? "0" : numeroStr) + 1;
+                    ultimoNumero = Integer.parseInt(numeroStr.isEmpty() ? "0" : numeroStr);
                 }
             } catch (NumberFormatException e) {
-                siguienteNumero = 1;
+                ultimoNumero = 0;
             }
         }
-
-        return String.format("%s-%03d", prefijo, siguienteNumero);
+        return ultimoNumero;
     }
 
     public boolean codigoExiste(String codigo) {
-        return productoRepository.existsByCodigoIgnoreCase(codigo);
+        return filtrosExistencia.existe(FiltrosExistencia.Tipo.CODIGO_PRODUCTO, codigo,
+                productoRepository::existsByCodigoIgnoreCase);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Producto> obtenerTodosProductos() {
         return productoRepository.findAll();
     }
@@ -75,7 +97,7 @@ public class ProductoServiceImpl implements ProductoService {
             producto.setCodigo(codigoAutomatico);
             System.out.println("Código generado automáticamente: " + codigoAutomatico);
         } else {
-            if (codigoExiste(producto.getCodigo())) {
+            if (productoRepository.existsByCodigoIgnoreCase(producto.getCodigo())) {
                 throw new IllegalArgumentException("El código " + producto.getCodigo() + " ya existe");
             }
         }
@@ -87,30 +109,53 @@ public class ProductoServiceImpl implements ProductoService {
     @Override
     public Producto actualizarProducto(Producto producto) {
         // Para actualización, no generamos nuevo código
-        return productoRepository.save(producto);
+        Producto actualizado = productoRepository.save(producto);
+        loteService.sincronizarVencimientoSaldos(actualizado);
+        return actualizado;
     }
 
     @Override
     public void eliminarProducto(Long id) {
+        loteService.eliminarLotesDeProducto(id);
         productoRepository.deleteById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Producto> obtenerProductosPorCategoria(String categoria) {
         return productoRepository.findByCategoria(categoria);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Producto> obtenerProductosConStockBajo() {
+        if (alertaStockIndex.estaListo()) {
+            return alertaStockIndex.obtenerStockBajo();
+        }
         return productoRepository.findProductosConStockBajo();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Producto> obtenerProductosMasCriticos(int limite) {
+        if (alertaStockIndex.estaListo()) {
+            return alertaStockIndex.obtenerMasCriticos(limite);
+        }
+        return obtenerProductosConStockBajo().stream()
+                .sorted(Comparator.comparingLong(p ->
+                        p.getCantidad() == null ? Long.MIN_VALUE
+                                : (long) p.getCantidad() - (p.getStockMinimo() != null ? p.getStockMinimo() : AlertaStockIndex.STOCK_MINIMO_POR_DEFECTO)))
+                .limit(limite)
+                .toList();
+    }
+
     @Override
     public boolean existeProductoPorCodigo(String codigo) {
         return productoRepository.existsByCodigo(codigo);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Producto> buscarProductosPorTermino(String termino) {
 
         try {
@@ -140,7 +185,11 @@ public class ProductoServiceImpl implements ProductoService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Long contarProductosConStockBajo() {
+        if (alertaStockIndex.estaListo()) {
+            return alertaStockIndex.contarStockBajo();
+        }
         try {
             return productoRepository.countByCantidadLessThanEqualStockMinimo();
         } catch (Exception e) {
@@ -152,6 +201,7 @@ public class ProductoServiceImpl implements ProductoService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<String> obtenerTodasLasCategorias() {
         return productoRepository.findAll().stream()
                 .map(Producto::getCategoria)
@@ -162,12 +212,11 @@ public class ProductoServiceImpl implements ProductoService {
 
     @Override
     public boolean tieneStockBajo(Producto producto) {
-        if (producto.getCantidad() == null) return true;
-        if (producto.getStockMinimo() == null) return producto.getCantidad() <= 5;
-        return producto.getCantidad() <= producto.getStockMinimo();
+        return AlertaStockIndex.esStockBajo(producto.getCantidad(), producto.getStockMinimo());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Map<String, Object> obtenerEstadisticasInventario() {
         List<Producto> todosProductos = productoRepository.findAll();
         List<Producto> productosStockBajo = obtenerProductosConStockBajo();
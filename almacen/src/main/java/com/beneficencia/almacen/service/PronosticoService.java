@@ -0,0 +1,295 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.ConsumidorEventos;
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.FilasInventario;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.repository.OrdenSalidaItemRepository;
+import com.beneficencia.almacen.repository.OrdenSalidaRepository;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pronóstico de demanda mensual por producto y por categoría.
+ *
+ * Los modelos ({@link ModeloPronostico}) se construyen al iniciar con una pasada en
+ * paralelo sobre el consumo mensual agregado en la base de datos, y después se
+ * actualizan en O(1) por item con cada NUEVA_SALIDA confirmada. Mientras se
+ * reconstruye, las salidas nuevas se guardan y se vuelven a aplicar sobre los
+ * modelos nuevos si su orden es posterior a la última que leyó la reconstrucción.
+ * Las órdenes eliminadas solo se descuentan al reconstruir.
+ */
+@Service
+public class PronosticoService implements ConsumidorEventos {
+
+    @Autowired
+    private OrdenSalidaItemRepository ordenSalidaItemRepository;
+
+    @Autowired
+    private OrdenSalidaRepository ordenSalidaRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Value("${almacen.pronosticos.alfa:0.3}")
+    private double alfa;
+
+    @Value("${almacen.pronosticos.gamma:0.2}")
+    private double gamma;
+
+    @Value("${almacen.pronosticos.paralelismo:0}")
+    private int paralelismo;
+
+    private ForkJoinPool pool;
+
+    private volatile Map<Long, ModeloPronostico> porProducto = new ConcurrentHashMap<>();
+    private volatile Map<String, ModeloPronostico> porCategoria = new ConcurrentHashMap<>();
+    private final Map<Long, Producto> productos = new ConcurrentHashMap<>();
+
+    private final Object bloqueo = new Object();
+    // Salidas recibidas durante una reconstrucción; null si no hay ninguna en curso
+    private List<Map<String, Object>> pendientes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        try {
+            reconstruir();
+        } catch (Exception e) {
+            System.err.println("No se pudieron construir los pronósticos: " + e.getMessage());
+        }
+    }
+
+    /** Vuelve a calcular todos los modelos desde el historial de salidas. */
+    public Map<String, Object> reconstruir() {
+        synchronized (bloqueo) {
+            if (pendientes != null) {
+                throw new RuntimeException("Ya hay una reconstrucción de pronósticos en curso");
+            }
+            pendientes = new ArrayList<>();
+        }
+
+        try {
+            long inicio = System.currentTimeMillis();
+            Long ultimaOrden = ordenSalidaRepository.findUltimoId();
+            long hastaOrdenId = ultimaOrden != null ? ultimaOrden : 0L;
+
+            Map<Long, Producto> catalogo = new ConcurrentHashMap<>();
+            for (Producto producto : productoRepository.findAll()) {
+                catalogo.put(producto.getId(), FilasInventario.aProducto(FilasInventario.producto(producto)));
+            }
+
+            ReconstructorPronosticos reconstructor = new ReconstructorPronosticos(obtenerPool(), alfa, gamma);
+            Map<Long, ModeloPronostico> nuevosPorProducto = reconstructor.reconstruir(
+                    agrupar(ordenSalidaItemRepository.findConsumoMensualPorProducto(hastaOrdenId)));
+            Map<String, ModeloPronostico> nuevosPorCategoria = reconstructor.reconstruir(
+                    agrupar(ordenSalidaItemRepository.findConsumoMensualPorCategoria(hastaOrdenId)));
+
+            int reaplicadas = 0;
+            synchronized (bloqueo) {
+                porProducto = nuevosPorProducto;
+                porCategoria = nuevosPorCategoria;
+                // Lo que llegó por eventos durante la reconstrucción es más reciente que el catálogo leído
+                catalogo.forEach(productos::putIfAbsent);
+                for (Map<String, Object> salida : pendientes) {
+                    Long ordenId = (Long) salida.get("id");
+                    if (ordenId != null && ordenId > hastaOrdenId) {
+                        aplicarSalida(salida);
+                        reaplicadas++;
+                    }
+                }
+                pendientes = null;
+            }
+
+            long duracion = System.currentTimeMillis() - inicio;
+            System.out.println("Pronósticos reconstruidos en " + duracion + " ms - productos: " +
+                    nuevosPorProducto.size() + ", categorías: " + nuevosPorCategoria.size());
+
+            Map<String, Object> resumen = new LinkedHashMap<>();
+            resumen.put("productos", nuevosPorProducto.size());
+            resumen.put("categorias", nuevosPorCategoria.size());
+            resumen.put("hastaOrdenId", hastaOrdenId);
+            resumen.put("salidasReaplicadas", reaplicadas);
+            resumen.put("duracionMs", duracion);
+            return resumen;
+        } catch (RuntimeException e) {
+            synchronized (bloqueo) {
+                pendientes = null;
+            }
+            throw e;
+        }
+    }
+
+    /** Convierte filas [clave, año, mes, cantidad] ordenadas por clave en series. */
+    private <K> List<ReconstructorPronosticos.Serie<K>> agrupar(List<Object[]> filas) {
+        List<ReconstructorPronosticos.Serie<K>> series = new ArrayList<>();
+        ReconstructorPronosticos.Serie<K> actual = null;
+        for (Object[] fila : filas) {
+            @SuppressWarnings("unchecked")
+            K clave = (K) fila[0];
+            if (clave == null || fila[3] == null) continue;
+            if (actual == null || !actual.getClave().equals(clave)) {
+                actual = new ReconstructorPronosticos.Serie<>(clave, 16);
+                series.add(actual);
+            }
+            LocalDate mes = LocalDate.of(((Number) fila[1]).intValue(), ((Number) fila[2]).intValue(), 1);
+            actual.agregar(mes, ((Number) fila[3]).doubleValue());
+        }
+        return series;
+    }
+
+    private ForkJoinPool obtenerPool() {
+        synchronized (bloqueo) {
+            if (pool == null) {
+                int hilos = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+                pool = new ForkJoinPool(hilos);
+            }
+            return pool;
+        }
+    }
+
+    @Override
+    public String getNombreConsumidor() {
+        return "pronosticos";
+    }
+
+    @Override
+    public boolean acepta(EventoInventario evento) {
+        return evento.getTipo() == EventoInventario.TipoEvento.NUEVA_SALIDA
+                || evento.getTipo() == EventoInventario.TipoEvento.STOCK_CAMBIADO
+                || evento.getTipo() == EventoInventario.TipoEvento.PRODUCTO_ELIMINADO;
+    }
+
+    /** Bloquea (política por defecto): una salida perdida desviaría el modelo hasta la próxima reconstrucción. */
+    @Override
+    public void procesar(List<EventoInventario> lote) {
+        lote.forEach(this::alConfirmarCambio);
+    }
+
+    public void alConfirmarCambio(EventoInventario evento) {
+        switch (evento.getTipo()) {
+            case NUEVA_SALIDA -> evento.getFilas().forEach(salida -> {
+                synchronized (bloqueo) {
+                    if (pendientes != null) {
+                        pendientes.add(salida);
+                    }
+                    aplicarSalida(salida);
+                }
+            });
+            case STOCK_CAMBIADO -> evento.getFilas().forEach(fila ->
+                    productos.put((Long) fila.get("id"), FilasInventario.aProducto(fila)));
+            case PRODUCTO_ELIMINADO -> evento.getFilas().forEach(fila -> {
+                productos.remove((Long) fila.get("id"));
+                porProducto.remove((Long) fila.get("id"));
+            });
+            default -> { }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void aplicarSalida(Map<String, Object> salida) {
+        LocalDate fecha = (LocalDate) salida.get("fechaSalida");
+        List<Map<String, Object>> items = (List<Map<String, Object>>) salida.get("items");
+        if (fecha == null || items == null) return;
+
+        for (Map<String, Object> item : items) {
+            Long productoId = (Long) item.get("productoId");
+            Integer cantidad = (Integer) item.get("cantidad");
+            if (productoId == null || cantidad == null) continue;
+
+            porProducto.computeIfAbsent(productoId, id -> new ModeloPronostico(alfa, gamma))
+                    .registrar(fecha, cantidad);
+
+            Producto producto = productos.get(productoId);
+            if (producto != null && producto.getCategoria() != null) {
+                porCategoria.computeIfAbsent(producto.getCategoria(), c -> new ModeloPronostico(alfa, gamma))
+                        .registrar(fecha, cantidad);
+            }
+        }
+    }
+
+    public Map<String, Object> pronosticarProducto(Long productoId, int meses) {
+        ModeloPronostico modelo = porProducto.get(productoId);
+        Producto producto = productos.get(productoId);
+        if (modelo == null && producto == null) {
+            throw new RuntimeException("Producto no encontrado: " + productoId);
+        }
+
+        Map<String, Object> fila = aFila(modelo, meses);
+        fila.put("productoId", productoId);
+        fila.put("codigo", producto != null ? producto.getCodigo() : null);
+        fila.put("nombre", producto != null ? producto.getNombre() : null);
+        fila.put("categoria", producto != null ? producto.getCategoria() : null);
+        return fila;
+    }
+
+    public List<Map<String, Object>> pronosticarCategorias(int meses) {
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        for (Map.Entry<String, ModeloPronostico> entrada : porCategoria.entrySet()) {
+            Map<String, Object> fila = aFila(entrada.getValue(), meses);
+            fila.put("categoria", entrada.getKey());
+            resultado.add(fila);
+        }
+        resultado.sort(Comparator.comparing(fila -> (String) fila.get("categoria")));
+        return resultado;
+    }
+
+    /** Productos con mayor demanda prevista para el mes actual. */
+    public List<Map<String, Object>> pronosticarMayorDemanda(int meses, int limite) {
+        YearMonth mesActual = YearMonth.now();
+        List<Map.Entry<Long, Double>> previstos = new ArrayList<>();
+        for (Map.Entry<Long, ModeloPronostico> entrada : porProducto.entrySet()) {
+            List<Double> valores = entrada.getValue().pronosticar(mesActual, 1);
+            if (!valores.isEmpty()) {
+                previstos.add(Map.entry(entrada.getKey(), valores.get(0)));
+            }
+        }
+        previstos.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+
+        return previstos.stream()
+                .limit(limite)
+                .map(entrada -> pronosticarProducto(entrada.getKey(), meses))
+                .toList();
+    }
+
+    private Map<String, Object> aFila(ModeloPronostico modelo, int meses) {
+        YearMonth mes = YearMonth.now();
+        List<Map<String, Object>> pronostico = new ArrayList<>();
+        if (modelo != null) {
+            for (Double valor : modelo.pronosticar(mes, meses)) {
+                Map<String, Object> punto = new LinkedHashMap<>();
+                punto.put("mes", mes.toString());
+                punto.put("cantidad", Math.round(valor * 10) / 10.0);
+                pronostico.add(punto);
+                mes = mes.plusMonths(1);
+            }
+        }
+
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("mesesObservados", modelo != null ? modelo.getMesesCerrados() : 0);
+        fila.put("consumoMesActual", modelo != null ? modelo.getAcumuladoMesAbierto() : 0);
+        fila.put("pronostico", pronostico);
+        return fila;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.ConsumidorEventos;
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.FilasInventario;
+import com.beneficencia.almacen.evento.PoliticaPresion;
+import com.beneficencia.almacen.model.Lote;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.model.RegistroVencimiento;
+import com.beneficencia.almacen.repository.LoteRepository;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import com.beneficencia.almacen.repository.RegistroVencimientoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice en memoria de los lotes abiertos ordenados por fecha de vencimiento.
+ *
+ * Un rango de fechas se resuelve con subMap sobre el mapa ordenado, así que el costo
+ * depende de los lotes que vencen en ese rango y no del tamaño del catálogo. El índice
+ * se carga al iniciar y sigue los eventos LOTE_CAMBIADO (stock por lote) y
+ * STOCK_CAMBIADO (nombre y precio para el valor en riesgo). Los eventos que llegan
+ * mientras se recarga se guardan y se vuelven a aplicar sobre lo recién leído.
+ */
+@Service
+public class RadarVencimientoService implements ConsumidorEventos {
+
+    private static final int[] RANGOS_DIAS = {30, 60, 90};
+
+    @Autowired
+    private LoteRepository loteRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private RegistroVencimientoRepository registroVencimientoRepository;
+
+    @Autowired
+    private LoteService loteService;
+
+    private final NavigableMap<LocalDate, Map<Long, EntradaLote>> porFecha = new ConcurrentSkipListMap<>();
+    private final Map<Long, EntradaLote> porLote = new ConcurrentHashMap<>();
+    private final Map<Long, Producto> productos = new ConcurrentHashMap<>();
+
+    private final Object recargando = new Object();
+    // Eventos recibidos durante una recarga; null si no hay ninguna en curso
+    private List<EventoInventario> duranteRecarga;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        loteService.crearSaldosIniciales();
+
+        // Una recarga a la vez: la del inicio y la de alPerderEventos pueden coincidir
+        synchronized (recargando) {
+            synchronized (this) {
+                duranteRecarga = new ArrayList<>();
+            }
+            try {
+                List<Lote> lotes = loteRepository.findDisponiblesConVencimiento();
+                synchronized (this) {
+                    porFecha.clear();
+                    porLote.clear();
+                    for (Lote lote : lotes) {
+                        Producto producto = lote.getProducto();
+                        productos.putIfAbsent(producto.getId(), FilasInventario.aProducto(FilasInventario.producto(producto)));
+                        indexar(new EntradaLote(lote.getId(), producto.getId(), lote.getNumeroOA(),
+                                lote.getFechaVencimiento(), lote.getCantidadDisponible()));
+                    }
+
+                    // La consulta pudo leer los lotes antes de estos cambios
+                    List<EventoInventario> recibidos = duranteRecarga;
+                    duranteRecarga = null;
+                    recibidos.forEach(this::alConfirmarCambio);
+                }
+            } finally {
+                synchronized (this) {
+                    duranteRecarga = null;
+                }
+            }
+        }
+        System.out.println("Radar de vencimientos cargado - lotes con vencimiento: " + porLote.size());
+    }
+
+    @Override
+    public String getNombreConsumidor() {
+        return "radar-vencimientos";
+    }
+
+    @Override
+    public boolean acepta(EventoInventario evento) {
+        return evento.getTipo() == EventoInventario.TipoEvento.LOTE_CAMBIADO
+                || evento.getTipo() == EventoInventario.TipoEvento.STOCK_CAMBIADO
+                || evento.getTipo() == EventoInventario.TipoEvento.PRODUCTO_ELIMINADO;
+    }
+
+    @Override
+    public void procesar(List<EventoInventario> lote) {
+        lote.forEach(this::alConfirmarCambio);
+    }
+
+    @Override
+    public PoliticaPresion getPolitica() {
+        return PoliticaPresion.DESCARTAR;
+    }
+
+    @Override
+    public void alPerderEventos(long cantidad) {
+        cargar();
+    }
+
+    public synchronized void alConfirmarCambio(EventoInventario evento) {
+        if (duranteRecarga != null) {
+            duranteRecarga.add(evento);
+        }
+        switch (evento.getTipo()) {
+            case LOTE_CAMBIADO -> evento.getFilas().forEach(this::aplicarLote);
+            case STOCK_CAMBIADO -> evento.getFilas().forEach(fila -> {
+                Long productoId = (Long) fila.get("id");
+                if (productos.containsKey(productoId)) {
+                    productos.put(productoId, FilasInventario.aProducto(fila));
+                }
+            });
+            case PRODUCTO_ELIMINADO -> evento.getFilas().forEach(fila -> productos.remove((Long) fila.get("id")));
+            default -> { }
+        }
+    }
+
+    private synchronized void aplicarLote(Map<String, Object> fila) {
+        Long loteId = (Long) fila.get("id");
+        Long productoId = (Long) fila.get("productoId");
+        LocalDate vencimiento = (LocalDate) fila.get("fechaVencimiento");
+        Integer cantidad = (Integer) fila.get("cantidadDisponible");
+
+        desindexar(loteId);
+        if (vencimiento == null || cantidad == null || cantidad <= 0 || productoId == null) {
+            return;
+        }
+
+        if (!productos.containsKey(productoId)) {
+            productoRepository.findById(productoId).ifPresent(producto ->
+                    productos.put(productoId, FilasInventario.aProducto(FilasInventario.producto(producto))));
+        }
+        indexar(new EntradaLote(loteId, productoId, (String) fila.get("numeroOA"), vencimiento, cantidad));
+    }
+
+    private void indexar(EntradaLote entrada) {
+        porLote.put(entrada.loteId, entrada);
+        porFecha.computeIfAbsent(entrada.fechaVencimiento, f -> new ConcurrentHashMap<>())
+                .put(entrada.loteId, entrada);
+    }
+
+    private void desindexar(Long loteId) {
+        EntradaLote anterior = porLote.remove(loteId);
+        if (anterior == null) return;
+
+        Map<Long, EntradaLote> delDia = porFecha.get(anterior.fechaVencimiento);
+        if (delDia != null) {
+            delDia.remove(loteId);
+            if (delDia.isEmpty()) {
+                porFecha.remove(anterior.fechaVencimiento, delDia);
+            }
+        }
+    }
+
+    /**
+     * Lotes que vencen entre hoy y hoy + dias, del más próximo al más lejano.
+     * Con incluirVencidos también se devuelven los que ya vencieron y siguen en stock.
+     */
+    public List<Map<String, Object>> obtenerProximosAVencer(int dias, boolean incluirVencidos) {
+        LocalDate hoy = LocalDate.now();
+        NavigableMap<LocalDate, Map<Long, EntradaLote>> rango = incluirVencidos
+                ? porFecha.headMap(hoy.plusDays(dias), true)
+                : porFecha.subMap(hoy, true, hoy.plusDays(dias), true);
+
+        List<Map<String, Object>> resultado = new ArrayList<>();
+        for (Map<Long, EntradaLote> delDia : rango.values()) {
+            for (EntradaLote entrada : delDia.values()) {
+                resultado.add(aFila(entrada, hoy));
+            }
+        }
+        return resultado;
+    }
+
+    /** Lotes, unidades y valor en riesgo por rango: vencidos, 30, 60 y 90 días. */
+    public Map<String, Object> obtenerResumen() {
+        LocalDate hoy = LocalDate.now();
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("vencidos", acumular(porFecha.headMap(hoy, false)));
+
+        LocalDate desde = hoy;
+        for (int dias : RANGOS_DIAS) {
+            LocalDate hasta = hoy.plusDays(dias);
+            // Rangos excluyentes: 0-30, 31-60, 61-90
+            resumen.put("hasta" + dias + "Dias", acumular(porFecha.subMap(desde, true, hasta, true)));
+            desde = hasta.plusDays(1);
+        }
+        return resumen;
+    }
+
+    private Map<String, Object> acumular(NavigableMap<LocalDate, Map<Long, EntradaLote>> rango) {
+        int lotes = 0;
+        long unidades = 0;
+        BigDecimal valor = BigDecimal.ZERO;
+        for (Map<Long, EntradaLote> delDia : rango.values()) {
+            for (EntradaLote entrada : delDia.values()) {
+                lotes++;
+                unidades += entrada.cantidad;
+                valor = valor.add(valorDe(entrada));
+            }
+        }
+        Map<String, Object> acumulado = new LinkedHashMap<>();
+        acumulado.put("lotes", lotes);
+        acumulado.put("unidades", unidades);
+        acumulado.put("valorEnRiesgo", valor);
+        return acumulado;
+    }
+
+    /**
+     * Barrido diario (TrabajoBarridoVencimientos): registra una vez la cantidad de
+     * cada lote que ya venció sin entregarse. Solo recorre el prefijo vencido del índice.
+     */
+    public int registrarVencidos() {
+        LocalDate hoy = LocalDate.now();
+        List<EntradaLote> vencidos = new ArrayList<>();
+        for (Map<Long, EntradaLote> delDia : porFecha.headMap(hoy, false).values()) {
+            vencidos.addAll(delDia.values());
+        }
+        if (vencidos.isEmpty()) return 0;
+
+        Set<Long> yaRegistrados = new HashSet<>(registroVencimientoRepository
+                .findLoteIdsRegistrados(vencidos.stream().map(e -> e.loteId).toList()));
+
+        List<RegistroVencimiento> nuevos = new ArrayList<>();
+        for (EntradaLote entrada : vencidos) {
+            if (yaRegistrados.contains(entrada.loteId)) continue;
+
+            RegistroVencimiento registro = new RegistroVencimiento();
+            registro.setLoteId(entrada.loteId);
+            registro.setProducto(productoRepository.getReferenceById(entrada.productoId));
+            registro.setNumeroOA(entrada.numeroOA);
+            registro.setFechaVencimiento(entrada.fechaVencimiento);
+            registro.setCantidad(entrada.cantidad);
+            registro.setValor(valorDe(entrada));
+            nuevos.add(registro);
+        }
+
+        registroVencimientoRepository.saveAll(nuevos);
+        System.out.println("Barrido de vencimientos: " + nuevos.size() + " lotes vencidos registrados");
+        return nuevos.size();
+    }
+
+    private Map<String, Object> aFila(EntradaLote entrada, LocalDate hoy) {
+        Producto producto = productos.get(entrada.productoId);
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("loteId", entrada.loteId);
+        fila.put("numeroOA", entrada.numeroOA);
+        fila.put("productoId", entrada.productoId);
+        fila.put("codigo", producto != null ? producto.getCodigo() : null);
+        fila.put("nombre", producto != null ? producto.getNombre() : null);
+        fila.put("categoria", producto != null ? producto.getCategoria() : null);
+        fila.put("fechaVencimiento", entrada.fechaVencimiento);
+        fila.put("diasRestantes", ChronoUnit.DAYS.between(hoy, entrada.fechaVencimiento));
+        fila.put("cantidad", entrada.cantidad);
+        fila.put("precioUnitario", producto != null ? producto.getPrecioUnitario() : null);
+        fila.put("valorEnRiesgo", valorDe(entrada));
+        return fila;
+    }
+
+    private BigDecimal valorDe(EntradaLote entrada) {
+        Producto producto = productos.get(entrada.productoId);
+        if (producto == null || producto.getPrecioUnitario() == null) return BigDecimal.ZERO;
+        return producto.getPrecioUnitario().multiply(BigDecimal.valueOf(entrada.cantidad));
+    }
+
+    private static final class EntradaLote {
+        private final long loteId;
+        private final long productoId;
+        private final String numeroOA;
+        private final LocalDate fechaVencimiento;
+        private final int cantidad;
+
+        private EntradaLote(long loteId, long productoId, String numeroOA, LocalDate fechaVencimiento, int cantidad) {
+            this.loteId = loteId;
+            this.productoId = productoId;
+            this.numeroOA = numeroOA;
+            this.fechaVencimiento = fechaVencimiento;
+            this.cantidad = cantidad;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.model.ConsumoProducto;
+import com.beneficencia.almacen.model.EstadoProceso;
+import com.beneficencia.almacen.model.OrdenAbastecimiento;
+import com.beneficencia.almacen.model.OrdenAbastecimientoItem;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.model.Proveedor;
+import com.beneficencia.almacen.model.Usuario;
+import com.beneficencia.almacen.repository.ConsumoProductoRepository;
+import com.beneficencia.almacen.repository.EstadoProcesoRepository;
+import com.beneficencia.almacen.repository.OrdenAbastecimientoItemRepository;
+import com.beneficencia.almacen.repository.OrdenSalidaItemRepository;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import com.beneficencia.almacen.repository.ProveedorRepository;
+import com.beneficencia.almacen.repository.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reabastecimiento automático.
+ *
+ * Cada ejecución (nocturna con TrabajoReabastecimiento, o a pedido) hace dos pasos.
+ * Primero lee solo los items de salida con id mayor a la marca guardada en
+ * estado_procesos y los suma a la velocidad de consumo de su producto (ConsumoProducto). Después evalúa únicamente los productos cuyo consumo
+ * cambió: si el stock está en o por debajo del punto de reorden se sugiere una
+ * cantidad. Las sugerencias se agrupan por el proveedor y tipo de la última compra
+ * del producto y se guardan como órdenes de abastecimiento PENDIENTE (borradores).
+ *
+ * Punto de reorden = consumo diario x (días de entrega + días de seguridad), nunca
+ * menor al stock mínimo. Cantidad sugerida = lo necesario para volver a cubrir ese
+ * punto más los días de cobertura.
+ */
+@Service
+@Transactional
+public class ReabastecimientoService {
+
+    static final String PROCESO = "reabastecimiento";
+
+    private static final int TAMANO_TRAMO = 1000;
+
+    @Autowired
+    private OrdenSalidaItemRepository ordenSalidaItemRepository;
+
+    @Autowired
+    private OrdenAbastecimientoItemRepository ordenAbastecimientoItemRepository;
+
+    @Autowired
+    private ConsumoProductoRepository consumoProductoRepository;
+
+    @Autowired
+    private EstadoProcesoRepository estadoProcesoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private OrdenAbastecimientoService ordenAbastecimientoService;
+
+    @Value("${almacen.reabastecimiento.usuario:admin}")
+    private String usuarioSistema;
+
+    @Value("${almacen.reabastecimiento.vida-media-dias:30}")
+    private double vidaMediaDias;
+
+    @Value("${almacen.reabastecimiento.entrega-dias:7}")
+    private int diasEntrega;
+
+    @Value("${almacen.reabastecimiento.seguridad-dias:7}")
+    private int diasSeguridad;
+
+    @Value("${almacen.reabastecimiento.cobertura-dias:30}")
+    private int diasCobertura;
+
+    /** Actualiza el consumo con las salidas nuevas y genera borradores para lo que haga falta. */
+    public Map<String, Object> ejecutar(String username) {
+        Usuario usuario = obtenerUsuario(username);
+
+        int itemsProcesados = acumularConsumo();
+
+        List<ConsumoProducto> cambiados = consumoProductoRepository.findByPendienteTrue();
+        List<Sugerencia> sugerencias = evaluar(cambiados);
+        cambiados.forEach(consumo -> consumo.setPendiente(false));
+
+        List<Sugerencia> sinProveedor = new ArrayList<>();
+        List<OrdenAbastecimiento> borradores = crearBorradores(sugerencias, usuario, sinProveedor, true);
+
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("itemsProcesados", itemsProcesados);
+        resumen.put("productosEvaluados", cambiados.size());
+        resumen.put("sugerencias", sugerencias.stream().map(Sugerencia::aFila).collect(Collectors.toList()));
+        resumen.put("sinProveedor", sinProveedor.stream().map(Sugerencia::aFila).collect(Collectors.toList()));
+        resumen.put("borradores", borradores.stream().map(this::resumirBorrador).collect(Collectors.toList()));
+        resumen.put("totalBorradores", borradores.size());
+        return resumen;
+    }
+
+    /**
+     * Pedido manual de un producto: crea un borrador con su proveedor habitual. Sin
+     * cantidad se usa la sugerida por su consumo (al menos el stock mínimo).
+     */
+    public Map<String, Object> solicitar(Long productoId, Integer cantidad, String username) {
+        Producto producto = productoRepository.findById(productoId)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado: " + productoId));
+        Usuario usuario = obtenerUsuario(username);
+
+        Sugerencia sugerencia = calcular(producto, consumoProductoRepository.findById(productoId).orElse(null));
+        if (cantidad != null) {
+            if (cantidad <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser mayor a cero");
+            }
+            sugerencia.cantidadSugerida = cantidad;
+        } else if (sugerencia.cantidadSugerida <= 0) {
+            sugerencia.cantidadSugerida = Math.max(1, sugerencia.puntoReorden);
+        }
+
+        List<Sugerencia> sinProveedor = new ArrayList<>();
+        List<OrdenAbastecimiento> borradores = crearBorradores(List.of(sugerencia), usuario, sinProveedor, false);
+        if (borradores.isEmpty()) {
+            throw new RuntimeException("El producto " + producto.getNombre() +
+                    " no tiene compras anteriores para elegir proveedor");
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("sugerencia", sugerencia.aFila());
+        resultado.put("borrador", resumirBorrador(borradores.get(0)));
+        return resultado;
+    }
+
+    /** Sin usuario autenticado los borradores quedan a nombre del usuario de sistema. */
+    private Usuario obtenerUsuario(String username) {
+        String nombre = username != null ? username : usuarioSistema;
+        return usuarioRepository.findByUsername(nombre)
+                .orElseThrow(() -> new RuntimeException("Usuario de reabastecimiento no encontrado: " + nombre));
+    }
+
+    /** Suma a ConsumoProducto los items de salida posteriores a la marca, por tramos de id. */
+    int acumularConsumo() {
+        EstadoProceso estado = estadoProcesoRepository.findById(PROCESO)
+                .orElseGet(() -> estadoProcesoRepository.save(new EstadoProceso(PROCESO)));
+
+        // Los items de los últimos segundos pueden pertenecer a transacciones aún abiertas con id menor
+        Long hasta = ordenSalidaItemRepository.findUltimoIdRegistradoAntesDe(LocalDateTime.now().minusMinutes(1));
+        long desde = estado.getUltimoId();
+        if (hasta == null || hasta <= desde) {
+            estado.setFechaEjecucion(LocalDateTime.now());
+            return 0;
+        }
+
+        double decaimiento = Math.log(2) / vidaMediaDias;
+        Map<Long, ConsumoProducto> consumos = new HashMap<>();
+        int procesados = 0;
+
+        List<Object[]> tramo;
+        do {
+            tramo = ordenSalidaItemRepository.findConsumosEntre(desde, hasta, PageRequest.of(0, TAMANO_TRAMO));
+
+            Set<Long> nuevos = new HashSet<>();
+            for (Object[] fila : tramo) {
+                Long productoId = (Long) fila[1];
+                if (!consumos.containsKey(productoId)) nuevos.add(productoId);
+            }
+            if (!nuevos.isEmpty()) {
+                consumoProductoRepository.findAllById(nuevos).forEach(c -> consumos.put(c.getProductoId(), c));
+                for (Long productoId : nuevos) {
+                    consumos.computeIfAbsent(productoId, ConsumoProducto::new);
+                }
+            }
+
+            for (Object[] fila : tramo) {
+                Integer cantidad = (Integer) fila[2];
+                LocalDate fechaSalida = (LocalDate) fila[3];
+                if (cantidad != null && cantidad > 0 && fechaSalida != null) {
+                    consumos.get((Long) fila[1]).registrarSalida(cantidad, fechaSalida, decaimiento);
+                }
+                desde = (Long) fila[0];
+            }
+            procesados += tramo.size();
+        } while (tramo.size() == TAMANO_TRAMO);
+
+        consumoProductoRepository.saveAll(consumos.values());
+        estado.setUltimoId(hasta);
+        estado.setFechaEjecucion(LocalDateTime.now());
+        System.out.println("Consumo actualizado: " + procesados + " items de salida, " + consumos.size() + " productos");
+        return procesados;
+    }
+
+    private List<Sugerencia> evaluar(List<ConsumoProducto> cambiados) {
+        if (cambiados.isEmpty()) return List.of();
+
+        Map<Long, Producto> productos = productoRepository
+                .findAllById(cambiados.stream().map(ConsumoProducto::getProductoId).toList())
+                .stream().collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        List<Sugerencia> sugerencias = new ArrayList<>();
+        for (ConsumoProducto consumo : cambiados) {
+            Producto producto = productos.get(consumo.getProductoId());
+            if (producto == null) continue;
+
+            Sugerencia sugerencia = calcular(producto, consumo);
+            if (sugerencia.cantidadSugerida > 0) {
+                sugerencias.add(sugerencia);
+            }
+        }
+        return sugerencias;
+    }
+
+    private Sugerencia calcular(Producto producto, ConsumoProducto consumo) {
+        double tasa = consumo != null ? consumo.tasaAl(LocalDate.now(), Math.log(2) / vidaMediaDias) : 0;
+        int stock = producto.getCantidad() != null ? producto.getCantidad() : 0;
+        int stockMinimo = producto.getStockMinimo() != null
+                ? producto.getStockMinimo() : AlertaStockIndex.STOCK_MINIMO_POR_DEFECTO;
+
+        int puntoReorden = Math.max(stockMinimo, (int) Math.ceil(tasa * (diasEntrega + diasSeguridad)));
+        int cantidadSugerida = 0;
+        if (stock <= puntoReorden) {
+            int objetivo = puntoReorden + (int) Math.ceil(tasa * diasCobertura);
+            cantidadSugerida = Math.max(1, objetivo - stock);
+        }
+        return new Sugerencia(producto, tasa, stock, puntoReorden, cantidadSugerida);
+    }
+
+    /**
+     * Agrupa las sugerencias por proveedor y tipo de la última compra de cada producto.
+     * Con omitirYaPedidos se saltan los productos que ya figuran en una orden PENDIENTE.
+     */
+    private List<OrdenAbastecimiento> crearBorradores(List<Sugerencia> sugerencias, Usuario usuario,
+                                                      List<Sugerencia> sinProveedor, boolean omitirYaPedidos) {
+        if (sugerencias.isEmpty()) return List.of();
+
+        List<Long> productoIds = sugerencias.stream().map(s -> s.producto.getId()).toList();
+        Set<Long> yaPedidos = omitirYaPedidos
+                ? new HashSet<>(ordenAbastecimientoItemRepository
+                        .findProductosConOrdenEnEstado(productoIds, OrdenAbastecimiento.EstadoOrden.PENDIENTE))
+                : Set.of();
+
+        Map<Long, Object[]> ultimaCompra = new HashMap<>();
+        for (Object[] fila : ordenAbastecimientoItemRepository.findHistorialCompras(
+                productoIds, OrdenAbastecimiento.EstadoOrden.RECHAZADA)) {
+            ultimaCompra.putIfAbsent((Long) fila[0], fila);
+        }
+
+        Map<String, List<Sugerencia>> grupos = new LinkedHashMap<>();
+        for (Sugerencia sugerencia : sugerencias) {
+            Long productoId = sugerencia.producto.getId();
+            if (yaPedidos.contains(productoId)) continue;
+
+            Object[] compra = ultimaCompra.get(productoId);
+            if (compra == null) {
+                sinProveedor.add(sugerencia);
+                continue;
+            }
+            sugerencia.proveedorId = (Long) compra[1];
+            sugerencia.tipoOrden = (OrdenAbastecimiento.TipoOrden) compra[2];
+            sugerencia.precioUnitario = (BigDecimal) compra[3];
+            grupos.computeIfAbsent(sugerencia.proveedorId + "-" + sugerencia.tipoOrden, k -> new ArrayList<>())
+                    .add(sugerencia);
+        }
+        if (grupos.isEmpty()) return List.of();
+
+        Map<Long, Proveedor> proveedores = proveedorRepository
+                .findAllById(grupos.values().stream().map(g -> g.get(0).proveedorId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Proveedor::getId, Function.identity()));
+
+        List<OrdenAbastecimiento> borradores = new ArrayList<>();
+        for (List<Sugerencia> grupo : grupos.values()) {
+            Sugerencia primera = grupo.get(0);
+            OrdenAbastecimiento borrador = new OrdenAbastecimiento();
+            borrador.setFechaOA(LocalDate.now());
+            borrador.setProveedor(proveedores.get(primera.proveedorId));
+            borrador.setTipoOrden(primera.tipoOrden);
+            borrador.setUsuario(usuario);
+            borrador.setObservaciones("Borrador de reabastecimiento automático");
+
+            for (Sugerencia sugerencia : grupo) {
+                BigDecimal precio = sugerencia.precioUnitario != null
+                        ? sugerencia.precioUnitario : sugerencia.producto.getPrecioUnitario();
+                OrdenAbastecimientoItem item = new OrdenAbastecimientoItem();
+                item.setProducto(sugerencia.producto);
+                item.setCantidad(sugerencia.cantidadSugerida);
+                item.setPrecioUnitario(precio);
+                item.setSubtotal(precio != null ? precio.multiply(BigDecimal.valueOf(sugerencia.cantidadSugerida)) : BigDecimal.ZERO);
+                item.conectarAOrden(borrador);
+            }
+            borradores.add(ordenAbastecimientoService.guardarBorrador(borrador));
+        }
+        return borradores;
+    }
+
+    private Map<String, Object> resumirBorrador(OrdenAbastecimiento borrador) {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("id", borrador.getId());
+        fila.put("numeroOA", borrador.getNumeroOA());
+        fila.put("proveedor", borrador.getProveedor() != null ? borrador.getProveedor().getNombre() : null);
+        fila.put("tipoOrden", borrador.getTipoOrden());
+        fila.put("items", borrador.getItems().size());
+        fila.put("total", borrador.getTotal());
+        return fila;
+    }
+
+    private static final class Sugerencia {
+        private final Producto producto;
+        private final double consumoDiario;
+        private final int stock;
+        private final int puntoReorden;
+        private int cantidadSugerida;
+        private Long proveedorId;
+        private OrdenAbastecimiento.TipoOrden tipoOrden;
+        private BigDecimal precioUnitario;
+
+        private Sugerencia(Producto producto, double consumoDiario, int stock, int puntoReorden, int cantidadSugerida) {
+            this.producto = producto;
+            this.consumoDiario = consumoDiario;
+            this.stock = stock;
+            this.puntoReorden = puntoReorden;
+            this.cantidadSugerida = cantidadSugerida;
+        }
+
+        private Map<String, Object> aFila() {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("productoId", producto.getId());
+            fila.put("codigo", producto.getCodigo());
+            fila.put("nombre", producto.getNombre());
+            fila.put("stock", stock);
+            fila.put("consumoDiario", Math.round(consumoDiario * 100) / 100.0);
+            fila.put("puntoReorden", puntoReorden);
+            fila.put("cantidadSugerida", cantidadSugerida);
+            return fila;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.beneficencia.almacen.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reconstruye modelos de pronóstico desde el historial en paralelo. Las series se
+ * reparten entre los hilos del ForkJoinPool dividiendo la lista a la mitad hasta
+ * llegar a tramos de {@link #TRAMO_MINIMO} series; cada serie se procesa en orden
+ * de fecha sobre su propio modelo, así que los hilos no comparten estado.
+ */
+public class ReconstructorPronosticos {
+
+    static final int TRAMO_MINIMO = 256;
+
+    private final ForkJoinPool pool;
+    private final double alfa;
+    private final double gamma;
+
+    public ReconstructorPronosticos(ForkJoinPool pool, double alfa, double gamma) {
+        this.pool = pool;
+        this.alfa = alfa;
+        this.gamma = gamma;
+    }
+
+    public <K> Map<K, ModeloPronostico> reconstruir(List<Serie<K>> series) {
+        Map<K, ModeloPronostico> modelos = new ConcurrentHashMap<>(Math.max(16, series.size() * 4 / 3));
+        pool.invoke(new Tramo<>(series, 0, series.size(), modelos));
+        return modelos;
+    }
+
+    private final class Tramo<K> extends RecursiveAction {
+        private final List<Serie<K>> series;
+        private final int desde;
+        private final int hasta;
+        private final Map<K, ModeloPronostico> modelos;
+
+        private Tramo(List<Serie<K>> series, int desde, int hasta, Map<K, ModeloPronostico> modelos) {
+            this.series = series;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.modelos = modelos;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= TRAMO_MINIMO) {
+                for (int i = desde; i < hasta; i++) {
+                    Serie<K> serie = series.get(i);
+                    ModeloPronostico modelo = new ModeloPronostico(alfa, gamma);
+                    for (int j = 0; j < serie.tamano; j++) {
+                        modelo.registrar(LocalDate.ofEpochDay(serie.dias[j]), serie.cantidades[j]);
+                    }
+                    modelos.put(serie.clave, modelo);
+                }
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new Tramo<>(series, desde, medio, modelos), new Tramo<>(series, medio, hasta, modelos));
+        }
+    }
+
+    /**
+     * Consumo de una clave (producto o categoría) ordenado por fecha, en arreglos
+     * primitivos: dias en epochDay y la cantidad de ese día.
+     */
+    public static final class Serie<K> {
+        private final K clave;
+        private int[] dias;
+        private double[] cantidades;
+        private int tamano;
+
+        public Serie(K clave, int capacidad) {
+            this.clave = clave;
+            this.dias = new int[Math.max(1, capacidad)];
+            this.cantidades = new double[Math.max(1, capacidad)];
+        }
+
+        public void agregar(LocalDate fecha, double cantidad) {
+            if (tamano == dias.length) {
+                dias = Arrays.copyOf(dias, tamano * 2);
+                cantidades = Arrays.copyOf(cantidades, tamano * 2);
+            }
+            dias[tamano] = (int) fecha.toEpochDay();
+            cantidades[tamano] = cantidad;
+            tamano++;
+        }
+
+        public K getClave() { return clave; }
+
+        public int getTamano() { return tamano; }
+    }
+}
@@ -0,0 +1,185 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.BusInvalidacion;
+import com.beneficencia.almacen.evento.BusInvalidacionLocal;
+import com.beneficencia.almacen.evento.ConsumidorEventos;
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.EventoInventario.TipoEvento;
+import com.beneficencia.almacen.evento.FilasInventario;
+import com.beneficencia.almacen.model.Lote;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.repository.LoteRepository;
+import com.beneficencia.almacen.repository.OrdenAbastecimientoRepository;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lleva los eventos de inventario de un nodo a los demás.
+ *
+ * Al confirmarse un cambio local solo viaja el tipo y el id de cada fila; el nodo
+ * que lo recibe vuelve a leer las entidades de la base y publica el mismo evento
+ * marcado como remoto, de modo que índices, radar, pronósticos y notificaciones se
+ * actualizan igual que con un cambio propio. Los cruces de umbral no viajan: cada
+ * nodo los detecta en su propio índice de alertas.
+ *
+ * Con el bus por base de datos es un consumidor duradero del despacho de eventos:
+ * un cambio confirmado llega a los demás nodos aunque este se caiga antes de
+ * avisar, porque queda en la bandeja de salida hasta publicarse.
+ */
+@Service
+public class ReplicacionEventosService implements ConsumidorEventos {
+
+    private static final List<TipoEvento> REPLICADOS = List.of(
+            TipoEvento.STOCK_CAMBIADO, TipoEvento.PRODUCTO_ELIMINADO, TipoEvento.LOTE_CAMBIADO,
+            TipoEvento.NUEVA_SALIDA, TipoEvento.NUEVO_ABASTECIMIENTO);
+
+    @Autowired
+    private BusInvalidacion bus;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private LoteRepository loteRepository;
+
+    @Autowired
+    private OrdenAbastecimientoRepository ordenAbastecimientoRepository;
+
+    @Autowired
+    private OrdenSalidaService ordenSalidaService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void suscribir() {
+        for (TipoEvento tipo : REPLICADOS) {
+            bus.suscribir(tipo.name(), claves -> recibir(tipo, claves));
+        }
+    }
+
+    @Override
+    public String getNombreConsumidor() {
+        return "replicacion";
+    }
+
+    @Override
+    public boolean acepta(EventoInventario evento) {
+        return !evento.isRemoto() && !evento.esCruceDeUmbral();
+    }
+
+    /** Con un solo nodo no hay a quién avisar y no vale la pena pasar por la bandeja. */
+    @Override
+    public boolean esDuradero() {
+        return !(bus instanceof BusInvalidacionLocal);
+    }
+
+    /**
+     * Un aviso por tipo para todo el lote. Solo usa los ids de las filas, que
+     * sobreviven igual al reenvío desde la bandeja. Si el bus falla la excepción
+     * sube y el lote queda en la bandeja para reenviarse.
+     */
+    @Override
+    public void procesar(List<EventoInventario> lote) {
+        Map<TipoEvento, List<String>> clavesPorTipo = new LinkedHashMap<>();
+        for (EventoInventario evento : lote) {
+            List<String> claves = clavesPorTipo.computeIfAbsent(evento.getTipo(), t -> new ArrayList<>());
+            for (Map<String, Object> fila : evento.getFilas()) {
+                if (fila.get("id") == null) continue;
+                // El lote viaja con su producto para poder avisar aunque ya no exista
+                claves.add(evento.esDeLote() ? fila.get("id") + "/" + fila.get("productoId") : String.valueOf(fila.get("id")));
+            }
+        }
+        clavesPorTipo.forEach((tipo, claves) -> bus.publicar(tipo.name(), claves));
+    }
+
+    private void recibir(TipoEvento tipo, List<String> claves) {
+        List<Long> eliminados = new ArrayList<>();
+        // Transacción de escritura para leer siempre de la base principal y no de la réplica
+        List<Map<String, Object>> filas = new TransactionTemplate(transactionManager)
+                .execute(estado -> cargarFilas(tipo, claves, eliminados));
+
+        if (filas != null && !filas.isEmpty()) {
+            eventPublisher.publishEvent(EventoInventario.remoto(tipo, filas));
+        }
+        if (!eliminados.isEmpty()) {
+            List<Map<String, Object>> filasEliminadas = new ArrayList<>();
+            for (Long id : eliminados) {
+                Map<String, Object> fila = new HashMap<>();
+                fila.put("id", id);
+                filasEliminadas.add(fila);
+            }
+            eventPublisher.publishEvent(EventoInventario.remoto(TipoEvento.PRODUCTO_ELIMINADO, filasEliminadas));
+        }
+    }
+
+    private List<Map<String, Object>> cargarFilas(TipoEvento tipo, List<String> claves, List<Long> eliminados) {
+        List<Map<String, Object>> filas = new ArrayList<>();
+        switch (tipo) {
+            case STOCK_CAMBIADO -> {
+                List<Long> ids = claves.stream().map(Long::valueOf).toList();
+                Map<Long, Producto> productos = new HashMap<>();
+                productoRepository.findAllById(ids).forEach(p -> productos.put(p.getId(), p));
+                for (Long id : ids) {
+                    Producto producto = productos.get(id);
+                    if (producto != null) {
+                        filas.add(FilasInventario.producto(producto));
+                    } else {
+                        eliminados.add(id);
+                    }
+                }
+            }
+            case PRODUCTO_ELIMINADO -> claves.forEach(clave -> {
+                Map<String, Object> fila = new HashMap<>();
+                fila.put("id", Long.valueOf(clave));
+                filas.add(fila);
+            });
+            case LOTE_CAMBIADO -> {
+                Map<Long, Long> productoDeLote = new LinkedHashMap<>();
+                for (String clave : claves) {
+                    String[] partes = clave.split("/");
+                    productoDeLote.put(Long.valueOf(partes[0]), "null".equals(partes[1]) ? null : Long.valueOf(partes[1]));
+                }
+                Map<Long, Lote> lotes = new HashMap<>();
+                loteRepository.findAllById(productoDeLote.keySet()).forEach(l -> lotes.put(l.getId(), l));
+                productoDeLote.forEach((loteId, productoId) -> {
+                    Lote lote = lotes.get(loteId);
+                    if (lote != null) {
+                        filas.add(FilasInventario.lote(lote));
+                    } else {
+                        // Lote borrado: igual que en LoteEntityListener, sin unidades disponibles
+                        Map<String, Object> fila = new LinkedHashMap<>();
+                        fila.put("id", loteId);
+                        fila.put("productoId", productoId);
+                        fila.put("cantidadDisponible", 0);
+                        filas.add(fila);
+                    }
+                });
+            }
+            case NUEVA_SALIDA -> claves.stream().map(Long::valueOf)
+                    .map(ordenSalidaService::obtenerOrdenConItems)
+                    .flatMap(Optional::stream)
+                    .forEach(orden -> filas.add(FilasInventario.ordenSalida(orden, orden.getItems())));
+            case NUEVO_ABASTECIMIENTO -> ordenAbastecimientoRepository
+                    .findAllById(claves.stream().map(Long::valueOf).toList())
+                    .forEach(orden -> filas.add(FilasInventario.ordenAbastecimiento(orden)));
+            default -> { }
+        }
+        return filas;
+    }
+}
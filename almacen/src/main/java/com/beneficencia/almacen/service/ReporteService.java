@@ -4,21 +4,25 @@ import com.beneficencia.almacen.model.MovimientoReciente;
 import com.beneficencia.almacen.model.Producto;
 import com.beneficencia.almacen.repository.MovimientoRecienteRepository;
 import com.beneficencia.almacen.repository.ProductoRepository;
-import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.PdfPCell;
-import com.itextpdf.text.pdf.PdfPTable;
+import com.beneficencia.almacen.pdf.ColumnaPdf;
+import com.beneficencia.almacen.pdf.DocumentoPdf;
+import com.beneficencia.almacen.pdf.EstiloCelda;
+import com.beneficencia.almacen.pdf.EstilosPdf;
+import com.beneficencia.almacen.pdf.TablaPdf;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Paragraph;
 import com.itextpdf.text.pdf.PdfWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.text.SimpleDateFormat;
-import java.time.format.DateTimeFormatter;
-import java.util.Date;
 import java.util.List;
 
 @Service
+@Transactional(readOnly = true)
 public class ReporteService {
 
     @Autowired
@@ -27,6 +31,26 @@ public class ReporteService {
     @Autowired
     private MovimientoRecienteRepository movimientoRecienteRepository;
 
+    private static final ColumnaPdf[] COLUMNAS_INVENTARIO = {
+            ColumnaPdf.texto("Nombre Producto", 35f),
+            ColumnaPdf.centrada("Código", 15f),
+            ColumnaPdf.centrada("Cantidad", 15f),
+            ColumnaPdf.centrada("Grupo", 15f),
+            ColumnaPdf.centrada("Estado", 20f)
+    };
+
+    private static final ColumnaPdf[] COLUMNAS_DASHBOARD = {
+            ColumnaPdf.texto("Nombre Producto", 40f),
+            ColumnaPdf.centrada("Fecha Salida", 20f),
+            ColumnaPdf.centrada("Cantidad", 20f),
+            ColumnaPdf.centrada("DNI Beneficiario", 20f)
+    };
+
+    private static final EstiloCelda ESTADO = EstiloCelda.CENTRADO.conFuente(EstilosPdf.NEGRITA_PEQUENA);
+    private static final EstiloCelda ESTADO_STOCK_BAJO = ESTADO.conFondo(EstilosPdf.ROJO_SUAVE);
+    private static final EstiloCelda ESTADO_NORMAL = ESTADO.conFondo(EstilosPdf.VERDE_SUAVE);
+    private static final EstiloCelda ESTADO_SIN_DATOS = ESTADO.conFondo(EstilosPdf.GRIS_SUAVE);
+
     public ByteArrayInputStream generarReporteInventario() {
         Document document = new Document();
         ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -35,102 +59,36 @@ public class ReporteService {
             PdfWriter.getInstance(document, out);
             document.open();
 
-            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
-            Paragraph title = new Paragraph("INVENTARIO DE PRODUCTOS", titleFont);
-            title.setAlignment(Element.ALIGN_CENTER);
-            title.setSpacingAfter(20);
-            document.add(title);
-
-            Font infoFont = FontFactory.getFont(FontFactory.HELVETICA, 12);
-            Paragraph institution = new Paragraph("Sociedad de Beneficencia de Lambayeque", infoFont);
-            institution.setAlignment(Element.ALIGN_CENTER);
-            document.add(institution);
-
-            Paragraph date = new Paragraph("Fecha de reporte: " + new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date()), infoFont);
-            date.setAlignment(Element.ALIGN_CENTER);
-            date.setSpacingAfter(20);
-            document.add(date);
-
-            PdfPTable table = new PdfPTable(5);
-            table.setWidthPercentage(100);
-            table.setSpacingBefore(10f);
-
-            float[] columnWidths = {35f, 15f, 15f, 15f, 20f};
-            table.setWidths(columnWidths);
-
-            String[] headers = {"Nombre Producto", "Código", "Cantidad", "Grupo", "Estado"};
-            for (String headerText : headers) {
-                PdfPCell header = new PdfPCell();
-                header.setBackgroundColor(BaseColor.LIGHT_GRAY);
-                header.setBorderWidth(1);
-                header.setPhrase(new Phrase(headerText));
-                header.setHorizontalAlignment(Element.ALIGN_CENTER);
-                header.setPadding(5);
-                table.addCell(header);
-            }
+            DocumentoPdf.encabezadoReporte(document, "INVENTARIO DE PRODUCTOS");
 
             List<Producto> productos = productoRepository.findAll();
 
+            TablaPdf table = new TablaPdf(document, COLUMNAS_INVENTARIO).espacioAntes(10f);
+            long stockBajo = 0;
             for (Producto producto : productos) {
-
-                PdfPCell cellNombre = new PdfPCell(new Phrase(producto.getNombre()));
-                cellNombre.setPadding(5);
-                table.addCell(cellNombre);
-
-                String codigo = producto.getCodigo() != null ? producto.getCodigo() : "-";
-                PdfPCell cellCodigo = new PdfPCell(new Phrase(codigo));
-                cellCodigo.setPadding(5);
-                cellCodigo.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(cellCodigo);
-
-                String cantidad = producto.getCantidad() != null ? producto.getCantidad().toString() : "-";
-                PdfPCell cellCantidad = new PdfPCell(new Phrase(cantidad));
-                cellCantidad.setPadding(5);
-                cellCantidad.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(cellCantidad);
-
-                String grupo = producto.getCategoria() != null ? producto.getCategoria() : "-";
-                PdfPCell cellGrupo = new PdfPCell(new Phrase(grupo));
-                cellGrupo.setPadding(5);
-                cellGrupo.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(cellGrupo);
-
                 String estado = calcularEstadoProducto(producto);
-                PdfPCell cellEstado = new PdfPCell(new Phrase(estado));
-                cellEstado.setPadding(5);
-                cellEstado.setHorizontalAlignment(Element.ALIGN_CENTER);
-
-                if ("STOCK BAJO".equals(estado)) {
-                    cellEstado.setBackgroundColor(new BaseColor(255, 200, 200)); // Rojo suave
-                    cellEstado.setPhrase(new Phrase(estado, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, BaseColor.BLACK)));
-                } else if ("NORMAL".equals(estado)) {
-                    cellEstado.setBackgroundColor(new BaseColor(200, 255, 200)); // Verde suave
-                    cellEstado.setPhrase(new Phrase(estado, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, BaseColor.BLACK)));
-                } else {
-                    cellEstado.setBackgroundColor(new BaseColor(220, 220, 220)); // Gris suave
-                    cellEstado.setPhrase(new Phrase(estado, FontFactory.getFont(FontFactory.HELVETICA_BOLD, 10, BaseColor.BLACK)));
+                if (tieneStockBajo(producto)) {
+                    stockBajo++;
                 }
-
-                table.addCell(cellEstado);
+                table.celda(producto.getNombre())
+                        .celda(producto.getCodigo() != null ? producto.getCodigo() : "-")
+                        .celda(producto.getCantidad() != null ? producto.getCantidad().toString() : "-")
+                        .celda(producto.getCategoria() != null ? producto.getCategoria() : "-")
+                        .celda(estado, estiloEstado(estado));
             }
+            table.terminar();
 
-            document.add(table);
-
-            Paragraph resumen = new Paragraph("\n\nRESUMEN DEL INVENTARIO",
-                    FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14));
+            Paragraph resumen = new Paragraph("\n\nRESUMEN DEL INVENTARIO", EstilosPdf.SUBTITULO);
             resumen.setSpacingAfter(10);
             document.add(resumen);
 
             long totalProductos = productos.size();
-            long stockBajo = productos.stream()
-                    .filter(this::tieneStockBajo)
-                    .count();
             long stockNormal = totalProductos - stockBajo;
 
             Paragraph stats = new Paragraph(
                     String.format("Total de productos: %d | Stock normal: %d | Stock bajo: %d",
                             totalProductos, stockNormal, stockBajo),
-                    FontFactory.getFont(FontFactory.HELVETICA, 12)
+                    EstilosPdf.NORMAL
             );
             document.add(stats);
 
@@ -152,77 +110,19 @@ public class ReporteService {
             PdfWriter.getInstance(document, out);
             document.open();
 
-            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
-            Paragraph title = new Paragraph("RESUMEN", titleFont);
-            title.setAlignment(Element.ALIGN_CENTER);
-            title.setSpacingAfter(20);
-            document.add(title);
-
-            Font infoFont = FontFactory.getFont(FontFactory.HELVETICA, 12);
-            Paragraph institution = new Paragraph("Sociedad de Beneficencia de Lambayeque", infoFont);
-            institution.setAlignment(Element.ALIGN_CENTER);
-            document.add(institution);
-
-            Paragraph date = new Paragraph("Fecha de reporte: " + new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date()), infoFont);
-            date.setAlignment(Element.ALIGN_CENTER);
-            date.setSpacingAfter(20);
-            document.add(date);
-
-            PdfPTable table = new PdfPTable(4);
-            table.setWidthPercentage(100);
-            table.setSpacingBefore(10f);
-
-            float[] columnWidths = {40f, 20f, 20f, 20f};
-            table.setWidths(columnWidths);
-
-            String[] headers = {"Nombre Producto", "Fecha Salida", "Cantidad", "DNI Beneficiario"};
-            for (String headerText : headers) {
-                PdfPCell header = new PdfPCell();
-                header.setBackgroundColor(BaseColor.LIGHT_GRAY);
-                header.setBorderWidth(1);
-                header.setPhrase(new Phrase(headerText));
-                header.setHorizontalAlignment(Element.ALIGN_CENTER);
-                header.setPadding(5);
-                table.addCell(header);
-            }
+            DocumentoPdf.encabezadoReporte(document, "RESUMEN");
 
             List<MovimientoReciente> movimientos = movimientoRecienteRepository.findAllByOrderByFechaSalidaDesc();
-            List<Producto> todosProductos = productoRepository.findAll();
 
+            TablaPdf table = new TablaPdf(document, COLUMNAS_DASHBOARD).espacioAntes(10f);
             for (MovimientoReciente movimiento : movimientos) {
-
-                PdfPCell cellNombre = new PdfPCell(new Phrase(movimiento.getProducto().getNombre()));
-                cellNombre.setPadding(5);
-                table.addCell(cellNombre);
-
-                String fechaStr = "-";
-                if (movimiento.getFechaSalida() != null) {
-                    try {
-                        fechaStr = movimiento.getFechaSalida().format(
-                                DateTimeFormatter.ofPattern("dd/MM/yyyy")
-                        );
-                    } catch (Exception e) {
-                        fechaStr = movimiento.getFechaSalida().toString();
-                    }
-                }
-                PdfPCell cellFecha = new PdfPCell(new Phrase(fechaStr));
-                cellFecha.setPadding(5);
-                cellFecha.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(cellFecha);
-
-                PdfPCell cellCantidad = new PdfPCell(new Phrase(String.valueOf(movimiento.getCantidad())));
-                cellCantidad.setPadding(5);
-                cellCantidad.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(cellCantidad);
-
-                String dni = movimiento.getDniBeneficiario() != null ? movimiento.getDniBeneficiario() : "-";
-                PdfPCell cellDni = new PdfPCell(new Phrase(dni));
-                cellDni.setPadding(5);
-                cellDni.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(cellDni);
+                table.celda(movimiento.getProducto().getNombre())
+                        .celda(movimiento.getFechaSalida() != null ? movimiento.getFechaSalida().format(DocumentoPdf.FECHA) : "-")
+                        .celda(String.valueOf(movimiento.getCantidad()))
+                        .celda(movimiento.getDniBeneficiario() != null ? movimiento.getDniBeneficiario() : "-");
             }
+            table.terminar();
 
-                        document.add(table);
             document.close();
 
         } catch (DocumentException e) {
@@ -233,14 +133,21 @@ public class ReporteService {
         return new ByteArrayInputStream(out.toByteArray());
     }
 
+    private static EstiloCelda estiloEstado(String estado) {
+        if ("STOCK BAJO".equals(estado)) {
+            return ESTADO_STOCK_BAJO;
+        } else if ("NORMAL".equals(estado)) {
+            return ESTADO_NORMAL;
+        }
+        return ESTADO_SIN_DATOS;
+    }
+
     private String calcularEstadoProducto(Producto producto) {
         if (producto.getCantidad() == null) {
             return "SIN DATOS";
         }
 
-        Integer stockMinimo = producto.getStockMinimo() != null ? producto.getStockMinimo() : 5;
-
-        if (producto.getCantidad() <= stockMinimo) {
+        if (AlertaStockIndex.esStockBajo(producto.getCantidad(), producto.getStockMinimo())) {
             return "STOCK BAJO";
         } else {
             return "NORMAL";
@@ -248,8 +155,6 @@ public class ReporteService {
     }
 
     private boolean tieneStockBajo(Producto producto) {
-        if (producto.getCantidad() == null) return true;
-        Integer stockMinimo = producto.getStockMinimo() != null ? producto.getStockMinimo() : 5;
-        return producto.getCantidad() <= stockMinimo;
+        return AlertaStockIndex.esStockBajo(producto.getCantidad(), producto.getStockMinimo());
     }
-}
\ No newline at end of file
+}
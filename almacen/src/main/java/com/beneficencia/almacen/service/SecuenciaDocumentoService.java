@@ -0,0 +1,102 @@
+package com.beneficencia.almacen.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Numeración de documentos segura entre nodos. Cada número se toma en una
+ * transacción propia y corta que bloquea la fila de la serie, así que la orden que
+ * lo usa no retiene el bloqueo mientras termina de guardarse. Si esa orden se
+ * revierte, el número queda sin usar (puede haber saltos, nunca duplicados).
+ *
+ * Esa transacción usa un pool propio y chico (almacen.secuencias.conexiones), no el
+ * de la aplicación: el hilo que pide el número ya tiene una conexión del pool
+ * principal, y si la segunda saliera del mismo pool bastaría con que todas sus
+ * conexiones estuvieran en manos de hilos esperando un número para que ninguno
+ * avance. Las conexiones de este pool no esperan nada más que la fila de la serie,
+ * que se suelta al terminar cada número.
+ */
+@Service
+public class SecuenciaDocumentoService {
+
+    @Autowired
+    private DataSourceProperties propiedades;
+
+    @Value("${almacen.secuencias.conexiones:4}")
+    private int conexiones;
+
+    private HikariDataSource pool;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transaccion;
+
+    @PostConstruct
+    public void iniciar() {
+        pool = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("secuencias");
+        pool.setMaximumPoolSize(conexiones);
+        pool.setMinimumIdle(0);
+        jdbc = new JdbcTemplate(pool);
+        transaccion = new TransactionTemplate(new DataSourceTransactionManager(pool));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.close();
+    }
+
+    /**
+     * Siguiente número de la serie. La primera vez la serie arranca en lo que
+     * devuelva valorActual (el último número ya emitido con la numeración anterior).
+     */
+    public long siguiente(String serie, LongSupplier valorActual) {
+        return reservarBloque(serie, 1, valorActual);
+    }
+
+    /**
+     * Aparta cantidad números consecutivos con un solo bloqueo de la serie y
+     * devuelve el primero; el bloque completo es primero .. primero + cantidad - 1.
+     */
+    public long reservarBloque(String serie, int cantidad, LongSupplier valorActual) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad de números debe ser mayor a cero");
+        }
+
+        Integer existe = jdbc.queryForObject("SELECT COUNT(*) FROM secuencias_documento WHERE nombre = ?",
+                Integer.class, serie);
+        if (existe == null || existe == 0) {
+            // valorActual consulta con la transacción del llamador, antes de tomar una conexión de este pool
+            long inicial = valorActual.getAsLong();
+            try {
+                jdbc.update("INSERT INTO secuencias_documento (nombre, valor, fecha_actualizacion) VALUES (?, ?, ?)",
+                        serie, inicial, LocalDateTime.now());
+            } catch (DuplicateKeyException e) {
+                // Otro nodo creó la serie al mismo tiempo: se usa la suya
+            }
+        }
+
+        return transaccion.execute(estado -> {
+            List<Long> valor = jdbc.queryForList("SELECT valor FROM secuencias_documento WHERE nombre = ? FOR UPDATE",
+                    Long.class, serie);
+            if (valor.isEmpty()) {
+                throw new RuntimeException("Serie de documentos no encontrada: " + serie);
+            }
+            long primero = valor.get(0) + 1;
+            jdbc.update("UPDATE secuencias_documento SET valor = ?, fecha_actualizacion = ? WHERE nombre = ?",
+                    valor.get(0) + cantidad, LocalDateTime.now(), serie);
+            return primero;
+        });
+    }
+}
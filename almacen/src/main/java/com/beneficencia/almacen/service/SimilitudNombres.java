@@ -0,0 +1,193 @@
+package com.beneficencia.almacen.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Funciones de comparación de nombres y DNIs para el detector de duplicados.
+ *
+ * Los nombres se comparan como el conjunto ordenado de sus palabras, así
+ * "Juan | Carlos Pérez" (nombres | apellidos, como los deja el alta automática al
+ * partir por el primer espacio) y "Juan Carlos | Pérez" quedan iguales.
+ */
+final class SimilitudNombres {
+
+    static final int CANTIDAD_MINHASH = 24;
+    static final int FILAS_POR_BANDA = 4;
+    static final int BANDAS = CANTIDAD_MINHASH / FILAS_POR_BANDA;
+
+    private static final long[] MULTIPLICADORES = new long[CANTIDAD_MINHASH];
+    private static final long[] SUMANDOS = new long[CANTIDAD_MINHASH];
+
+    static {
+        // Semilla fija: las mismas claves en todas las pasadas y en todos los nodos
+        SplittableRandom azar = new SplittableRandom(0x5EED_D0C5L);
+        for (int i = 0; i < CANTIDAD_MINHASH; i++) {
+            MULTIPLICADORES[i] = azar.nextLong() | 1;
+            SUMANDOS[i] = azar.nextLong();
+        }
+    }
+
+    private SimilitudNombres() {}
+
+    /** Minúsculas sin acentos, solo letras, con las palabras ordenadas. */
+    static String normalizarNombre(String nombres, String apellidos) {
+        String completo = (nombres != null ? nombres : "") + " " + (apellidos != null ? apellidos : "");
+        String sinAcentos = Normalizer.normalize(completo, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        String[] palabras = sinAcentos.toLowerCase(Locale.ROOT).replaceAll("[^a-z]+", " ").trim().split(" ");
+        Arrays.sort(palabras);
+        return String.join(" ", palabras);
+    }
+
+    /**
+     * Código fonético de un nombre normalizado: cada palabra se reduce a cómo suena
+     * en castellano (b/v, c/s/z, c/k/q, g/j, ll/y, h muda) y se conserva la primera
+     * letra más las consonantes. Las palabras codificadas se ordenan otra vez.
+     */
+    static String fonetica(String nombreNormalizado) {
+        if (nombreNormalizado.isEmpty()) return "";
+        String[] palabras = nombreNormalizado.split(" ");
+        for (int i = 0; i < palabras.length; i++) {
+            palabras[i] = foneticaPalabra(palabras[i]);
+        }
+        Arrays.sort(palabras);
+        return String.join(" ", palabras);
+    }
+
+    private static String foneticaPalabra(String palabra) {
+        String s = palabra
+                .replace("ch", "C")
+                .replace("ll", "y")
+                .replace("qu", "k")
+                .replace("ge", "je").replace("gi", "ji")
+                .replace("gue", "ge").replace("gui", "gi")
+                .replace("ce", "se").replace("ci", "si")
+                .replace('c', 'k').replace('z', 's').replace('v', 'b').replace('w', 'b')
+                .replace("x", "ks")
+                .replace("h", "");
+        StringBuilder codigo = new StringBuilder();
+        char anterior = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char letra = s.charAt(i);
+            if (letra == 'y' && (i + 1 == s.length() || "aeiou".indexOf(s.charAt(i + 1)) < 0)) {
+                letra = 'i';
+            }
+            if (letra == anterior) continue;
+            anterior = letra;
+            if (codigo.length() == 0 || "aeiou".indexOf(letra) < 0) {
+                codigo.append(letra);
+            }
+        }
+        return codigo.toString();
+    }
+
+    /**
+     * Firma MinHash sobre los trigramas del nombre: la fracción de posiciones iguales
+     * entre dos firmas estima la similitud de Jaccard de sus trigramas.
+     */
+    static int[] minhash(String nombreNormalizado) {
+        int[] firma = new int[CANTIDAD_MINHASH];
+        Arrays.fill(firma, Integer.MAX_VALUE);
+        String texto = " " + nombreNormalizado + " ";
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            long trigrama = ((long) texto.charAt(i) << 32) ^ ((long) texto.charAt(i + 1) << 16) ^ texto.charAt(i + 2);
+            for (int h = 0; h < CANTIDAD_MINHASH; h++) {
+                int valor = (int) (mezclar(trigrama * MULTIPLICADORES[h] + SUMANDOS[h]) >>> 33);
+                if (valor < firma[h]) {
+                    firma[h] = valor;
+                }
+            }
+        }
+        return firma;
+    }
+
+    /** Jaro-Winkler entre 0 y 1, con el prefijo común de hasta 4 letras. */
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) return 1.0;
+        if (a.isEmpty() || b.isEmpty()) return 0.0;
+        int ventana = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] usadosA = new boolean[a.length()];
+        boolean[] usadosB = new boolean[b.length()];
+        int coincidencias = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int desde = Math.max(0, i - ventana);
+            int hasta = Math.min(b.length(), i + ventana + 1);
+            for (int j = desde; j < hasta; j++) {
+                if (!usadosB[j] && a.charAt(i) == b.charAt(j)) {
+                    usadosA[i] = true;
+                    usadosB[j] = true;
+                    coincidencias++;
+                    break;
+                }
+            }
+        }
+        if (coincidencias == 0) return 0.0;
+
+        int transposiciones = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (!usadosA[i]) continue;
+            while (!usadosB[j]) j++;
+            if (a.charAt(i) != b.charAt(j)) transposiciones++;
+            j++;
+        }
+        double m = coincidencias;
+        double jaro = (m / a.length() + m / b.length() + (m - transposiciones / 2.0) / m) / 3.0;
+
+        int prefijo = 0;
+        while (prefijo < Math.min(4, Math.min(a.length(), b.length())) && a.charAt(prefijo) == b.charAt(prefijo)) {
+            prefijo++;
+        }
+        return jaro + prefijo * 0.1 * (1 - jaro);
+    }
+
+    /**
+     * Distancia de edición entre dos DNIs contando el intercambio de dígitos vecinos
+     * como un solo error. Devuelve maximo + 1 si la distancia lo supera.
+     */
+    static int distanciaDni(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) return maximo + 1;
+        // Cota inferior barata: cada edición cambia a lo sumo en 2 la diferencia
+        // entre las frecuencias de caracteres de los dos textos
+        int[] frecuencias = new int[128];
+        for (int i = 0; i < a.length(); i++) frecuencias[a.charAt(i) & 127]++;
+        for (int i = 0; i < b.length(); i++) frecuencias[b.charAt(i) & 127]--;
+        int diferencia = 0;
+        for (int frecuencia : frecuencias) diferencia += Math.abs(frecuencia);
+        if ((diferencia + 1) / 2 > maximo) return maximo + 1;
+
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int valor = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + costo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    valor = Math.min(valor, d[i - 2][j - 2] + 1);
+                }
+                d[i][j] = valor;
+            }
+        }
+        return Math.min(d[a.length()][b.length()], maximo + 1);
+    }
+
+    static int hash(String texto, int semilla) {
+        long h = 0xcbf29ce484222325L ^ semilla;
+        for (int i = 0; i < texto.length(); i++) {
+            h ^= texto.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return (int) (mezclar(h) >>> 32);
+    }
+
+    static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
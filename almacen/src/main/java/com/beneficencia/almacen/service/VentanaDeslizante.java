@@ -0,0 +1,60 @@
+package com.beneficencia.almacen.service;
+
+/**
+ * Contador de eventos de los últimos N días con cubetas diarias en un arreglo
+ * circular. Al avanzar el día se vacían solo las cubetas que salieron de la
+ * ventana, así que sumar y consultar el total cuestan O(1) amortizado.
+ */
+public final class VentanaDeslizante {
+
+    private final int[] cubetas;
+    private long dia = Long.MIN_VALUE;
+    private int total;
+
+    public VentanaDeslizante(int dias) {
+        if (dias <= 0) {
+            throw new IllegalArgumentException("La ventana debe tener al menos un día");
+        }
+        this.cubetas = new int[dias];
+    }
+
+    /** Suma al día indicado (epoch day); lo que ya salió de la ventana se ignora. */
+    public synchronized void sumar(long epochDay, int cantidad) {
+        avanzar(epochDay);
+        if (epochDay <= dia - cubetas.length) return;
+
+        int indice = (int) Math.floorMod(epochDay, (long) cubetas.length);
+        int nuevo = Math.max(0, cubetas[indice] + cantidad);
+        total += nuevo - cubetas[indice];
+        cubetas[indice] = nuevo;
+    }
+
+    /** Suma uno en el día indicado si el total de la ventana aún no llega al máximo. */
+    public synchronized boolean intentarSumar(long epochDay, int maximo) {
+        avanzar(epochDay);
+        if (total >= maximo) return false;
+        sumar(epochDay, 1);
+        return true;
+    }
+
+    public synchronized int total(long epochDay) {
+        avanzar(epochDay);
+        return total;
+    }
+
+    private void avanzar(long hasta) {
+        if (dia == Long.MIN_VALUE) {
+            dia = hasta;
+            return;
+        }
+        if (hasta <= dia) return;
+
+        long pasos = Math.min(hasta - dia, cubetas.length);
+        for (long i = 1; i <= pasos; i++) {
+            int indice = (int) Math.floorMod(dia + i, (long) cubetas.length);
+            total -= cubetas[indice];
+            cubetas[indice] = 0;
+        }
+        dia = hasta;
+    }
+}
@@ -0,0 +1,306 @@
+package com.beneficencia.almacen.trabajo;
+
+import com.beneficencia.almacen.evento.BusInvalidacion;
+import com.beneficencia.almacen.model.EjecucionTrabajo;
+import com.beneficencia.almacen.model.TrabajoProgramado;
+import com.beneficencia.almacen.repository.EjecucionTrabajoRepository;
+import com.beneficencia.almacen.repository.TrabajoProgramadoRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ejecuta los {@link Trabajo} una sola vez por horario aunque haya varios nodos.
+ *
+ * Cada nodo revisa periódicamente qué trabajos ya deben ejecutarse e intenta tomar
+ * su arrendamiento en trabajos_programados con un UPDATE condicional: solo uno lo
+ * consigue. Al terminar se libera y se programa la siguiente hora según el cron, de
+ * modo que los demás nodos no lo repiten. Si un nodo cae a mitad de una ejecución,
+ * el arrendamiento vence y otro nodo la continúa desde el último punto de control.
+ * La cantidad de trabajos simultáneos por nodo está acotada por almacen.trabajos.hilos.
+ * Los vencimientos del arrendamiento se calculan con NOW() de la base: los relojes
+ * de los nodos pueden diferir y no deciden quién tiene el trabajo.
+ */
+@Service
+public class PlanificadorTrabajos {
+
+    private static final int HISTORIAL_POR_TRABAJO = 50;
+
+    @Autowired
+    private List<Trabajo> trabajos;
+
+    @Autowired
+    private TrabajoProgramadoRepository trabajoProgramadoRepository;
+
+    @Autowired
+    private EjecucionTrabajoRepository ejecucionTrabajoRepository;
+
+    @Autowired
+    private BusInvalidacion bus;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${almacen.trabajos.hilos:2}")
+    private int hilos;
+
+    @Value("${almacen.trabajos.arrendamiento-segundos:120}")
+    private long segundosArrendamiento;
+
+    private final Map<String, Trabajo> porNombre = new LinkedHashMap<>();
+    private final Map<String, CronExpression> horarios = new ConcurrentHashMap<>();
+    private final Set<String> enCurso = ConcurrentHashMap.newKeySet();
+
+    private TransactionTemplate transaccion;
+    private ThreadPoolTaskExecutor executor;
+    private volatile boolean listo;
+    private volatile boolean detenido;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrar() {
+        transaccion = new TransactionTemplate(transactionManager);
+
+        for (Trabajo trabajo : trabajos) {
+            if (porNombre.putIfAbsent(trabajo.getNombre(), trabajo) != null) {
+                throw new IllegalStateException("Trabajo duplicado: " + trabajo.getNombre());
+            }
+            horarios.put(trabajo.getNombre(), CronExpression.parse(trabajo.getCron()));
+        }
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(hilos);
+        executor.setThreadNamePrefix("trabajo-");
+        executor.initialize();
+
+        for (Trabajo trabajo : porNombre.values()) {
+            LocalDateTime proxima = siguienteEjecucion(trabajo.getNombre());
+            try {
+                transaccion.executeWithoutResult(estado -> {
+                    if (trabajoProgramadoRepository.existsById(trabajo.getNombre())) {
+                        // Si el cron cambió a una hora más temprana se respeta la nueva
+                        trabajoProgramadoRepository.adelantar(trabajo.getNombre(), proxima);
+                    } else {
+                        trabajoProgramadoRepository.save(new TrabajoProgramado(trabajo.getNombre(), proxima));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Otro nodo lo registró al mismo tiempo
+            }
+        }
+        listo = true;
+        System.out.println("Trabajos programados registrados: " + porNombre.keySet());
+    }
+
+    @Scheduled(initialDelayString = "${almacen.trabajos.sondeo-ms:15000}",
+               fixedDelayString = "${almacen.trabajos.sondeo-ms:15000}")
+    public void revisar() {
+        if (!listo || detenido) return;
+
+        for (Trabajo trabajo : porNombre.values()) {
+            if (enCurso.size() >= hilos) return;
+            String nombre = trabajo.getNombre();
+            if (enCurso.contains(nombre)) continue;
+
+            Integer tomado = transaccion.execute(estado -> trabajoProgramadoRepository.tomarArrendamiento(
+                    nombre, bus.getNodo(), segundosArrendamiento));
+            if (tomado == null || tomado == 0) continue;
+
+            enCurso.add(nombre);
+            executor.execute(() -> {
+                try {
+                    ejecutar(trabajo);
+                } finally {
+                    enCurso.remove(nombre);
+                }
+            });
+        }
+    }
+
+    private void ejecutar(Trabajo trabajo) {
+        String nombre = trabajo.getNombre();
+        TrabajoProgramado programado = transaccion.execute(estado ->
+                trabajoProgramadoRepository.findById(nombre).orElseThrow());
+        long token = programado.getToken();
+        String puntoInicial = programado.getPuntoControl();
+
+        EjecucionTrabajo ejecucion = transaccion.execute(estado -> {
+            if (programado.getEjecucionId() != null) {
+                ejecucionTrabajoRepository.findById(programado.getEjecucionId())
+                        .filter(anterior -> EjecucionTrabajo.EN_CURSO.equals(anterior.getEstado()))
+                        .ifPresent(anterior -> anterior.terminar(EjecucionTrabajo.INTERRUMPIDO,
+                                "Continuada por el nodo " + bus.getNodo()));
+            }
+            EjecucionTrabajo nueva = ejecucionTrabajoRepository.save(
+                    new EjecucionTrabajo(nombre, bus.getNodo(), puntoInicial != null));
+            renovar(nombre, token, puntoInicial, nueva.getId());
+            return nueva;
+        });
+        Long ejecucionId = ejecucion.getId();
+        System.out.println("Trabajo " + nombre + (puntoInicial != null ? " reanudado desde " + puntoInicial : " iniciado"));
+
+        String puntoControl = puntoInicial;
+        try {
+            ResultadoTramo resultado;
+            do {
+                if (detenido) {
+                    // Otro nodo (o este al reiniciar) continúa desde el último punto de control
+                    String ultimo = puntoControl;
+                    transaccion.executeWithoutResult(estado -> {
+                        ejecucionTrabajoRepository.findById(ejecucionId).ifPresent(e ->
+                                e.terminar(EjecucionTrabajo.INTERRUMPIDO, "Nodo detenido"));
+                        trabajoProgramadoRepository.liberar(nombre, token, ultimo, LocalDateTime.now());
+                    });
+                    return;
+                }
+
+                String desde = puntoControl;
+                resultado = transaccion.execute(estado -> ejecutarTramo(trabajo, token, desde, ejecucionId));
+                puntoControl = resultado.getPuntoControl();
+            } while (!resultado.isTerminado());
+
+            System.out.println("Trabajo " + nombre + " completado" +
+                    (resultado.getMensaje() != null ? ": " + resultado.getMensaje() : ""));
+        } catch (ArrendamientoPerdidoException e) {
+            System.err.println(e.getMessage());
+            transaccion.executeWithoutResult(estado -> ejecucionTrabajoRepository.findById(ejecucionId)
+                    .ifPresent(ej -> ej.terminar(EjecucionTrabajo.INTERRUMPIDO, e.getMessage())));
+        } catch (Exception e) {
+            System.err.println("Error en el trabajo " + nombre + ": " + e.getMessage());
+            // Se conserva el punto de control: la próxima ejecución sigue desde ahí
+            String ultimo = puntoControl;
+            transaccion.executeWithoutResult(estado -> {
+                ejecucionTrabajoRepository.findById(ejecucionId).ifPresent(ej ->
+                        ej.terminar(EjecucionTrabajo.FALLIDO, e.getMessage()));
+                trabajoProgramadoRepository.liberar(nombre, token, ultimo, siguienteEjecucion(nombre));
+            });
+            try {
+                trabajo.alFallar(ultimo, e);
+            } catch (Exception ex) {
+                System.err.println("Error al registrar la falla del trabajo " + nombre + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    /** Un tramo y su punto de control se confirman en la misma transacción. */
+    private ResultadoTramo ejecutarTramo(Trabajo trabajo, long token, String desde, Long ejecucionId) {
+        String nombre = trabajo.getNombre();
+        ResultadoTramo resultado = trabajo.ejecutarTramo(desde);
+
+        EjecucionTrabajo ejecucion = ejecucionTrabajoRepository.findById(ejecucionId).orElseThrow();
+        ejecucion.setTramos(ejecucion.getTramos() + 1);
+        ejecucion.setProcesados(ejecucion.getProcesados() + resultado.getProcesados());
+
+        if (resultado.isTerminado()) {
+            ejecucion.terminar(EjecucionTrabajo.COMPLETADO, resultado.getMensaje());
+            if (trabajoProgramadoRepository.liberar(nombre, token, null, siguienteEjecucion(nombre)) == 0) {
+                throw new ArrendamientoPerdidoException(nombre);
+            }
+        } else {
+            renovar(nombre, token, resultado.getPuntoControl(), ejecucionId);
+        }
+        return resultado;
+    }
+
+    private void renovar(String nombre, long token, String puntoControl, Long ejecucionId) {
+        if (trabajoProgramadoRepository.guardarAvance(nombre, token, puntoControl, ejecucionId, segundosArrendamiento) == 0) {
+            throw new ArrendamientoPerdidoException(nombre);
+        }
+    }
+
+    private LocalDateTime siguienteEjecucion(String nombre) {
+        return horarios.get(nombre).next(LocalDateTime.now());
+    }
+
+    /** Adelanta el trabajo para que lo tome el primer nodo que revise. */
+    public void ejecutarAhora(String nombre) {
+        if (!porNombre.containsKey(nombre)) {
+            throw new RuntimeException("Trabajo no encontrado: " + nombre);
+        }
+        transaccion.executeWithoutResult(estado ->
+                trabajoProgramadoRepository.adelantarAhora(nombre));
+    }
+
+    /** Estado, arrendamiento y métricas de duración de cada trabajo. */
+    public List<Map<String, Object>> resumen() {
+        LocalDateTime ahora = trabajoProgramadoRepository.ahoraEnBase();
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (Trabajo trabajo : porNombre.values()) {
+            TrabajoProgramado programado = trabajoProgramadoRepository.findById(trabajo.getNombre()).orElse(null);
+            List<EjecucionTrabajo> historial = ejecucionTrabajoRepository.findByTrabajoOrderByInicioDesc(
+                    trabajo.getNombre(), PageRequest.of(0, HISTORIAL_POR_TRABAJO));
+
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("nombre", trabajo.getNombre());
+            fila.put("descripcion", trabajo.getDescripcion());
+            fila.put("cron", trabajo.getCron());
+            fila.put("proximaEjecucion", programado != null ? programado.getProximaEjecucion() : null);
+            boolean ejecutando = programado != null && programado.getArrendadoHasta() != null
+                    && programado.getArrendadoHasta().isAfter(ahora);
+            fila.put("ejecutando", ejecutando);
+            fila.put("nodo", programado != null ? programado.getNodo() : null);
+            fila.put("puntoControl", programado != null ? programado.getPuntoControl() : null);
+
+            long completadas = historial.stream().filter(e -> EjecucionTrabajo.COMPLETADO.equals(e.getEstado())).count();
+            long fallidas = historial.stream().filter(e -> EjecucionTrabajo.FALLIDO.equals(e.getEstado())).count();
+            List<Long> duraciones = historial.stream()
+                    .filter(e -> EjecucionTrabajo.COMPLETADO.equals(e.getEstado()) && e.getDuracionMs() != null)
+                    .map(EjecucionTrabajo::getDuracionMs).sorted().toList();
+            fila.put("ejecuciones", historial.size());
+            fila.put("completadas", completadas);
+            fila.put("fallidas", fallidas);
+            fila.put("duracionPromedioMs", duraciones.isEmpty() ? null
+                    : Math.round(duraciones.stream().mapToLong(Long::longValue).average().orElse(0)));
+            fila.put("duracionP95Ms", duraciones.isEmpty() ? null
+                    : duraciones.get((int) Math.ceil(duraciones.size() * 0.95) - 1));
+            fila.put("duracionMaximaMs", duraciones.isEmpty() ? null : duraciones.get(duraciones.size() - 1));
+            fila.put("ultimaEjecucion", historial.isEmpty() ? null : historial.get(0));
+            filas.add(fila);
+        }
+        return filas;
+    }
+
+    public List<EjecucionTrabajo> historial(int limite) {
+        return ejecucionTrabajoRepository.findAllByOrderByInicioDesc(PageRequest.of(0, limite));
+    }
+
+    public String getNodo() {
+        return bus.getNodo();
+    }
+
+    @PreDestroy
+    public void detener() {
+        detenido = true;
+        if (executor != null) {
+            // Los trabajos en curso terminan su tramo actual y liberan el arrendamiento
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            executor.setAwaitTerminationSeconds(30);
+            executor.shutdown();
+        }
+    }
+
+    private static class ArrendamientoPerdidoException extends RuntimeException {
+        ArrendamientoPerdidoException(String nombre) {
+            super("El trabajo " + nombre + " pasó a otro nodo: venció su arrendamiento");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.beneficencia.almacen.trabajo;
+
+/**
+ * Resultado de un tramo: el punto de control desde donde sigue el trabajo, o ninguno
+ * si ya terminó.
+ */
+public final class ResultadoTramo {
+
+    private final String puntoControl;
+    private final long procesados;
+    private final String mensaje;
+
+    private ResultadoTramo(String puntoControl, long procesados, String mensaje) {
+        this.puntoControl = puntoControl;
+        this.procesados = procesados;
+        this.mensaje = mensaje;
+    }
+
+    public static ResultadoTramo continuar(String puntoControl, long procesados) {
+        if (puntoControl == null) {
+            throw new IllegalArgumentException("Un tramo que continúa necesita punto de control");
+        }
+        return new ResultadoTramo(puntoControl, procesados, null);
+    }
+
+    public static ResultadoTramo terminado(long procesados, String mensaje) {
+        return new ResultadoTramo(null, procesados, mensaje);
+    }
+
+    public String getPuntoControl() { return puntoControl; }
+
+    public long getProcesados() { return procesados; }
+
+    public String getMensaje() { return mensaje; }
+
+    public boolean isTerminado() { return puntoControl == null; }
+}
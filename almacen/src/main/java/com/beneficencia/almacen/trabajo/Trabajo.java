@@ -0,0 +1,35 @@
+package com.beneficencia.almacen.trabajo;
+
+/**
+ * Trabajo de mantenimiento que el {@link PlanificadorTrabajos} ejecuta una sola vez
+ * por horario en todo el cluster.
+ *
+ * El trabajo se divide en tramos. Cada tramo corre en su propia transacción junto
+ * con el guardado de su punto de control, de modo que si el nodo se detiene otro
+ * nodo continúa desde el último tramo confirmado. Un tramo debe durar bastante menos
+ * que el arrendamiento (almacen.trabajos.arrendamiento-segundos) y poder repetirse
+ * si su transacción se revierte.
+ */
+public interface Trabajo {
+
+    /** Identificador único; es la clave de su fila en trabajos_programados. */
+    String getNombre();
+
+    String getDescripcion();
+
+    /** Expresión cron de Spring con el horario del trabajo. */
+    String getCron();
+
+    /**
+     * Ejecuta el tramo siguiente. puntoControl es null al comenzar una ejecución o
+     * el valor devuelto por el tramo anterior confirmado.
+     */
+    ResultadoTramo ejecutarTramo(String puntoControl);
+
+    /**
+     * Se llama cuando un tramo falló, después de revertir su transacción, para que el
+     * trabajo registre el error donde corresponda.
+     */
+    default void alFallar(String puntoControl, Exception error) {
+    }
+}
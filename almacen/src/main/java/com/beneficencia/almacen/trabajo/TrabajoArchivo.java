@@ -0,0 +1,66 @@
+package com.beneficencia.almacen.trabajo;
+
+import com.beneficencia.almacen.service.ArchivoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Pasa al archivo los años cerrados (ver ArchivoService) por tramos de ids, en tres
+ * fases: órdenes de salida con sus ítems y movimientos, movimientos sueltos y
+ * órdenes de abastecimiento. El punto de control es "FASE:ultimoId:limite"; el
+ * límite se fija al empezar la ejecución para que no cambie a mitad de camino.
+ */
+@Component
+public class TrabajoArchivo implements Trabajo {
+
+    private enum Fase { SALIDAS, MOVIMIENTOS, ABASTECIMIENTO }
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    @Value("${almacen.archivo.cron:0 15 3 * * *}")
+    private String cron;
+
+    @Value("${almacen.archivo.tramo:500}")
+    private int tamanoTramo;
+
+    @Override
+    public String getNombre() { return "archivo-anios-cerrados"; }
+
+    @Override
+    public String getDescripcion() { return "Pasa las órdenes y movimientos de los años cerrados a las tablas de archivo"; }
+
+    @Override
+    public String getCron() { return cron; }
+
+    @Override
+    public ResultadoTramo ejecutarTramo(String puntoControl) {
+        Fase fase = Fase.SALIDAS;
+        long desdeId = 0L;
+        LocalDate limite = archivoService.limite();
+        if (puntoControl != null) {
+            String[] partes = puntoControl.split(":");
+            fase = Fase.valueOf(partes[0]);
+            desdeId = Long.parseLong(partes[1]);
+            limite = LocalDate.parse(partes[2]);
+        }
+
+        List<Long> ids = switch (fase) {
+            case SALIDAS -> archivoService.archivarOrdenesSalida(limite, desdeId, tamanoTramo);
+            case MOVIMIENTOS -> archivoService.archivarMovimientos(limite, desdeId, tamanoTramo);
+            case ABASTECIMIENTO -> archivoService.archivarOrdenesAbastecimiento(limite, desdeId, tamanoTramo);
+        };
+
+        if (ids.size() >= tamanoTramo) {
+            return ResultadoTramo.continuar(fase + ":" + ids.get(ids.size() - 1) + ":" + limite, ids.size());
+        }
+        if (fase.ordinal() + 1 < Fase.values().length) {
+            return ResultadoTramo.continuar(Fase.values()[fase.ordinal() + 1] + ":0:" + limite, ids.size());
+        }
+        return ResultadoTramo.terminado(ids.size(), "Archivado lo anterior a " + limite);
+    }
+}
@@ -0,0 +1,35 @@
+package com.beneficencia.almacen.trabajo;
+
+import com.beneficencia.almacen.service.RadarVencimientoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Barrido diario de lotes vencidos del radar de vencimientos. Cada nodo tiene el
+ * índice completo en memoria, así que cualquiera puede hacerlo en un solo tramo.
+ */
+@Component
+public class TrabajoBarridoVencimientos implements Trabajo {
+
+    @Autowired
+    private RadarVencimientoService radarVencimientoService;
+
+    @Value("${almacen.vencimientos.barrido-cron:0 15 0 * * *}")
+    private String cron;
+
+    @Override
+    public String getNombre() { return "barrido-vencimientos"; }
+
+    @Override
+    public String getDescripcion() { return "Registra los lotes que vencieron sin entregarse"; }
+
+    @Override
+    public String getCron() { return cron; }
+
+    @Override
+    public ResultadoTramo ejecutarTramo(String puntoControl) {
+        int registrados = radarVencimientoService.registrarVencidos();
+        return ResultadoTramo.terminado(registrados, registrados + " lotes vencidos registrados");
+    }
+}
@@ -0,0 +1,68 @@
+package com.beneficencia.almacen.trabajo;
+
+import com.beneficencia.almacen.service.CampanaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Genera las órdenes de las campañas EN_PROCESO, un tramo de beneficiarios por
+ * transacción. Los beneficiarios atendidos quedan marcados en la misma transacción,
+ * así que el punto de control solo indica la campaña en curso: tras una caída se
+ * sigue con los pendientes.
+ */
+@Component
+public class TrabajoCampanas implements Trabajo {
+
+    @Autowired
+    private CampanaService campanaService;
+
+    @Value("${almacen.campanas.cron:0 */5 * * * *}")
+    private String cron;
+
+    @Value("${almacen.campanas.tramo:200}")
+    private int tamanoTramo;
+
+    @Override
+    public String getNombre() { return "campanas"; }
+
+    @Override
+    public String getDescripcion() { return "Genera las órdenes de salida de las campañas en proceso"; }
+
+    @Override
+    public String getCron() { return cron; }
+
+    @Override
+    public ResultadoTramo ejecutarTramo(String puntoControl) {
+        Long campanaId = campanaService.siguienteEnProceso();
+        if (campanaId == null) {
+            return ResultadoTramo.terminado(0, "Sin campañas en proceso");
+        }
+        try {
+            int generadas = campanaService.generarTramo(campanaId, tamanoTramo);
+            return ResultadoTramo.continuar("campana-" + campanaId, generadas);
+        } catch (RuntimeException e) {
+            throw new FalloCampana(campanaId, e);
+        }
+    }
+
+    /** La campaña que falló queda pausada con el error para revisarla y reanudarla. */
+    @Override
+    public void alFallar(String puntoControl, Exception error) {
+        if (error instanceof FalloCampana fallo) {
+            String mensaje = fallo.getCause().getMessage() != null
+                    ? fallo.getCause().getMessage() : fallo.getCause().getClass().getSimpleName();
+            campanaService.pausarPorError(fallo.campanaId, mensaje);
+            System.err.println("Campaña " + fallo.campanaId + " pausada por error: " + mensaje);
+        }
+    }
+
+    private static class FalloCampana extends RuntimeException {
+        private final Long campanaId;
+
+        FalloCampana(Long campanaId, RuntimeException causa) {
+            super("Error en la campaña " + campanaId + ": " + causa.getMessage(), causa);
+            this.campanaId = campanaId;
+        }
+    }
+}
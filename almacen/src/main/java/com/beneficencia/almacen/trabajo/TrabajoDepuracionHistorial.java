@@ -0,0 +1,52 @@
+package com.beneficencia.almacen.trabajo;
+
+import com.beneficencia.almacen.repository.EjecucionTrabajoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Borra el historial de ejecuciones más antiguo que almacen.trabajos.historial-dias,
+ * por tramos de ids con el último id borrado como punto de control.
+ */
+@Component
+public class TrabajoDepuracionHistorial implements Trabajo {
+
+    private static final int TAMANO_TRAMO = 500;
+
+    @Autowired
+    private EjecucionTrabajoRepository ejecucionTrabajoRepository;
+
+    @Value("${almacen.trabajos.depuracion-cron:0 45 2 * * *}")
+    private String cron;
+
+    @Value("${almacen.trabajos.historial-dias:90}")
+    private int diasHistorial;
+
+    @Override
+    public String getNombre() { return "depuracion-historial"; }
+
+    @Override
+    public String getDescripcion() { return "Borra el historial antiguo de ejecuciones de trabajos"; }
+
+    @Override
+    public String getCron() { return cron; }
+
+    @Override
+    public ResultadoTramo ejecutarTramo(String puntoControl) {
+        long desdeId = puntoControl != null ? Long.parseLong(puntoControl) : 0L;
+        List<Long> ids = ejecucionTrabajoRepository.findIdsAnterioresA(
+                desdeId, LocalDateTime.now().minusDays(diasHistorial), PageRequest.of(0, TAMANO_TRAMO));
+        if (!ids.isEmpty()) {
+            ejecucionTrabajoRepository.deleteAllByIdInBatch(ids);
+        }
+        if (ids.size() < TAMANO_TRAMO) {
+            return ResultadoTramo.terminado(ids.size(), "Historial anterior a " + diasHistorial + " días borrado");
+        }
+        return ResultadoTramo.continuar(String.valueOf(ids.get(ids.size() - 1)), ids.size());
+    }
+}
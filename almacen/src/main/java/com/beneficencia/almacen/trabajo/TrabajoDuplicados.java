@@ -0,0 +1,55 @@
+package com.beneficencia.almacen.trabajo;
+
+import com.beneficencia.almacen.service.DuplicadoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Busca beneficiarios duplicados y los deja en la cola de revisión. El primer tramo
+ * lee el padrón completo; cada tramo procesa una partición de las claves de bloqueo,
+ * así ninguno se acerca al arrendamiento aunque el padrón sea grande. El punto de
+ * control es la siguiente partición.
+ */
+@Component
+public class TrabajoDuplicados implements Trabajo {
+
+    @Autowired
+    private DuplicadoService duplicadoService;
+
+    @Value("${almacen.duplicados.cron:0 0 3 * * SUN}")
+    private String cron;
+
+    @Value("${almacen.duplicados.particiones:8}")
+    private int particiones;
+
+    @Override
+    public String getNombre() { return "duplicados"; }
+
+    @Override
+    public String getDescripcion() { return "Detecta beneficiarios posiblemente duplicados para revisión"; }
+
+    @Override
+    public String getCron() { return cron; }
+
+    @Override
+    public ResultadoTramo ejecutarTramo(String puntoControl) {
+        int particion = puntoControl != null ? Integer.parseInt(puntoControl) : 0;
+        if (puntoControl == null) {
+            duplicadoService.prepararPasada();
+        }
+        int pares = duplicadoService.procesarParticion(particion, particiones);
+
+        if (particion + 1 < particiones) {
+            return ResultadoTramo.continuar(String.valueOf(particion + 1), pares);
+        }
+        int registros = duplicadoService.getCantidadRegistros();
+        duplicadoService.terminarPasada();
+        return ResultadoTramo.terminado(pares, registros + " beneficiarios revisados en " + particiones + " particiones");
+    }
+
+    @Override
+    public void alFallar(String puntoControl, Exception error) {
+        duplicadoService.terminarPasada();
+    }
+}
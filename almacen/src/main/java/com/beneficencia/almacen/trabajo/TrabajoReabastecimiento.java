@@ -0,0 +1,40 @@
+package com.beneficencia.almacen.trabajo;
+
+import com.beneficencia.almacen.service.ReabastecimientoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Reabastecimiento automático nocturno. Ya avanza por su propia marca en
+ * estado_procesos, por lo que se ejecuta en un solo tramo.
+ */
+@Component
+public class TrabajoReabastecimiento implements Trabajo {
+
+    @Autowired
+    private ReabastecimientoService reabastecimientoService;
+
+    @Value("${almacen.reabastecimiento.cron:0 30 1 * * *}")
+    private String cron;
+
+    @Override
+    public String getNombre() { return "reabastecimiento"; }
+
+    @Override
+    public String getDescripcion() { return "Acumula el consumo nuevo y genera borradores de abastecimiento"; }
+
+    @Override
+    public String getCron() { return cron; }
+
+    @Override
+    public ResultadoTramo ejecutarTramo(String puntoControl) {
+        // Sin usuario los borradores quedan a nombre del usuario de sistema
+        Map<String, Object> resumen = reabastecimientoService.ejecutar(null);
+        int items = (Integer) resumen.get("itemsProcesados");
+        return ResultadoTramo.terminado(items, items + " items, " + resumen.get("productosEvaluados") +
+                " productos evaluados, " + resumen.get("totalBorradores") + " borradores");
+    }
+}
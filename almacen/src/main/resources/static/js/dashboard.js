@@ -26,6 +26,8 @@ document.addEventListener('DOMContentLoaded', function() {
     setInterval(updateTimestamp, 60000);
 
     initDashboardFeatures();
+
+    conectarEventosTiempoReal();
 });
 
 function animateStatsCards() {
@@ -106,14 +108,6 @@ function initDashboardFeatures() {
 function updateStats() {
     console.log('Actualizando estadísticas del dashboard...');
 
-    // Simular actualización de datos
-    const stats = {
-        productos: Math.floor(Math.random() * 10) + 20,
-        ordenes: Math.floor(Math.random() * 5) + 5,
-        stockBajo: Math.floor(Math.random() * 3) + 1,
-        movimientos: Math.floor(Math.random() * 8) + 4
-    };
-
     fetch('/api/dashboard/stats')
         .then(response => response.json())
         .then(data => {
@@ -126,6 +120,112 @@ function updateStats() {
 
 function updateStatsDisplay(stats) {
     console.log('Actualizando display con:', stats);
+
+    const contadorStockBajo = document.getElementById('contadorStockBajo');
+    if (contadorStockBajo && stats.cantidadStockBajo !== undefined) {
+        contadorStockBajo.textContent = stats.cantidadStockBajo;
+    }
+}
+
+// ==================== EVENTOS EN TIEMPO REAL (SSE) ====================
+
+let fuenteEventos = null;
+
+function conectarEventosTiempoReal() {
+    if (!window.EventSource) {
+        console.warn('El navegador no soporta EventSource; el dashboard no se actualizará en vivo');
+        return;
+    }
+
+    const main = document.getElementById('dashboardMain');
+    const ultimoEvento = main ? main.dataset.ultimoEvento : null;
+    const url = ultimoEvento ? `/api/eventos?lastEventId=${encodeURIComponent(ultimoEvento)}` : '/api/eventos';
+
+    // El navegador reenvía Last-Event-ID automáticamente en cada reconexión
+    fuenteEventos = new EventSource(url);
+
+    fuenteEventos.onopen = () => marcarEstadoTiempoReal(true);
+    fuenteEventos.onerror = () => marcarEstadoTiempoReal(false);
+
+    fuenteEventos.addEventListener('NUEVA_SALIDA', (e) => {
+        const evento = JSON.parse(e.data);
+        evento.filas.forEach(agregarMovimientosSalida);
+    });
+
+    fuenteEventos.addEventListener('STOCK_BAJO', (e) => {
+        ajustarContadorStockBajo(JSON.parse(e.data).filas.length);
+    });
+
+    fuenteEventos.addEventListener('STOCK_NORMALIZADO', (e) => {
+        ajustarContadorStockBajo(-JSON.parse(e.data).filas.length);
+    });
+
+    fuenteEventos.addEventListener('RESINCRONIZAR', () => {
+        // Nos perdimos demasiados eventos: se recarga la página completa
+        window.location.reload();
+    });
+}
+
+function marcarEstadoTiempoReal(conectado) {
+    const badge = document.getElementById('estadoTiempoReal');
+    if (badge) {
+        badge.textContent = conectado ? 'En vivo' : 'Reconectando...';
+        badge.className = `badge bg-${conectado ? 'success' : 'secondary'} me-2`;
+    }
+}
+
+function agregarMovimientosSalida(orden) {
+    const tbody = document.getElementById('movimientosTableBody');
+    if (!tbody) return;
+
+    const sinMovimientos = document.getElementById('sinMovimientosRow');
+    if (sinMovimientos) {
+        sinMovimientos.remove();
+    }
+
+    const fecha = orden.fechaSalida ? formatearFecha(orden.fechaSalida) : '-';
+
+    // Se insertan en orden inverso para que el primer item quede arriba
+    [...orden.items].reverse().forEach(item => {
+        const row = document.createElement('tr');
+        row.innerHTML = `
+            <td>${escaparHtml(item.nombreProducto)}</td>
+            <td>${fecha}</td>
+            <td>${item.cantidad}</td>
+            <td>${escaparHtml(orden.dniUsuario || '')}</td>
+            <td>${escaparHtml(orden.numeroOrden || '')}</td>
+        `;
+        row.classList.add('table-success');
+        tbody.insertBefore(row, tbody.firstChild);
+        setTimeout(() => row.classList.remove('table-success'), 3000);
+    });
+}
+
+function ajustarContadorStockBajo(delta) {
+    const contador = document.getElementById('contadorStockBajo');
+    if (!contador) {
+        // La alerta no se renderizó porque no había stock bajo al cargar
+        if (delta > 0) updateStats();
+        return;
+    }
+    const actual = parseInt(contador.textContent) || 0;
+    contador.textContent = Math.max(0, actual + delta);
+}
+
+function formatearFecha(valor) {
+    // LocalDate llega como "yyyy-MM-dd"
+    const partes = String(valor).split('-');
+    return partes.length === 3 ? `${partes[2]}/${partes[1]}/${partes[0]}` : valor;
+}
+
+function escaparHtml(texto) {
+    if (!texto) return '';
+    return String(texto)
+        .replace(/&/g, "&amp;")
+        .replace(/</g, "&lt;")
+        .replace(/>/g, "&gt;")
+        .replace(/"/g, "&quot;")
+        .replace(/'/g, "&#039;");
 }
 
 window.addEventListener('error', function(e) {
@@ -3,13 +3,19 @@ class InventoryManager {
         this.baseUrl = '/api/inventario';
         this.inventoryData = [];
         this.grupos = [];
+        this.ultimoEventoId = null;
+        this.eventSource = null;
+        this.kits = [];
+        this.kitsPorProducto = new Map();
         this.init();
     }
 
     async init() {
         await this.loadGrupos();
         await this.loadInventory();
+        await this.loadKits();
         this.setupEventListeners();
+        this.connectLiveUpdates();
     }
 
     async loadGrupos() {
@@ -50,6 +56,7 @@ class InventoryManager {
 
             if (data.success) {
                 this.inventoryData = data.productos;
+                this.ultimoEventoId = data.ultimoEventoId;
                 this.renderTable(this.inventoryData);
                 this.updateAlertCount(data.productosStockBajo);
             } else {
@@ -61,6 +68,88 @@ class InventoryManager {
         }
     }
 
+    async loadKits() {
+        try {
+            const response = await fetch('/api/kits/disponibilidad');
+            const data = await response.json();
+
+            if (data.success) {
+                this.kits = data.kits;
+                this.kitsPorProducto = new Map();
+                this.kits.forEach(kit => kit.componentes.forEach(componente => {
+                    if (!this.kitsPorProducto.has(componente.productoId)) {
+                        this.kitsPorProducto.set(componente.productoId, []);
+                    }
+                    this.kitsPorProducto.get(componente.productoId).push(kit);
+                }));
+                this.renderKits();
+            }
+        } catch (error) {
+            console.error('Error al cargar kits:', error);
+        }
+    }
+
+    // Solo se recalculan los kits que usan alguno de los productos cambiados
+    applyKitChanges(filas) {
+        let cambiados = false;
+        filas.forEach(fila => {
+            (this.kitsPorProducto.get(fila.id) || []).forEach(kit => {
+                const componente = kit.componentes.find(c => c.productoId === fila.id);
+                componente.stock = fila.cantidad || 0;
+                this.recalcularKit(kit);
+                cambiados = true;
+            });
+        });
+        if (cambiados) this.renderKits();
+    }
+
+    recalcularKit(kit) {
+        let disponibles = Infinity;
+        kit.componentes.forEach(componente => {
+            const alcanza = Math.floor(Math.max(0, componente.stock) / componente.cantidad);
+            if (alcanza < disponibles) {
+                disponibles = alcanza;
+                kit.productoLimitante = componente.productoId;
+            }
+        });
+        kit.disponibles = disponibles === Infinity ? 0 : disponibles;
+    }
+
+    renderKits() {
+        const tableBody = document.getElementById('kitsTableBody');
+        const contador = document.getElementById('kitCount');
+        if (!tableBody) return;
+
+        if (contador) contador.textContent = `${this.kits.length} kits`;
+        if (this.kits.length === 0) {
+            tableBody.innerHTML = '<tr><td colspan="5" class="text-center text-muted py-3">Sin kits definidos</td></tr>';
+            return;
+        }
+
+        const nombreProducto = (id) => {
+            const producto = this.inventoryData.find(p => p.id === id);
+            return producto ? producto.nombre : `#${id}`;
+        };
+
+        tableBody.innerHTML = '';
+        this.kits.forEach(kit => {
+            const row = document.createElement('tr');
+            if (kit.disponibles === 0) row.classList.add('stock-bajo');
+
+            const componentes = kit.componentes
+                .map(c => `${c.cantidad} x ${this.escapeHtml(nombreProducto(c.productoId))}`)
+                .join('<br>');
+            row.innerHTML = `
+                <td>${this.escapeHtml(kit.nombre)}</td>
+                <td>${this.escapeHtml(kit.codigo)}</td>
+                <td class="small">${componentes}</td>
+                <td><span class="badge bg-${kit.disponibles > 0 ? 'success' : 'danger'}">${kit.disponibles}</span></td>
+                <td class="small">${kit.productoLimitante ? this.escapeHtml(nombreProducto(kit.productoLimitante)) : '-'}</td>
+            `;
+            tableBody.appendChild(row);
+        });
+    }
+
     async descargarPDF() {
         try {
             const btn = event.target;
@@ -248,6 +337,48 @@ class InventoryManager {
         this.renderTable(filteredData);
     }
 
+    connectLiveUpdates() {
+        if (!window.EventSource || this.eventSource) return;
+
+        const url = this.ultimoEventoId !== null && this.ultimoEventoId !== undefined
+            ? `/api/eventos?lastEventId=${encodeURIComponent(this.ultimoEventoId)}`
+            : '/api/eventos';
+        this.eventSource = new EventSource(url);
+
+        this.eventSource.addEventListener('STOCK_CAMBIADO', (e) => {
+            const filas = JSON.parse(e.data).filas;
+            this.applyStockChanges(filas);
+            this.applyKitChanges(filas);
+        });
+
+        this.eventSource.addEventListener('PRODUCTO_ELIMINADO', (e) => {
+            const ids = new Set(JSON.parse(e.data).filas.map(fila => fila.id));
+            this.inventoryData = this.inventoryData.filter(product => !ids.has(product.id));
+            this.filterProducts();
+            this.applyKitChanges([...ids].map(id => ({ id, cantidad: 0 })));
+        });
+
+        this.eventSource.addEventListener('RESINCRONIZAR', async () => {
+            // El servidor ya no tiene los eventos perdidos: se recarga el inventario completo
+            await this.loadInventory();
+            await this.loadKits();
+            this.filterProducts();
+        });
+    }
+
+    applyStockChanges(filas) {
+        // Solo se tocan las filas recibidas; se respeta el filtro que el usuario tenga aplicado
+        filas.forEach(fila => {
+            const index = this.inventoryData.findIndex(product => product.id === fila.id);
+            if (index >= 0) {
+                this.inventoryData[index] = { ...this.inventoryData[index], ...fila };
+            } else {
+                this.inventoryData.push(fila);
+            }
+        });
+        this.filterProducts();
+    }
+
     setupEventListeners() {
         const searchInput = document.getElementById('searchInput');
         const groupFilter = document.getElementById('groupFilter');
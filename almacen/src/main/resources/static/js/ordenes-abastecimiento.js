@@ -70,7 +70,7 @@ function crearItemDesdeCero(index) {
     }
 
     div.innerHTML = `
-        <div class="col-md-5">
+        <div class="col-md-3">
             <select class="form-select producto-select" name="productoIds">
                 ${opcionesProductos}
             </select>
@@ -83,6 +83,9 @@ function crearItemDesdeCero(index) {
             <input type="number" class="form-control precio-input" name="precios"
                    value="0.00" min="0" max="999999" step="0.01">
         </div>
+        <div class="col-md-2">
+            <input type="date" class="form-control vencimiento-input" name="vencimientos">
+        </div>
         <div class="col-md-2">
             <input type="text" class="form-control subtotal-display" value="S/ 0.00" readonly>
         </div>
@@ -107,6 +110,8 @@ function configurarNuevoItem(item, index) {
     if (cantidadInput) cantidadInput.value = '1';
     if (precioInput) precioInput.value = '0.00';
     if (subtotalDisplay) subtotalDisplay.value = 'S/ 0.00';
+    const vencimientoInput = item.querySelector('.vencimiento-input');
+    if (vencimientoInput) vencimientoInput.value = '';
 
     configurarEventosItem(item);
 
@@ -220,6 +225,8 @@ function resetearItem(item) {
     if (cantidadInput) cantidadInput.value = '1';
     if (precioInput) precioInput.value = '0.00';
     if (subtotalDisplay) subtotalDisplay.value = 'S/ 0.00';
+    const vencimientoInput = item.querySelector('.vencimiento-input');
+    if (vencimientoInput) vencimientoInput.value = '';
 
     item.style.borderColor = '';
     item.style.backgroundColor = '';
@@ -70,11 +70,19 @@ const ordenSalidaManager = (function() {
 
     function buscarOrdenes() {
         const busqueda = document.getElementById('busqueda').value.trim();
+        const campo = document.getElementById('campoBusqueda');
+        const desde = document.getElementById('busquedaDesde');
+        const hasta = document.getElementById('busquedaHasta');
 
-        let url = `/ordenes-salida`;
+        const params = new URLSearchParams();
+        if (busqueda) params.append('busqueda', busqueda);
+        if (campo && campo.value) params.append('campo', campo.value);
+        if (desde && desde.value) params.append('desde', desde.value);
+        if (hasta && hasta.value) params.append('hasta', hasta.value);
 
-        if (busqueda) {
-            url += `?busqueda=${encodeURIComponent(busqueda)}`;
+        let url = `/ordenes-salida`;
+        if (params.toString()) {
+            url += `?${params.toString()}`;
         }
 
         console.log('URL de búsqueda:', url);
@@ -82,10 +90,10 @@ const ordenSalidaManager = (function() {
     }
 
     function limpiarBusqueda() {
-        const busquedaInput = document.getElementById('busqueda');
-        if (busquedaInput) {
-            busquedaInput.value = '';
-        }
+        ['busqueda', 'campoBusqueda', 'busquedaDesde', 'busquedaHasta'].forEach(id => {
+            const input = document.getElementById(id);
+            if (input) input.value = '';
+        });
         buscarOrdenes();
     }
 
@@ -0,0 +1,116 @@
+package com.beneficencia.almacen.evento;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnilloEventosTest {
+
+    private static final long SIN_ESPERA = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private static EventoInventario evento(int n) {
+        return new EventoInventario(EventoInventario.TipoEvento.STOCK_CAMBIADO, List.of(Map.of("n", n)));
+    }
+
+    @Test
+    void laCapacidadSeRedondeaALaSiguientePotenciaDeDos() {
+        assertEquals(8, new AnilloEventos(5).getCapacidad());
+        assertEquals(8, new AnilloEventos(8).getCapacidad());
+        assertEquals(2, new AnilloEventos(0).getCapacidad());
+    }
+
+    @Test
+    void unBloqueanteImpideDarLaVueltaHastaQueAvanza() {
+        AnilloEventos anillo = new AnilloEventos(4);
+        AtomicLong consumidor = new AtomicLong(-1);
+        anillo.agregarBloqueante(consumidor);
+        AtomicInteger esperas = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            long secuencia = anillo.reclamar(SIN_ESPERA, esperas::incrementAndGet);
+            assertEquals(i, secuencia);
+            anillo.publicar(secuencia, evento(i), null, false);
+        }
+        assertEquals(-1, anillo.reclamar(SIN_ESPERA, esperas::incrementAndGet));
+        assertEquals(1, esperas.get());
+        assertEquals(3, anillo.getReclamada());
+
+        consumidor.set(1);
+        assertEquals(4, anillo.reclamar(SIN_ESPERA, esperas::incrementAndGet));
+        assertEquals(5, anillo.reclamar(SIN_ESPERA, esperas::incrementAndGet));
+        assertEquals(-1, anillo.reclamar(SIN_ESPERA, esperas::incrementAndGet));
+        // Las posiciones 2 y 3 siguen sin pisar: el consumidor todavía no las leyó
+        assertEquals(2, anillo.leer(2).secuencia);
+        assertEquals(3, anillo.leer(3).secuencia);
+    }
+
+    @Test
+    void elProductorQueEsperaSigueEnCuantoElConsumidorLibera() throws Exception {
+        AnilloEventos anillo = new AnilloEventos(2);
+        AtomicLong consumidor = new AtomicLong(-1);
+        anillo.agregarBloqueante(consumidor);
+        anillo.reclamar(SIN_ESPERA, () -> {});
+        anillo.reclamar(SIN_ESPERA, () -> {});
+
+        Thread liberador = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            consumidor.set(0);
+        });
+        liberador.start();
+
+        assertEquals(2, anillo.reclamar(TimeUnit.SECONDS.toNanos(5), () -> {}));
+        liberador.join();
+    }
+
+    @Test
+    void leerDistingueLoPendienteLoPublicadoYLoPisado() {
+        AnilloEventos anillo = new AnilloEventos(2);
+        assertNull(anillo.leer(0));
+
+        for (int i = 0; i < 3; i++) {
+            anillo.publicar(anillo.reclamar(SIN_ESPERA, () -> {}), evento(i), (long) i, false);
+        }
+
+        // Sin bloqueantes la secuencia 2 pisó la 0
+        assertTrue(anillo.leer(0).secuencia > 0);
+        assertEquals(1, anillo.leer(1).secuencia);
+        assertEquals(1, anillo.leer(1).evento.getFilas().get(0).get("n"));
+        assertEquals(2L, anillo.leer(2).idPendiente);
+        // La 3 todavía no se publicó: su posición tiene la vuelta anterior
+        assertTrue(anillo.leer(3).secuencia < 3);
+    }
+
+    @Test
+    void variosProductoresNoRepitenNiSaltanSecuencias() throws Exception {
+        AnilloEventos anillo = new AnilloEventos(1 << 16);
+        int porHilo = 10_000;
+        Thread[] hilos = new Thread[4];
+        for (int h = 0; h < hilos.length; h++) {
+            hilos[h] = new Thread(() -> {
+                for (int i = 0; i < porHilo; i++) {
+                    long secuencia = anillo.reclamar(SIN_ESPERA, () -> {});
+                    anillo.publicar(secuencia, evento(i), null, false);
+                }
+            });
+            hilos[h].start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        assertEquals(hilos.length * porHilo - 1, anillo.getReclamada());
+        for (long s = 0; s < hilos.length * porHilo; s++) {
+            assertEquals(s, anillo.leer(s).secuencia);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.beneficencia.almacen.evento;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class DespachadorEventosTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Registrador> registradores = new ArrayList<>();
+    private DespachadorEventos despachador;
+
+    @AfterEach
+    void detener() {
+        registradores.forEach(Registrador::liberar);
+        if (despachador != null) {
+            despachador.detener();
+        }
+    }
+
+    private DespachadorEventos iniciar(int capacidad, int loteMaximo, Registrador... consumidores) {
+        registradores.addAll(List.of(consumidores));
+        BusInvalidacion bus = mock(BusInvalidacion.class);
+        when(bus.getNodo()).thenReturn("prueba");
+
+        despachador = new DespachadorEventos();
+        ReflectionTestUtils.setField(despachador, "consumidores", List.<ConsumidorEventos>of(consumidores));
+        ReflectionTestUtils.setField(despachador, "bus", bus);
+        ReflectionTestUtils.setField(despachador, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(despachador, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(despachador, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(despachador, "environment", new MockEnvironment());
+        ReflectionTestUtils.setField(despachador, "entityManager", mock(EntityManager.class));
+        ReflectionTestUtils.setField(despachador, "capacidad", capacidad);
+        ReflectionTestUtils.setField(despachador, "loteMaximo", loteMaximo);
+        ReflectionTestUtils.setField(despachador, "esperaMaximaMs", 50L);
+        ReflectionTestUtils.setField(despachador, "esperaCierreMs", 2000L);
+        despachador.iniciar();
+        return despachador;
+    }
+
+    private static EventoInventario evento(int n) {
+        return new EventoInventario(EventoInventario.TipoEvento.STOCK_CAMBIADO, List.of(Map.of("n", n)));
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!condicion.getAsBoolean()) {
+            if (System.currentTimeMillis() > limite) fail("La condición no se cumplió a tiempo");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void losLotesNoSuperanElMaximoYJuntanLoQueSeAcumulo() throws Exception {
+        Registrador consumidor = new Registrador("indice", PoliticaPresion.BLOQUEAR, false).detenerEnElPrimerLote();
+        iniciar(64, 4, consumidor);
+
+        despachador.alPublicar(evento(0));
+        consumidor.entro.await(5, TimeUnit.SECONDS);
+        for (int i = 1; i <= 10; i++) {
+            despachador.alPublicar(evento(i));
+        }
+        consumidor.liberar();
+        esperarHasta(() -> consumidor.recibidos().size() == 11);
+
+        assertEquals(List.of(1, 4, 4, 2), consumidor.tamanosDeLote());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10), consumidor.recibidos());
+    }
+
+    @Test
+    void unConsumidorQueBloqueaFrenaALosProductoresYSeRechazaLoQueNoEntra() throws Exception {
+        Registrador consumidor = new Registrador("indice", PoliticaPresion.BLOQUEAR, false).detenerEnElPrimerLote();
+        iniciar(4, 16, consumidor);
+
+        despachador.alPublicar(evento(0));
+        consumidor.entro.await(5, TimeUnit.SECONDS);
+        for (int i = 1; i <= 6; i++) {
+            despachador.alPublicar(evento(i));
+        }
+
+        Map<String, Object> resumen = despachador.resumen();
+        assertEquals(3L, resumen.get("rechazados"));
+        assertTrue((long) resumen.get("esperasProductor") >= 3);
+
+        consumidor.liberar();
+        esperarHasta(() -> consumidor.recibidos().size() == 4);
+        // Una vez libre, el anillo da la vuelta sin pisar nada
+        for (int i = 7; i <= 12; i++) {
+            despachador.alPublicar(evento(i));
+        }
+        esperarHasta(() -> consumidor.recibidos().size() == 10);
+        assertEquals(List.of(0, 1, 2, 3, 7, 8, 9, 10, 11, 12), consumidor.recibidos());
+    }
+
+    @Test
+    void unConsumidorQueDescartaPierdeLoPisadoYSeLeAvisaParaResincronizar() throws Exception {
+        Registrador lento = new Registrador("sse", PoliticaPresion.DESCARTAR, false).detenerEnElPrimerLote();
+        Registrador rapido = new Registrador("indice", PoliticaPresion.BLOQUEAR, false);
+        iniciar(8, 64, lento, rapido);
+
+        despachador.alPublicar(evento(0));
+        lento.entro.await(5, TimeUnit.SECONDS);
+        for (int i = 1; i < 40; i++) {
+            despachador.alPublicar(evento(i));
+            // El consumidor que bloquea va al día; el lento no frena a nadie
+            int publicado = i;
+            esperarHasta(() -> rapido.recibidos().size() == publicado + 1);
+        }
+        assertEquals(0L, despachador.resumen().get("rechazados"));
+
+        lento.liberar();
+        esperarHasta(() -> lento.perdidos.get() > 0 && lento.recibidos().size() == 9);
+
+        assertEquals(31, lento.perdidos.get());
+        assertEquals(List.of(0, 32, 33, 34, 35, 36, 37, 38, 39), lento.recibidos());
+        assertEquals(40, rapido.recibidos().size());
+    }
+
+    @Test
+    void losEventosDeUnaTransaccionRevertidaSeDescartan() throws Exception {
+        Registrador consumidor = new Registrador("indice", PoliticaPresion.BLOQUEAR, false);
+        iniciar(64, 16, consumidor);
+
+        dentroDeTransaccion(TransactionSynchronization.STATUS_ROLLED_BACK, evento(1), evento(2));
+        despachador.alPublicar(evento(3));
+
+        esperarHasta(() -> !consumidor.recibidos().isEmpty());
+        Thread.sleep(100);
+        assertEquals(List.of(3), consumidor.recibidos());
+    }
+
+    @Test
+    void losEventosDeUnaTransaccionSeEntreganRecienAlConfirmarse() throws Exception {
+        Registrador consumidor = new Registrador("indice", PoliticaPresion.BLOQUEAR, false);
+        iniciar(64, 16, consumidor);
+
+        dentroDeTransaccion(TransactionSynchronization.STATUS_COMMITTED, evento(1), evento(2));
+
+        esperarHasta(() -> consumidor.recibidos().size() == 2);
+        assertEquals(List.of(1, 2), consumidor.recibidos());
+    }
+
+    /** Publica dentro de una transacción simulada y verifica que nada salga antes de que termine. */
+    private void dentroDeTransaccion(int estado, EventoInventario... eventos) throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            for (EventoInventario evento : eventos) {
+                despachador.alPublicar(evento);
+            }
+            Thread.sleep(150);
+            assertEquals(0L, despachador.resumen().get("publicados"));
+            for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+                sincronizacion.afterCompletion(estado);
+            }
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void laBandejaSeBorraSoloCuandoTodosLosDuraderosTerminaron() throws Exception {
+        Registrador replica = new Registrador("replica", PoliticaPresion.BLOQUEAR, true);
+        Registrador auditoria = new Registrador("auditoria", PoliticaPresion.DESCARTAR, true).detenerEnElPrimerLote();
+        iniciar(64, 16, replica, auditoria);
+
+        ReflectionTestUtils.invokeMethod(despachador, "encolar", evento(1), 7L, false);
+        auditoria.entro.await(5, TimeUnit.SECONDS);
+        esperarHasta(() -> replica.recibidos().size() == 1);
+
+        Thread.sleep(300);
+        verifyNoInteractions(jdbcTemplate);
+
+        auditoria.liberar();
+        verify(jdbcTemplate, timeout(5000)).update(startsWith("DELETE FROM eventos_pendientes"), eq(7L));
+    }
+
+    @Test
+    void siUnDuraderoFallaLaFilaQuedaEnLaBandeja() throws Exception {
+        Registrador replica = new Registrador("replica", PoliticaPresion.BLOQUEAR, true);
+        Registrador auditoria = new Registrador("auditoria", PoliticaPresion.BLOQUEAR, true).fallar();
+        iniciar(64, 16, replica, auditoria);
+
+        ReflectionTestUtils.invokeMethod(despachador, "encolar", evento(1), 7L, false);
+        ReflectionTestUtils.invokeMethod(despachador, "encolar", evento(2), null, false);
+        esperarHasta(() -> replica.recibidos().size() == 2 && auditoria.intentos.get() > 0);
+
+        Thread.sleep(300);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void losReenviosSoloLleganALosDuraderos() throws Exception {
+        Registrador duradero = new Registrador("replica", PoliticaPresion.BLOQUEAR, true);
+        Registrador comun = new Registrador("sse", PoliticaPresion.BLOQUEAR, false);
+        iniciar(64, 16, duradero, comun);
+
+        ReflectionTestUtils.invokeMethod(despachador, "encolar", evento(1), 9L, true);
+        despachador.alPublicar(evento(2));
+
+        esperarHasta(() -> duradero.recibidos().size() == 2 && comun.recibidos().size() == 1);
+        assertEquals(List.of(2), comun.recibidos());
+        verify(jdbcTemplate, timeout(5000)).update(startsWith("DELETE FROM eventos_pendientes"), eq(9L));
+    }
+
+    private static final class Registrador implements ConsumidorEventos {
+        private final String nombre;
+        private final PoliticaPresion politica;
+        private final boolean duradero;
+        private final List<List<Integer>> lotes = new ArrayList<>();
+        private final AtomicLong perdidos = new AtomicLong();
+        private final AtomicLong intentos = new AtomicLong();
+        private final CountDownLatch entro = new CountDownLatch(1);
+        private CountDownLatch retener = new CountDownLatch(0);
+        private boolean falla;
+
+        private Registrador(String nombre, PoliticaPresion politica, boolean duradero) {
+            this.nombre = nombre;
+            this.politica = politica;
+            this.duradero = duradero;
+        }
+
+        private Registrador detenerEnElPrimerLote() {
+            retener = new CountDownLatch(1);
+            return this;
+        }
+
+        private Registrador fallar() {
+            falla = true;
+            return this;
+        }
+
+        private void liberar() {
+            retener.countDown();
+        }
+
+        @Override
+        public String getNombreConsumidor() { return nombre; }
+
+        @Override
+        public PoliticaPresion getPolitica() { return politica; }
+
+        @Override
+        public boolean esDuradero() { return duradero; }
+
+        @Override
+        public void procesar(List<EventoInventario> lote) {
+            intentos.incrementAndGet();
+            entro.countDown();
+            try {
+                retener.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (falla) {
+                throw new IllegalStateException("falla de prueba");
+            }
+            List<Integer> numeros = lote.stream().map(e -> (Integer) e.getFilas().get(0).get("n")).toList();
+            synchronized (lotes) {
+                lotes.add(numeros);
+            }
+        }
+
+        @Override
+        public void alPerderEventos(long cantidad) {
+            perdidos.addAndGet(cantidad);
+        }
+
+        private List<Integer> recibidos() {
+            synchronized (lotes) {
+                return lotes.stream().flatMap(List::stream).toList();
+            }
+        }
+
+        private List<Integer> tamanosDeLote() {
+            synchronized (lotes) {
+                return lotes.stream().map(List::size).toList();
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.beneficencia.almacen.pdf;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.parser.LocationTextExtractionStrategy;
+import com.itextpdf.text.pdf.parser.PdfReaderContentParser;
+import com.itextpdf.text.pdf.parser.TextRenderInfo;
+import com.itextpdf.text.pdf.parser.Vector;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TablaPdf tiene que dejar cada letra donde la deja iText con PdfPCell y Phrase:
+ * se arma el mismo reporte de las dos formas y se comparan las posiciones del
+ * texto extraído, página por página.
+ */
+class TablaPdfTest {
+
+    private static final float TOLERANCIA = 0.05f;
+
+    private static final ColumnaPdf[] COLUMNAS = {
+            ColumnaPdf.texto("Nombre Producto", 35f),
+            ColumnaPdf.centrada("Código", 15f),
+            ColumnaPdf.derecha("Cantidad", 15f),
+            ColumnaPdf.centrada("Grupo", 15f),
+            ColumnaPdf.centrada("Estado", 20f)
+    };
+
+    private static final EstiloCelda ESTADO = EstiloCelda.CENTRADO.conFuente(EstilosPdf.NEGRITA_PEQUENA)
+            .conFondo(EstilosPdf.VERDE_SUAVE);
+
+    /** Una letra extraída del PDF con su página y el inicio de su línea base. */
+    private record Letra(int pagina, String texto, float x, float y) {}
+
+    /** Guarda cada letra con su posición además del texto que arma la estrategia. */
+    private static final class ConPosiciones extends LocationTextExtractionStrategy {
+        private final int pagina;
+        private final List<Letra> letras;
+
+        ConPosiciones(int pagina, List<Letra> letras) {
+            this.pagina = pagina;
+            this.letras = letras;
+        }
+
+        @Override
+        public void renderText(TextRenderInfo info) {
+            super.renderText(info);
+            for (TextRenderInfo letra : info.getCharacterRenderInfos()) {
+                if (letra.getText().isBlank()) continue;
+                Vector inicio = letra.getBaseline().getStartPoint();
+                letras.add(new Letra(pagina, letra.getText(), inicio.get(Vector.I1), inicio.get(Vector.I2)));
+            }
+        }
+    }
+
+    private record Extraccion(List<String> textos, List<Letra> letras) {}
+
+    private static String[] fila(int i) {
+        String nombre = "Producto " + i;
+        if (i % 17 == 0) {
+            // No entra en una línea de la columna: iText lo parte en varias
+            nombre = "Producto de nombre muy largo número " + i + " con presentación de doce unidades";
+        } else if (i % 23 == 0) {
+            nombre = "Producto " + i + "\nsegunda línea";
+        }
+        return new String[]{nombre, i % 11 == 0 ? "" : "P" + i, String.valueOf(i % 500), "Grupo " + i % 20,
+                i % 3 == 0 ? "STOCK BAJO" : "NORMAL"};
+    }
+
+    private static byte[] conTablaPdf(int filas) throws DocumentException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        Document documento = new Document();
+        PdfWriter.getInstance(documento, salida);
+        documento.open();
+        TablaPdf tabla = new TablaPdf(documento, COLUMNAS);
+        for (int i = 0; i < filas; i++) {
+            String[] valores = fila(i);
+            for (int c = 0; c < 4; c++) {
+                tabla.celda(valores[c]);
+            }
+            tabla.celda(valores[4], ESTADO);
+        }
+        tabla.terminar();
+        documento.close();
+        return salida.toByteArray();
+    }
+
+    /** El mismo reporte con una PdfPCell y una Phrase por celda y la tabla entera de una vez. */
+    private static byte[] conCeldasSueltas(int filas) throws DocumentException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        Document documento = new Document();
+        PdfWriter.getInstance(documento, salida);
+        documento.open();
+        PdfPTable tabla = new PdfPTable(COLUMNAS.length);
+        tabla.setWidthPercentage(100);
+        tabla.setWidths(new float[]{35f, 15f, 15f, 15f, 20f});
+        for (ColumnaPdf columna : COLUMNAS) {
+            tabla.addCell(celda(columna.titulo(), EstiloCelda.ENCABEZADO));
+        }
+        tabla.setHeaderRows(1);
+        for (int i = 0; i < filas; i++) {
+            String[] valores = fila(i);
+            for (int c = 0; c < 4; c++) {
+                tabla.addCell(celda(valores[c], COLUMNAS[c].estilo()));
+            }
+            tabla.addCell(celda(valores[4], ESTADO));
+        }
+        documento.add(tabla);
+        documento.close();
+        return salida.toByteArray();
+    }
+
+    private static PdfPCell celda(String texto, EstiloCelda estilo) {
+        PdfPCell celda = estilo.plantilla();
+        celda.setPhrase(new Phrase(texto, estilo.getFuente()));
+        return celda;
+    }
+
+    private static Extraccion extraer(byte[] pdf) throws IOException {
+        PdfReader lector = new PdfReader(pdf);
+        try {
+            PdfReaderContentParser parser = new PdfReaderContentParser(lector);
+            List<String> textos = new ArrayList<>();
+            List<Letra> letras = new ArrayList<>();
+            for (int pagina = 1; pagina <= lector.getNumberOfPages(); pagina++) {
+                textos.add(parser.processContent(pagina, new ConPosiciones(pagina, letras)).getResultantText());
+            }
+            // El orden en que se dibujan las celdas puede cambiar; lo que importa es dónde queda cada letra
+            letras.sort(Comparator.comparingInt(Letra::pagina)
+                    .thenComparing(Letra::y, Comparator.reverseOrder())
+                    .thenComparing(Letra::x));
+            return new Extraccion(textos, letras);
+        } finally {
+            lector.close();
+        }
+    }
+
+    private static void assertMismaDisposicion(Extraccion esperada, Extraccion obtenida) {
+        assertEquals(esperada.textos().size(), obtenida.textos().size(), "páginas");
+        for (int i = 0; i < esperada.textos().size(); i++) {
+            assertEquals(esperada.textos().get(i), obtenida.textos().get(i), "texto de la página " + (i + 1));
+        }
+        assertEquals(esperada.letras().size(), obtenida.letras().size(), "letras");
+        for (int i = 0; i < esperada.letras().size(); i++) {
+            Letra e = esperada.letras().get(i);
+            Letra o = obtenida.letras().get(i);
+            String donde = "letra " + i + " de la página " + e.pagina() + ": esperada " + e + ", obtenida " + o;
+            assertEquals(e.pagina(), o.pagina(), donde);
+            assertEquals(e.texto(), o.texto(), donde);
+            assertEquals(e.x(), o.x(), TOLERANCIA, donde);
+            assertEquals(e.y(), o.y(), TOLERANCIA, donde);
+        }
+    }
+
+    @Test
+    void dejaElTextoDondeLoDejanLasCeldasDeITextConSaltosDePagina() throws Exception {
+        // Más filas que FILAS_POR_ENVIO para que haya varios envíos y varias páginas
+        int filas = TablaPdf.FILAS_POR_ENVIO * 2 + 37;
+
+        Extraccion esperada = extraer(conCeldasSueltas(filas));
+        Extraccion obtenida = extraer(conTablaPdf(filas));
+
+        assertTrue(esperada.textos().size() > 5, "el reporte tiene que ocupar varias páginas");
+        assertTrue(esperada.textos().get(1).contains("Nombre Producto"), "el encabezado se repite en cada página");
+        assertTrue(esperada.textos().stream().anyMatch(t -> t.contains("\ndoce unidades")),
+                "hay celdas que ocupan varias líneas");
+        assertMismaDisposicion(esperada, obtenida);
+    }
+
+    @Test
+    void unaFilaQueNoEntraAlPieDeLaPaginaPasaEnteraALaSiguiente() throws Exception {
+        // Filas altas cerca del final de la página: prueba el corte con celdas de varias líneas
+        for (int filas = 28; filas <= 40; filas += 3) {
+            assertMismaDisposicion(extraer(conCeldasSueltas(filas)), extraer(conTablaPdf(filas)));
+        }
+    }
+}
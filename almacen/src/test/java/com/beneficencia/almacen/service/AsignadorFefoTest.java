@@ -0,0 +1,152 @@
+package com.beneficencia.almacen.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsignadorFefoTest {
+
+    private static final long PRODUCTO = 1L;
+    private static final LocalDate HOY = LocalDate.of(2026, 1, 10);
+
+    private static AsignadorFefo conLotes(AsignadorFefo.LoteDisponible... lotes) {
+        AsignadorFefo asignador = new AsignadorFefo();
+        asignador.cargar(PRODUCTO, List.of(lotes));
+        return asignador;
+    }
+
+    private static AsignadorFefo.LoteDisponible lote(long id, LocalDate vencimiento, int cantidad) {
+        return new AsignadorFefo.LoteDisponible(id, vencimiento, cantidad);
+    }
+
+    @Test
+    void asignaPrimeroLoQueVencePrimeroYLosLotesSinVencimientoAlFinal() {
+        AsignadorFefo asignador = conLotes(
+                lote(10, null, 5),
+                lote(11, HOY.plusDays(30), 4),
+                lote(12, HOY.plusDays(5), 3),
+                lote(13, HOY.plusDays(30), 2));
+
+        List<AsignadorFefo.Asignacion> asignaciones = asignador.asignar(PRODUCTO, 12);
+
+        assertEquals(List.of(12L, 11L, 13L, 10L), asignaciones.stream().map(AsignadorFefo.Asignacion::getLoteId).toList());
+        assertEquals(List.of(3, 4, 2, 3), asignaciones.stream().map(AsignadorFefo.Asignacion::getCantidad).toList());
+        assertEquals(2, asignador.disponible(PRODUCTO));
+        assertEquals(List.of(10L), asignador.verLotes(PRODUCTO).stream().map(AsignadorFefo.LoteDisponible::getLoteId).toList());
+    }
+
+    @Test
+    void noTocaNadaSiLosLotesNoAlcanzan() {
+        AsignadorFefo asignador = conLotes(lote(1, HOY, 3), lote(2, HOY.plusDays(1), 3));
+
+        assertThrows(IllegalStateException.class, () -> asignador.asignar(PRODUCTO, 7));
+
+        assertEquals(6, asignador.disponible(PRODUCTO));
+        assertEquals(3, asignador.verLotes(PRODUCTO).get(0).getCantidad());
+    }
+
+    @Test
+    void devolverReabreUnLoteAgotadoEnSuLugarFefo() {
+        AsignadorFefo asignador = conLotes(lote(1, HOY, 2), lote(2, HOY.plusDays(10), 5));
+        asignador.asignar(PRODUCTO, 2);
+
+        asignador.devolver(PRODUCTO, 1, HOY, 2);
+
+        List<AsignadorFefo.Asignacion> siguiente = asignador.asignar(PRODUCTO, 1);
+        assertEquals(1L, siguiente.get(0).getLoteId());
+        assertEquals(6, asignador.disponible(PRODUCTO));
+    }
+
+    @Test
+    void alRevertirseLaTransaccionLaColaSeDescartaParaLeerDeLaBase() {
+        AsignadorFefo asignador = conLotes(lote(1, HOY, 10));
+        Object transaccion = new Object();
+
+        assertTrue(asignador.tomar(PRODUCTO, transaccion, 1000));
+        assertFalse(asignador.tomar(PRODUCTO, transaccion, 1000));
+        asignador.asignar(PRODUCTO, 4);
+        assertTrue(asignador.enUso(PRODUCTO));
+
+        asignador.revertir(PRODUCTO, transaccion);
+
+        assertFalse(asignador.estaCargado(PRODUCTO));
+        assertFalse(asignador.enUso(PRODUCTO));
+    }
+
+    @Test
+    void alConfirmarseLaTransaccionSusCambiosQuedan() {
+        AsignadorFefo asignador = conLotes(lote(1, HOY, 10));
+        Object transaccion = new Object();
+        asignador.tomar(PRODUCTO, transaccion, 1000);
+        asignador.asignar(PRODUCTO, 4);
+
+        asignador.soltar(PRODUCTO, transaccion);
+
+        assertFalse(asignador.enUso(PRODUCTO));
+        assertEquals(6, asignador.disponible(PRODUCTO));
+    }
+
+    @Test
+    void otraTransaccionEsperaHastaQueLaColaSeSuelte() throws Exception {
+        AsignadorFefo asignador = conLotes(lote(1, HOY, 10));
+        Object primera = new Object();
+        Object segunda = new Object();
+        asignador.tomar(PRODUCTO, primera, 1000);
+        asignador.asignar(PRODUCTO, 4);
+
+        CompletableFuture<Long> disponibleAlTomar = CompletableFuture.supplyAsync(() -> {
+            asignador.tomar(PRODUCTO, segunda, 10_000);
+            return asignador.disponible(PRODUCTO);
+        });
+        Thread.sleep(100);
+        assertFalse(disponibleAlTomar.isDone());
+
+        asignador.soltar(PRODUCTO, primera);
+
+        assertEquals(6L, disponibleAlTomar.get(5, TimeUnit.SECONDS));
+        assertTrue(asignador.enUso(PRODUCTO));
+    }
+
+    @Test
+    void siLaColaNoSeSueltaATiempoSeDescartaYSeTomaIgual() {
+        AsignadorFefo asignador = conLotes(lote(1, HOY, 10));
+        Object colgada = new Object();
+        Object siguiente = new Object();
+        asignador.tomar(PRODUCTO, colgada, 1000);
+        asignador.asignar(PRODUCTO, 4);
+
+        assertTrue(asignador.tomar(PRODUCTO, siguiente, 50));
+        assertFalse(asignador.estaCargado(PRODUCTO));
+
+        // El aviso tardío de la primera ya no suelta ni descarta la cola de la segunda
+        asignador.cargar(PRODUCTO, List.of(lote(1, HOY, 6)));
+        asignador.revertir(PRODUCTO, colgada);
+        assertTrue(asignador.estaCargado(PRODUCTO));
+        assertTrue(asignador.enUso(PRODUCTO));
+    }
+
+    @Test
+    void conciliarDescuentaElExcesoDeLosLotesQueVencenPrimero() {
+        AsignadorFefo asignador = conLotes(lote(1, HOY.plusDays(20), 5), lote(2, HOY, 3), lote(3, HOY.plusDays(2), 4));
+
+        List<AsignadorFefo.Asignacion> ajuste = asignador.descontarExceso(PRODUCTO, 7);
+
+        assertEquals(List.of(2L, 3L), ajuste.stream().map(AsignadorFefo.Asignacion::getLoteId).toList());
+        assertEquals(List.of(3, 2), ajuste.stream().map(AsignadorFefo.Asignacion::getCantidad).toList());
+        assertEquals(7, asignador.disponible(PRODUCTO));
+    }
+
+    @Test
+    void conciliarNoCambiaNadaSiLosLotesNoSuperanElStock() {
+        AsignadorFefo asignador = conLotes(lote(1, HOY, 5));
+
+        assertTrue(asignador.descontarExceso(PRODUCTO, 5).isEmpty());
+        assertTrue(asignador.descontarExceso(PRODUCTO, 8).isEmpty());
+        assertEquals(5, asignador.disponible(PRODUCTO));
+    }
+}
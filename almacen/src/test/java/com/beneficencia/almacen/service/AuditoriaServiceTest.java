@@ -0,0 +1,93 @@
+package com.beneficencia.almacen.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditoriaServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Long> guardados = new ArrayList<>();
+    private AuditoriaService auditoria;
+    private boolean baseCaida;
+
+    @BeforeEach
+    void preparar() {
+        auditoria = new AuditoriaService();
+        ReflectionTestUtils.setField(auditoria, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(auditoria, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(auditoria, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(auditoria, "tamanoLote", 8);
+        ReflectionTestUtils.setField(auditoria, "maximoEnCola", 1000);
+
+        // Cada cambio ocupa 7 parámetros y su entidad_id es el quinto; la acción "MALA" viola una restricción
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocacion -> {
+            if (baseCaida) throw new QueryTimeoutException("sin conexión");
+            Object[] parametros = Arrays.copyOfRange(invocacion.getArguments(), 1, invocacion.getArguments().length);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < parametros.length; i += 7) {
+                if ("MALA".equals(parametros[i + 2])) throw new DataIntegrityViolationException("accion inválida");
+                ids.add((Long) parametros[i + 4]);
+            }
+            guardados.addAll(ids);
+            return ids.size();
+        });
+    }
+
+    private void registrar(long id, String accion) {
+        auditoria.registrar(new AuditoriaService.Cambio(LocalDateTime.now(), "admin", accion, "Producto", id,
+                "prueba", Map.of()));
+    }
+
+    @Test
+    void unCambioInvalidoSeDescartaYElRestoDelLoteSeGuarda() {
+        for (long id = 1; id <= 10; id++) {
+            registrar(id, id == 3 || id == 6 ? "MALA" : "UPDATE");
+        }
+
+        auditoria.persistir();
+
+        assertEquals(List.of(1L, 2L, 4L, 5L, 7L, 8L, 9L, 10L), guardados);
+        Map<String, Object> resumen = auditoria.resumen();
+        assertEquals(0, resumen.get("enCola"));
+        assertEquals(8L, resumen.get("escritos"));
+        assertEquals(2L, resumen.get("invalidos"));
+    }
+
+    @Test
+    void unErrorDeConexionDejaElLoteEnColaParaReintentar() {
+        for (long id = 1; id <= 5; id++) {
+            registrar(id, "UPDATE");
+        }
+        baseCaida = true;
+
+        auditoria.persistir();
+
+        assertTrue(guardados.isEmpty());
+        assertEquals(5, auditoria.resumen().get("enCola"));
+        assertEquals(0L, auditoria.resumen().get("invalidos"));
+
+        baseCaida = false;
+        auditoria.persistir();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), guardados);
+        assertEquals(0, auditoria.resumen().get("enCola"));
+    }
+}
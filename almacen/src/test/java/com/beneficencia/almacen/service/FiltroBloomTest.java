@@ -0,0 +1,70 @@
+package com.beneficencia.almacen.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroBloomTest {
+
+    private static final int CLAVES = 100_000;
+
+    private static String dni(int i) {
+        return String.format("%08d", i);
+    }
+
+    @Test
+    void nuncaDescartaUnaClaveAgregada() {
+        FiltroBloom filtro = new FiltroBloom(CLAVES, 0.01);
+        for (int i = 0; i < CLAVES; i++) {
+            filtro.agregar(dni(i * 7));
+        }
+
+        for (int i = 0; i < CLAVES; i++) {
+            assertTrue(filtro.puedeContener(dni(i * 7)), "falso negativo para " + dni(i * 7));
+        }
+    }
+
+    @Test
+    void laTasaObservadaDeFalsosPositivosSeAcercaALaConfigurada() {
+        for (double tasa : new double[]{0.01, 0.001}) {
+            FiltroBloom filtro = new FiltroBloom(CLAVES, tasa);
+            for (int i = 0; i < CLAVES; i++) {
+                filtro.agregar(dni(i));
+            }
+
+            int pruebas = 1_000_000;
+            int falsosPositivos = 0;
+            for (int i = 0; i < pruebas; i++) {
+                if (filtro.puedeContener(dni(50_000_000 + i))) {
+                    falsosPositivos++;
+                }
+            }
+
+            double observada = (double) falsosPositivos / pruebas;
+            assertTrue(observada > tasa / 2 && observada < tasa * 1.5,
+                    "tasa observada " + observada + " para una configurada de " + tasa);
+            assertEquals(tasa, filtro.tasaFalsosPositivosEstimada(), tasa / 2);
+        }
+    }
+
+    @Test
+    void alDobleDeSuCapacidadLaTasaSube() {
+        FiltroBloom filtro = new FiltroBloom(CLAVES, 0.01);
+        for (int i = 0; i < 2 * CLAVES; i++) {
+            filtro.agregar(dni(i));
+        }
+
+        assertTrue(filtro.tasaFalsosPositivosEstimada() > 0.05);
+        for (int i = 0; i < 2 * CLAVES; i++) {
+            assertTrue(filtro.puedeContener(dni(i)));
+        }
+    }
+
+    @Test
+    void lasClavesQueLaBaseConsideraIgualesCaenEnLosMismosBits() {
+        FiltroBloom filtro = new FiltroBloom(1000, 0.01);
+        filtro.agregar(FiltrosExistencia.normalizar("MED-Café"));
+
+        assertTrue(filtro.puedeContener(FiltrosExistencia.normalizar("med-cafe  ")));
+    }
+}
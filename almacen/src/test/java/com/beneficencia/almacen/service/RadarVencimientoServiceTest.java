@@ -0,0 +1,92 @@
+package com.beneficencia.almacen.service;
+
+import com.beneficencia.almacen.evento.EventoInventario;
+import com.beneficencia.almacen.evento.FilasInventario;
+import com.beneficencia.almacen.model.Lote;
+import com.beneficencia.almacen.model.Producto;
+import com.beneficencia.almacen.repository.LoteRepository;
+import com.beneficencia.almacen.repository.ProductoRepository;
+import com.beneficencia.almacen.repository.RegistroVencimientoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RadarVencimientoServiceTest {
+
+    private static final LocalDate VENCE = LocalDate.now().plusDays(10);
+
+    private final LoteRepository loteRepository = mock(LoteRepository.class);
+    private final RadarVencimientoService radar = new RadarVencimientoService();
+    private final Producto producto = new Producto();
+
+    @BeforeEach
+    void preparar() {
+        ReflectionTestUtils.setField(radar, "loteRepository", loteRepository);
+        ReflectionTestUtils.setField(radar, "productoRepository", mock(ProductoRepository.class));
+        ReflectionTestUtils.setField(radar, "registroVencimientoRepository", mock(RegistroVencimientoRepository.class));
+        ReflectionTestUtils.setField(radar, "loteService", mock(LoteService.class));
+        producto.setId(7L);
+        producto.setNombre("Arroz");
+        producto.setPrecioUnitario(BigDecimal.ONE);
+    }
+
+    private Lote lote(long id, int cantidad) {
+        Lote lote = new Lote();
+        lote.setId(id);
+        lote.setProducto(producto);
+        lote.setNumeroOA("OA-" + id);
+        lote.setFechaVencimiento(VENCE);
+        lote.setCantidadDisponible(cantidad);
+        return lote;
+    }
+
+    private static EventoInventario cambio(Lote lote) {
+        return EventoInventario.deFila(EventoInventario.TipoEvento.LOTE_CAMBIADO, FilasInventario.lote(lote));
+    }
+
+    private Map<Long, Integer> cantidadesPorLote() {
+        return radar.obtenerProximosAVencer(30, true).stream()
+                .collect(Collectors.toMap(fila -> (Long) fila.get("loteId"), fila -> (Integer) fila.get("cantidad")));
+    }
+
+    @Test
+    void losCambiosQueLleganDuranteLaRecargaNoSePierden() {
+        // La consulta lee los lotes y, antes de que el índice se reemplace, otro hilo confirma cambios
+        when(loteRepository.findDisponiblesConVencimiento()).thenAnswer(invocacion -> {
+            List<Lote> leidos = List.of(lote(1, 10), lote(2, 6));
+            Thread consumidor = new Thread(() -> {
+                radar.alConfirmarCambio(cambio(lote(1, 4)));
+                radar.alConfirmarCambio(cambio(lote(2, 0)));
+                radar.alConfirmarCambio(cambio(lote(3, 5)));
+            });
+            consumidor.start();
+            consumidor.join();
+            return leidos;
+        });
+
+        radar.cargar();
+
+        assertEquals(Map.of(1L, 4, 3L, 5), cantidadesPorLote());
+    }
+
+    @Test
+    void fueraDeUnaRecargaLosEventosSeAplicanDirecto() {
+        when(loteRepository.findDisponiblesConVencimiento()).thenReturn(List.of(lote(1, 10)));
+        radar.cargar();
+
+        radar.alConfirmarCambio(cambio(lote(1, 3)));
+        radar.alConfirmarCambio(cambio(lote(2, 8)));
+
+        assertEquals(Map.of(1L, 3, 2L, 8), cantidadesPorLote());
+    }
+}
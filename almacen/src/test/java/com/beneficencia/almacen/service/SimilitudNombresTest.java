@@ -0,0 +1,99 @@
+package com.beneficencia.almacen.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilitudNombresTest {
+
+    @Test
+    void jaroWinklerDaLosValoresDeReferencia() {
+        assertEquals(0.961, SimilitudNombres.jaroWinkler("martha", "marhta"), 0.001);
+        assertEquals(0.840, SimilitudNombres.jaroWinkler("dwayne", "duane"), 0.001);
+        assertEquals(0.813, SimilitudNombres.jaroWinkler("dixon", "dicksonx"), 0.001);
+    }
+
+    @Test
+    void jaroWinklerEnLosExtremos() {
+        assertEquals(1.0, SimilitudNombres.jaroWinkler("quispe", "quispe"));
+        assertEquals(0.0, SimilitudNombres.jaroWinkler("abc", "xyz"));
+        assertEquals(0.0, SimilitudNombres.jaroWinkler("", "rosa"));
+        assertEquals(SimilitudNombres.jaroWinkler("rosa flores", "rosa flroes"),
+                SimilitudNombres.jaroWinkler("rosa flroes", "rosa flores"), 1e-12);
+    }
+
+    @Test
+    void normalizarQuitaAcentosYSimbolosYOrdenaLasPalabras() {
+        assertEquals("jose maria nunez", SimilitudNombres.normalizarNombre("  José-María ", "NÚÑEZ"));
+        assertEquals("", SimilitudNombres.normalizarNombre(null, null));
+    }
+
+    @Test
+    void unNombrePartidoEnOtroLugarQuedaIgual() {
+        String altaAutomatica = SimilitudNombres.normalizarNombre("Juan", "Carlos Pérez");
+        String altaManual = SimilitudNombres.normalizarNombre("Juan Carlos", "Pérez");
+
+        assertEquals(altaManual, altaAutomatica);
+        assertEquals(1.0, SimilitudNombres.jaroWinkler(altaAutomatica, altaManual));
+        assertArrayEquals(SimilitudNombres.minhash(altaManual), SimilitudNombres.minhash(altaAutomatica));
+    }
+
+    @Test
+    void laFoneticaIgualaLasGrafiasQueSuenanIgualEnCastellano() {
+        assertEquals(SimilitudNombres.fonetica("vasquez"), SimilitudNombres.fonetica("basques"));
+        assertEquals(SimilitudNombres.fonetica("jimenez"), SimilitudNombres.fonetica("gimenez"));
+        assertEquals(SimilitudNombres.fonetica("llanos"), SimilitudNombres.fonetica("yanos"));
+        assertEquals(SimilitudNombres.fonetica("cesar"), SimilitudNombres.fonetica("sesar"));
+        assertEquals(SimilitudNombres.fonetica("hilda"), SimilitudNombres.fonetica("ilda"));
+        assertEquals(SimilitudNombres.fonetica("quispe"), SimilitudNombres.fonetica("kispe"));
+    }
+
+    @Test
+    void laFoneticaConservaLaPrimeraLetraYLasConsonantes() {
+        assertEquals("bsks", SimilitudNombres.fonetica("vasquez"));
+        assertEquals("flrs rs", SimilitudNombres.fonetica("rosa flores"));
+        assertNotEquals(SimilitudNombres.fonetica("rosa"), SimilitudNombres.fonetica("rita"));
+        assertEquals("", SimilitudNombres.fonetica(""));
+    }
+
+    @Test
+    void distanciaDniCuentaUnIntercambioDeVecinosComoUnSoloError() {
+        assertEquals(0, SimilitudNombres.distanciaDni("12345678", "12345678", 2));
+        assertEquals(1, SimilitudNombres.distanciaDni("12345678", "12345687", 2));
+        assertEquals(1, SimilitudNombres.distanciaDni("12345678", "21345678", 2));
+        assertEquals(2, SimilitudNombres.distanciaDni("12345678", "21345687", 2));
+    }
+
+    @Test
+    void distanciaDniConDigitosCambiadosSobrantesOFaltantes() {
+        assertEquals(1, SimilitudNombres.distanciaDni("12345678", "12345078", 2));
+        assertEquals(1, SimilitudNombres.distanciaDni("12345678", "1234567", 2));
+        assertEquals(1, SimilitudNombres.distanciaDni("1234567", "12345678", 2));
+        assertEquals(2, SimilitudNombres.distanciaDni("12345678", "02345670", 2));
+    }
+
+    @Test
+    void distanciaDniSeCortaEnElMaximo() {
+        assertEquals(3, SimilitudNombres.distanciaDni("12345678", "87654321", 2));
+        assertEquals(3, SimilitudNombres.distanciaDni("12345678", "12345", 2));
+        assertEquals(3, SimilitudNombres.distanciaDni("12345678", "21436587", 2));
+    }
+
+    @Test
+    void nombresConTrigramasParecidosCompartenPartesDeLaFirma() {
+        int[] a = SimilitudNombres.minhash(SimilitudNombres.normalizarNombre("Rosa Elena", "Quispe Mamani"));
+        int[] b = SimilitudNombres.minhash(SimilitudNombres.normalizarNombre("Rosa Elena", "Quispe Mamami"));
+        int[] c = SimilitudNombres.minhash(SimilitudNombres.normalizarNombre("Jorge", "Villanueva Torres"));
+
+        assertTrue(iguales(a, b) > iguales(a, c));
+        assertEquals(SimilitudNombres.CANTIDAD_MINHASH, a.length);
+    }
+
+    private static int iguales(int[] a, int[] b) {
+        int iguales = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) iguales++;
+        }
+        return iguales;
+    }
+}
@@ -0,0 +1,100 @@
+package com.beneficencia.almacen.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VentanaDeslizanteTest {
+
+    private static final long HOY = LocalDate.of(2026, 3, 1).toEpochDay();
+
+    @Test
+    void alPasarElDiaSoloSaleLaCubetaQueQuedaFueraDeLaVentana() {
+        VentanaDeslizante ventana = new VentanaDeslizante(3);
+        ventana.sumar(HOY, 1);
+        ventana.sumar(HOY + 1, 2);
+        ventana.sumar(HOY + 2, 4);
+
+        assertEquals(7, ventana.total(HOY + 2));
+        assertEquals(6, ventana.total(HOY + 3));
+        assertEquals(4, ventana.total(HOY + 4));
+        assertEquals(0, ventana.total(HOY + 5));
+    }
+
+    @Test
+    void unaCubetaReutilizadaNoArrastraLoDelDiaAnterior() {
+        VentanaDeslizante ventana = new VentanaDeslizante(2);
+        ventana.sumar(HOY, 5);
+
+        ventana.sumar(HOY + 2, 1);
+
+        assertEquals(1, ventana.total(HOY + 2));
+    }
+
+    @Test
+    void unSaltoMasLargoQueLaVentanaLaDejaVacia() {
+        VentanaDeslizante ventana = new VentanaDeslizante(30);
+        for (long dia = HOY; dia < HOY + 30; dia++) {
+            ventana.sumar(dia, 2);
+        }
+        assertEquals(60, ventana.total(HOY + 29));
+
+        assertEquals(0, ventana.total(HOY + 400));
+        ventana.sumar(HOY + 400, 1);
+        assertEquals(1, ventana.total(HOY + 400));
+    }
+
+    @Test
+    void loQueYaSalioDeLaVentanaSeIgnora() {
+        VentanaDeslizante ventana = new VentanaDeslizante(7);
+        ventana.sumar(HOY + 10, 1);
+
+        ventana.sumar(HOY + 3, 5);
+        ventana.sumar(HOY + 4, 2);
+
+        assertEquals(3, ventana.total(HOY + 10));
+    }
+
+    @Test
+    void losDescuentosNoDejanCubetasNegativas() {
+        VentanaDeslizante ventana = new VentanaDeslizante(5);
+        ventana.sumar(HOY, 2);
+        ventana.sumar(HOY + 1, 1);
+
+        ventana.sumar(HOY, -3);
+
+        assertEquals(1, ventana.total(HOY + 1));
+        ventana.sumar(HOY + 1, -1);
+        assertEquals(0, ventana.total(HOY + 1));
+    }
+
+    @Test
+    void intentarSumarRespetaElMaximoYVuelveAPermitirCuandoSaleUnDia() {
+        VentanaDeslizante ventana = new VentanaDeslizante(3);
+        assertTrue(ventana.intentarSumar(HOY, 2));
+        assertTrue(ventana.intentarSumar(HOY + 1, 2));
+        assertFalse(ventana.intentarSumar(HOY + 2, 2));
+        assertEquals(2, ventana.total(HOY + 2));
+
+        assertTrue(ventana.intentarSumar(HOY + 3, 2));
+        assertEquals(2, ventana.total(HOY + 3));
+    }
+
+    @Test
+    void unDescuentoLiberaElCupo() {
+        VentanaDeslizante ventana = new VentanaDeslizante(30);
+        assertTrue(ventana.intentarSumar(HOY, 1));
+        assertFalse(ventana.intentarSumar(HOY, 1));
+
+        ventana.sumar(HOY, -1);
+
+        assertTrue(ventana.intentarSumar(HOY, 1));
+    }
+
+    @Test
+    void rechazaUnaVentanaSinDias() {
+        assertThrows(IllegalArgumentException.class, () -> new VentanaDeslizante(0));
+    }
+}